@@ -26,7 +26,7 @@ import com.thoughtworks.xstream.annotations.XStreamImplicit;
 public class PageableBeanList<T extends Bean> extends Bean {
 
   /**
-   * The total count of beans in the underlying list
+   * The total count of beans in the underlying list; an estimate, if so asked, or -1 if not counted
    */
   @PipePropertyOrder(1.0)
   private int totalCount;
@@ -86,6 +86,17 @@ public class PageableBeanList<T extends Bean> extends Bean {
     return this.items;
   }
 
+  /**
+   * The cursor for the next page, when the page was fetched by cursor and more beans may follow; otherwise
+   * empty
+   */
+  @PipePropertyOrder(5.0)
+  private String next;
+
+  public String getNext() {
+    return this.next;
+  }
+
   /**
    * For future use in conditional GETs on lists for cache control
    */
@@ -111,16 +122,25 @@ public class PageableBeanList<T extends Bean> extends Bean {
   }
 
   public PageableBeanList(List<T> items1, int totalCount1, int start1, int end1, String sortBy1, String sortDirection1) {
-    this(items1, totalCount1, start1, end1, sortBy1, sortDirection1, new Date(), "");
+    this(items1, totalCount1, start1, end1, sortBy1, sortDirection1, "");
+  }
+
+  public PageableBeanList(List<T> items1, int totalCount1, int start1, int end1, String sortBy1, String sortDirection1, String next1) {
+    this(items1, totalCount1, start1, end1, sortBy1, sortDirection1, next1, new Date(), "");
   }
 
   public PageableBeanList(List<T> items1, int totalCount1, int start1, int end1, String sortBy1, String sortDirection1, Date lastModifed1, String tag1) {
+    this(items1, totalCount1, start1, end1, sortBy1, sortDirection1, "", lastModifed1, tag1);
+  }
+
+  public PageableBeanList(List<T> items1, int totalCount1, int start1, int end1, String sortBy1, String sortDirection1, String next1, Date lastModifed1, String tag1) {
     this.totalCount = totalCount1;
     this.start = start1;
     this.end = end1;
     this.sortBy = sortBy1;
     this.sortDirection = sortDirection1;
     this.items = new LinkedList<>(items1);
+    this.next = next1;
     this.lastModifed = lastModifed1;
     this.tag = tag1;
   }
@@ -137,6 +157,7 @@ public class PageableBeanList<T extends Bean> extends Bean {
         .appendSuper(super.equals(castOther))
         .append(getTotalCount(), castOther.getTotalCount())
         .append(getItems(), castOther.getItems())
+        .append(getNext(), castOther.getNext())
         .append(getLastModifed(), castOther.getLastModifed())
         .append(getTag(), castOther.getTag())
         .isEquals();
@@ -148,6 +169,7 @@ public class PageableBeanList<T extends Bean> extends Bean {
         .appendSuper(super.hashCode())
         .append(getTotalCount())
         .append(getItems())
+        .append(getNext())
         .append(getLastModifed())
         .append(getTag())
         .toHashCode();
@@ -159,6 +181,7 @@ public class PageableBeanList<T extends Bean> extends Bean {
         .appendSuper(super.toString())
         .append("totalCount", getTotalCount())
         .append("items", getItems())
+        .append("next", getNext())
         .append("lastModifed", getLastModifed())
         .append("tag", getTag())
         .toString();
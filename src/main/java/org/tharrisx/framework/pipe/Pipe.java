@@ -1,6 +1,8 @@
 package org.tharrisx.framework.pipe;
 
 import java.io.Reader;
+import java.io.Writer;
+import java.util.Iterator;
 
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
@@ -67,6 +69,19 @@ public class Pipe {
     return getCore().write(bean, pipeContext);
   }
 
+  /**
+   * Put beans into the pipe as a BeanList of them would be, and out to a character stream, one bean at a
+   * time, so they never all need to be in memory at once.
+   * NOTE: The Writer is flushed, but not closed.
+   * 
+   * @param beans Iterator<? extends Bean> The beans to marshal, read once
+   * @param sink Writer The stream to write to
+   * @throws PipeException if there is some type of failure thing
+   */
+  public void writeList(Iterator<? extends Bean> beans, Writer sink) throws PipeException {
+    getCore().writeList(beans, sink);
+  }
+
   /**
    * Pull a bean out of a pipe based on a String.
    * 
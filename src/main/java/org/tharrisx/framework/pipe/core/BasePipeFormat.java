@@ -3,9 +3,12 @@ package org.tharrisx.framework.pipe.core;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.Iterator;
+import java.util.LinkedList;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.tharrisx.framework.bean.Bean;
+import org.tharrisx.framework.bean.BeanList;
 import org.tharrisx.framework.pipe.PipeContext;
 import org.tharrisx.framework.pipe.PipeContextProtectionFactory;
 import org.tharrisx.framework.pipe.PipeFormat;
@@ -18,6 +21,10 @@ import com.thoughtworks.xstream.XStreamException;
 import com.thoughtworks.xstream.converters.reflection.FieldDictionary;
 import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
 import com.thoughtworks.xstream.converters.reflection.Sun14ReflectionProvider;
+import com.thoughtworks.xstream.io.ExtendedHierarchicalStreamWriterHelper;
+import com.thoughtworks.xstream.io.HierarchicalStreamDriver;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.mapper.Mapper;
 
 /**
  * Base class for a pipe format. An instance of this class carries its own cached, pre-configured XStream library
@@ -30,6 +37,8 @@ import com.thoughtworks.xstream.converters.reflection.Sun14ReflectionProvider;
 @SuppressWarnings("deprecation")
 abstract class BasePipeFormat implements PipeFormat {
 
+  private static final String BEAN_LIST_ITEMS = "items";
+
   private PipeContextProtectionFactory pipeContextProtectionFactory;
 
   protected PipeContextProtectionFactory getPipeContextProtectionMapFactory() {
@@ -52,6 +61,19 @@ abstract class BasePipeFormat implements PipeFormat {
     this.engine = arg;
   }
 
+  private HierarchicalStreamDriver driver = null;
+
+  /**
+   * @return HierarchicalStreamDriver the engine was made with, to write to a sink a node at a time
+   */
+  protected HierarchicalStreamDriver getDriver() {
+    return this.driver;
+  }
+
+  protected void setDriver(HierarchicalStreamDriver arg) {
+    this.driver = arg;
+  }
+
   protected BasePipeFormat(PipeContextProtectionFactory pipeContextProtectionMapFactory1) {
     super();
     if(Log.isEnteringEnabled(BasePipeFormat.class)) Log.entering(BasePipeFormat.class, Log.METHOD_NAME_CONSTRUCTOR, pipeContextProtectionMapFactory1);
@@ -68,8 +90,9 @@ abstract class BasePipeFormat implements PipeFormat {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "createPipeContextReflectionProvider");
     ReflectionProvider ret = null;
     try {
-      Sun14ReflectionProvider innerReflectionProvider = new Sun14ReflectionProvider(new FieldDictionary(getSorter()));
-      ret = new PipeContextReflectionProvider(innerReflectionProvider, getPipeContextProtectionMapFactory());
+      FieldDictionary fieldDictionary = new FieldDictionary(getSorter());
+      Sun14ReflectionProvider innerReflectionProvider = new Sun14ReflectionProvider(fieldDictionary);
+      ret = new PipeContextReflectionProvider(innerReflectionProvider, fieldDictionary, getPipeContextProtectionMapFactory());
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "createPipeContextReflectionProvider", ret);
@@ -91,6 +114,37 @@ abstract class BasePipeFormat implements PipeFormat {
     }
   }
 
+  /**
+   * Write the beans as a BeanList of them would be written, but marshalling each one as it is read from the
+   * iterator, so they never all need to be in memory at once. The beans are written as a BeanList's items
+   * are, in whatever pipe context they carry.
+   * 
+   * @param beans Iterator<? extends Bean>
+   * @param sink Writer
+   * @throws PipeException
+   */
+  public final void writeList(Iterator<? extends Bean> beans, Writer sink) throws PipeException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "writeList", beans, sink);
+    try {
+      Mapper mapper = getEngine().getMapper();
+      // unless BeanList's annotations were processed, its items are nested in a node of their own
+      boolean implicitItems = null != mapper.getImplicitCollectionDefForFieldName(BeanList.class, BEAN_LIST_ITEMS);
+      HierarchicalStreamWriter writer = getDriver().createWriter(sink);
+      ExtendedHierarchicalStreamWriterHelper.startNode(writer, mapper.serializedClass(BeanList.class), BeanList.class);
+      if(!implicitItems) ExtendedHierarchicalStreamWriterHelper.startNode(writer, mapper.serializedMember(BeanList.class, BEAN_LIST_ITEMS), LinkedList.class);
+      while(beans.hasNext()) {
+        getEngine().marshal(beans.next(), writer);
+      }
+      if(!implicitItems) writer.endNode();
+      writer.endNode();
+      writer.flush();
+    } catch(XStreamException e) {
+      throw new PipeException(e);
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "writeList");
+    }
+  }
+
   public final Bean read(Reader source) throws PipeException {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "read", source);
     Bean ret = null;
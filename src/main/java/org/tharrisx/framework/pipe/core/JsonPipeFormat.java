@@ -25,7 +25,8 @@ public class JsonPipeFormat extends BasePipeFormat {
           return text;
         }
       });
-      setEngine(new XStream(createPipeContextReflectionProvider(), new JettisonMappedXmlDriver(jettisonConfig)));
+      setDriver(new JettisonMappedXmlDriver(jettisonConfig));
+      setEngine(new XStream(createPipeContextReflectionProvider(), getDriver()));
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "createEngine");
     }
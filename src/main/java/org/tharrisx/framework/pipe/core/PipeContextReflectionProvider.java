@@ -1,6 +1,8 @@
 package org.tharrisx.framework.pipe.core;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Iterator;
 import java.util.Set;
 
 import javax.ws.rs.WebApplicationException;
@@ -12,7 +14,11 @@ import org.tharrisx.framework.pipe.PipeContextProtectionFactory;
 import org.tharrisx.framework.pipe.ProtectionType;
 import org.tharrisx.framework.pipe.codec.Codec;
 import org.tharrisx.util.log.Log;
+import org.tharrisx.util.reflect.BeanAccessor;
+import org.tharrisx.util.reflect.BeanAccessorRegistry;
 
+import com.thoughtworks.xstream.converters.reflection.FieldDictionary;
+import com.thoughtworks.xstream.converters.reflection.ObjectAccessException;
 import com.thoughtworks.xstream.converters.reflection.ReflectionProviderWrapper;
 import com.thoughtworks.xstream.converters.reflection.Sun14ReflectionProvider;
 
@@ -28,6 +34,9 @@ import com.thoughtworks.xstream.converters.reflection.Sun14ReflectionProvider;
  *       the defined Codec implementation class. 
  * </ul>
  * 
+ * Bean property values are read for marshalling through the BeanAccessorRegistry's compiled accessors,
+ * rather than XStream's per-field reflection. Writes still go through the wrapped provider.
+ * 
  * @author tharrisx
  * @version 1.0.0
  * @since 1.0.0
@@ -41,8 +50,20 @@ class PipeContextReflectionProvider extends ReflectionProviderWrapper {
     return this.pipeContextProtectionFactory;
   }
 
-  PipeContextReflectionProvider(final Sun14ReflectionProvider wrapped1, final PipeContextProtectionFactory pipeContextProtectionMapFactory1) {
+  private final FieldDictionary fieldDictionary;
+
+  /**
+   * The same FieldDictionary the wrapped provider uses, so bean properties are visited in the same order.
+   * 
+   * @return FieldDictionary
+   */
+  FieldDictionary getFieldDictionary() {
+    return this.fieldDictionary;
+  }
+
+  PipeContextReflectionProvider(final Sun14ReflectionProvider wrapped1, final FieldDictionary fieldDictionary1, final PipeContextProtectionFactory pipeContextProtectionMapFactory1) {
     super(wrapped1);
+    this.fieldDictionary = fieldDictionary1;
     this.pipeContextProtectionFactory = pipeContextProtectionMapFactory1;
     if(Log.isTraceEnabled(PipeContextReflectionProvider.class)) Log.entering(PipeContextReflectionProvider.class, Log.METHOD_NAME_CONSTRUCTOR, "Created.");
   }
@@ -118,13 +139,34 @@ class PipeContextReflectionProvider extends ReflectionProviderWrapper {
         getWrapped().visitSerializableFields(object, visitor);
       } else {
         PipeContext pipeContext = getPipeContext((Bean) object);
-        getWrapped().visitSerializableFields(object, new BeanVisitor(visitor, type, pipeContext, getPipeContextProtectionMapFactory()));
+        visitBeanFields(object, new BeanVisitor(visitor, type, pipeContext, getPipeContextProtectionMapFactory()));
       }
     } finally {
       //if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "visitSerializableFields");
     }
   }
 
+  /**
+   * Does what the wrapped provider's visitSerializableFields() does, but reads each value through a
+   * compiled BeanAccessor instead of Field.get().
+   * 
+   * @param bean Object
+   * @param visitor Visitor
+   */
+  private void visitBeanFields(final Object bean, final Visitor visitor) {
+    for(Iterator<?> iterator = getFieldDictionary().fieldsFor(bean.getClass()); iterator.hasNext();) {
+      Field field = (Field) iterator.next();
+      if(Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) continue;
+      BeanAccessor accessor = null;
+      try {
+        accessor = BeanAccessorRegistry.get().getAccessor(field.getDeclaringClass(), field.getName());
+      } catch(NoSuchFieldException e) {
+        throw new ObjectAccessException("Cannot access field " + field, e);
+      }
+      visitor.visit(field.getName(), field.getType(), field.getDeclaringClass(), accessor.get(bean));
+    }
+  }
+
   @SuppressWarnings({ "rawtypes", "unchecked" })
   // interfacing to non-generic library
   @Override
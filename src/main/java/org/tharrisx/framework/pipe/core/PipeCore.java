@@ -5,6 +5,8 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Iterator;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -125,6 +127,23 @@ public class PipeCore {
     }
   }
 
+  /**
+   * Put beans into the pipe as a BeanList of them would be, and out to a character stream, one bean at a
+   * time, so they never all need to be in memory at once. The sink is flushed but not closed.
+   * 
+   * @param beans Iterator<? extends Bean> The beans to marshal, read once
+   * @param sink Writer The stream to write to
+   * @throws PipeException if there is some type of failure thing
+   */
+  public void writeList(Iterator<? extends Bean> beans, Writer sink) throws PipeException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "writeList", beans, sink);
+    try {
+      ((BasePipeFormat) getPipeFormat()).writeList(beans, sink);
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "writeList");
+    }
+  }
+
   /**
    * Pull a bean out of a pipe based on a String.
    * 
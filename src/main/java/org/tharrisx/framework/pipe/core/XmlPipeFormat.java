@@ -16,7 +16,8 @@ public class XmlPipeFormat extends BasePipeFormat {
   protected void createEngine() {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "initializeEngine");
     try {
-      setEngine(new XStream(createPipeContextReflectionProvider(), new StaxDriver()));
+      setDriver(new StaxDriver());
+      setEngine(new XStream(createPipeContextReflectionProvider(), getDriver()));
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "initializeEngine");
     }
@@ -1,5 +1,6 @@
 package org.tharrisx.framework.rest;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -7,9 +8,15 @@ import org.apache.commons.lang.builder.ToStringBuilder;
 import org.tharrisx.framework.bean.BeanList;
 import org.tharrisx.framework.bean.PageableBeanList;
 import org.tharrisx.framework.rest.core.ServicesRegistry;
+import org.tharrisx.framework.store.AsyncBeanStore;
+import org.tharrisx.framework.store.BeanIterator;
 import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreCountStrategy;
+import org.tharrisx.framework.store.BeanStoreFactory;
 import org.tharrisx.framework.store.BeanStoreTransaction;
 import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.core.BeanStoreUnitOfWork;
+import org.tharrisx.framework.store.exception.BeanStoreException;
 import org.tharrisx.util.log.Log;
 
 /**
@@ -23,6 +30,10 @@ import org.tharrisx.util.log.Log;
  * 
  * This class links up the use of the BeanStore interface to the rest package.
  * 
+ * When the Services ask for a unit of work per request, every store call a behavior makes while serving a
+ * request shares one transaction. Outside a request, a behavior method can do the same by being called
+ * between BeanStoreUnitOfWork.open() and close(), including around a transaction of the caller's own.
+ * 
  * @author tharrisx
  * @since 1.0.0
  * @version 1.0.0
@@ -41,6 +52,15 @@ public class BeanBehavior<T extends StorableBean> {
     return this.beanType;
   }
 
+  /**
+   * For behaviors that want several store calls under way at once, or not to hold the request thread.
+   * 
+   * @return AsyncBeanStore<T>
+   */
+  public final AsyncBeanStore<T> getAsyncBeanStore() {
+    return ServicesRegistry.getServices().getBeanStoreFactory().getAsyncBeanStore(getBeanType());
+  }
+
   public BeanBehavior(final Class<T> beanType1) {
     if(Log.isEnteringEnabled(BeanBehavior.class)) Log.entering(BeanBehavior.class, Log.METHOD_NAME_CONSTRUCTOR, beanType1);
     try {
@@ -63,6 +83,22 @@ public class BeanBehavior<T extends StorableBean> {
     }
   }
 
+  /**
+   * Streams all beans of the type, rather than collecting them into a list first. The caller must close the
+   * iterator.
+   */
+  public BeanIterator<T> streamAllBeans() {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "streamAllBeans");
+    BeanIterator<T> ret = null;
+    try {
+      Map<String, String> propertyValues = new HashMap<>();
+      ret = getBeanStore().streamMatchingBeans(propertyValues);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "streamAllBeans", ret);
+    }
+  }
+
   public PageableBeanList<T> getBeans(int start, int end, String sortBy, String sortDirection) {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "getBeans", start, end);
     PageableBeanList<T> ret = null;
@@ -75,11 +111,57 @@ public class BeanBehavior<T extends StorableBean> {
     }
   }
 
+  public PageableBeanList<T> getBeans(int start, int end, String sortBy, String sortDirection, BeanStoreCountStrategy countStrategy) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "getBeans", start, end, countStrategy);
+    PageableBeanList<T> ret = null;
+    try {
+      Map<String, String> propertyValues = new HashMap<>();
+      ret = matchBeans(start, end, sortBy, sortDirection, propertyValues, countStrategy);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "getBeans", ret);
+    }
+  }
+
   public PageableBeanList<T> matchBeans(int start, int end, String sortBy, String sortDirection, Map<String, String> propertyValues) {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "matchBeans", start, end, sortBy, sortDirection, propertyValues);
     PageableBeanList<T> ret = null;
     try {
-      ret = getBeanStore().getPageOfMatchingBeans(start, end, sortBy, sortDirection, propertyValues);
+      ret = matchBeans(start, end, sortBy, sortDirection, propertyValues, null);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "matchBeans", ret);
+    }
+  }
+
+  public PageableBeanList<T> matchBeans(int start, int end, String sortBy, String sortDirection, Map<String, String> propertyValues, BeanStoreCountStrategy countStrategy) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "matchBeans", start, end, sortBy, sortDirection, propertyValues, countStrategy);
+    PageableBeanList<T> ret = null;
+    try {
+      ret = getBeanStore().getPageOfMatchingBeans(start, end, sortBy, sortDirection, propertyValues, countStrategy);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "matchBeans", ret);
+    }
+  }
+
+  public PageableBeanList<T> getBeans(String cursor, int pageSize, String sortBy, String sortDirection, BeanStoreCountStrategy countStrategy) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "getBeans", cursor, pageSize, countStrategy);
+    PageableBeanList<T> ret = null;
+    try {
+      Map<String, String> propertyValues = new HashMap<>();
+      ret = matchBeans(cursor, pageSize, sortBy, sortDirection, propertyValues, countStrategy);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "getBeans", ret);
+    }
+  }
+
+  public PageableBeanList<T> matchBeans(String cursor, int pageSize, String sortBy, String sortDirection, Map<String, String> propertyValues, BeanStoreCountStrategy countStrategy) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "matchBeans", cursor, pageSize, sortBy, sortDirection, propertyValues, countStrategy);
+    PageableBeanList<T> ret = null;
+    try {
+      ret = getBeanStore().getPageOfMatchingBeansAfter(cursor, pageSize, sortBy, sortDirection, propertyValues, countStrategy);
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "matchBeans", ret);
@@ -97,13 +179,67 @@ public class BeanBehavior<T extends StorableBean> {
     }
   }
 
+  public BeanList<T> getBeans(Collection<String> beanIds) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "getBeans", beanIds);
+    BeanList<T> ret = null;
+    try {
+      ret = getBeanStore().getBeans(beanIds);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "getBeans", ret);
+    }
+  }
+
+  /**
+   * Begin a transaction for a write, or join the thread's BeanStoreUnitOfWork if it has one open.
+   * 
+   * @param transactionName String
+   * @return BeanStoreTransaction
+   */
+  protected final BeanStoreTransaction beginTransaction(String transactionName) {
+    BeanStoreFactory beanStoreFactory = ServicesRegistry.getServices().getBeanStoreFactory();
+    BeanStoreTransaction ret = BeanStoreUnitOfWork.join(beanStoreFactory, getBeanType());
+    if(null == ret) ret = beanStoreFactory.beginTransaction(getBeanType(), transactionName);
+    return ret;
+  }
+
+  /**
+   * End a transaction from beginTransaction(), unless it is the unit of work's, which ends when that closes.
+   * 
+   * @param transaction BeanStoreTransaction
+   */
+  protected final void endTransaction(BeanStoreTransaction transaction) {
+    if(!BeanStoreUnitOfWork.isJoined(transaction)) {
+      ServicesRegistry.getServices().getBeanStoreFactory().endTransaction(getBeanType(), transaction);
+    }
+  }
+
+  /**
+   * Roll back a transaction from beginTransaction() after a failed write, ending it unless it is the unit of
+   * work's, which is instead marked to roll back when that closes.
+   * 
+   * @param transaction BeanStoreTransaction
+   */
+  protected final void rollBackTransaction(BeanStoreTransaction transaction) {
+    if(BeanStoreUnitOfWork.isJoined(transaction)) {
+      BeanStoreUnitOfWork.setRollbackOnly();
+      return;
+    }
+    transaction.setRollbackOnly();
+    try {
+      ServicesRegistry.getServices().getBeanStoreFactory().endTransaction(getBeanType(), transaction);
+    } catch(BeanStoreException e) {
+      Log.error(getClass(), "rollBackTransaction", "Ending the failed transaction failed too.", e);
+    }
+  }
+
   public T postBean(T bean) {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "postBean", bean);
     T ret = null;
     try {
-      BeanStoreTransaction transaction = ServicesRegistry.getServices().getBeanStoreFactory().beginTransaction(getBeanType(), "postBean");
+      BeanStoreTransaction transaction = beginTransaction("postBean");
       ret = getBeanStore().createOrUpdateBean(bean, transaction);
-      ServicesRegistry.getServices().getBeanStoreFactory().endTransaction(getBeanType(), transaction);
+      endTransaction(transaction);
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "postBean", ret);
@@ -114,9 +250,9 @@ public class BeanBehavior<T extends StorableBean> {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "putBean", bean);
     T ret = null;
     try {
-      BeanStoreTransaction transaction = ServicesRegistry.getServices().getBeanStoreFactory().beginTransaction(getBeanType(), "putBean");
+      BeanStoreTransaction transaction = beginTransaction("putBean");
       ret = getBeanStore().createOrUpdateBean(bean, transaction);
-      ServicesRegistry.getServices().getBeanStoreFactory().endTransaction(getBeanType(), transaction);
+      endTransaction(transaction);
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "putBean", ret);
@@ -127,15 +263,51 @@ public class BeanBehavior<T extends StorableBean> {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "deleteBean", beanId);
     boolean ret = false;
     try {
-      BeanStoreTransaction transaction = ServicesRegistry.getServices().getBeanStoreFactory().beginTransaction(getBeanType(), "deleteBean");
+      BeanStoreTransaction transaction = beginTransaction("deleteBean");
       ret = getBeanStore().deleteBean(beanId, transaction);
-      ServicesRegistry.getServices().getBeanStoreFactory().endTransaction(getBeanType(), transaction);
+      endTransaction(transaction);
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "deleteBean", ret);
     }
   }
 
+  public int deleteMatchingBeans(Map<String, String> propertyValues) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "deleteMatchingBeans", propertyValues);
+    int ret = 0;
+    try {
+      BeanStoreTransaction transaction = beginTransaction("deleteMatchingBeans");
+      try {
+        ret = getBeanStore().deleteMatchingBeans(propertyValues, transaction);
+      } catch(RuntimeException e) {
+        rollBackTransaction(transaction);
+        throw e;
+      }
+      endTransaction(transaction);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "deleteMatchingBeans", ret);
+    }
+  }
+
+  public int updateMatchingBeans(Map<String, String> propertyValues, Map<String, String> newPropertyValues) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "updateMatchingBeans", propertyValues, newPropertyValues);
+    int ret = 0;
+    try {
+      BeanStoreTransaction transaction = beginTransaction("updateMatchingBeans");
+      try {
+        ret = getBeanStore().updateMatchingBeans(propertyValues, newPropertyValues, transaction);
+      } catch(RuntimeException e) {
+        rollBackTransaction(transaction);
+        throw e;
+      }
+      endTransaction(transaction);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "updateMatchingBeans", ret);
+    }
+  }
+
   @Override
   public String toString() {
     return new ToStringBuilder(this).append("beanStore", getBeanStore()).append("beanType", getBeanType()).toString();
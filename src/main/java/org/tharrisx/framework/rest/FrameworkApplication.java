@@ -5,7 +5,9 @@ import java.util.Set;
 
 import javax.ws.rs.core.Application;
 
+import org.tharrisx.framework.rest.providers.ConsistentReadFilter;
 import org.tharrisx.framework.rest.providers.ExceptionMappers;
+import org.tharrisx.framework.rest.providers.UnitOfWorkFilter;
 import org.tharrisx.framework.rest.resources.RootResource;
 
 /**
@@ -23,6 +25,8 @@ public final class FrameworkApplication extends Application {
     Set<Class<?>> ret = new HashSet<>();
     ret.add(RootResource.class);
     ret.add(ExceptionMappers.class);
+    ret.add(UnitOfWorkFilter.class);
+    ret.add(ConsistentReadFilter.class);
     return ret;
   }
 }
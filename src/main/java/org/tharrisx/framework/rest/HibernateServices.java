@@ -1,5 +1,6 @@
 package org.tharrisx.framework.rest;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.hibernate.SessionFactory;
@@ -9,6 +10,7 @@ import org.tharrisx.framework.rest.core.ServicesRegistry;
 import org.tharrisx.framework.store.BeanStoreFactory;
 import org.tharrisx.framework.store.StorableBean;
 import org.tharrisx.framework.store.hibernate.HibernateBeanStoreFactory;
+import org.tharrisx.framework.store.hibernate.ReplicatedHibernateBeanStoreFactory;
 import org.tharrisx.util.log.Log;
 
 /**
@@ -29,10 +31,25 @@ public class HibernateServices extends BaseServices {
   }
 
   public HibernateServices(final List<Class<? extends StorableBean>> storableBeanTypes1, final SessionFactory sessionFactory1, final boolean enableCallStatistics1) {
-    super(storableBeanTypes1, enableCallStatistics1);
+    this(storableBeanTypes1, sessionFactory1, enableCallStatistics1, false);
+  }
+
+  public HibernateServices(final List<Class<? extends StorableBean>> storableBeanTypes1, final SessionFactory sessionFactory1, final boolean enableCallStatistics1, final boolean unitOfWorkPerRequest1) {
+    this(storableBeanTypes1, sessionFactory1, Collections.<SessionFactory> emptyList(), enableCallStatistics1, unitOfWorkPerRequest1);
+  }
+
+  /**
+   * With replicas, reads go to them, and everything else to the primary sessionFactory.
+   */
+  public HibernateServices(final List<Class<? extends StorableBean>> storableBeanTypes1, final SessionFactory sessionFactory1, final List<SessionFactory> replicaSessionFactories1, final boolean enableCallStatistics1, final boolean unitOfWorkPerRequest1) {
+    super(storableBeanTypes1, enableCallStatistics1, unitOfWorkPerRequest1);
     if(Log.isEnteringEnabled(HibernateServices.class)) Log.entering(HibernateServices.class, Log.METHOD_NAME_CONSTRUCTOR);
     try {
-      this.beanStoreFactory = new HibernateBeanStoreFactory(getStorableBeanTypes(), sessionFactory1);
+      HibernateBeanStoreFactory hibernateBeanStoreFactory = replicaSessionFactories1.isEmpty()
+          ? new HibernateBeanStoreFactory(getStorableBeanTypes(), sessionFactory1)
+          : new ReplicatedHibernateBeanStoreFactory(getStorableBeanTypes(), sessionFactory1, replicaSessionFactories1);
+      hibernateBeanStoreFactory.setCallStatistician(getCallStatistician());
+      this.beanStoreFactory = hibernateBeanStoreFactory;
       ServicesRegistry.registerServices(this);
     } finally {
       if(Log.isExitingEnabled(HibernateServices.class)) Log.exiting(HibernateServices.class, Log.METHOD_NAME_CONSTRUCTOR);
@@ -39,4 +39,12 @@ public interface Services {
   PipeManager getPipeManager();
 
   CallStatistician getCallStatistician();
+
+  /**
+   * Whether each REST request's store calls share one transaction, a BeanStoreUnitOfWork, rather than
+   * each having its own.
+   * 
+   * @return boolean
+   */
+  boolean isUnitOfWorkPerRequest();
 }
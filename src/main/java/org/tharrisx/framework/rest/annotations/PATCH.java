@@ -0,0 +1,23 @@
+package org.tharrisx.framework.rest.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.ws.rs.HttpMethod;
+
+/**
+ * Designates a resource method as answering HTTP PATCH requests, which JAX-RS 2.0 has no annotation for.
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@HttpMethod("PATCH")
+@Documented
+public @interface PATCH {
+}
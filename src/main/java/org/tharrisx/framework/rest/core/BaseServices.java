@@ -42,12 +42,24 @@ public abstract class BaseServices implements Services {
     return this.callStatistician;
   }
 
+  private final boolean unitOfWorkPerRequest;
+
+  @Override
+  public boolean isUnitOfWorkPerRequest() {
+    return this.unitOfWorkPerRequest;
+  }
+
   protected BaseServices(final List<Class<? extends StorableBean>> storableBeanTypes1, final boolean enableCallStatistics1) {
+    this(storableBeanTypes1, enableCallStatistics1, false);
+  }
+
+  protected BaseServices(final List<Class<? extends StorableBean>> storableBeanTypes1, final boolean enableCallStatistics1, final boolean unitOfWorkPerRequest1) {
     if(Log.isEnteringEnabled(BaseServices.class)) Log.entering(BaseServices.class, Log.METHOD_NAME_CONSTRUCTOR);
     try {
       this.storableBeanTypes = storableBeanTypes1;
       this.pipeManager = constructFrameworkPipeManager();
       this.callStatistician = new CallStatistician(enableCallStatistics1);
+      this.unitOfWorkPerRequest = unitOfWorkPerRequest1;
     } finally {
       if(Log.isExitingEnabled(BaseServices.class))
         Log.exiting(BaseServices.class, Log.METHOD_NAME_CONSTRUCTOR);
@@ -89,6 +101,7 @@ public abstract class BaseServices implements Services {
         .append("storableBeanTypes", getStorableBeanTypes())
         .append("beanStoreFactory", getBeanStoreFactory())
         .append("pipeManager", getPipeManager())
+        .append("unitOfWorkPerRequest", isUnitOfWorkPerRequest())
         .toString();
   }
 }
@@ -9,6 +9,7 @@ import java.net.URI;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
@@ -38,9 +39,11 @@ public final class ResourceCore<T extends StorableBean> {
   private static final String METHOD_MAKE_BEAN_INSTANCE_RESOURCE = "makeBeanInstanceResource";
   private static final String METHOD_INTERPRET_REQUEST_BODY = "interpretRequestBody";
   private static final String METHOD_GET_SUCCESS_RESPONSE = "makeGetSuccessResponse";
+  private static final String METHOD_GET_STREAMING_SUCCESS_RESPONSE = "makeGetStreamingSuccessResponse";
   private static final String METHOD_POST_SUCCESS_RESPONSE = "makePostSuccessResponse";
   private static final String METHOD_PUT_SUCCESS_RESPONSE = "makePutSuccessResponse";
   private static final String METHOD_RECORD_DELETE_SUCCESS = "recordDeleteSuccess";
+  private static final String METHOD_RECORD_PATCH_SUCCESS = "recordPatchSuccess";
   private static final String METHOD_MAKE_BEAN_BEHAVIOR = "makeBeanBehavior";
 
   private final Class<T> beanType;
@@ -202,6 +205,27 @@ public final class ResourceCore<T extends StorableBean> {
     }
   }
 
+  /**
+   * Return a RESTful GET success response to the caller, whose body is written as the response is sent rather than
+   * built up front.
+   * 
+   * @param req ResourceRequestInfo
+   * @param body StreamingOutput
+   * @return Response
+   */
+  public Response makeGetStreamingSuccessResponse(ResourceRequestInfo req, Object resourceReference, StreamingOutput body) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_STREAMING_SUCCESS_RESPONSE, req, resourceReference, body);
+    Response ret = null;
+    try {
+      ret = Response.ok(body).type(req.getResponseMediaType()).build();
+      String callName = makeCallName(getBeanType(), resourceReference, "GET", req.getPipeName());
+      ServicesRegistry.getServices().getCallStatistician().recordCall(callName, true, req.getTiming());
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_STREAMING_SUCCESS_RESPONSE, ret);
+    }
+  }
+
   /**
    * Return a RESTful POST success response to the caller.
    * 
@@ -260,6 +284,21 @@ public final class ResourceCore<T extends StorableBean> {
     }
   }
 
+  /**
+   * Record a RESTful PATCH success.
+   * 
+   * @param req ResourceRequestInfo
+   */
+  public void recordPatchSuccess(ResourceRequestInfo req, Object resourceReference) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_RECORD_PATCH_SUCCESS, req, resourceReference);
+    try {
+      String callName = makeCallName(getBeanType(), resourceReference, "PATCH", req.getPipeName());
+      ServicesRegistry.getServices().getCallStatistician().recordCall(callName, true, req.getTiming());
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_RECORD_PATCH_SUCCESS);
+    }
+  }
+
   public enum ResourceCategory {
     UNKNOWN, ROOT, TYPE, INSTANCE, ALL, MATCH;
   }
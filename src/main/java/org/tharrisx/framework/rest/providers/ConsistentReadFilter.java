@@ -0,0 +1,43 @@
+package org.tharrisx.framework.rest.providers;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+
+import org.tharrisx.framework.store.hibernate.ReplicatedHibernateBeanStoreFactory;
+import org.tharrisx.util.log.Log;
+
+/**
+ * Sends a request's reads to the primary database, rather than a replica, when it carries the header
+ * X-Consistent-Read: true, so a client can see its own writes at once. Only matters with a
+ * ReplicatedHibernateBeanStoreFactory.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+@Provider
+public class ConsistentReadFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  public static final String HEADER_CONSISTENT_READ = "X-Consistent-Read";
+
+  private static final String METHOD_FILTER = "filter";
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_FILTER, requestContext);
+    try {
+      // set every request, so nothing is left over from the thread's last one
+      ReplicatedHibernateBeanStoreFactory.setConsistentReads(Boolean.parseBoolean(requestContext.getHeaderString(HEADER_CONSISTENT_READ)));
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_FILTER);
+    }
+  }
+
+  @Override
+  public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+    ReplicatedHibernateBeanStoreFactory.setConsistentReads(false);
+  }
+}
@@ -8,6 +8,7 @@ import javax.ws.rs.ext.Provider;
 import org.tharrisx.framework.pipe.exception.InvalidPipeDataException;
 import org.tharrisx.framework.pipe.exception.PipeException;
 import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.framework.store.exception.ConcurrentBeanChangeException;
 import org.tharrisx.framework.store.exception.ConflictingBeansFoundException;
 import org.tharrisx.framework.store.exception.NoBeanFoundException;
 import org.tharrisx.framework.store.exception.NoSuchBeanPropertyException;
@@ -53,6 +54,19 @@ public class ExceptionMappers {
     }
   }
 
+  @Provider
+  public static class ConcurrentBeanChangeMapper extends UserErrorMapper<ConcurrentBeanChangeException> {
+    @Override
+    protected Status getResponseStatus() {
+      return Response.Status.CONFLICT;
+    }
+
+    @Override
+    protected String getMessage() {
+      return "Store error: Requested item resource was changed by another request; retry the request.";
+    }
+  }
+
   @Provider
   public static class BeanTypeNotFoundMapper extends UserErrorMapper<ClassCastException> {
     @Override
@@ -0,0 +1,69 @@
+package org.tharrisx.framework.rest.providers;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+
+import org.tharrisx.framework.rest.Services;
+import org.tharrisx.framework.rest.core.ServicesRegistry;
+import org.tharrisx.framework.store.core.BeanStoreUnitOfWork;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.util.log.Log;
+
+/**
+ * Opens a BeanStoreUnitOfWork for each request, when the Services ask for one, and closes it once the
+ * resource has answered. Its transaction is only begun if the request uses the store.
+ *
+ * A request answered with an error, client or server, has its transaction rolled back rather than
+ * committed, so a resource that failed part way through leaves none of its writes behind. If ending the
+ * transaction fails, its writes are lost, so the response becomes a server error whatever the resource
+ * answered.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+@Provider
+public class UnitOfWorkFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  private static final String METHOD_FILTER = "filter";
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_FILTER, requestContext);
+    try {
+      Services services = ServicesRegistry.getServices();
+      if(!services.isUnitOfWorkPerRequest()) return;
+      if(BeanStoreUnitOfWork.isOpen()) {
+        // a request that failed before its response filters ran left it behind on this thread
+        Log.warn(getClass(), METHOD_FILTER, "Rolling back a unit of work left open by an earlier request.");
+        BeanStoreUnitOfWork.setRollbackOnly();
+        BeanStoreUnitOfWork.close();
+      }
+      BeanStoreUnitOfWork.open(services.getBeanStoreFactory(), requestContext.getMethod() + " " + requestContext.getUriInfo().getPath());
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_FILTER);
+    }
+  }
+
+  @Override
+  public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_FILTER, requestContext, responseContext);
+    try {
+      Response.Status.Family family = responseContext.getStatusInfo().getFamily();
+      if(Response.Status.Family.CLIENT_ERROR == family || Response.Status.Family.SERVER_ERROR == family) {
+        BeanStoreUnitOfWork.setRollbackOnly();
+      }
+      BeanStoreUnitOfWork.close();
+    } catch(BeanStoreException e) {
+      Log.error(getClass(), METHOD_FILTER, "Ending the unit of work for " + requestContext.getMethod() + " " + requestContext.getUriInfo().getPath() + " failed.", e);
+      responseContext.setStatus(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+      responseContext.setEntity(null);
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_FILTER);
+    }
+  }
+}
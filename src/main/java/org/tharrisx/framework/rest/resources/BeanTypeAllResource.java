@@ -1,14 +1,20 @@
 package org.tharrisx.framework.rest.resources;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
 import javax.ws.rs.GET;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
-import org.tharrisx.framework.bean.BeanList;
 import org.tharrisx.framework.rest.core.ResourceCore;
 import org.tharrisx.framework.rest.core.ResourceRequestInfo;
+import org.tharrisx.framework.store.BeanIterator;
 import org.tharrisx.framework.store.StorableBean;
 import org.tharrisx.util.log.Log;
 
@@ -22,6 +28,9 @@ import org.tharrisx.util.log.Log;
 public abstract class BeanTypeAllResource<T extends StorableBean> {
 
   private static final String METHOD_GET_ALL_BEANS = "getAllBeans";
+  private static final String METHOD_WRITE = "write";
+
+  private static final String CHARSET_UTF_8 = "UTF-8";
 
   private final ResourceCore<T> resourceCore;
 
@@ -46,6 +55,9 @@ public abstract class BeanTypeAllResource<T extends StorableBean> {
    * LEAF GET Give me a list of all beans of the type.
    * Example URL: http://host:port/context/users/all/
    * 
+   * The beans are streamed from the store into the response as it is written, so the whole list is never held in
+   * memory. XML is written bean by bean; JSON output is still assembled by its driver before it is written.
+   * 
    * @param propertyValuePairs String A comma delimited list of name=value pairs
    * @param start int Paging parameter
    * @param end int Paging parameter
@@ -57,14 +69,36 @@ public abstract class BeanTypeAllResource<T extends StorableBean> {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_ALL_BEANS);
     Response ret = null;
     try {
-      BeanList<T> beans = getResourceCore().getBeanBehavior().getAllBeans();
-      ret = getResourceCore().makeGetSuccessResponse(getResourceRequestInfo(), this, beans);
+      ret = getResourceCore().makeGetStreamingSuccessResponse(getResourceRequestInfo(), this, new AllBeansOutput());
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_ALL_BEANS, ret);
     }
   }
 
+  /**
+   * Writes the beans of the type to the response body as a BeanList, reading them from the store only once the
+   * response is being written, and closing the store's iterator when done.
+   */
+  private final class AllBeansOutput implements StreamingOutput {
+
+    AllBeansOutput() {
+      // nothing to do
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+      if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_WRITE);
+      try(BeanIterator<T> beans = getResourceCore().getBeanBehavior().streamAllBeans()) {
+        Writer sink = new OutputStreamWriter(output, CHARSET_UTF_8);
+        getResourceRequestInfo().getPipe().writeList(beans, sink);
+        sink.flush();
+      } finally {
+        if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_WRITE);
+      }
+    }
+  }
+
   @Override
   public String toString() {
     return new ToStringBuilder(this).append("resourceCore", getResourceCore()).append("resourceRequestInfo", getResourceRequestInfo()).toString();
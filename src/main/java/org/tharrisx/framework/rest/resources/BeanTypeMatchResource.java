@@ -1,21 +1,29 @@
 package org.tharrisx.framework.rest.resources;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.tharrisx.framework.bean.PageableBeanList;
+import org.tharrisx.framework.rest.annotations.PATCH;
 import org.tharrisx.framework.rest.core.ResourceCore;
 import org.tharrisx.framework.rest.core.ResourceRequestInfo;
+import org.tharrisx.framework.store.BeanStoreCountStrategy;
 import org.tharrisx.framework.store.StorableBean;
 import org.tharrisx.util.collection.MapStringUtils;
 import org.tharrisx.util.log.Log;
@@ -30,6 +38,18 @@ import org.tharrisx.util.log.Log;
 public abstract class BeanTypeMatchResource<T extends StorableBean> {
 
   private static final String METHOD_MATCH_BEANS = "matchBeans";
+  private static final String METHOD_DELETE_MATCHING_BEANS = "deleteMatchingBeans";
+  private static final String METHOD_UPDATE_MATCHING_BEANS = "updateMatchingBeans";
+
+  /**
+   * Response header carrying how many beans a match delete deleted.
+   */
+  public static final String HEADER_DELETED_COUNT = "X-Deleted-Count";
+
+  /**
+   * Response header carrying how many beans a match update updated.
+   */
+  public static final String HEADER_UPDATED_COUNT = "X-Updated-Count";
 
   private final ResourceCore<T> resourceCore;
 
@@ -57,6 +77,9 @@ public abstract class BeanTypeMatchResource<T extends StorableBean> {
    * @param propertyValuePairs String A comma delimited list of name=value pairs
    * @param start int Paging parameter
    * @param end int Paging parameter
+   * @param cursor String The next cursor of an earlier page, to fetch the page after it by keyset instead,
+   *          of end - start + 1 beans
+   * @param count String How to count the total: exact, cached, estimated or none; empty for the bean type's default
    * @return Response
    */
   @Path("{propertyValuePairs}")
@@ -67,12 +90,20 @@ public abstract class BeanTypeMatchResource<T extends StorableBean> {
       @DefaultValue("0") @QueryParam("start") final int start,
       @DefaultValue("9") @QueryParam("end") final int end,
       @DefaultValue("") @QueryParam("sortBy") final String sortBy,
-      @DefaultValue("") @QueryParam("sortDirection") final String sortDirection) {
-    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_MATCH_BEANS, propertyValuePairs, start, end, sortBy, sortDirection);
+      @DefaultValue("") @QueryParam("sortDirection") final String sortDirection,
+      @DefaultValue("") @QueryParam("cursor") final String cursor,
+      @DefaultValue("") @QueryParam("count") final String count) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_MATCH_BEANS, propertyValuePairs, start, end, sortBy, sortDirection, cursor, count);
     Response ret = null;
     try {
+      BeanStoreCountStrategy countStrategy = BeanStoreCountStrategy.fromString(count);
       Map<String, String> propertyStringMap = MapStringUtils.constructMap(Collections.singletonList(propertyValuePairs));
-      PageableBeanList<T> pageOfBeans = getResourceCore().getBeanBehavior().matchBeans(start, end, sortBy, sortDirection, propertyStringMap);
+      PageableBeanList<T> pageOfBeans = null;
+      if("".equals(cursor)) {
+        pageOfBeans = getResourceCore().getBeanBehavior().matchBeans(start, end, sortBy, sortDirection, propertyStringMap, countStrategy);
+      } else {
+        pageOfBeans = getResourceCore().getBeanBehavior().matchBeans(cursor, end - start + 1, sortBy, sortDirection, propertyStringMap, countStrategy);
+      }
       ret = getResourceCore().makeGetSuccessResponse(getResourceRequestInfo(), this, pageOfBeans);
       return ret;
     } finally {
@@ -80,6 +111,59 @@ public abstract class BeanTypeMatchResource<T extends StorableBean> {
     }
   }
 
+  /**
+   * LEAF DELETE Delete every bean matching the properties provided.
+   * Example URL: http://host:port/context/users/match/state=NY,active=false
+   * 
+   * @param propertyValuePairs String A comma delimited list of name=value pairs
+   * @return Response No content, with the number of beans deleted in the X-Deleted-Count header
+   */
+  @Path("{propertyValuePairs}")
+  @DELETE
+  public Response deleteMatchingBeans(@PathParam("propertyValuePairs") final String propertyValuePairs) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_MATCHING_BEANS, propertyValuePairs);
+    Response ret = null;
+    try {
+      Map<String, String> propertyStringMap = MapStringUtils.constructMap(Collections.singletonList(propertyValuePairs));
+      int deletedCount = getResourceCore().getBeanBehavior().deleteMatchingBeans(propertyStringMap);
+      getResourceCore().recordDeleteSuccess(getResourceRequestInfo(), this);
+      ret = Response.noContent().header(HEADER_DELETED_COUNT, Integer.valueOf(deletedCount)).build();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_MATCHING_BEANS, ret);
+    }
+  }
+
+  /**
+   * LEAF PATCH Set the form's property values on every bean matching the properties provided.
+   * Example: curl -X PATCH -d status=inactive http://host:port/context/users/match/state=NY,active=false
+   * 
+   * @param propertyValuePairs String A comma delimited list of name=value pairs
+   * @param form MultivaluedMap<String, String> The property values to set, one each
+   * @return Response No content, with the number of beans updated in the X-Updated-Count header
+   */
+  @Path("{propertyValuePairs}")
+  @PATCH
+  @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
+  public Response updateMatchingBeans(@PathParam("propertyValuePairs") final String propertyValuePairs, final MultivaluedMap<String, String> form) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_UPDATE_MATCHING_BEANS, propertyValuePairs, form);
+    Response ret = null;
+    try {
+      Map<String, String> propertyStringMap = MapStringUtils.constructMap(Collections.singletonList(propertyValuePairs));
+      Map<String, String> newPropertyStringMap = new LinkedHashMap<>(form.size());
+      for(Map.Entry<String, List<String>> field : form.entrySet()) {
+        if(1 != field.getValue().size()) throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        newPropertyStringMap.put(field.getKey(), field.getValue().get(0));
+      }
+      int updatedCount = getResourceCore().getBeanBehavior().updateMatchingBeans(propertyStringMap, newPropertyStringMap);
+      getResourceCore().recordPatchSuccess(getResourceRequestInfo(), this);
+      ret = Response.noContent().header(HEADER_UPDATED_COUNT, Integer.valueOf(updatedCount)).build();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_UPDATE_MATCHING_BEANS, ret);
+    }
+  }
+
   @Override
   public String toString() {
     return new ToStringBuilder(this).append("resourceCore", getResourceCore()).append("resourceRequestInfo", getResourceRequestInfo()).toString();
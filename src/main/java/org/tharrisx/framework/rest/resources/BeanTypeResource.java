@@ -2,6 +2,8 @@ package org.tharrisx.framework.rest.resources;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
@@ -14,11 +16,14 @@ import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.tharrisx.framework.bean.Bean;
+import org.tharrisx.framework.bean.BeanList;
 import org.tharrisx.framework.bean.PageableBeanList;
 import org.tharrisx.framework.rest.core.ResourceCore;
 import org.tharrisx.framework.rest.core.ResourceRequestInfo;
+import org.tharrisx.framework.store.BeanStoreCountStrategy;
 import org.tharrisx.framework.store.StorableBean;
 import org.tharrisx.util.log.Log;
 
@@ -37,6 +42,17 @@ public abstract class BeanTypeResource<T extends StorableBean> {
   private static final String METHOD_FOLLOW_BEAN_INSTANCE_PATH = "followBeanInstancePath";
   private static final String METHOD_GET_PAGE_OF_BEANS = "getPageOfBeans";
   private static final String METHOD_POST_BEAN = "postBean";
+  private static final String METHOD_GET_BEANS_BY_ID = "getBeansById";
+
+  /**
+   * The header listing, comma separated, the requested ids getBeansById() found no bean for.
+   */
+  public static final String HEADER_MISSING_IDS = "X-Missing-Ids";
+
+  /**
+   * The most ids getBeansById() takes in one request.
+   */
+  public static final int MAX_IDS = 1000;
 
   private final ResourceCore<T> resourceCore;
 
@@ -124,6 +140,9 @@ public abstract class BeanTypeResource<T extends StorableBean> {
    * 
    * @param start int The index into the full results the request wants the page to start at
    * @param end int The index into the full results the request wants the page to end at
+   * @param cursor String The next cursor of an earlier page, to fetch the page after it by keyset instead,
+   *          of end - start + 1 beans
+   * @param count String How to count the total: exact, cached, estimated or none; empty for the bean type's default
    * @return Response The REST response
    */
   @GET
@@ -132,11 +151,19 @@ public abstract class BeanTypeResource<T extends StorableBean> {
       @DefaultValue("0") @QueryParam("start") final int start,
       @DefaultValue("9") @QueryParam("end") final int end,
       @DefaultValue("") @QueryParam("sortBy") final String sortBy,
-      @DefaultValue("") @QueryParam("sortDirection") final String sortDirection) {
-    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_PAGE_OF_BEANS, start, end);
+      @DefaultValue("") @QueryParam("sortDirection") final String sortDirection,
+      @DefaultValue("") @QueryParam("cursor") final String cursor,
+      @DefaultValue("") @QueryParam("count") final String count) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_PAGE_OF_BEANS, start, end, cursor, count);
     Response ret = null;
     try {
-      PageableBeanList<T> beans = getResourceCore().getBeanBehavior().getBeans(start, end, sortBy, sortDirection);
+      BeanStoreCountStrategy countStrategy = BeanStoreCountStrategy.fromString(count);
+      PageableBeanList<T> beans = null;
+      if("".equals(cursor)) {
+        beans = getResourceCore().getBeanBehavior().getBeans(start, end, sortBy, sortDirection, countStrategy);
+      } else {
+        beans = getResourceCore().getBeanBehavior().getBeans(cursor, end - start + 1, sortBy, sortDirection, countStrategy);
+      }
       ret = getResourceCore().makeGetSuccessResponse(getResourceRequestInfo(), this, beans);
       return ret;
     } catch(RuntimeException e) {
@@ -146,6 +173,40 @@ public abstract class BeanTypeResource<T extends StorableBean> {
     }
   }
 
+  /**
+   * LEAF GET Retrieves the beans with the ids, in one request instead of one each.
+   * Example URL: http://host:port/rest/users/ids/5267AF78,1179264348
+   * 
+   * @param beanIds String The comma delimited ids of the beans
+   * @return Response The REST response, listing the beans in the order their ids were given, and naming
+   *         the ids with no bean in the X-Missing-Ids header
+   */
+  @GET
+  @Path("ids/{beanIds: [0-9,A-F]+}")
+  @Produces({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, MediaType.TEXT_XML })
+  public Response getBeansById(@PathParam("beanIds") final String beanIds) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEANS_BY_ID, beanIds);
+    Response ret = null;
+    try {
+      Set<String> requestedIds = new LinkedHashSet<>();
+      for(String beanId : beanIds.split(",")) {
+        if(!"".equals(beanId)) requestedIds.add(beanId);
+      }
+      if(requestedIds.size() > MAX_IDS) throw new WebApplicationException(Response.Status.BAD_REQUEST);
+      BeanList<T> beans = getResourceCore().getBeanBehavior().getBeans(requestedIds);
+      for(T bean : beans.getItems()) {
+        requestedIds.remove(bean.getId());
+      }
+      ret = getResourceCore().makeGetSuccessResponse(getResourceRequestInfo(), this, beans);
+      if(!requestedIds.isEmpty()) {
+        ret = Response.fromResponse(ret).header(HEADER_MISSING_IDS, StringUtils.join(requestedIds, ',')).build();
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEANS_BY_ID, ret);
+    }
+  }
+
   /**
    * LEAF POST Creates the requested bean in the BeanStore.
    * 
@@ -0,0 +1,170 @@
+package org.tharrisx.framework.store;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.tharrisx.framework.bean.BeanList;
+import org.tharrisx.framework.bean.PageableBeanList;
+import org.tharrisx.framework.store.core.BeanStoreExecutor;
+
+/**
+ * Calls a BeanStore on its factory's BeanStoreExecutor, returning at once with a future of the result, so
+ * the caller's thread is free meanwhile, and can have several calls under way together, such as a page and
+ * the beans it refers to. Get one from BeanStoreFactory.getAsyncBeanStore().
+ *
+ * Each call runs in a transaction of its own, on another thread; it does not join the caller's
+ * BeanStoreUnitOfWork. The writes here each begin and end their own transaction too. A call the executor
+ * has no room for fails its future at once with a BeanStoreException.
+ *
+ * @param <T> T extends StorableBean
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public final class AsyncBeanStore<T extends StorableBean> {
+
+  private final BeanStoreFactory beanStoreFactory;
+
+  private BeanStoreFactory getBeanStoreFactory() {
+    return this.beanStoreFactory;
+  }
+
+  private final BeanStore<T> beanStore;
+
+  public BeanStore<T> getBeanStore() {
+    return this.beanStore;
+  }
+
+  private final Class<T> beanType;
+
+  public Class<T> getBeanType() {
+    return this.beanType;
+  }
+
+  private final BeanStoreExecutor executor;
+
+  public BeanStoreExecutor getExecutor() {
+    return this.executor;
+  }
+
+  public AsyncBeanStore(final BeanStoreFactory beanStoreFactory1, final Class<T> beanType1, final BeanStoreExecutor executor1) {
+    this.beanStoreFactory = beanStoreFactory1;
+    this.beanStore = beanStoreFactory1.getBeanStore(beanType1);
+    this.beanType = beanType1;
+    this.executor = executor1;
+  }
+
+  public ListenableFuture<Boolean> hasBean(final String beanId) {
+    return getExecutor().submit(getBeanType(), BeanStore.METHOD_HAS_BEAN, new Callable<Boolean>() {
+      @Override public Boolean call() {
+        return Boolean.valueOf(getBeanStore().hasBean(beanId));
+      }
+    });
+  }
+
+  public ListenableFuture<T> getBean(final String beanId) {
+    return getExecutor().submit(getBeanType(), BeanStore.METHOD_GET_BEAN, new Callable<T>() {
+      @Override public T call() {
+        return getBeanStore().getBean(beanId);
+      }
+    });
+  }
+
+  public ListenableFuture<BeanList<T>> getBeans(final Collection<String> beanIds) {
+    return getExecutor().submit(getBeanType(), BeanStore.METHOD_GET_BEANS, new Callable<BeanList<T>>() {
+      @Override public BeanList<T> call() {
+        return getBeanStore().getBeans(beanIds);
+      }
+    });
+  }
+
+  public ListenableFuture<T> getBeanByUniqueKey(final Map<String, String> propertyValues) {
+    return getExecutor().submit(getBeanType(), BeanStore.METHOD_GET_BEAN_BY_UNIQUE_KEY, new Callable<T>() {
+      @Override public T call() {
+        return getBeanStore().getBeanByUniqueKey(propertyValues);
+      }
+    });
+  }
+
+  public ListenableFuture<BeanList<T>> getAllMatchingBeans(final Map<String, String> propertyValues) {
+    return getExecutor().submit(getBeanType(), BeanStore.METHOD_GET_ALL_MATCHING_BEANS, new Callable<BeanList<T>>() {
+      @Override public BeanList<T> call() {
+        return getBeanStore().getAllMatchingBeans(propertyValues);
+      }
+    });
+  }
+
+  public ListenableFuture<BeanList<T>> getAllBeansViaQuery(final String queryName, final Object... queryParameters) {
+    return getExecutor().submit(getBeanType(), BeanStore.METHOD_GET_ALL_BEANS_VIA_QUERY, new Callable<BeanList<T>>() {
+      @Override public BeanList<T> call() {
+        return getBeanStore().getAllBeansViaQuery(queryName, queryParameters);
+      }
+    });
+  }
+
+  public ListenableFuture<PageableBeanList<T>> getPageOfMatchingBeans(final int start, final int end, final String sortBy, final String sortDirection, final Map<String, String> propertyValues, final BeanStoreCountStrategy countStrategy) {
+    return getExecutor().submit(getBeanType(), BeanStore.METHOD_GET_PAGE_OF_MATCHING_BEANS, new Callable<PageableBeanList<T>>() {
+      @Override public PageableBeanList<T> call() {
+        return getBeanStore().getPageOfMatchingBeans(start, end, sortBy, sortDirection, propertyValues, countStrategy);
+      }
+    });
+  }
+
+  public ListenableFuture<PageableBeanList<T>> getPageOfMatchingBeansAfter(final String cursor, final int pageSize, final String sortBy, final String sortDirection, final Map<String, String> propertyValues, final BeanStoreCountStrategy countStrategy) {
+    return getExecutor().submit(getBeanType(), BeanStore.METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, new Callable<PageableBeanList<T>>() {
+      @Override public PageableBeanList<T> call() {
+        return getBeanStore().getPageOfMatchingBeansAfter(cursor, pageSize, sortBy, sortDirection, propertyValues, countStrategy);
+      }
+    });
+  }
+
+  public ListenableFuture<PageableBeanList<T>> getPageOfBeansViaQuery(final int start, final int end, final String sortBy, final String sortDirection, final String queryName, final Object... queryParameters) {
+    return getExecutor().submit(getBeanType(), BeanStore.METHOD_GET_PAGE_OF_BEANS_VIA_QUERY, new Callable<PageableBeanList<T>>() {
+      @Override public PageableBeanList<T> call() {
+        return getBeanStore().getPageOfBeansViaQuery(start, end, sortBy, sortDirection, queryName, queryParameters);
+      }
+    });
+  }
+
+  public ListenableFuture<PageableBeanList<T>> getPageOfBeansViaQuery(final int start, final int end, final String sortBy, final String sortDirection, final BeanStoreCountStrategy countStrategy, final String queryName, final Object... queryParameters) {
+    return getExecutor().submit(getBeanType(), BeanStore.METHOD_GET_PAGE_OF_BEANS_VIA_QUERY, new Callable<PageableBeanList<T>>() {
+      @Override public PageableBeanList<T> call() {
+        return getBeanStore().getPageOfBeansViaQuery(start, end, sortBy, sortDirection, countStrategy, queryName, queryParameters);
+      }
+    });
+  }
+
+  public ListenableFuture<T> createOrUpdateBean(final T bean) {
+    return getExecutor().submit(getBeanType(), BeanStore.METHOD_CREATE_OR_UPDATE_BEAN, new Callable<T>() {
+      @Override public T call() {
+        BeanStoreTransaction transaction = getBeanStoreFactory().beginTransaction(getBeanType(), BeanStore.METHOD_CREATE_OR_UPDATE_BEAN);
+        T ret = getBeanStore().createOrUpdateBean(bean, transaction);
+        getBeanStoreFactory().endTransaction(getBeanType(), transaction);
+        return ret;
+      }
+    });
+  }
+
+  public ListenableFuture<Boolean> deleteBean(final String beanId) {
+    return getExecutor().submit(getBeanType(), BeanStore.METHOD_DELETE_BEAN, new Callable<Boolean>() {
+      @Override public Boolean call() {
+        BeanStoreTransaction transaction = getBeanStoreFactory().beginTransaction(getBeanType(), BeanStore.METHOD_DELETE_BEAN);
+        boolean ret = getBeanStore().deleteBean(beanId, transaction);
+        getBeanStoreFactory().endTransaction(getBeanType(), transaction);
+        return Boolean.valueOf(ret);
+      }
+    });
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("beanType", getBeanType())
+        .append("executor", getExecutor())
+        .toString();
+  }
+}
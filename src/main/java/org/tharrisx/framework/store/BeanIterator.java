@@ -0,0 +1,29 @@
+package org.tharrisx.framework.store;
+
+import java.util.Iterator;
+
+import org.tharrisx.framework.store.exception.BeanStoreException;
+
+/**
+ * A forward-only stream of beans from a BeanStore, read as it is iterated rather than all at once, so a
+ * result of any size can be worked through in constant memory. It holds store resources, such as an open
+ * session and database cursor, until closed, so always close it, preferably with try-with-resources.
+ * 
+ * Iterating to the end does not close it. remove() is not supported.
+ * 
+ * @param <T> T extends StorableBean
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public interface BeanIterator<T extends StorableBean> extends Iterator<T>, AutoCloseable {
+
+  /**
+   * Release the store resources. Closing more than once is harmless.
+   * 
+   * @throws BeanStoreException
+   */
+  @Override
+  void close() throws BeanStoreException;
+}
@@ -1,5 +1,7 @@
 package org.tharrisx.framework.store;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import org.tharrisx.framework.bean.BeanList;
@@ -24,13 +26,21 @@ public interface BeanStore<T extends StorableBean> {
   String METHOD_HAS_BEAN = "hasBean";
   String METHOD_HAS_BEAN_BY_UNIQUE_KEY = "hasBeanByUniqueKey";
   String METHOD_GET_BEAN = "getBean";
+  String METHOD_GET_BEANS = "getBeans";
   String METHOD_GET_BEAN_BY_UNIQUE_KEY = "getBeanByUniqueKey";
   String METHOD_GET_ALL_MATCHING_BEANS = "getAllMatchingBeans";
   String METHOD_GET_ALL_BEANS_VIA_QUERY = "getAllBeansViaQuery";
   String METHOD_GET_PAGE_OF_MATCHING_BEANS = "getPageOfMatchingBeans";
   String METHOD_GET_PAGE_OF_BEANS_VIA_QUERY = "getPageOfBeansViaQuery";
+  String METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER = "getPageOfMatchingBeansAfter";
   String METHOD_CREATE_OR_UPDATE_BEAN = "createOrUpdateBean";
   String METHOD_DELETE_BEAN = "deleteBean";
+  String METHOD_CREATE_OR_UPDATE_BEANS = "createOrUpdateBeans";
+  String METHOD_DELETE_BEANS = "deleteBeans";
+  String METHOD_DELETE_MATCHING_BEANS = "deleteMatchingBeans";
+  String METHOD_UPDATE_MATCHING_BEANS = "updateMatchingBeans";
+  String METHOD_STREAM_MATCHING_BEANS = "streamMatchingBeans";
+  String METHOD_STREAM_BEANS_VIA_QUERY = "streamBeansViaQuery";
 
   /**
    * Returns true if and only if the beanId matches an existing bean.
@@ -61,6 +71,16 @@ public interface BeanStore<T extends StorableBean> {
    */
   T getBean(String beanId) throws NoBeanFoundException, BeanStoreException;
 
+  /**
+   * Retrieve the beans with the beanIds, all at once. Ids with no bean are left out, and the caller can
+   * tell which they were by what's missing.
+   * 
+   * @param beanIds Collection<String>
+   * @return BeanList<T> The beans, in the order of their ids' first appearance in beanIds
+   * @throws BeanStoreException
+   */
+  BeanList<T> getBeans(Collection<String> beanIds) throws BeanStoreException;
+
   /**
    * Retrieve a bean by matching property values as a unique key.
    * 
@@ -92,7 +112,29 @@ public interface BeanStore<T extends StorableBean> {
   BeanList<T> getAllBeansViaQuery(String queryName, Object... queryParameters) throws BeanStoreException;
 
   /**
-   * Get the pageable list of beans that match the property values.
+   * Stream the beans that match the property values, rather than loading them all, for results too large to
+   * hold in memory. The caller must close the iterator.
+   * 
+   * @param propertyValues Map<String, String> Map of bean property names to String values
+   * @return BeanIterator<T>
+   * @throws BeanStoreException
+   */
+  BeanIterator<T> streamMatchingBeans(Map<String, String> propertyValues) throws BeanStoreException;
+
+  /**
+   * Stream the beans a 'Named Query' returns, rather than loading them all. The caller must close the
+   * iterator.
+   * 
+   * @param queryName String The name of the 'Named Query'
+   * @param queryParameters Object... The values to inject into the 'Named Query'.
+   * @return BeanIterator<T>
+   * @throws BeanStoreException
+   */
+  BeanIterator<T> streamBeansViaQuery(String queryName, Object... queryParameters) throws BeanStoreException;
+
+  /**
+   * Get the pageable list of beans that match the property values. When the page is full, its next property
+   * holds the cursor to carry on from with getPageOfMatchingBeansAfter().
    * 
    * @param start int The index into the full results at which to start the page
    * @param end int The index into the full results at which to end the page
@@ -102,6 +144,35 @@ public interface BeanStore<T extends StorableBean> {
    */
   PageableBeanList<T> getPageOfMatchingBeans(int start, int end, String sortBy, String sortDirection, Map<String, String> propertyValues) throws BeanStoreException;
 
+  /**
+   * Get the pageable list of beans that match the property values, counting the total as asked.
+   * 
+   * @param start int The index into the full results at which to start the page
+   * @param end int The index into the full results at which to end the page
+   * @param propertyValues Map<String, String> Map of bean property names to String values
+   * @param countStrategy BeanStoreCountStrategy How to count the total, or null for the bean type's default
+   * @return PageableBeanList<T>
+   * @throws BeanStoreException
+   */
+  PageableBeanList<T> getPageOfMatchingBeans(int start, int end, String sortBy, String sortDirection, Map<String, String> propertyValues, BeanStoreCountStrategy countStrategy) throws BeanStoreException;
+
+  /**
+   * Get a keyset (seek) page of beans that match the property values: the beans sorting after the cursor,
+   * rather than at an offset, so deep pages cost no more than the first. Bean id breaks ties in the sort.
+   * The page's start and end count from the cursor, and its next property holds the cursor for the page
+   * after it, or is empty when there are no more beans.
+   * 
+   * @param cursor String The next cursor of the previous page, or empty for the first page
+   * @param pageSize int The most beans to return
+   * @param sortBy String Must be what the cursor was made under
+   * @param sortDirection String Must be what the cursor was made under
+   * @param propertyValues Map<String, String> Map of bean property names to String values
+   * @param countStrategy BeanStoreCountStrategy How to count the total, or null for the bean type's default
+   * @return PageableBeanList<T>
+   * @throws BeanStoreException if the cursor is malformed, or was made for another sort
+   */
+  PageableBeanList<T> getPageOfMatchingBeansAfter(String cursor, int pageSize, String sortBy, String sortDirection, Map<String, String> propertyValues, BeanStoreCountStrategy countStrategy) throws BeanStoreException;
+
   /**
    * Get the pageable list of beans via a 'Named Query'.
    * 
@@ -114,6 +185,19 @@ public interface BeanStore<T extends StorableBean> {
    */
   PageableBeanList<T> getPageOfBeansViaQuery(int start, int end, String sortBy, String sortDirection, String queryName, Object... queryParameters) throws BeanStoreException;
 
+  /**
+   * Get the pageable list of beans via a 'Named Query', counting the total as asked.
+   * 
+   * @param start int The index into the full results at which to start the page
+   * @param end int The index into the full results at which to end the page
+   * @param countStrategy BeanStoreCountStrategy How to count the total, or null for the bean type's default
+   * @param queryName String The name of the 'Named Query', whatever that that may be...
+   * @param queryParameters Object... The values to inject into the 'Named Query'.
+   * @return PageableBeanList<T>
+   * @throws BeanStoreException
+   */
+  PageableBeanList<T> getPageOfBeansViaQuery(int start, int end, String sortBy, String sortDirection, BeanStoreCountStrategy countStrategy, String queryName, Object... queryParameters) throws BeanStoreException;
+
   /**
    * Create or update a bean in the BeanStore.
    * 
@@ -132,4 +216,49 @@ public interface BeanStore<T extends StorableBean> {
    * @throws BeanStoreException
    */
   boolean deleteBean(String beanId, BeanStoreTransaction transaction) throws NoBeanFoundException, BeanStoreException;
+
+  /**
+   * Create or update many beans in the BeanStore, as cheaply as the store can write them together, such as
+   * for bulk imports.
+   * 
+   * @param beans Collection<T> The beans to store
+   * @param transaction BeanStoreTransaction
+   * @return List<T> The beans stored, in order, with their ids filled in
+   * @throws BeanStoreException
+   */
+  List<T> createOrUpdateBeans(Collection<T> beans, BeanStoreTransaction transaction) throws BeanStoreException;
+
+  /**
+   * Delete many beans from the BeanStore. Ids of beans that don't exist are skipped.
+   * 
+   * @param beanIds Collection<String> The ids of the beans
+   * @param transaction BeanStoreTransaction
+   * @return int How many beans were deleted
+   * @throws BeanStoreException
+   */
+  int deleteBeans(Collection<String> beanIds, BeanStoreTransaction transaction) throws BeanStoreException;
+
+  /**
+   * Delete every bean matching all the property values, without loading them where the store can. With
+   * no property values, every bean matches.
+   * 
+   * @param propertyValues Map<String, String> The property values to match
+   * @param transaction BeanStoreTransaction
+   * @return int How many beans were deleted
+   * @throws BeanStoreException
+   */
+  int deleteMatchingBeans(Map<String, String> propertyValues, BeanStoreTransaction transaction) throws BeanStoreException;
+
+  /**
+   * Set new property values on every bean matching all the property values, without loading them where
+   * the store can, and stamp them as changed if they're StampedBeans. With no property values, every bean
+   * matches. The id can't be set.
+   * 
+   * @param propertyValues Map<String, String> The property values to match
+   * @param newPropertyValues Map<String, String> The property values to set
+   * @param transaction BeanStoreTransaction
+   * @return int How many beans were updated
+   * @throws BeanStoreException
+   */
+  int updateMatchingBeans(Map<String, String> propertyValues, Map<String, String> newPropertyValues, BeanStoreTransaction transaction) throws BeanStoreException;
 }
@@ -0,0 +1,46 @@
+package org.tharrisx.framework.store;
+
+/**
+ * How a BeanStore comes up with the total count of a paged query. Counting can cost as much as the page
+ * itself, or more, so callers that don't need an exact count can ask for a cheaper one, or none.
+ * 
+ * A bean type's default is set with the StoreCount annotation; requests may override it.
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public enum BeanStoreCountStrategy {
+
+  /**
+   * Count the matching beans every time, in the store, without loading them.
+   */
+  EXACT,
+
+  /**
+   * Count exactly, but keep the count for the bean type and predicate until a bean of the type is written,
+   * or the count gets too old.
+   */
+  CACHED,
+
+  /**
+   * Read an estimate of the bean count from the store's statistics, where it keeps any, if every bean
+   * matches; otherwise count exactly.
+   */
+  ESTIMATED,
+
+  /**
+   * Don't count; the total count is reported as -1.
+   */
+  NONE;
+
+  /**
+   * @param value String a strategy's name, in any case, or empty for none in particular
+   * @return BeanStoreCountStrategy null if the value is empty
+   * @throws IllegalArgumentException if the value names no strategy
+   */
+  public static BeanStoreCountStrategy fromString(String value) {
+    if(null == value || "".equals(value)) return null;
+    return valueOf(value.toUpperCase());
+  }
+}
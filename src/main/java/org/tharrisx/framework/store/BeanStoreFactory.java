@@ -24,6 +24,15 @@ public interface BeanStoreFactory {
    */
   <T extends StorableBean> BeanStore<T> getBeanStore(Class<T> beanType);
 
+  /**
+   * Provide an AsyncBeanStore for the requested bean type, running its calls on this factory's executor.
+   * 
+   * @param <T extends StorableBean>
+   * @param beanType Class<T>
+   * @return AsyncBeanStore<T>
+   */
+  <T extends StorableBean> AsyncBeanStore<T> getAsyncBeanStore(Class<T> beanType);
+
   /**
    * Begin a database read/write transaction.
    * 
@@ -36,7 +45,20 @@ public interface BeanStoreFactory {
   <T extends StorableBean> BeanStoreTransaction beginTransaction(Class<T> beanType, String transactionName) throws BeanStoreException;
 
   /**
-   * End a database read/write transaction.
+   * Begin a database transaction that will only read. The implementation may skip the work a read/write
+   * transaction does to notice and save changes to the beans it loads; any such changes are not saved.
+   * End it with endTransaction(), as any other.
+   * 
+   * @param <T extends StorableBean>
+   * @param beanType Class<T>
+   * @param transactionName String
+   * @return BeanStoreTransaction
+   * @throws BeanStoreException
+   */
+  <T extends StorableBean> BeanStoreTransaction beginReadOnlyTransaction(Class<T> beanType, String transactionName) throws BeanStoreException;
+
+  /**
+   * End a database read/write transaction: commit it, or roll it back if it was marked rollback only.
    * 
    * @param <T extends StorableBean>
    * @param beanType Class<T>
@@ -1,8 +1,11 @@
 package org.tharrisx.framework.store;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.util.log.Log;
 
 /**
  * Represents an abstract bean store transaction, each implementation must
@@ -23,12 +26,80 @@ public abstract class BeanStoreTransaction implements Serializable {
     return this.transactionName;
   }
 
+  private boolean rollbackOnly = false;
+
+  /**
+   * @return boolean true if ending the transaction will roll it back rather than commit it
+   */
+  public boolean isRollbackOnly() {
+    return this.rollbackOnly;
+  }
+
+  /**
+   * Have ending the transaction roll it back, discarding its writes, rather than commit it.
+   */
+  public void setRollbackOnly() {
+    this.rollbackOnly = true;
+  }
+
+  private transient List<Runnable> endActions = null;
+
+  private transient List<Runnable> commitActions = null;
+
   protected BeanStoreTransaction(String aTransactionName) {
     this.transactionName = aTransactionName;
   }
 
+  /**
+   * Have the action run once the transaction has ended, whether it committed or not. Like the rest of the
+   * transaction, not for use by more than one thread at a time.
+   * 
+   * @param action Runnable
+   */
+  public void addEndAction(Runnable action) {
+    if(null == this.endActions) this.endActions = new ArrayList<>();
+    this.endActions.add(action);
+  }
+
+  /**
+   * Have the action run once the transaction has ended, only if it committed, before any end actions.
+   * 
+   * @param action Runnable
+   */
+  public void addCommitAction(Runnable action) {
+    if(null == this.commitActions) this.commitActions = new ArrayList<>();
+    this.commitActions.add(action);
+  }
+
+  /**
+   * Run the commit actions, if it committed, and then the end actions, each in the order they were added,
+   * and forget them all. BeanStoreFactories call this once they've ended the transaction, even if ending it
+   * failed. An action that fails is logged, and the rest still run.
+   * 
+   * @param committed boolean whether every write was committed
+   */
+  public void runEndActions(boolean committed) {
+    List<Runnable> commits = this.commitActions;
+    List<Runnable> ends = this.endActions;
+    this.commitActions = null;
+    this.endActions = null;
+    if(committed) runActions(commits);
+    runActions(ends);
+  }
+
+  private void runActions(List<Runnable> actions) {
+    if(null == actions) return;
+    for(Runnable action : actions) {
+      try {
+        action.run();
+      } catch(RuntimeException e) {
+        Log.error(getClass(), "runEndActions", "End action " + action + " of transaction '" + getTransactionName() + "' failed.", e);
+      }
+    }
+  }
+
   @Override
   public String toString() {
-    return new ToStringBuilder(this).append("transactionName", getTransactionName()).toString();
+    return new ToStringBuilder(this).append("transactionName", getTransactionName()).append("rollbackOnly", isRollbackOnly()).toString();
   }
 }
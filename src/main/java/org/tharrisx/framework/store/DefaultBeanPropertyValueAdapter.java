@@ -7,11 +7,12 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.commons.lang.ClassUtils;
 import org.tharrisx.framework.store.core.BeanStoreStackInfo;
 import org.tharrisx.framework.store.exception.InvalidBeanPropertyValueException;
 import org.tharrisx.framework.store.exception.NoSuchBeanPropertyException;
 import org.tharrisx.util.DateUtils;
-import org.tharrisx.util.reflect.FieldTypeRegistry;
+import org.tharrisx.util.reflect.BeanAccessorRegistry;
 import org.tharrisx.util.reflect.TypeStringConstructorRegistry;
 import org.tharrisx.util.text.StringUtils;
 
@@ -67,7 +68,8 @@ public class DefaultBeanPropertyValueAdapter implements BeanPropertyValueAdapter
     public Object destringify(BeanStoreStackInfo info, String propertyValue) throws NoSuchBeanPropertyException {
       Object ret = null;
       try {
-        Constructor<?> constructor = TypeStringConstructorRegistry.get().getConstructor(getType());
+        // primitives have no constructors; their wrapper types do
+        Constructor<?> constructor = TypeStringConstructorRegistry.get().getConstructor(ClassUtils.primitiveToWrapper(getType()));
         ret = StringUtils.isEmpty(propertyValue) ? null : constructor.newInstance(propertyValue);
       } catch(Exception e) {
         throw new NoSuchBeanPropertyException(info, e);
@@ -158,21 +160,32 @@ public class DefaultBeanPropertyValueAdapter implements BeanPropertyValueAdapter
 
   protected Class<?> getBeanPropertyType(BeanStoreStackInfo info, String propertyName) throws NoSuchBeanPropertyException {
     try {
-      return FieldTypeRegistry.get().getFieldType(info.getBeanType(), propertyName);
+      return BeanAccessorRegistry.get().getAccessor(info.getBeanType(), propertyName).getType();
     } catch(NoSuchFieldException e) {
       throw new NoSuchBeanPropertyException(info, e);
     }
   }
 
+  /**
+   * The adapter for the bean property's type, which getAdaptedValue() and getStringValue() use. Callers
+   * adapting many values of one property can look it up once and use it directly.
+   * 
+   * @param info BeanStoreStackInfo
+   * @param propertyName String
+   * @return PropertyTypeStringAdapter or null if there is none for the property's type
+   * @throws NoSuchBeanPropertyException
+   */
+  public PropertyTypeStringAdapter getTypeAdapter(BeanStoreStackInfo info, String propertyName) throws NoSuchBeanPropertyException {
+    return getTypeAdapters().get(getBeanPropertyType(info, propertyName));
+  }
+
   @Override
   public Object getAdaptedValue(BeanStoreStackInfo info, String propertyName, String propertyValue) throws NoSuchBeanPropertyException, InvalidBeanPropertyValueException {
-    Class<?> beanPropertyType = getBeanPropertyType(info, propertyName);
-    return getTypeAdapters().get(beanPropertyType).destringify(info, propertyValue);
+    return getTypeAdapter(info, propertyName).destringify(info, propertyValue);
   }
 
   @Override
   public String getStringValue(BeanStoreStackInfo info, String propertyName, Object propertyValue) throws NoSuchBeanPropertyException, InvalidBeanPropertyValueException {
-    Class<?> beanPropertyType = getBeanPropertyType(info, propertyName);
-    return getTypeAdapters().get(beanPropertyType).stringify(info, propertyValue);
+    return getTypeAdapter(info, propertyName).stringify(info, propertyValue);
   }
 }
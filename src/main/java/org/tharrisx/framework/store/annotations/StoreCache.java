@@ -0,0 +1,44 @@
+package org.tharrisx.framework.store.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.tharrisx.framework.store.cache.BeanWeigher;
+
+/**
+ * Puts a CachingBeanStore in front of the bean type's BeanStore, caching beans read by id and by unique key.
+ * See CachingBeanStore.
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface StoreCache {
+
+  /**
+   * How much the cached beans may weigh in all, in the weigher's units; with the default weigher, how
+   * many beans may be cached.
+   * @return long
+   */
+  long maximumWeight() default 10000L;
+
+  /**
+   * What each cached bean weighs. It needs a public no-argument constructor.
+   * @return Class<? extends BeanWeigher>
+   */
+  Class<? extends BeanWeigher> weigher() default BeanWeigher.Unit.class;
+
+  /**
+   * How long a bean stays cached after it's read from the store; 0 to keep it until it's evicted or written.
+   * @return long
+   */
+  long expireAfterWriteSeconds() default 300L;
+}
@@ -0,0 +1,27 @@
+package org.tharrisx.framework.store.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.tharrisx.framework.store.BeanStoreCountStrategy;
+
+/**
+ * Sets how BeanStores count the total for pages of a bean type, when the request doesn't say. Bean types
+ * without it are counted exactly.
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface StoreCount {
+
+  BeanStoreCountStrategy value();
+}
@@ -0,0 +1,38 @@
+package org.tharrisx.framework.store.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts an IdFilteringBeanStore in front of the bean type's BeanStore, answering reads by id of beans that
+ * certainly don't exist without asking the store. See IdFilteringBeanStore.
+ *
+ * Only for bean types no other process writes: a bean another process creates looks missing here.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface StoreIdFilter {
+
+  /**
+   * About how many beans of the type the store will hold; the filter is sized for this many.
+   * @return long
+   */
+  long expectedBeanCount() default 1000000L;
+
+  /**
+   * How often a read of a missing bean may still go to the store, while it holds no more than the expected
+   * count; between 0 and 1, exclusive.
+   * @return double
+   */
+  double falsePositiveRate() default 0.01;
+}
@@ -0,0 +1,31 @@
+package org.tharrisx.framework.store.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a bean property as indexed, for BeanStore implementations that maintain their own indexes (the
+ * memory store, for one). Matches and unique-key lookups naming an indexed property are resolved through
+ * the index instead of scanning every bean. Sorted indexes also serve pages sorted by the property.
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface StoreIndex {
+
+  /**
+   * Keep the index in property value order, so pages sorted by this property can be read straight from
+   * it. The property type must be primitive or Comparable.
+   * @return boolean
+   */
+  boolean sorted() default false;
+}
@@ -0,0 +1,326 @@
+package org.tharrisx.framework.store.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * A map of values by key, bounded by their total weight, that evicts by W-TinyLFU. New entries go to a small
+ * LRU window; when it overflows, its oldest entry moves to the probation end of the main space, and must
+ * then seem, by the FrequencySketch, to be read more often than the least recently used entry there, or be
+ * evicted in its place. So a burst of one-off reads can't flush the entries read again and again. The main
+ * space is a segmented LRU: entries read again while on probation move up to the protected segment, whose
+ * overflow moves back down to probation. Entries also expire a fixed time after they're put.
+ *
+ * Reads are lock-free lookups; the reordering and counting a read does are skipped when another thread
+ * holds the lock, which costs only some accuracy. Writes take the lock.
+ *
+ * @param <V> V the values
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class BeanCache<V> {
+
+  /**
+   * The share of the maximum weight the window gets.
+   */
+  static final int WINDOW_PERCENT = 1;
+
+  /**
+   * The share of the main space the protected segment gets.
+   */
+  static final int PROTECTED_PERCENT = 80;
+
+  private enum Segment {
+    WINDOW, PROBATION, PROTECTED;
+  }
+
+  private static final class Node<V> {
+
+    final String key;
+    final V value;
+    final long weight;
+    final long expires;
+    Segment segment;
+    Node<V> prev;
+    Node<V> next;
+
+    Node(final String key1, final V value1, final long weight1, final long expires1) {
+      this.key = key1;
+      this.value = value1;
+      this.weight = weight1;
+      this.expires = expires1;
+    }
+
+    boolean isExpired(final long now) {
+      return 0L != this.expires && now > this.expires;
+    }
+  }
+
+  /**
+   * A segment's entries, most recently used first, and their total weight.
+   */
+  private static final class NodeQueue<V> {
+
+    private final Node<V> sentinel = new Node<>(null, null, 0L, 0L);
+
+    long weight;
+
+    NodeQueue() {
+      this.sentinel.prev = this.sentinel;
+      this.sentinel.next = this.sentinel;
+    }
+
+    Node<V> first() {
+      return this.sentinel == this.sentinel.next ? null : this.sentinel.next;
+    }
+
+    Node<V> last() {
+      return this.sentinel == this.sentinel.prev ? null : this.sentinel.prev;
+    }
+
+    void addFirst(final Node<V> node) {
+      node.prev = this.sentinel;
+      node.next = this.sentinel.next;
+      this.sentinel.next.prev = node;
+      this.sentinel.next = node;
+      this.weight += node.weight;
+    }
+
+    void remove(final Node<V> node) {
+      node.prev.next = node.next;
+      node.next.prev = node.prev;
+      node.prev = null;
+      node.next = null;
+      this.weight -= node.weight;
+    }
+
+    void clear() {
+      // unlinked, so a reader still holding one knows it's gone
+      Node<V> node = this.sentinel.next;
+      while(this.sentinel != node) {
+        Node<V> next = node.next;
+        node.prev = null;
+        node.next = null;
+        node = next;
+      }
+      this.sentinel.prev = this.sentinel;
+      this.sentinel.next = this.sentinel;
+      this.weight = 0L;
+    }
+  }
+
+  private final ConcurrentMap<String, Node<V>> nodes = new ConcurrentHashMap<>();
+
+  private ConcurrentMap<String, Node<V>> getNodes() {
+    return this.nodes;
+  }
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private ReentrantLock getLock() {
+    return this.lock;
+  }
+
+  private final NodeQueue<V> window = new NodeQueue<>();
+  private final NodeQueue<V> probation = new NodeQueue<>();
+  private final NodeQueue<V> protectedQueue = new NodeQueue<>();
+
+  private final FrequencySketch sketch;
+
+  private final long maximumWeight;
+
+  long getMaximumWeight() {
+    return this.maximumWeight;
+  }
+
+  private final long windowMaximumWeight;
+
+  private final long protectedMaximumWeight;
+
+  private final long expireAfterWriteMillis;
+
+  long getExpireAfterWriteMillis() {
+    return this.expireAfterWriteMillis;
+  }
+
+  /**
+   * @param maximumWeight1 long
+   * @param expireAfterWriteMillis1 long 0 for entries never to expire
+   */
+  BeanCache(final long maximumWeight1, final long expireAfterWriteMillis1) {
+    if(1L > maximumWeight1) throw new IllegalArgumentException("maximumWeight must be at least 1, not " + maximumWeight1);
+    this.maximumWeight = maximumWeight1;
+    this.windowMaximumWeight = Math.max(1L, maximumWeight1 * WINDOW_PERCENT / 100);
+    this.protectedMaximumWeight = (maximumWeight1 - this.windowMaximumWeight) * PROTECTED_PERCENT / 100;
+    this.expireAfterWriteMillis = expireAfterWriteMillis1;
+    this.sketch = new FrequencySketch(maximumWeight1);
+  }
+
+  /**
+   * @param key String
+   * @return V the value, or null if there's none, or it expired
+   */
+  V get(final String key) {
+    Node<V> node = getNodes().get(key);
+    if(null != node && node.isExpired(System.currentTimeMillis())) {
+      getLock().lock();
+      try {
+        if(getNodes().remove(key, node)) unlink(node);
+      } finally {
+        getLock().unlock();
+      }
+      node = null;
+    }
+    if(getLock().tryLock()) {
+      try {
+        this.sketch.increment(key);
+        // it may have been evicted since the lookup
+        if(null != node && null != node.prev) onAccess(node);
+      } finally {
+        getLock().unlock();
+      }
+    }
+    return null == node ? null : node.value;
+  }
+
+  /**
+   * Put the value, replacing any for the key, and evict down to the maximum weight. A value heavier than
+   * that isn't kept.
+   *
+   * @param key String
+   * @param value V
+   * @param weight long
+   */
+  void put(final String key, final V value, final long weight) {
+    long now = System.currentTimeMillis();
+    Node<V> node = new Node<>(key, value, Math.max(1L, weight), 0L == getExpireAfterWriteMillis() ? 0L : now + getExpireAfterWriteMillis());
+    getLock().lock();
+    try {
+      Node<V> replaced = getNodes().remove(key);
+      if(null != replaced) unlink(replaced);
+      if(node.weight > getMaximumWeight()) return;
+      getNodes().put(key, node);
+      node.segment = Segment.WINDOW;
+      this.window.addFirst(node);
+      evict();
+    } finally {
+      getLock().unlock();
+    }
+  }
+
+  /**
+   * @param key String
+   */
+  void remove(final String key) {
+    getLock().lock();
+    try {
+      Node<V> node = getNodes().remove(key);
+      if(null != node) unlink(node);
+    } finally {
+      getLock().unlock();
+    }
+  }
+
+  void clear() {
+    getLock().lock();
+    try {
+      getNodes().clear();
+      this.window.clear();
+      this.probation.clear();
+      this.protectedQueue.clear();
+    } finally {
+      getLock().unlock();
+    }
+  }
+
+  /**
+   * @return int how many entries are cached, counting any expired ones not yet removed
+   */
+  int size() {
+    return getNodes().size();
+  }
+
+  /**
+   * @return long what the cached entries weigh in all
+   */
+  long weight() {
+    getLock().lock();
+    try {
+      return getTotalWeight();
+    } finally {
+      getLock().unlock();
+    }
+  }
+
+  private long getTotalWeight() {
+    return this.window.weight + this.probation.weight + this.protectedQueue.weight;
+  }
+
+  private NodeQueue<V> getQueue(final Segment segment) {
+    switch(segment) {
+      case WINDOW:
+        return this.window;
+      case PROBATION:
+        return this.probation;
+      default:
+        return this.protectedQueue;
+    }
+  }
+
+  private void unlink(final Node<V> node) {
+    if(null != node.prev) getQueue(node.segment).remove(node);
+  }
+
+  private void onAccess(final Node<V> node) {
+    getQueue(node.segment).remove(node);
+    if(Segment.PROBATION == node.segment) {
+      node.segment = Segment.PROTECTED;
+      this.protectedQueue.addFirst(node);
+      while(this.protectedQueue.weight > this.protectedMaximumWeight && this.protectedQueue.first() != this.protectedQueue.last()) {
+        Node<V> demoted = this.protectedQueue.last();
+        this.protectedQueue.remove(demoted);
+        demoted.segment = Segment.PROBATION;
+        this.probation.addFirst(demoted);
+      }
+    } else {
+      getQueue(node.segment).addFirst(node);
+    }
+  }
+
+  private void evict() {
+    // the window's overflow becomes the candidates for the main space, at the front of probation
+    while(this.window.weight > this.windowMaximumWeight && this.window.first() != this.window.last()) {
+      Node<V> candidate = this.window.last();
+      this.window.remove(candidate);
+      candidate.segment = Segment.PROBATION;
+      this.probation.addFirst(candidate);
+    }
+    while(getTotalWeight() > getMaximumWeight()) {
+      Node<V> victim = this.probation.last();
+      if(null == victim) {
+        victim = null != this.protectedQueue.last() ? this.protectedQueue.last() : this.window.last();
+      } else {
+        Node<V> candidate = this.probation.first();
+        // the newest on probation is kept, at the oldest's expense, only if it's read more often
+        if(this.sketch.frequency(candidate.key) <= this.sketch.frequency(victim.key)) victim = candidate;
+      }
+      getNodes().remove(victim.key, victim);
+      unlink(victim);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("size", size())
+        .append("maximumWeight", getMaximumWeight())
+        .append("expireAfterWriteMillis", getExpireAfterWriteMillis())
+        .append("sketch", this.sketch)
+        .toString();
+  }
+}
@@ -0,0 +1,30 @@
+package org.tharrisx.framework.store.cache;
+
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Weighs beans for a CachingBeanStore, whose cache is bounded by the total weight of its beans.
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public interface BeanWeigher {
+
+  /**
+   * @param bean StorableBean
+   * @return long what the bean weighs, at least 1
+   */
+  long weigh(StorableBean bean);
+
+  /**
+   * Weighs every bean at 1, so the cache is bounded by how many beans it holds.
+   */
+  final class Unit implements BeanWeigher {
+
+    @Override
+    public long weigh(StorableBean bean) {
+      return 1L;
+    }
+  }
+}
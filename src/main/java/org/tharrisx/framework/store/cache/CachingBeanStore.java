@@ -0,0 +1,592 @@
+package org.tharrisx.framework.store.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.bean.BeanList;
+import org.tharrisx.framework.callstats.CallStatistician;
+import org.tharrisx.framework.callstats.TimingMemento;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.core.AbstractBeanStoreFactory;
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
+import org.tharrisx.framework.store.core.BeanStoreUnitOfWork;
+import org.tharrisx.framework.store.core.DelegatingBeanStore;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.framework.store.exception.ConflictingBeansFoundException;
+import org.tharrisx.framework.store.exception.NoBeanFoundException;
+import org.tharrisx.util.collection.MapStringUtils;
+import org.tharrisx.util.log.Log;
+import org.tharrisx.util.reflect.BeanAccessor;
+import org.tharrisx.util.reflect.BeanAccessorRegistry;
+import org.tharrisx.util.reflect.ReflectionException;
+
+/**
+ * Implements BeanStore in front of another, for a bean type annotated with StoreCache, keeping the beans read
+ * by id and by unique key in BeanCaches, bounded by weight, evicting by W-TinyLFU, and expiring beans a while
+ * after they're read. Everything else goes straight to the store.
+ *
+ * Cached beans are handed out as copies, so callers may change the beans they get. The copies are shallow,
+ * so bean types with lazily loaded or mutable properties don't suit.
+ *
+ * Misses on the same id or key at the same time share one read from the store. A write drops the beans it
+ * wrote, and drops them again once its transaction ends, committed or not; until then they aren't cached,
+ * so only the writing transaction sees the write. Writes by match drop every bean, and any write drops the
+ * beans cached by unique key, as it may change which bean has a key. A read that began before a drop isn't
+ * cached. Reads in a unit of work use what's cached, but don't cache or share what they read from the store,
+ * as it's the unit of work's own view. A bean read from a lagging replica may outlive a write until it
+ * expires.
+ *
+ * Hits and misses are counted here, and recorded with the factory's CallStatistician, if it has one, as
+ * calls named Bean-CACHE-method-HIT or -MISS.
+ *
+ * @param <T> T extends StorableBean
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class CachingBeanStore<T extends StorableBean> extends DelegatingBeanStore<T> {
+
+  private static final String METHOD_LOAD = "load";
+
+  private static final String CALL_CATEGORY = "CACHE";
+
+  private final BeanWeigher weigher;
+
+  private BeanWeigher getWeigher() {
+    return this.weigher;
+  }
+
+  private final BeanCache<T> beansById;
+
+  private BeanCache<T> getBeansById() {
+    return this.beansById;
+  }
+
+  private final BeanCache<T> beansByKey;
+
+  private BeanCache<T> getBeansByKey() {
+    return this.beansByKey;
+  }
+
+  private final BeanAccessor[] accessors;
+
+  private BeanAccessor[] getAccessors() {
+    return this.accessors;
+  }
+
+  private final ConcurrentMap<String, Load> loads = new ConcurrentHashMap<>();
+
+  private ConcurrentMap<String, Load> getLoads() {
+    return this.loads;
+  }
+
+  private final PendingWrites pendingWrites = new PendingWrites();
+
+  /**
+   * @return PendingWrites also the lock under which beans are dropped, and read beans cached
+   */
+  private PendingWrites getPendingWrites() {
+    return this.pendingWrites;
+  }
+
+  private final AtomicLong drops = new AtomicLong();
+
+  private AtomicLong getDrops() {
+    return this.drops;
+  }
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * The writes made in transactions that haven't ended: by bean id, and those whose beans aren't known.
+   * Guarded by its own monitor.
+   */
+  private static final class PendingWrites {
+
+    private final Map<String, Integer> beanIds = new HashMap<>();
+    private int count;
+    private int unknownCount;
+
+    /**
+     * @param beanIds1 Collection<String> null when the beans written aren't known
+     */
+    void add(final Collection<String> beanIds1) {
+      this.count++;
+      if(null == beanIds1) {
+        this.unknownCount++;
+        return;
+      }
+      for(String beanId : beanIds1) {
+        Integer writes = this.beanIds.get(beanId);
+        this.beanIds.put(beanId, Integer.valueOf(null == writes ? 1 : writes.intValue() + 1));
+      }
+    }
+
+    void remove(final Collection<String> beanIds1) {
+      this.count--;
+      if(null == beanIds1) {
+        this.unknownCount--;
+        return;
+      }
+      for(String beanId : beanIds1) {
+        Integer writes = this.beanIds.get(beanId);
+        if(null == writes || 1 >= writes.intValue()) {
+          this.beanIds.remove(beanId);
+        } else {
+          this.beanIds.put(beanId, Integer.valueOf(writes.intValue() - 1));
+        }
+      }
+    }
+
+    boolean isPending(final String beanId) {
+      return 0 < this.unknownCount || this.beanIds.containsKey(beanId);
+    }
+
+    boolean isAnyPending() {
+      return 0 < this.count;
+    }
+  }
+
+  /**
+   * A read from the store on a miss, which other threads missing on the same key meanwhile wait for and
+   * share, as long as no beans have been dropped since it began.
+   */
+  private abstract class Load implements Callable<T> {
+
+    private final long dropsBefore = getDrops().get();
+
+    private final FutureTask<T> task = new FutureTask<>(this);
+
+    long getDropsBefore() {
+      return this.dropsBefore;
+    }
+
+    /**
+     * @return T the bean read from the store
+     * @throws BeanStoreException
+     */
+    abstract T read() throws BeanStoreException;
+
+    /**
+     * Cache the bean, if no write of it is pending. Called holding the PendingWrites lock.
+     *
+     * @param bean T
+     */
+    abstract void cache(T bean);
+
+    @Override
+    public T call() throws BeanStoreException {
+      T ret = read();
+      synchronized(getPendingWrites()) {
+        if(getDrops().get() == getDropsBefore()) cache(ret);
+      }
+      return ret;
+    }
+
+    /**
+     * @param loadKey String what's being read, to share the read by
+     * @param beanStoreMethod String
+     * @return T the bean read, shared with other threads, so not to be changed
+     */
+    T load(final String loadKey, final String beanStoreMethod) {
+      Load running = getLoads().putIfAbsent(loadKey, this);
+      if(null != running && running.getDropsBefore() == getDropsBefore()) {
+        return running.await(beanStoreMethod);
+      }
+      try {
+        this.task.run();
+      } finally {
+        if(null == running) getLoads().remove(loadKey, this);
+      }
+      return await(beanStoreMethod);
+    }
+
+    private T await(final String beanStoreMethod) {
+      try {
+        return this.task.get();
+      } catch(ExecutionException e) {
+        if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+        if(e.getCause() instanceof Error) throw (Error) e.getCause();
+        throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), null, beanStoreMethod), e.getCause());
+      } catch(InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), null, beanStoreMethod), e);
+      }
+    }
+  }
+
+  /**
+   * @param beanStoreFactory1 AbstractBeanStoreFactory the factory of both stores
+   * @param beanType1 Class<T>
+   * @param beanStore1 BeanStore<T> the store to cache for
+   * @param maximumWeight1 long what the beans cached by id may weigh in all, and those cached by key
+   * @param weigher1 BeanWeigher
+   * @param expireAfterWriteMillis1 long 0 to keep beans until they're evicted or written
+   */
+  public CachingBeanStore(final AbstractBeanStoreFactory beanStoreFactory1, final Class<T> beanType1, final BeanStore<T> beanStore1, final long maximumWeight1, final BeanWeigher weigher1, final long expireAfterWriteMillis1) {
+    super(beanStoreFactory1, beanType1, beanStore1);
+    if(Log.isEnteringEnabled(CachingBeanStore.class)) Log.entering(CachingBeanStore.class, Log.METHOD_NAME_CONSTRUCTOR, beanStoreFactory1, beanType1, beanStore1, maximumWeight1, weigher1, expireAfterWriteMillis1);
+    try {
+      this.weigher = weigher1;
+      this.beansById = new BeanCache<>(maximumWeight1, expireAfterWriteMillis1);
+      this.beansByKey = new BeanCache<>(maximumWeight1, expireAfterWriteMillis1);
+      List<BeanAccessor> copied = new ArrayList<>();
+      for(BeanAccessor accessor : BeanAccessorRegistry.get().getAccessors(beanType1).values()) {
+        // skip the pipe plumbing in Bean and above
+        if(StorableBean.class.isAssignableFrom(accessor.getDeclaringClass()) && accessor.isWritable()) {
+          copied.add(accessor);
+        }
+      }
+      this.accessors = copied.toArray(new BeanAccessor[copied.size()]);
+    } finally {
+      if(Log.isExitingEnabled(CachingBeanStore.class)) Log.exiting(CachingBeanStore.class, Log.METHOD_NAME_CONSTRUCTOR);
+    }
+  }
+
+  /**
+   * @return long how many reads by id or unique key were answered from the cache
+   */
+  public long getHitCount() {
+    return this.hits.get();
+  }
+
+  /**
+   * @return long how many reads by id or unique key went to the store
+   */
+  public long getMissCount() {
+    return this.misses.get();
+  }
+
+  /**
+   * @return double the share of reads by id or unique key answered from the cache, 0 before any
+   */
+  public double getHitRate() {
+    long hitCount = getHitCount();
+    long readCount = hitCount + getMissCount();
+    return 0L == readCount ? 0.0 : (double) hitCount / readCount;
+  }
+
+  /**
+   * @return int how many beans are cached by id
+   */
+  public int getCachedBeanCount() {
+    return getBeansById().size();
+  }
+
+  @Override
+  public boolean hasBean(final String beanId) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_HAS_BEAN, beanId);
+    boolean ret = false;
+    try {
+      ret = null != getBeansById().get(beanId) || getBeanStore().hasBean(beanId);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_HAS_BEAN, ret);
+    }
+  }
+
+  @Override
+  public boolean hasBeanByUniqueKey(final Map<String, String> propertyValues) throws ConflictingBeansFoundException, BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_HAS_BEAN_BY_UNIQUE_KEY, propertyValues);
+    boolean ret = false;
+    try {
+      ret = null != getBeansByKey().get(makeKey(propertyValues)) || getBeanStore().hasBeanByUniqueKey(propertyValues);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_HAS_BEAN_BY_UNIQUE_KEY, ret);
+    }
+  }
+
+  @Override
+  public T getBean(final String beanId) throws NoBeanFoundException, BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEAN, beanId);
+    T ret = null;
+    try {
+      TimingMemento timing = new TimingMemento();
+      T cached = getBeansById().get(beanId);
+      if(null != cached) {
+        ret = copy(cached);
+      } else if(BeanStoreUnitOfWork.isOpen()) {
+        ret = getBeanStore().getBean(beanId);
+      } else {
+        ret = copy(new Load() {
+          @Override T read() {
+            return getBeanStore().getBean(beanId);
+          }
+          @Override void cache(T bean) {
+            if(!getPendingWrites().isPending(beanId)) getBeansById().put(beanId, bean, weigh(bean));
+          }
+        }.load(beanId, METHOD_GET_BEAN));
+      }
+      recordLookup(METHOD_GET_BEAN, 1, null == cached ? 1 : 0, timing);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEAN, ret);
+    }
+  }
+
+  /**
+   * Answers what it can from the cache, and asks the store for the rest in one call.
+   */
+  @Override
+  public BeanList<T> getBeans(final Collection<String> beanIds) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEANS, beanIds);
+    BeanList<T> ret = null;
+    try {
+      TimingMemento timing = new TimingMemento();
+      Collection<String> distinctIds = new LinkedHashSet<>(beanIds);
+      Map<String, T> found = new HashMap<>(distinctIds.size());
+      List<String> missingIds = new ArrayList<>();
+      for(String beanId : distinctIds) {
+        T cached = getBeansById().get(beanId);
+        if(null != cached) {
+          found.put(beanId, copy(cached));
+        } else {
+          missingIds.add(beanId);
+        }
+      }
+      if(!missingIds.isEmpty()) {
+        long dropsBefore = getDrops().get();
+        List<T> read = getBeanStore().getBeans(missingIds).getItems();
+        for(T bean : read) {
+          found.put(bean.getId(), bean);
+        }
+        if(!BeanStoreUnitOfWork.isOpen()) {
+          synchronized(getPendingWrites()) {
+            if(getDrops().get() == dropsBefore) {
+              for(T bean : read) {
+                if(!getPendingWrites().isPending(bean.getId())) getBeansById().put(bean.getId(), copy(bean), weigh(bean));
+              }
+            }
+          }
+        }
+      }
+      List<T> items = new ArrayList<>(found.size());
+      for(String beanId : distinctIds) {
+        if(found.containsKey(beanId)) items.add(found.get(beanId));
+      }
+      recordLookup(METHOD_GET_BEANS, distinctIds.size(), missingIds.size(), timing);
+      ret = new BeanList<>(items);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEANS, ret);
+    }
+  }
+
+  @Override
+  public T getBeanByUniqueKey(final Map<String, String> propertyValues) throws NoBeanFoundException, ConflictingBeansFoundException, BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEAN_BY_UNIQUE_KEY, propertyValues);
+    T ret = null;
+    try {
+      TimingMemento timing = new TimingMemento();
+      final String key = makeKey(propertyValues);
+      T cached = getBeansByKey().get(key);
+      if(null != cached) {
+        ret = copy(cached);
+      } else if(BeanStoreUnitOfWork.isOpen()) {
+        ret = getBeanStore().getBeanByUniqueKey(propertyValues);
+      } else {
+        ret = copy(new Load() {
+          @Override T read() {
+            return getBeanStore().getBeanByUniqueKey(propertyValues);
+          }
+          @Override void cache(T bean) {
+            if(getPendingWrites().isAnyPending()) return;
+            long weight = weigh(bean);
+            getBeansByKey().put(key, bean, weight);
+            getBeansById().put(bean.getId(), bean, weight);
+          }
+        }.load(key, METHOD_GET_BEAN_BY_UNIQUE_KEY));
+      }
+      recordLookup(METHOD_GET_BEAN_BY_UNIQUE_KEY, 1, null == cached ? 1 : 0, timing);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEAN_BY_UNIQUE_KEY, ret);
+    }
+  }
+
+  @Override
+  public T createOrUpdateBean(T bean, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_CREATE_OR_UPDATE_BEAN, bean, transaction);
+    T ret = null;
+    try {
+      ret = getBeanStore().createOrUpdateBean(bean, transaction);
+      drop(Collections.singletonList(ret.getId()), transaction);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_CREATE_OR_UPDATE_BEAN, ret);
+    }
+  }
+
+  @Override
+  public boolean deleteBean(String beanId, BeanStoreTransaction transaction) throws NoBeanFoundException, BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_BEAN, beanId, transaction);
+    boolean ret = false;
+    try {
+      ret = getBeanStore().deleteBean(beanId, transaction);
+      drop(Collections.singletonList(beanId), transaction);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_BEAN, ret);
+    }
+  }
+
+  @Override
+  public List<T> createOrUpdateBeans(Collection<T> beans, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_CREATE_OR_UPDATE_BEANS, beans.size(), transaction);
+    List<T> ret = null;
+    try {
+      ret = getBeanStore().createOrUpdateBeans(beans, transaction);
+      List<String> beanIds = new ArrayList<>(ret.size());
+      for(T bean : ret) {
+        beanIds.add(bean.getId());
+      }
+      drop(beanIds, transaction);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_CREATE_OR_UPDATE_BEANS, null == ret ? null : ret.size());
+    }
+  }
+
+  @Override
+  public int deleteBeans(Collection<String> beanIds, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_BEANS, beanIds.size(), transaction);
+    int ret = 0;
+    try {
+      ret = getBeanStore().deleteBeans(beanIds, transaction);
+      drop(new ArrayList<>(beanIds), transaction);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_BEANS, ret);
+    }
+  }
+
+  @Override
+  public int deleteMatchingBeans(Map<String, String> propertyValues, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_MATCHING_BEANS, propertyValues, transaction);
+    int ret = 0;
+    try {
+      ret = getBeanStore().deleteMatchingBeans(propertyValues, transaction);
+      drop(null, transaction);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_MATCHING_BEANS, ret);
+    }
+  }
+
+  @Override
+  public int updateMatchingBeans(Map<String, String> propertyValues, Map<String, String> newPropertyValues, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_UPDATE_MATCHING_BEANS, propertyValues, newPropertyValues, transaction);
+    int ret = 0;
+    try {
+      ret = getBeanStore().updateMatchingBeans(propertyValues, newPropertyValues, transaction);
+      drop(null, transaction);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_UPDATE_MATCHING_BEANS, ret);
+    }
+  }
+
+  /**
+   * Drop the written beans now, and keep them from being cached until the transaction ends, when they're
+   * dropped again. Without a transaction, the store has already committed the write.
+   *
+   * @param beanIds Collection<String> null when the beans written aren't known, to drop them all
+   * @param transaction BeanStoreTransaction
+   */
+  private void drop(final Collection<String> beanIds, final BeanStoreTransaction transaction) {
+    synchronized(getPendingWrites()) {
+      if(null != transaction) getPendingWrites().add(beanIds);
+      dropCached(beanIds);
+    }
+    if(null == transaction) return;
+    transaction.addEndAction(new Runnable() {
+      @Override public void run() {
+        synchronized(getPendingWrites()) {
+          getPendingWrites().remove(beanIds);
+          dropCached(beanIds);
+        }
+      }
+    });
+  }
+
+  private void dropCached(final Collection<String> beanIds) {
+    getDrops().incrementAndGet();
+    if(null == beanIds) {
+      getBeansById().clear();
+    } else {
+      for(String beanId : beanIds) {
+        getBeansById().remove(beanId);
+      }
+    }
+    getBeansByKey().clear();
+  }
+
+  private void recordLookup(final String beanStoreMethod, final int lookupCount, final int missCount, final TimingMemento timing) {
+    this.hits.addAndGet(lookupCount - missCount);
+    this.misses.addAndGet(missCount);
+    if(!(getBeanStoreFactory() instanceof AbstractBeanStoreFactory)) return;
+    CallStatistician callStatistician = ((AbstractBeanStoreFactory) getBeanStoreFactory()).getCallStatistician();
+    if(null == callStatistician) return;
+    callStatistician.recordCall(getBeanType().getSimpleName() + '-' + CALL_CATEGORY + '-' + beanStoreMethod + (0 == missCount ? "-HIT" : "-MISS"), true, timing);
+  }
+
+  private long weigh(final T bean) {
+    return getWeigher().weigh(bean);
+  }
+
+  /**
+   * @param propertyValues Map<String, String>
+   * @return String the same for the same property values, in any order, and never for different ones
+   */
+  private static String makeKey(final Map<String, String> propertyValues) {
+    return MapStringUtils.constructKey(propertyValues);
+  }
+
+  /**
+   * A shallow copy of the bean: a new instance, with the same value for every property.
+   *
+   * @param bean T
+   * @return T
+   */
+  private T copy(final T bean) {
+    T ret = null;
+    try {
+      ret = getBeanType().getDeclaredConstructor().newInstance();
+    } catch(ReflectiveOperationException e) {
+      throw new ReflectionException("Bean type " + getBeanType().getName() + " needs a public no-argument constructor to be cached.", e);
+    }
+    for(BeanAccessor accessor : getAccessors()) {
+      accessor.set(ret, accessor.get(bean));
+    }
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .appendSuper(super.toString())
+        .append("beansById", getBeansById())
+        .append("beansByKey", getBeansByKey())
+        .append("hitCount", getHitCount())
+        .append("missCount", getMissCount())
+        .toString();
+  }
+}
@@ -0,0 +1,170 @@
+package org.tharrisx.framework.store.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * Whether a key may have been added: never wrongly no, and wrongly yes about as often as the false positive
+ * rate it was sized for, while it holds no more than the expected count. A counting Bloom filter of 4-bit
+ * counters, sixteen to a long; each key counts up the counters its double hash picks, and removing it counts
+ * them back down. A counter that reaches 15 stays there, as it no longer knows how many keys share it, so
+ * removing never makes the filter wrongly say no; it only says yes a little more often.
+ *
+ * Thread safe and lock-free; counters change by compare-and-set. Only remove keys that were added.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class CountingBloomFilter {
+
+  private static final int COUNTERS_PER_LONG = 16;
+
+  private static final long COUNTER_MASK = 0xfL;
+
+  private static final long MAX_COUNT = 15L;
+
+  private static final double LN_2 = Math.log(2.0);
+
+  private final AtomicLongArray table;
+
+  private final long counterCount;
+
+  long getCounterCount() {
+    return this.counterCount;
+  }
+
+  private final int hashCount;
+
+  int getHashCount() {
+    return this.hashCount;
+  }
+
+  private final AtomicLong count = new AtomicLong();
+
+  /**
+   * @param expectedCount long
+   * @param falsePositiveRate double between 0 and 1, exclusive
+   */
+  CountingBloomFilter(final long expectedCount, final double falsePositiveRate) {
+    if(1L > expectedCount) throw new IllegalArgumentException("expectedCount must be at least 1, not " + expectedCount);
+    if(!(0.0 < falsePositiveRate && 1.0 > falsePositiveRate)) throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1, not " + falsePositiveRate);
+    // the optimal size and hash count for a Bloom filter of that many keys and rate
+    long counters = (long) Math.ceil(-expectedCount * Math.log(falsePositiveRate) / (LN_2 * LN_2));
+    long length = Math.max(1L, (counters + COUNTERS_PER_LONG - 1) / COUNTERS_PER_LONG);
+    if(Integer.MAX_VALUE < length) throw new IllegalArgumentException("A filter for " + expectedCount + " keys at a false positive rate of " + falsePositiveRate + " is too big.");
+    this.table = new AtomicLongArray((int) length);
+    this.counterCount = length * COUNTERS_PER_LONG;
+    this.hashCount = Math.max(1, (int) Math.round((double) this.counterCount / expectedCount * LN_2));
+  }
+
+  /**
+   * @param key String
+   * @return boolean false if it certainly wasn't added, or was removed since
+   */
+  boolean mightContain(final String key) {
+    long hash = hash(key);
+    for(int idx = 0; idx < getHashCount(); idx++) {
+      long counter = indexOf(hash, idx);
+      if(0L == ((this.table.get(slotOf(counter)) >>> shiftOf(counter)) & COUNTER_MASK)) return false;
+    }
+    return true;
+  }
+
+  void add(final String key) {
+    long hash = hash(key);
+    for(int idx = 0; idx < getHashCount(); idx++) {
+      long counter = indexOf(hash, idx);
+      int slot = slotOf(counter);
+      int shift = shiftOf(counter);
+      while(true) {
+        long value = this.table.get(slot);
+        if(MAX_COUNT == ((value >>> shift) & COUNTER_MASK)) break;
+        if(this.table.compareAndSet(slot, value, value + (1L << shift))) break;
+      }
+    }
+    this.count.incrementAndGet();
+  }
+
+  void remove(final String key) {
+    long hash = hash(key);
+    for(int idx = 0; idx < getHashCount(); idx++) {
+      long counter = indexOf(hash, idx);
+      int slot = slotOf(counter);
+      int shift = shiftOf(counter);
+      while(true) {
+        long value = this.table.get(slot);
+        long current = (value >>> shift) & COUNTER_MASK;
+        // a saturated counter may still be shared by more keys than it can count
+        if(0L == current || MAX_COUNT == current) break;
+        if(this.table.compareAndSet(slot, value, value - (1L << shift))) break;
+      }
+    }
+    this.count.decrementAndGet();
+  }
+
+  /**
+   * @return long how many keys were added and not removed
+   */
+  long getCount() {
+    return this.count.get();
+  }
+
+  /**
+   * How often it would now wrongly say yes, from the share of counters in use. Reads every counter.
+   *
+   * @return double
+   */
+  double getExpectedFalsePositiveRate() {
+    long used = 0L;
+    for(int slot = 0; slot < this.table.length(); slot++) {
+      long value = this.table.get(slot);
+      for(int shift = 0; shift < 64; shift += 4) {
+        if(0L != ((value >>> shift) & COUNTER_MASK)) used++;
+      }
+    }
+    return Math.pow((double) used / getCounterCount(), getHashCount());
+  }
+
+  private long indexOf(final long hash, final int idx) {
+    // Kirsch and Mitzenmacher: the k hashes are h1 + i * h2
+    long combined = (int) hash + (long) idx * ((int) (hash >>> 32) | 1);
+    return (combined & Long.MAX_VALUE) % getCounterCount();
+  }
+
+  private static int slotOf(final long counter) {
+    return (int) (counter / COUNTERS_PER_LONG);
+  }
+
+  private static int shiftOf(final long counter) {
+    return (int) (counter % COUNTERS_PER_LONG) << 2;
+  }
+
+  /**
+   * FNV-1a over the characters, then a 64-bit finalizer, so both halves are well mixed.
+   */
+  private static long hash(final String key) {
+    long ret = 0xcbf29ce484222325L;
+    for(int idx = 0; idx < key.length(); idx++) {
+      ret ^= key.charAt(idx);
+      ret *= 0x100000001b3L;
+    }
+    ret ^= ret >>> 33;
+    ret *= 0xff51afd7ed558ccdL;
+    ret ^= ret >>> 33;
+    ret *= 0xc4ceb9fe1a85ec53L;
+    ret ^= ret >>> 33;
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("counterCount", getCounterCount())
+        .append("hashCount", getHashCount())
+        .append("count", getCount())
+        .toString();
+  }
+}
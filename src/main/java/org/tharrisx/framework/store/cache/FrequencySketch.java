@@ -0,0 +1,115 @@
+package org.tharrisx.framework.store.cache;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * Estimates how often each key has been seen lately, for BeanCache's admission decisions: a count-min
+ * sketch of 4-bit counters, sixteen to a long, four counters per key. Every counter is halved once as many
+ * keys have been counted as the sketch has counters, so old popularity fades.
+ *
+ * Not thread safe; BeanCache calls it under its lock.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+  private static final long RESET_MASK = 0x7777777777777777L;
+
+  private static final long COUNTER_MASK = 0xfL;
+
+  /**
+   * 2MB of counters is plenty for any cache it's worth keeping in one JVM.
+   */
+  private static final int MAX_TABLE_LENGTH = 1 << 18;
+
+  private final long[] table;
+
+  private final int tableMask;
+
+  private final int sampleSize;
+
+  private int size;
+
+  /**
+   * @param expectedEntries long about how many keys the cache holds
+   */
+  FrequencySketch(final long expectedEntries) {
+    int length = 16;
+    while(length < expectedEntries && length < MAX_TABLE_LENGTH) {
+      length <<= 1;
+    }
+    this.table = new long[length];
+    this.tableMask = length - 1;
+    this.sampleSize = 10 * length;
+  }
+
+  /**
+   * @param key String
+   * @return int about how many times the key was counted lately, up to 15
+   */
+  int frequency(final String key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    int ret = Integer.MAX_VALUE;
+    for(int idx = 0; idx < 4; idx++) {
+      int offset = (start + idx) << 2;
+      ret = Math.min(ret, (int) ((this.table[indexOf(hash, idx)] >>> offset) & COUNTER_MASK));
+    }
+    return ret;
+  }
+
+  /**
+   * @param key String to count once more
+   */
+  void increment(final String key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for(int idx = 0; idx < 4; idx++) {
+      added |= incrementAt(indexOf(hash, idx), start + idx);
+    }
+    if(added && ++this.size >= this.sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(final int tableIndex, final int counter) {
+    int offset = counter << 2;
+    long mask = COUNTER_MASK << offset;
+    if((this.table[tableIndex] & mask) == mask) return false;
+    this.table[tableIndex] += 1L << offset;
+    return true;
+  }
+
+  private void reset() {
+    for(int idx = 0; idx < this.table.length; idx++) {
+      this.table[idx] = (this.table[idx] >>> 1) & RESET_MASK;
+    }
+    this.size >>>= 1;
+  }
+
+  private int indexOf(final int hash, final int depth) {
+    long ret = (hash + SEEDS[depth]) * SEEDS[depth];
+    ret += ret >>> 32;
+    return (int) ret & this.tableMask;
+  }
+
+  private static int spread(final int hash) {
+    int ret = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    ret = ((ret >>> 16) ^ ret) * 0x45d9f3b;
+    return (ret >>> 16) ^ ret;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("tableLength", this.table.length)
+        .append("size", this.size)
+        .append("sampleSize", this.sampleSize)
+        .toString();
+  }
+}
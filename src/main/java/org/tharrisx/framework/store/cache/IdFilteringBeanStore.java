@@ -0,0 +1,353 @@
+package org.tharrisx.framework.store.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.bean.BeanList;
+import org.tharrisx.framework.callstats.CallStatistician;
+import org.tharrisx.framework.callstats.TimingMemento;
+import org.tharrisx.framework.store.BeanIterator;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.core.AbstractBeanStoreFactory;
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
+import org.tharrisx.framework.store.core.DelegatingBeanStore;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.framework.store.exception.NoBeanFoundException;
+import org.tharrisx.util.log.Log;
+
+/**
+ * Implements BeanStore in front of another, for a bean type annotated with StoreIdFilter, keeping a
+ * CountingBloomFilter of the ids of the beans stored, so reads by id of beans that certainly don't exist are
+ * answered without asking the store: hasBean says false, getBean throws a NoBeanFoundException without a
+ * stack trace, and getBeans leaves them out. The rest are asked of the store as usual, and a few of those
+ * turn out missing after all, at about the filter's false positive rate.
+ *
+ * The filter is filled from the store when this is constructed. Ids are added as beans are created, before
+ * the transaction commits, so it sees its own beans. A write with a caller's id is a create if the filter
+ * doesn't hold the id, or, if it may, the store doesn't have the bean: a false positive id must still be
+ * added, or deleting its bean later would take out counts other ids hold and hide their beans. So a write by
+ * id costs one existence check in the store, or one for the whole batch in createOrUpdateBeans. That check
+ * doesn't see the transaction's own creates, so rewriting one adds its id again, which only leaves a count
+ * behind. Ids are removed once the transaction deleting their beans commits.
+ * Beans deleted by match, or by a deleteBeans call that didn't delete every id, stay in the filter; they only
+ * make it say yes more often, as getExpectedFalsePositiveRate() reports.
+ *
+ * Filtered reads and false positives are counted here, and recorded with the factory's CallStatistician, if
+ * it has one, as calls named Bean-IDFILTER-method-FILTERED or -FALSE-POSITIVE.
+ *
+ * @param <T> T extends StorableBean
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class IdFilteringBeanStore<T extends StorableBean> extends DelegatingBeanStore<T> {
+
+  private static final String METHOD_FILL = "fill";
+
+  private static final String CALL_CATEGORY = "IDFILTER";
+
+  private final CountingBloomFilter filter;
+
+  private CountingBloomFilter getFilter() {
+    return this.filter;
+  }
+
+  private final double falsePositiveRate;
+
+  /**
+   * @return double the false positive rate the filter was sized for
+   */
+  public double getFalsePositiveRate() {
+    return this.falsePositiveRate;
+  }
+
+  private final AtomicLong filtered = new AtomicLong();
+
+  private final AtomicLong falsePositives = new AtomicLong();
+
+  /**
+   * @param beanStoreFactory1 AbstractBeanStoreFactory the factory of both stores
+   * @param beanType1 Class<T>
+   * @param beanStore1 BeanStore<T> the store to filter reads of, and fill the filter from
+   * @param expectedBeanCount1 long
+   * @param falsePositiveRate1 double
+   * @throws BeanStoreException if the filter couldn't be filled
+   */
+  public IdFilteringBeanStore(final AbstractBeanStoreFactory beanStoreFactory1, final Class<T> beanType1, final BeanStore<T> beanStore1, final long expectedBeanCount1, final double falsePositiveRate1) throws BeanStoreException {
+    super(beanStoreFactory1, beanType1, beanStore1);
+    if(Log.isEnteringEnabled(IdFilteringBeanStore.class)) Log.entering(IdFilteringBeanStore.class, Log.METHOD_NAME_CONSTRUCTOR, beanStoreFactory1, beanType1, beanStore1, expectedBeanCount1, falsePositiveRate1);
+    try {
+      this.filter = new CountingBloomFilter(expectedBeanCount1, falsePositiveRate1);
+      this.falsePositiveRate = falsePositiveRate1;
+      fill();
+    } finally {
+      if(Log.isExitingEnabled(IdFilteringBeanStore.class)) Log.exiting(IdFilteringBeanStore.class, Log.METHOD_NAME_CONSTRUCTOR);
+    }
+  }
+
+  /**
+   * Add the id of every bean stored. Done before the store is handed out, so no write can be missed.
+   */
+  private void fill() {
+    try(BeanIterator<T> beans = getBeanStore().streamMatchingBeans(Collections.<String, String> emptyMap())) {
+      while(beans.hasNext()) {
+        getFilter().add(beans.next().getId());
+      }
+    }
+    if(Log.isInfoEnabled(getClass())) Log.info(getClass(), METHOD_FILL, "Id filter for bean type " + getBeanType().getName() + " filled with " + getFilter().getCount()
+        + " ids; expected false positive rate " + getExpectedFalsePositiveRate() + ", sized for " + getFalsePositiveRate() + ".");
+  }
+
+  /**
+   * @return long how many reads by id were answered without asking the store
+   */
+  public long getFilteredCount() {
+    return this.filtered.get();
+  }
+
+  /**
+   * @return long how many reads by id the filter let through that the store then found missing
+   */
+  public long getFalsePositiveCount() {
+    return this.falsePositives.get();
+  }
+
+  /**
+   * @return double the share of reads of missing beans the filter let through, 0 before any
+   */
+  public double getObservedFalsePositiveRate() {
+    long falsePositiveCount = getFalsePositiveCount();
+    long missingCount = falsePositiveCount + getFilteredCount();
+    return 0L == missingCount ? 0.0 : (double) falsePositiveCount / missingCount;
+  }
+
+  /**
+   * @return double how often the filter would now let a read of a missing bean through, from how full it is
+   */
+  public double getExpectedFalsePositiveRate() {
+    return getFilter().getExpectedFalsePositiveRate();
+  }
+
+  /**
+   * @return long how many ids the filter holds
+   */
+  public long getFilteredBeanCount() {
+    return getFilter().getCount();
+  }
+
+  @Override
+  public boolean hasBean(final String beanId) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_HAS_BEAN, beanId);
+    boolean ret = false;
+    try {
+      TimingMemento timing = new TimingMemento();
+      if(!getFilter().mightContain(beanId)) {
+        recordFiltered(METHOD_HAS_BEAN, 1, timing);
+        return ret;
+      }
+      ret = getBeanStore().hasBean(beanId);
+      if(!ret) recordFalsePositives(METHOD_HAS_BEAN, 1, timing);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_HAS_BEAN, ret);
+    }
+  }
+
+  @Override
+  public T getBean(final String beanId) throws NoBeanFoundException, BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEAN, beanId);
+    T ret = null;
+    try {
+      TimingMemento timing = new TimingMemento();
+      if(!getFilter().mightContain(beanId)) {
+        recordFiltered(METHOD_GET_BEAN, 1, timing);
+        throw new NoBeanFoundException(new BeanStoreStackInfo(getBeanType(), null, METHOD_GET_BEAN), beanId, false);
+      }
+      try {
+        ret = getBeanStore().getBean(beanId);
+      } catch(BeanStoreException e) {
+        if(isNoBeanFound(e)) recordFalsePositives(METHOD_GET_BEAN, 1, timing);
+        throw e;
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEAN, ret);
+    }
+  }
+
+  @Override
+  public BeanList<T> getBeans(final Collection<String> beanIds) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEANS, beanIds);
+    BeanList<T> ret = null;
+    try {
+      TimingMemento timing = new TimingMemento();
+      List<String> possibleIds = new ArrayList<>(beanIds.size());
+      for(String beanId : new LinkedHashSet<>(beanIds)) {
+        if(getFilter().mightContain(beanId)) possibleIds.add(beanId);
+      }
+      int filteredCount = new HashSet<>(beanIds).size() - possibleIds.size();
+      if(0 < filteredCount) recordFiltered(METHOD_GET_BEANS, filteredCount, timing);
+      if(possibleIds.isEmpty()) {
+        ret = new BeanList<>(new ArrayList<T>());
+        return ret;
+      }
+      ret = getBeanStore().getBeans(possibleIds);
+      int falsePositiveCount = possibleIds.size() - ret.getItems().size();
+      if(0 < falsePositiveCount) recordFalsePositives(METHOD_GET_BEANS, falsePositiveCount, timing);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEANS, ret);
+    }
+  }
+
+  @Override
+  public T createOrUpdateBean(final T bean, final BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_CREATE_OR_UPDATE_BEAN, bean, transaction);
+    T ret = null;
+    try {
+      boolean created = isCreate(bean);
+      ret = getBeanStore().createOrUpdateBean(bean, transaction);
+      if(created) getFilter().add(ret.getId());
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_CREATE_OR_UPDATE_BEAN, ret);
+    }
+  }
+
+  @Override
+  public List<T> createOrUpdateBeans(final Collection<T> beans, final BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_CREATE_OR_UPDATE_BEANS, beans.size(), transaction);
+    List<T> ret = null;
+    try {
+      Set<String> updatedIds = new HashSet<>();
+      for(T bean : beans) {
+        if(wasBeanStoredPreviously(bean) && getFilter().mightContain(bean.getId())) updatedIds.add(bean.getId());
+      }
+      if(!updatedIds.isEmpty()) {
+        Set<String> storedIds = new HashSet<>();
+        for(T stored : getBeanStore().getBeans(updatedIds).getItems()) {
+          storedIds.add(stored.getId());
+        }
+        updatedIds.retainAll(storedIds);
+      }
+      ret = getBeanStore().createOrUpdateBeans(beans, transaction);
+      Set<String> createdIds = new HashSet<>();
+      for(T bean : ret) {
+        if(!updatedIds.contains(bean.getId())) createdIds.add(bean.getId());
+      }
+      for(String beanId : createdIds) {
+        getFilter().add(beanId);
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_CREATE_OR_UPDATE_BEANS, null == ret ? null : ret.size());
+    }
+  }
+
+  @Override
+  public boolean deleteBean(final String beanId, final BeanStoreTransaction transaction) throws NoBeanFoundException, BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_BEAN, beanId, transaction);
+    boolean ret = false;
+    try {
+      ret = getBeanStore().deleteBean(beanId, transaction);
+      if(ret) removeOnCommit(Collections.singletonList(beanId), transaction);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_BEAN, ret);
+    }
+  }
+
+  @Override
+  public int deleteBeans(final Collection<String> beanIds, final BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_BEANS, beanIds.size(), transaction);
+    int ret = 0;
+    try {
+      ret = getBeanStore().deleteBeans(beanIds, transaction);
+      Set<String> distinctIds = new HashSet<>(beanIds);
+      // otherwise which ones were deleted isn't known
+      if(ret == distinctIds.size()) removeOnCommit(distinctIds, transaction);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_BEANS, ret);
+    }
+  }
+
+  /**
+   * @param bean T
+   * @return boolean whether writing the bean creates it: it has no id yet, or one the filter doesn't hold, or
+   *         one the store has no bean for
+   */
+  private boolean isCreate(final T bean) {
+    return !wasBeanStoredPreviously(bean) || !getFilter().mightContain(bean.getId()) || !getBeanStore().hasBean(bean.getId());
+  }
+
+  /**
+   * Remove the deleted beans' ids once the deletes are committed; without a transaction, they already are.
+   * Removing them before would let a rolled back delete hide beans that still exist.
+   *
+   * @param beanIds Collection<String>
+   * @param transaction BeanStoreTransaction
+   */
+  private void removeOnCommit(final Collection<String> beanIds, final BeanStoreTransaction transaction) {
+    Runnable remove = new Runnable() {
+      @Override public void run() {
+        for(String beanId : beanIds) {
+          getFilter().remove(beanId);
+        }
+      }
+    };
+    if(null == transaction) {
+      remove.run();
+    } else {
+      transaction.addCommitAction(remove);
+    }
+  }
+
+  /**
+   * @param e BeanStoreException
+   * @return boolean whether it, or what it wraps, says the bean wasn't found
+   */
+  private static boolean isNoBeanFound(final Throwable e) {
+    for(Throwable cause = e; null != cause; cause = cause.getCause()) {
+      if(cause instanceof NoBeanFoundException) return true;
+    }
+    return false;
+  }
+
+  private void recordFiltered(final String beanStoreMethod, final int beanCount, final TimingMemento timing) {
+    this.filtered.addAndGet(beanCount);
+    recordCall(beanStoreMethod + "-FILTERED", timing);
+  }
+
+  private void recordFalsePositives(final String beanStoreMethod, final int beanCount, final TimingMemento timing) {
+    this.falsePositives.addAndGet(beanCount);
+    recordCall(beanStoreMethod + "-FALSE-POSITIVE", timing);
+  }
+
+  private void recordCall(final String outcome, final TimingMemento timing) {
+    CallStatistician callStatistician = ((AbstractBeanStoreFactory) getBeanStoreFactory()).getCallStatistician();
+    if(null == callStatistician) return;
+    callStatistician.recordCall(getBeanType().getSimpleName() + '-' + CALL_CATEGORY + '-' + outcome, true, timing);
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .appendSuper(super.toString())
+        .append("filter", getFilter())
+        .append("falsePositiveRate", getFalsePositiveRate())
+        .append("filteredCount", getFilteredCount())
+        .append("falsePositiveCount", getFalsePositiveCount())
+        .toString();
+  }
+}
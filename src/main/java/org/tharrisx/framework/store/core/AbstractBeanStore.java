@@ -1,12 +1,18 @@
 package org.tharrisx.framework.store.core;
 
 import java.util.Date;
+import java.util.Map;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.bean.PageableBeanList;
 import org.tharrisx.framework.bean.StampedBean;
 import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreCountStrategy;
 import org.tharrisx.framework.store.BeanStoreFactory;
+import org.tharrisx.framework.store.BeanStoreTransaction;
 import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.annotations.StoreCount;
+import org.tharrisx.framework.store.exception.BeanStoreException;
 import org.tharrisx.util.RandomGUID;
 import org.tharrisx.util.log.Log;
 
@@ -34,13 +40,57 @@ public abstract class AbstractBeanStore<T extends StorableBean> implements BeanS
     return this.beanType;
   }
 
+  private final BeanStoreCountStrategy defaultCountStrategy;
+
+  /**
+   * @return BeanStoreCountStrategy the bean type's StoreCount, or EXACT
+   */
+  public BeanStoreCountStrategy getDefaultCountStrategy() {
+    return this.defaultCountStrategy;
+  }
+
   protected AbstractBeanStore(final BeanStoreFactory beanStoreFactory1, final Class<T> beanType1) {
     if(Log.isEnteringEnabled(AbstractBeanStore.class)) Log.entering(AbstractBeanStore.class, Log.METHOD_NAME_CONSTRUCTOR, beanStoreFactory1, beanType1);
     this.beanStoreFactory = beanStoreFactory1;
     this.beanType = beanType1;
+    StoreCount storeCount = beanType1.getAnnotation(StoreCount.class);
+    this.defaultCountStrategy = null == storeCount ? BeanStoreCountStrategy.EXACT : storeCount.value();
     if(Log.isExitingEnabled(AbstractBeanStore.class)) Log.exiting(AbstractBeanStore.class, Log.METHOD_NAME_CONSTRUCTOR);
   }
 
+  @Override
+  public PageableBeanList<T> getPageOfMatchingBeans(int start, int end, String sortBy, String sortDirection, Map<String, String> propertyValues) throws BeanStoreException {
+    return getPageOfMatchingBeans(start, end, sortBy, sortDirection, propertyValues, null);
+  }
+
+  @Override
+  public PageableBeanList<T> getPageOfBeansViaQuery(int start, int end, String sortBy, String sortDirection, String queryName, Object... queryParameters) throws BeanStoreException {
+    return getPageOfBeansViaQuery(start, end, sortBy, sortDirection, null, queryName, queryParameters);
+  }
+
+  /**
+   * @param countStrategy BeanStoreCountStrategy as requested, or null
+   * @return BeanStoreCountStrategy the requested strategy, or else the bean type's default
+   */
+  protected BeanStoreCountStrategy getCountStrategy(BeanStoreCountStrategy countStrategy) {
+    return null == countStrategy ? getDefaultCountStrategy() : countStrategy;
+  }
+
+  /**
+   * Uses the factory's BeanPropertyValueAdapter to convert a String into a bean property's type, for use
+   * in matching; as BeanStoreTransactionWrapper.castAsPropertyTypeValue(), for callers handed a
+   * transaction rather than handling one.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param propertyName String
+   * @param propertyValue String
+   * @return Object
+   */
+  protected Object castAsPropertyTypeValue(BeanStoreTransaction transaction, String beanStoreMethod, String propertyName, String propertyValue) {
+    return getBeanStoreFactory().getBeanPropertyValueAdapter().getAdaptedValue(new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod), propertyName, propertyValue);
+  }
+
   /**
    * Is this bean transient or persisted? In other words, does the bean id have a value?
    * 
@@ -59,7 +109,8 @@ public abstract class AbstractBeanStore<T extends StorableBean> implements BeanS
   }
 
   /**
-   * Create a 32 character GUID String id for the beans. ($$$ Add auto-generation via persistence.)
+   * Create a 32 character GUID String id for the beans, starting with the factory's bean id prefix, if it
+   * has one. ($$$ Add auto-generation via persistence.)
    * @return String
    */
   protected String createBeanId() {
@@ -67,6 +118,10 @@ public abstract class AbstractBeanStore<T extends StorableBean> implements BeanS
     String ret = null;
     try {
       ret = new RandomGUID(false).toString();
+      if(getBeanStoreFactory() instanceof AbstractBeanStoreFactory) {
+        String prefix = ((AbstractBeanStoreFactory) getBeanStoreFactory()).getBeanIdPrefix();
+        ret = prefix + ret.substring(prefix.length());
+      }
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "createBeanId", ret);
@@ -111,6 +166,7 @@ public abstract class AbstractBeanStore<T extends StorableBean> implements BeanS
     return new ToStringBuilder(this)
         //.append("beanStoreFactory", getBeanStoreFactory())
         .append("beanType", getBeanType())
+        .append("defaultCountStrategy", getDefaultCountStrategy())
         .toString();
   }
 }
@@ -1,24 +1,38 @@
 package org.tharrisx.framework.store.core;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.tharrisx.framework.bean.Bean;
+import org.tharrisx.framework.callstats.CallStatistician;
+import org.tharrisx.framework.store.AsyncBeanStore;
 import org.tharrisx.framework.store.BeanPropertyValueAdapter;
 import org.tharrisx.framework.store.BeanStore;
 import org.tharrisx.framework.store.BeanStoreFactory;
+import org.tharrisx.framework.store.BeanStoreTransaction;
 import org.tharrisx.framework.store.DefaultBeanPropertyValueAdapter;
 import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.annotations.StoreCache;
+import org.tharrisx.framework.store.annotations.StoreIdFilter;
+import org.tharrisx.framework.store.cache.BeanWeigher;
+import org.tharrisx.framework.store.cache.CachingBeanStore;
+import org.tharrisx.framework.store.cache.IdFilteringBeanStore;
+import org.tharrisx.framework.store.exception.BeanStoreException;
 import org.tharrisx.framework.store.exception.OperationNotSupportedException;
 import org.tharrisx.util.log.Log;
+import org.tharrisx.util.reflect.ReflectionException;
 
 /**
  * Implements some methods for implementers of BeanStore so they don't have to.
  * 
- * - Maintains the BeanStore cache; just define your constructBeanStore implementation.
+ * - Maintains the BeanStore cache, making each bean type's store once; just define constructBeanStore.
  * - Uses the DefaultBeanPropertyValueAdapter as the BeanPropertyValueAdapter impl.
+ * - Begins read-only transactions as read/write ones; override beginReadOnlyTransaction to do better.
+ * - Makes the executor for AsyncBeanStores when first needed; override makeAsyncExecutor to size it.
+ * - Puts a CachingBeanStore in front of the store of each bean type annotated with StoreCache, and an
+ *   IdFilteringBeanStore in front of that for each annotated with StoreIdFilter, unless caching is off.
  * 
  * @author tharrisx
  * @since 1.0.0
@@ -28,8 +42,11 @@ public abstract class AbstractBeanStoreFactory implements BeanStoreFactory {
 
   protected final static String METHOD_GET_BEAN_PROPERTY_VALUE_ADAPTER = "getBeanPropertyValueAdapter";
   protected final static String METHOD_GET_BEAN_STORE = "getBeanStore";
+  protected final static String METHOD_GET_ASYNC_EXECUTOR = "getAsyncExecutor";
   protected final static String METHOD_CONSTRUCT_BEAN_STORE = "constructBeanStore";
+  protected final static String METHOD_DECORATE_BEAN_STORE = "decorateBeanStore";
   protected final static String METHOD_BEGIN_TRANSACTION = "beginTransaction";
+  protected final static String METHOD_BEGIN_READ_ONLY_TRANSACTION = "beginReadOnlyTransaction";
   protected final static String METHOD_END_TRANSACTION = "endTransaction";
 
   private final List<Class<? extends StorableBean>> beanTypes;
@@ -38,12 +55,60 @@ public abstract class AbstractBeanStoreFactory implements BeanStoreFactory {
     return this.beanTypes;
   }
 
-  private final Map<Class<? extends StorableBean>, BeanStore<? extends StorableBean>> beanStoreCache = new HashMap<>();
+  private final ConcurrentMap<Class<? extends StorableBean>, BeanStore<? extends StorableBean>> beanStoreCache = new ConcurrentHashMap<>();
 
-  private Map<Class<? extends StorableBean>, BeanStore<? extends StorableBean>> getBeanStoreCache() {
+  private ConcurrentMap<Class<? extends StorableBean>, BeanStore<? extends StorableBean>> getBeanStoreCache() {
     return this.beanStoreCache;
   }
 
+  /**
+   * The stores as constructed, before decorating; kept first, so decorators may use the store while they're
+   * made.
+   */
+  private final ConcurrentMap<Class<? extends StorableBean>, BeanStore<? extends StorableBean>> undecoratedBeanStoreCache = new ConcurrentHashMap<>();
+
+  private ConcurrentMap<Class<? extends StorableBean>, BeanStore<? extends StorableBean>> getUndecoratedBeanStoreCache() {
+    return this.undecoratedBeanStoreCache;
+  }
+
+  /**
+   * One lock per bean type, held while its store is constructed and decorated.
+   */
+  private final ConcurrentMap<Class<? extends StorableBean>, Object> beanStoreLocks = new ConcurrentHashMap<>();
+
+  private Object getBeanStoreLock(Class<? extends StorableBean> type) {
+    Object ret = this.beanStoreLocks.get(type);
+    if(null == ret) {
+      Object lock = new Object();
+      ret = this.beanStoreLocks.putIfAbsent(type, lock);
+      if(null == ret) ret = lock;
+    }
+    return ret;
+  }
+
+  /**
+   * Shared by every call, as it keeps no per-call state.
+   */
+  private final BeanPropertyValueAdapter beanPropertyValueAdapter = new DefaultBeanPropertyValueAdapter();
+
+  /**
+   * The AsyncBeanStore threads, when makeAsyncExecutor() isn't overridden.
+   */
+  public static final int DEFAULT_ASYNC_THREAD_COUNT = 8;
+
+  /**
+   * The AsyncBeanStore calls that may wait for a thread, when makeAsyncExecutor() isn't overridden.
+   */
+  public static final int DEFAULT_ASYNC_QUEUE_DEPTH = 64;
+
+  private volatile BeanStoreExecutor asyncExecutor = null;
+
+  private volatile String beanIdPrefix = "";
+
+  private volatile boolean caching = true;
+
+  private volatile CallStatistician callStatistician = null;
+
   protected AbstractBeanStoreFactory(List<Class<? extends StorableBean>> beanTypes1) {
     this.beanTypes = beanTypes1;
   }
@@ -62,7 +127,7 @@ public abstract class AbstractBeanStoreFactory implements BeanStoreFactory {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEAN_PROPERTY_VALUE_ADAPTER);
     BeanPropertyValueAdapter ret = null;
     try {
-      ret = new DefaultBeanPropertyValueAdapter();
+      ret = this.beanPropertyValueAdapter;
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEAN_PROPERTY_VALUE_ADAPTER, ret);
@@ -80,18 +145,183 @@ public abstract class AbstractBeanStoreFactory implements BeanStoreFactory {
             + "' is not configured, and so is not permitted for use.");
       }
       BeanStore<? extends Bean> potentialBeanStore = getBeanStoreCache().get(type);
-      if(null != potentialBeanStore) {
-        ret = (BeanStore<T>) potentialBeanStore;
-      } else {
-        ret = constructBeanStore(type);
-        getBeanStoreCache().put(type, ret);
+      if(null == potentialBeanStore) {
+        // only the first thread in constructs and decorates the type's store, once; the others wait for it
+        synchronized(getBeanStoreLock(type)) {
+          potentialBeanStore = getBeanStoreCache().get(type);
+          if(null == potentialBeanStore) {
+            BeanStore<? extends Bean> undecoratedBeanStore = getUndecoratedBeanStoreCache().get(type);
+            if(null == undecoratedBeanStore) {
+              undecoratedBeanStore = constructBeanStore(type);
+              getUndecoratedBeanStoreCache().put(type, undecoratedBeanStore);
+            }
+            potentialBeanStore = decorateBeanStore(type, (BeanStore<T>) undecoratedBeanStore);
+            getBeanStoreCache().put(type, potentialBeanStore);
+          }
+        }
       }
+      ret = (BeanStore<T>) potentialBeanStore;
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEAN_STORE, ret);
     }
   }
 
+  /**
+   * The store as constructBeanStore made it, without any DelegatingBeanStores in front, for implementers
+   * that need their own BeanStore type back. Available while the decorators are being made.
+   * 
+   * @param <T> T extends StorableBean
+   * @param type Class<T>
+   * @return BeanStore<T>
+   */
+  @SuppressWarnings("unchecked")
+  protected final <T extends StorableBean> BeanStore<T> getUndecoratedBeanStore(Class<T> type) {
+    BeanStore<? extends Bean> ret = getUndecoratedBeanStoreCache().get(type);
+    if(null == ret) {
+      getBeanStore(type);
+      ret = getUndecoratedBeanStoreCache().get(type);
+    }
+    return (BeanStore<T>) ret;
+  }
+
+  /**
+   * Put a CachingBeanStore in front of the newly constructed store, if caching is on and the bean type is
+   * annotated with StoreCache, and an IdFilteringBeanStore in front of that, if it's annotated with
+   * StoreIdFilter; filling the filter reads every bean's id from the store.
+   * 
+   * @param <T> T extends StorableBean
+   * @param type Class<T>
+   * @param beanStore BeanStore<T>
+   * @return BeanStore<T> the one to hand out
+   */
+  protected <T extends StorableBean> BeanStore<T> decorateBeanStore(Class<T> type, BeanStore<T> beanStore) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DECORATE_BEAN_STORE, type, beanStore);
+    BeanStore<T> ret = beanStore;
+    try {
+      StoreCache storeCache = type.getAnnotation(StoreCache.class);
+      if(isCaching() && null != storeCache) {
+        BeanWeigher weigher = null;
+        try {
+          weigher = storeCache.weigher().getDeclaredConstructor().newInstance();
+        } catch(ReflectiveOperationException e) {
+          throw new ReflectionException("BeanWeigher " + storeCache.weigher().getName() + " for bean type " + type.getName() + " needs a public no-argument constructor.", e);
+        }
+        ret = new CachingBeanStore<>(this, type, ret, storeCache.maximumWeight(), weigher, storeCache.expireAfterWriteSeconds() * 1000L);
+      }
+      StoreIdFilter storeIdFilter = type.getAnnotation(StoreIdFilter.class);
+      if(isCaching() && null != storeIdFilter) {
+        ret = new IdFilteringBeanStore<>(this, type, ret, storeIdFilter.expectedBeanCount(), storeIdFilter.falsePositiveRate());
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DECORATE_BEAN_STORE, ret);
+    }
+  }
+
+  /**
+   * @return boolean whether stores of bean types annotated with StoreCache or StoreIdFilter get a
+   * CachingBeanStore or IdFilteringBeanStore in front
+   */
+  public final boolean isCaching() {
+    return this.caching;
+  }
+
+  /**
+   * Turn caching and id filtering on or off, for stores not yet constructed. A ShardedBeanStoreFactory turns
+   * them off for its shards, doing both in front of its own stores instead.
+   * 
+   * @param caching1 boolean
+   */
+  public final void setCaching(boolean caching1) {
+    this.caching = caching1;
+  }
+
+  /**
+   * @return CallStatistician where CachingBeanStores and IdFilteringBeanStores record how they did; null
+   * for nowhere
+   */
+  public final CallStatistician getCallStatistician() {
+    return this.callStatistician;
+  }
+
+  /**
+   * @param callStatistician1 CallStatistician
+   */
+  public final void setCallStatistician(CallStatistician callStatistician1) {
+    this.callStatistician = callStatistician1;
+  }
+
+  @Override
+  public <T extends StorableBean> AsyncBeanStore<T> getAsyncBeanStore(Class<T> type) {
+    return new AsyncBeanStore<>(this, type, getAsyncExecutor());
+  }
+
+  /**
+   * @return BeanStoreExecutor the one all this factory's AsyncBeanStores share, made now if it hadn't been
+   */
+  public final BeanStoreExecutor getAsyncExecutor() {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_ASYNC_EXECUTOR);
+    BeanStoreExecutor ret = this.asyncExecutor;
+    try {
+      if(null == ret) {
+        synchronized(this) {
+          ret = this.asyncExecutor;
+          if(null == ret) {
+            ret = makeAsyncExecutor();
+            this.asyncExecutor = ret;
+          }
+        }
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_ASYNC_EXECUTOR, ret);
+    }
+  }
+
+  /**
+   * Make the executor for AsyncBeanStores. Override to size it to the store's connections.
+   * 
+   * @return BeanStoreExecutor
+   */
+  protected BeanStoreExecutor makeAsyncExecutor() {
+    return new BeanStoreExecutor(getClass().getSimpleName(), DEFAULT_ASYNC_THREAD_COUNT, DEFAULT_ASYNC_QUEUE_DEPTH);
+  }
+
+  /**
+   * Shut down the AsyncBeanStore executor, if it was ever made.
+   */
+  protected void shutdownAsyncExecutor() {
+    if(null != this.asyncExecutor) this.asyncExecutor.shutdown();
+  }
+
+  /**
+   * @return String what the ids of beans this factory's stores create start with; empty by default
+   */
+  public final String getBeanIdPrefix() {
+    return this.beanIdPrefix;
+  }
+
+  /**
+   * Have the ids of beans this factory's stores create start with the prefix, in place of as many of the
+   * GUID's own leading characters, so an id tells which factory made its bean. A ShardedBeanStoreFactory
+   * sets its shards' prefixes this way.
+   * 
+   * @param beanIdPrefix1 String upper case hex digits, fewer than a GUID has
+   * @throws IllegalArgumentException if the prefix is anything else
+   */
+  public final void setBeanIdPrefix(String beanIdPrefix1) {
+    if(null == beanIdPrefix1 || !beanIdPrefix1.matches("[0-9A-F]{0,31}")) {
+      throw new IllegalArgumentException("beanIdPrefix must be at most 31 upper case hex digits: " + beanIdPrefix1);
+    }
+    this.beanIdPrefix = beanIdPrefix1;
+  }
+
+  @Override
+  public <T extends StorableBean> BeanStoreTransaction beginReadOnlyTransaction(Class<T> mainBeanType, String transactionName) throws BeanStoreException {
+    return beginTransaction(mainBeanType, transactionName);
+  }
+
   @Override
   public String toString() {
     return new ToStringBuilder(this).append("beanTypes", getBeanTypes())
@@ -0,0 +1,84 @@
+package org.tharrisx.framework.store.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * Total counts of one bean type's paged queries, keyed by predicate, for the CACHED count strategy. The
+ * BeanStore clears it whenever a transaction that wrote a bean of the type commits. A count taken just
+ * before a commit but cached just after its clearing could outlive it, so counts also expire after a while.
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public final class BeanStoreCountCache {
+
+  public static final long DEFAULT_MAX_AGE_MILLIS = 60000L;
+
+  private static final class Entry {
+
+    final int count;
+    final long expires;
+
+    Entry(final int count1, final long expires1) {
+      this.count = count1;
+      this.expires = expires1;
+    }
+  }
+
+  private final ConcurrentMap<String, Entry> counts = new ConcurrentHashMap<>();
+
+  private ConcurrentMap<String, Entry> getCounts() {
+    return this.counts;
+  }
+
+  private final long maxAgeMillis;
+
+  public long getMaxAgeMillis() {
+    return this.maxAgeMillis;
+  }
+
+  public BeanStoreCountCache() {
+    this(DEFAULT_MAX_AGE_MILLIS);
+  }
+
+  public BeanStoreCountCache(final long maxAgeMillis1) {
+    this.maxAgeMillis = maxAgeMillis1;
+  }
+
+  /**
+   * @param predicate String
+   * @return Integer the count, or null if there is none, or it expired
+   */
+  public Integer get(String predicate) {
+    Entry entry = getCounts().get(predicate);
+    if(null == entry) return null;
+    if(System.currentTimeMillis() > entry.expires) {
+      getCounts().remove(predicate, entry);
+      return null;
+    }
+    return Integer.valueOf(entry.count);
+  }
+
+  public void put(String predicate, int count) {
+    getCounts().put(predicate, new Entry(count, System.currentTimeMillis() + getMaxAgeMillis()));
+  }
+
+  /**
+   * Forget every count, as a bean of the type has been written.
+   */
+  public void clear() {
+    getCounts().clear();
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("size", getCounts().size())
+        .append("maxAgeMillis", getMaxAgeMillis())
+        .toString();
+  }
+}
@@ -0,0 +1,266 @@
+package org.tharrisx.framework.store.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Calendar;
+import java.util.Date;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.lang.ClassUtils;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.util.reflect.BeanAccessor;
+import org.tharrisx.util.reflect.BeanAccessorRegistry;
+
+/**
+ * The position of a keyset (seek) page: the sort property values of the last bean of the previous page,
+ * and its id, which breaks ties. The next page is every bean that sorts after that position, rather than
+ * the beans at some offset, so fetching it costs the same however deep the caller has paged, and beans
+ * created or deleted meanwhile don't shift beans between pages.
+ *
+ * Callers see a cursor only as an opaque, URL safe String. It records the sortBy and sortDirection it was
+ * made under, and is only good for paging the same way again.
+ *
+ * Null property values sort first in ascending order, as in MemoryBeanComparator, and bean ids always
+ * ascend.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public final class BeanStoreCursor {
+
+  private static final byte FORMAT = 1;
+
+  private final String sortBy;
+
+  public String getSortBy() {
+    return this.sortBy;
+  }
+
+  private final String sortDirection;
+
+  public String getSortDirection() {
+    return this.sortDirection;
+  }
+
+  private final BeanAccessor[] accessors;
+
+  /**
+   * @return BeanAccessor[] one per sortBy property, in order
+   */
+  public BeanAccessor[] getAccessors() {
+    return this.accessors;
+  }
+
+  private final boolean[] ascending;
+
+  /**
+   * @return boolean[] one per sortBy property, in order
+   */
+  public boolean[] getAscending() {
+    return this.ascending;
+  }
+
+  private final Object[] values;
+
+  /**
+   * @return Object[] the last bean's sortBy property values, in order, boxed and possibly null
+   */
+  public Object[] getValues() {
+    return this.values;
+  }
+
+  private final String beanId;
+
+  public String getBeanId() {
+    return this.beanId;
+  }
+
+  private BeanStoreCursor(final String sortBy1, final String sortDirection1, final BeanAccessor[] accessors1, final boolean[] ascending1, final Object[] values1, final String beanId1) {
+    this.sortBy = sortBy1;
+    this.sortDirection = sortDirection1;
+    this.accessors = accessors1;
+    this.ascending = ascending1;
+    this.values = values1;
+    this.beanId = beanId1;
+  }
+
+  /**
+   * The cursor for the page after the one ending with the bean.
+   *
+   * @param beanType Class<? extends StorableBean>
+   * @param sortBy String
+   * @param sortDirection String
+   * @param bean StorableBean the last bean of the page
+   * @return BeanStoreCursor
+   * @throws IllegalArgumentException if the sort is malformed
+   */
+  public static BeanStoreCursor afterBean(final Class<? extends StorableBean> beanType, final String sortBy, final String sortDirection, final StorableBean bean) {
+    String sortByValue = null == sortBy ? "" : sortBy;
+    String sortDirectionValue = null == sortDirection ? "" : sortDirection;
+    BeanAccessor[] accessors = getSortAccessors(beanType, sortByValue);
+    Object[] values = new Object[accessors.length];
+    for(int idx = 0; idx < accessors.length; idx++) {
+      values[idx] = accessors[idx].get(bean);
+    }
+    return new BeanStoreCursor(sortByValue, sortDirectionValue, accessors, getSortAscending(sortDirectionValue, accessors.length), values, bean.getId());
+  }
+
+  /**
+   * Read a cursor made by encode().
+   *
+   * @param beanType Class<? extends StorableBean>
+   * @param sortBy String must be what the cursor was made under
+   * @param sortDirection String must be what the cursor was made under
+   * @param cursor String
+   * @return BeanStoreCursor
+   * @throws IllegalArgumentException if the cursor is malformed, or was made for another sort
+   */
+  public static BeanStoreCursor decode(final Class<? extends StorableBean> beanType, final String sortBy, final String sortDirection, final String cursor) {
+    String sortByValue = null == sortBy ? "" : sortBy;
+    String sortDirectionValue = null == sortDirection ? "" : sortDirection;
+    try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.decodeBase64(cursor)))) {
+      if(FORMAT != in.readByte()) throw new IllegalArgumentException("cursor " + cursor + " is not a cursor");
+      if(!sortByValue.equals(in.readUTF()) || !sortDirectionValue.equals(in.readUTF())) {
+        throw new IllegalArgumentException("cursor " + cursor + " was made for another sortBy and sortDirection");
+      }
+      BeanAccessor[] accessors = getSortAccessors(beanType, sortByValue);
+      Object[] values = new Object[accessors.length];
+      for(int idx = 0; idx < accessors.length; idx++) {
+        values[idx] = readValue(in, accessors[idx]);
+      }
+      return new BeanStoreCursor(sortByValue, sortDirectionValue, accessors, getSortAscending(sortDirectionValue, accessors.length), values, in.readUTF());
+    } catch(IOException e) {
+      throw new IllegalArgumentException("cursor " + cursor + " is not a cursor", e);
+    }
+  }
+
+  /**
+   * @return String the opaque, URL safe form of the cursor, for decode()
+   */
+  public String encode() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try(DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(FORMAT);
+      out.writeUTF(getSortBy());
+      out.writeUTF(getSortDirection());
+      for(int idx = 0; idx < getAccessors().length; idx++) {
+        writeValue(out, getAccessors()[idx], getValues()[idx]);
+      }
+      out.writeUTF(getBeanId());
+    } catch(IOException e) {
+      // a ByteArrayOutputStream doesn't throw
+      throw new IllegalStateException(e);
+    }
+    return Base64.encodeBase64URLSafeString(bytes.toByteArray());
+  }
+
+  private static BeanAccessor[] getSortAccessors(final Class<? extends StorableBean> beanType, final String sortBy) {
+    if("".equals(sortBy)) return new BeanAccessor[0];
+    String[] sortFields = sortBy.split(",");
+    BeanAccessor[] ret = new BeanAccessor[sortFields.length];
+    for(int idx = 0; idx < sortFields.length; idx++) {
+      try {
+        ret[idx] = BeanAccessorRegistry.get().getAccessor(beanType, sortFields[idx]);
+      } catch(NoSuchFieldException e) {
+        throw new IllegalArgumentException("sortBy field named " + sortFields[idx] + " does not exist", e);
+      }
+    }
+    return ret;
+  }
+
+  private static boolean[] getSortAscending(final String sortDirection, final int sortFieldCount) {
+    boolean[] ret = new boolean[sortFieldCount];
+    if(0 == sortFieldCount) return ret;
+    String[] sortOrders = sortDirection.split(",");
+    if(sortFieldCount != sortOrders.length) throw new IllegalArgumentException("sortBy and sortDirection must contain the same number of values");
+    for(int idx = 0; idx < sortOrders.length; idx++) {
+      ret[idx] = "ASCENDING".equalsIgnoreCase(sortOrders[idx]) || "ASC".equalsIgnoreCase(sortOrders[idx]);
+    }
+    return ret;
+  }
+
+  private static void writeValue(final DataOutputStream out, final BeanAccessor accessor, final Object value) throws IOException {
+    out.writeBoolean(null != value);
+    if(null == value) return;
+    Class<?> type = ClassUtils.primitiveToWrapper(accessor.getType());
+    if(String.class == type) {
+      out.writeUTF((String) value);
+    } else if(Long.class == type || Integer.class == type || Short.class == type || Byte.class == type) {
+      out.writeLong(((Number) value).longValue());
+    } else if(Double.class == type || Float.class == type) {
+      out.writeDouble(((Number) value).doubleValue());
+    } else if(Boolean.class == type) {
+      out.writeBoolean(((Boolean) value).booleanValue());
+    } else if(Character.class == type) {
+      out.writeChar(((Character) value).charValue());
+    } else if(BigDecimal.class == type || BigInteger.class == type) {
+      out.writeUTF(value.toString());
+    } else if(Date.class.isAssignableFrom(type)) {
+      out.writeLong(((Date) value).getTime());
+    } else if(Calendar.class.isAssignableFrom(type)) {
+      out.writeLong(((Calendar) value).getTimeInMillis());
+    } else if(type.isEnum()) {
+      out.writeUTF(((Enum<?>) value).name());
+    } else {
+      throw new IllegalArgumentException("sortBy field named " + accessor.getName() + " cannot be paged by cursor");
+    }
+  }
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  private static Object readValue(final DataInputStream in, final BeanAccessor accessor) throws IOException {
+    if(!in.readBoolean()) return null;
+    Class<?> type = ClassUtils.primitiveToWrapper(accessor.getType());
+    Object ret = null;
+    if(String.class == type) {
+      ret = in.readUTF();
+    } else if(Long.class == type) {
+      ret = Long.valueOf(in.readLong());
+    } else if(Integer.class == type) {
+      ret = Integer.valueOf((int) in.readLong());
+    } else if(Short.class == type) {
+      ret = Short.valueOf((short) in.readLong());
+    } else if(Byte.class == type) {
+      ret = Byte.valueOf((byte) in.readLong());
+    } else if(Double.class == type) {
+      ret = Double.valueOf(in.readDouble());
+    } else if(Float.class == type) {
+      ret = Float.valueOf((float) in.readDouble());
+    } else if(Boolean.class == type) {
+      ret = Boolean.valueOf(in.readBoolean());
+    } else if(Character.class == type) {
+      ret = Character.valueOf(in.readChar());
+    } else if(BigDecimal.class == type) {
+      ret = new BigDecimal(in.readUTF());
+    } else if(BigInteger.class == type) {
+      ret = new BigInteger(in.readUTF());
+    } else if(Date.class.isAssignableFrom(type)) {
+      ret = new Date(in.readLong());
+    } else if(Calendar.class.isAssignableFrom(type)) {
+      Calendar calendar = Calendar.getInstance();
+      calendar.setTimeInMillis(in.readLong());
+      ret = calendar;
+    } else if(type.isEnum()) {
+      ret = Enum.valueOf((Class<Enum>) type, in.readUTF());
+    } else {
+      throw new IllegalArgumentException("sortBy field named " + accessor.getName() + " cannot be paged by cursor");
+    }
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("sortBy", getSortBy())
+        .append("sortDirection", getSortDirection())
+        .append("values", getValues())
+        .append("beanId", getBeanId())
+        .toString();
+  }
+}
@@ -0,0 +1,160 @@
+package org.tharrisx.framework.store.core;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.util.log.Log;
+
+/**
+ * The threads a BeanStoreFactory's AsyncBeanStores run their calls on, so the callers' own threads, such as
+ * a container's request threads, aren't held for the database round trip. There are a fixed number, which
+ * should be no more than the connections the store can have at once, and a bounded queue; a call arriving
+ * with the queue full fails at once rather than waiting, so a burst of slow calls can't pile up without end.
+ *
+ * Keeps counts of the calls submitted, rejected, completed and failed, for tuning the sizes.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public final class BeanStoreExecutor {
+
+  private static final String METHOD_SUBMIT = "submit";
+
+  private final ThreadPoolExecutor executor;
+
+  private ThreadPoolExecutor getExecutor() {
+    return this.executor;
+  }
+
+  private final AtomicLong submittedCount = new AtomicLong();
+
+  public long getSubmittedCount() {
+    return this.submittedCount.get();
+  }
+
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  public long getRejectedCount() {
+    return this.rejectedCount.get();
+  }
+
+  private final AtomicLong completedCount = new AtomicLong();
+
+  public long getCompletedCount() {
+    return this.completedCount.get();
+  }
+
+  private final AtomicLong failedCount = new AtomicLong();
+
+  public long getFailedCount() {
+    return this.failedCount.get();
+  }
+
+  /**
+   * @param name String names the threads
+   * @param threadCount1 int how many calls run at once
+   * @param queueDepth1 int how many calls may wait for a thread
+   */
+  public BeanStoreExecutor(final String name, final int threadCount1, final int queueDepth1) {
+    final AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threadCount1, threadCount1, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueDepth1), new ThreadFactory() {
+      @Override public Thread newThread(Runnable runnable) {
+        Thread ret = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+        ret.setDaemon(true);
+        return ret;
+      }
+    });
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Run the call on one of the threads.
+   *
+   * @param <V> V
+   * @param beanType Class<? extends StorableBean> for the failure's stack info
+   * @param beanStoreMethod String for the failure's stack info
+   * @param call Callable<V>
+   * @return ListenableFuture<V> failed with a BeanStoreException at once if the queue is full
+   */
+  public <V> ListenableFuture<V> submit(final Class<? extends StorableBean> beanType, final String beanStoreMethod, final Callable<V> call) {
+    this.submittedCount.incrementAndGet();
+    ListenableFutureTask<V> ret = new ListenableFutureTask<V>(new Callable<V>() {
+      @Override public V call() throws Exception {
+        boolean completed = false;
+        try {
+          V retInner = call.call();
+          completed = true;
+          return retInner;
+        } finally {
+          (completed ? BeanStoreExecutor.this.completedCount : BeanStoreExecutor.this.failedCount).incrementAndGet();
+        }
+      }
+    });
+    try {
+      getExecutor().execute(ret);
+      return ret;
+    } catch(RejectedExecutionException e) {
+      this.rejectedCount.incrementAndGet();
+      Log.warn(getClass(), METHOD_SUBMIT, "Rejected " + beanStoreMethod + " for " + beanType + "; " + getQueuedCount() + " calls already waiting.");
+      SettableListenableFuture<V> rejected = new SettableListenableFuture<>();
+      rejected.setException(new BeanStoreException(new BeanStoreStackInfo(beanType, null, beanStoreMethod), "Too many store calls waiting to run.", e));
+      return rejected;
+    }
+  }
+
+  /**
+   * @return int how many calls are running now
+   */
+  public int getActiveCount() {
+    return getExecutor().getActiveCount();
+  }
+
+  /**
+   * @return int how many calls are waiting for a thread now
+   */
+  public int getQueuedCount() {
+    return getExecutor().getQueue().size();
+  }
+
+  public int getThreadCount() {
+    return getExecutor().getMaximumPoolSize();
+  }
+
+  public int getQueueDepth() {
+    return getExecutor().getQueue().size() + getExecutor().getQueue().remainingCapacity();
+  }
+
+  /**
+   * Take no more calls, and let the threads end once those already taken are done.
+   */
+  public void shutdown() {
+    getExecutor().shutdown();
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("threadCount", getThreadCount())
+        .append("queueDepth", getQueueDepth())
+        .append("activeCount", getActiveCount())
+        .append("queuedCount", getQueuedCount())
+        .append("submittedCount", getSubmittedCount())
+        .append("rejectedCount", getRejectedCount())
+        .append("completedCount", getCompletedCount())
+        .append("failedCount", getFailedCount())
+        .toString();
+  }
+}
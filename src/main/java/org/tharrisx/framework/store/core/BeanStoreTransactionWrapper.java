@@ -68,21 +68,93 @@ public abstract class BeanStoreTransactionWrapper<U> {
   protected abstract U perform(BeanStoreTransaction transaction) throws BeanStoreException;
 
   /**
-   * Call this to actually carry out the actions of this wrapper.
+   * Call this to actually carry out the actions of this wrapper, in the thread's BeanStoreUnitOfWork if it
+   * has one open, or else in a transaction of its own. If perform() fails, its own transaction is rolled
+   * back and ended here, while the unit of work's is marked rollback only, to be rolled back when it closes.
    * 
    * @return U
    * @throws BeanStoreException
    */
   public final U handle() throws BeanStoreException {
-    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), getBeanStoreMethod());
+    return handle(false);
+  }
+
+  /**
+   * Call this instead of handle() when perform() only reads, so the store can skip the work of noticing and
+   * saving changes to what it loads.
+   * 
+   * @return U
+   * @throws BeanStoreException
+   */
+  public final U handleReadOnly() throws BeanStoreException {
+    return handle(true);
+  }
+
+  private U handle(final boolean readOnly) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), getBeanStoreMethod(), Boolean.valueOf(readOnly));
     U ret = null;
     BeanStoreTransaction transaction = null;
+    boolean joined = false;
+    boolean ending = false;
     try {
-      transaction = getBeanStoreFactory().beginTransaction(getBeanType(), IMPLICIT_TRANSACTION_NAME);
+      transaction = readOnly
+          ? BeanStoreUnitOfWork.joinReadOnly(getBeanStoreFactory(), getBeanType())
+          : BeanStoreUnitOfWork.join(getBeanStoreFactory(), getBeanType());
+      if(null != transaction) {
+        // the unit of work ends its transaction when it closes
+        joined = true;
+        ret = perform(transaction);
+        return ret;
+      }
+      transaction = readOnly
+          ? getBeanStoreFactory().beginReadOnlyTransaction(getBeanType(), IMPLICIT_TRANSACTION_NAME)
+          : getBeanStoreFactory().beginTransaction(getBeanType(), IMPLICIT_TRANSACTION_NAME);
       ret = perform(transaction);
+      ending = true;
       getBeanStoreFactory().endTransaction(getBeanType(), transaction);
       return ret;
     } catch(Exception e) {
+      if(joined) {
+        BeanStoreUnitOfWork.setRollbackOnly();
+      } else if(null != transaction && !ending) {
+        transaction.setRollbackOnly();
+        try {
+          getBeanStoreFactory().endTransaction(getBeanType(), transaction);
+        } catch(BeanStoreException e1) {
+          Log.error(getClass(), getBeanStoreMethod(), "Ending the failed transaction failed too.", e1);
+        }
+      }
+      throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), transaction, getBeanStoreMethod()), e);
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), getBeanStoreMethod(), ret);
+    }
+  }
+
+  /**
+   * Call this instead of handle() when what perform() returns goes on using the transaction after this call
+   * returns, such as a stream still reading its results; it must end the transaction itself when done. If
+   * perform() fails, the transaction is ended here. The transaction is read-only, as a stream's is, and
+   * never the thread's BeanStoreUnitOfWork, which may close first.
+   * 
+   * @return U
+   * @throws BeanStoreException
+   */
+  public final U handleKeepingOpen() throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), getBeanStoreMethod());
+    U ret = null;
+    BeanStoreTransaction transaction = null;
+    try {
+      transaction = getBeanStoreFactory().beginReadOnlyTransaction(getBeanType(), getBeanStoreMethod());
+      ret = perform(transaction);
+      return ret;
+    } catch(Exception e) {
+      if(null != transaction) {
+        try {
+          getBeanStoreFactory().endTransaction(getBeanType(), transaction);
+        } catch(BeanStoreException e1) {
+          Log.error(getClass(), getBeanStoreMethod(), "Ending the failed transaction failed too.", e1);
+        }
+      }
       throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), transaction, getBeanStoreMethod()), e);
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), getBeanStoreMethod(), ret);
@@ -0,0 +1,265 @@
+package org.tharrisx.framework.store.core;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.BeanStoreFactory;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.util.log.Log;
+
+/**
+ * One transaction shared by every BeanStore call a thread makes between open() and close(), such as all
+ * those serving one REST request, instead of a transaction (and so a session and a connection) per call.
+ *
+ * BeanStoreTransactionWrapper.handle() joins the thread's unit of work, when it has one for the same
+ * factory, rather than beginning and ending its own transaction. Writes join it by being passed the
+ * transaction join() returns. Streams still read in their own transactions, since they outlive the call.
+ *
+ * A unit of work opened by name begins its transaction only when something first joins it, so opening one
+ * costs nothing until the store is used, and ends it on close(). One opened around an existing transaction
+ * leaves ending that to whoever began it.
+ *
+ * Until something joins it to write, by join() rather than joinReadOnly(), the transaction it begins is
+ * read-only, so a factory that routes read-only transactions to replicas can still serve a request that only
+ * reads from one. The first write ends that read-only transaction and begins a read/write one in its place,
+ * which the rest of the unit of work then shares, reading its own writes.
+ *
+ * Marked rollback only, such as when the request it serves has failed, the unit of work has its transaction
+ * rolled back, rather than committed, when it is ended.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public final class BeanStoreUnitOfWork {
+
+  private static final String METHOD_OPEN = "open";
+  private static final String METHOD_JOIN = "join";
+  private static final String METHOD_JOIN_READ_ONLY = "joinReadOnly";
+  private static final String METHOD_CLOSE = "close";
+  private static final String METHOD_SET_ROLLBACK_ONLY = "setRollbackOnly";
+
+  private static final ThreadLocal<BeanStoreUnitOfWork> CURRENT = new ThreadLocal<>();
+
+  private final BeanStoreFactory beanStoreFactory;
+
+  private BeanStoreFactory getBeanStoreFactory() {
+    return this.beanStoreFactory;
+  }
+
+  private final String transactionName;
+
+  private String getTransactionName() {
+    return this.transactionName;
+  }
+
+  private final boolean owned;
+
+  /**
+   * @return boolean true if the unit of work begins, and so ends, its own transaction
+   */
+  private boolean isOwned() {
+    return this.owned;
+  }
+
+  private BeanStoreTransaction transaction;
+
+  private BeanStoreTransaction getTransaction() {
+    return this.transaction;
+  }
+
+  private boolean readOnly;
+
+  /**
+   * @return boolean true if the transaction was begun read-only, and nothing has joined it to write yet
+   */
+  private boolean isReadOnly() {
+    return this.readOnly;
+  }
+
+  private boolean rollbackOnly;
+
+  private boolean isRollbackOnly() {
+    return this.rollbackOnly;
+  }
+
+  private Class<? extends StorableBean> beanType;
+
+  /**
+   * @return Class<? extends StorableBean> the bean type the transaction was begun for, to end it for
+   */
+  private Class<? extends StorableBean> getBeanType() {
+    return this.beanType;
+  }
+
+  private BeanStoreUnitOfWork(final BeanStoreFactory beanStoreFactory1, final String transactionName1, final boolean owned1, final BeanStoreTransaction transaction1) {
+    this.beanStoreFactory = beanStoreFactory1;
+    this.transactionName = transactionName1;
+    this.owned = owned1;
+    this.transaction = transaction1;
+  }
+
+  /**
+   * Open a unit of work for the current thread, whose transaction will be begun when first joined.
+   *
+   * @param beanStoreFactory BeanStoreFactory
+   * @param transactionName String
+   * @throws IllegalStateException if the thread already has a unit of work
+   */
+  public static void open(final BeanStoreFactory beanStoreFactory, final String transactionName) {
+    bind(new BeanStoreUnitOfWork(beanStoreFactory, transactionName, true, null));
+  }
+
+  /**
+   * Open a unit of work for the current thread around a transaction the caller has begun, and will end.
+   *
+   * @param beanStoreFactory BeanStoreFactory
+   * @param transaction BeanStoreTransaction
+   * @throws IllegalStateException if the thread already has a unit of work
+   */
+  public static void open(final BeanStoreFactory beanStoreFactory, final BeanStoreTransaction transaction) {
+    bind(new BeanStoreUnitOfWork(beanStoreFactory, transaction.getTransactionName(), false, transaction));
+  }
+
+  private static void bind(final BeanStoreUnitOfWork unitOfWork) {
+    if(Log.isEnteringEnabled(BeanStoreUnitOfWork.class)) Log.entering(BeanStoreUnitOfWork.class, METHOD_OPEN, unitOfWork);
+    try {
+      if(null != CURRENT.get()) {
+        throw new IllegalStateException("This thread already has a unit of work open: " + CURRENT.get());
+      }
+      CURRENT.set(unitOfWork);
+    } finally {
+      if(Log.isExitingEnabled(BeanStoreUnitOfWork.class)) Log.exiting(BeanStoreUnitOfWork.class, METHOD_OPEN);
+    }
+  }
+
+  /**
+   * @return boolean true if the current thread has a unit of work open
+   */
+  public static boolean isOpen() {
+    return null != CURRENT.get();
+  }
+
+  /**
+   * The current thread's unit of work transaction, to write in, begun now if it hadn't been. If the unit of
+   * work had begun a read-only transaction, that is ended, and a read/write one begun in its place.
+   *
+   * @param <T> T extends StorableBean
+   * @param beanStoreFactory BeanStoreFactory
+   * @param beanType Class<T>
+   * @return BeanStoreTransaction null if the thread has no unit of work open for the factory
+   * @throws BeanStoreException if the transaction could not be begun
+   */
+  public static <T extends StorableBean> BeanStoreTransaction join(final BeanStoreFactory beanStoreFactory, final Class<T> beanType) throws BeanStoreException {
+    if(Log.isEnteringEnabled(BeanStoreUnitOfWork.class)) Log.entering(BeanStoreUnitOfWork.class, METHOD_JOIN, beanStoreFactory, beanType);
+    BeanStoreTransaction ret = null;
+    try {
+      BeanStoreUnitOfWork unitOfWork = CURRENT.get();
+      if(null != unitOfWork && unitOfWork.getBeanStoreFactory() == beanStoreFactory) {
+        if(unitOfWork.isReadOnly()) {
+          // nothing was written in it, so there is nothing to commit
+          BeanStoreTransaction readOnlyTransaction = unitOfWork.getTransaction();
+          unitOfWork.transaction = null;
+          unitOfWork.readOnly = false;
+          beanStoreFactory.endTransaction(unitOfWork.getBeanType(), readOnlyTransaction);
+        }
+        if(null == unitOfWork.getTransaction()) {
+          unitOfWork.transaction = beanStoreFactory.beginTransaction(beanType, unitOfWork.getTransactionName());
+          unitOfWork.beanType = beanType;
+        }
+        ret = unitOfWork.getTransaction();
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(BeanStoreUnitOfWork.class)) Log.exiting(BeanStoreUnitOfWork.class, METHOD_JOIN, ret);
+    }
+  }
+
+  /**
+   * The current thread's unit of work transaction, only to read in, begun now, read-only, if it hadn't been.
+   * Once something has joined to write, this is the read/write transaction that began.
+   *
+   * @param <T> T extends StorableBean
+   * @param beanStoreFactory BeanStoreFactory
+   * @param beanType Class<T>
+   * @return BeanStoreTransaction null if the thread has no unit of work open for the factory
+   * @throws BeanStoreException if the transaction could not be begun
+   */
+  public static <T extends StorableBean> BeanStoreTransaction joinReadOnly(final BeanStoreFactory beanStoreFactory, final Class<T> beanType) throws BeanStoreException {
+    if(Log.isEnteringEnabled(BeanStoreUnitOfWork.class)) Log.entering(BeanStoreUnitOfWork.class, METHOD_JOIN_READ_ONLY, beanStoreFactory, beanType);
+    BeanStoreTransaction ret = null;
+    try {
+      BeanStoreUnitOfWork unitOfWork = CURRENT.get();
+      if(null != unitOfWork && unitOfWork.getBeanStoreFactory() == beanStoreFactory) {
+        if(null == unitOfWork.getTransaction()) {
+          unitOfWork.transaction = beanStoreFactory.beginReadOnlyTransaction(beanType, unitOfWork.getTransactionName());
+          unitOfWork.beanType = beanType;
+          unitOfWork.readOnly = true;
+        }
+        ret = unitOfWork.getTransaction();
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(BeanStoreUnitOfWork.class)) Log.exiting(BeanStoreUnitOfWork.class, METHOD_JOIN_READ_ONLY, ret);
+    }
+  }
+
+  /**
+   * @param transaction BeanStoreTransaction
+   * @return boolean true if the transaction is the current thread's unit of work transaction, which
+   * whoever joined it must not end
+   */
+  public static boolean isJoined(final BeanStoreTransaction transaction) {
+    BeanStoreUnitOfWork unitOfWork = CURRENT.get();
+    return null != transaction && null != unitOfWork && transaction == unitOfWork.getTransaction();
+  }
+
+  /**
+   * Have the current thread's unit of work transaction rolled back, rather than committed, whether it has
+   * been begun yet or not. Does nothing if the thread has no unit of work open.
+   */
+  public static void setRollbackOnly() {
+    if(Log.isEnteringEnabled(BeanStoreUnitOfWork.class)) Log.entering(BeanStoreUnitOfWork.class, METHOD_SET_ROLLBACK_ONLY);
+    try {
+      BeanStoreUnitOfWork unitOfWork = CURRENT.get();
+      if(null != unitOfWork) unitOfWork.rollbackOnly = true;
+    } finally {
+      if(Log.isExitingEnabled(BeanStoreUnitOfWork.class)) Log.exiting(BeanStoreUnitOfWork.class, METHOD_SET_ROLLBACK_ONLY);
+    }
+  }
+
+  /**
+   * Close the current thread's unit of work, ending its transaction if it began one, and marking it
+   * rollback only first if the unit of work was. Does nothing if the thread has none open.
+   *
+   * @throws BeanStoreException if ending the transaction failed; the unit of work is closed anyway
+   */
+  public static void close() throws BeanStoreException {
+    if(Log.isEnteringEnabled(BeanStoreUnitOfWork.class)) Log.entering(BeanStoreUnitOfWork.class, METHOD_CLOSE);
+    try {
+      BeanStoreUnitOfWork unitOfWork = CURRENT.get();
+      if(null == unitOfWork) return;
+      CURRENT.remove();
+      if(unitOfWork.isRollbackOnly() && null != unitOfWork.getTransaction()) {
+        // one the caller began is rolled back when the caller ends it
+        unitOfWork.getTransaction().setRollbackOnly();
+      }
+      if(unitOfWork.isOwned() && null != unitOfWork.getTransaction()) {
+        unitOfWork.getBeanStoreFactory().endTransaction(unitOfWork.getBeanType(), unitOfWork.getTransaction());
+      }
+    } finally {
+      if(Log.isExitingEnabled(BeanStoreUnitOfWork.class)) Log.exiting(BeanStoreUnitOfWork.class, METHOD_CLOSE);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("transactionName", getTransactionName())
+        .append("owned", isOwned())
+        .append("readOnly", isReadOnly())
+        .append("rollbackOnly", isRollbackOnly())
+        .append("transaction", getTransaction())
+        .toString();
+  }
+}
@@ -0,0 +1,142 @@
+package org.tharrisx.framework.store.core;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.bean.BeanList;
+import org.tharrisx.framework.bean.PageableBeanList;
+import org.tharrisx.framework.store.BeanIterator;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreCountStrategy;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.framework.store.exception.ConflictingBeansFoundException;
+import org.tharrisx.framework.store.exception.NoBeanFoundException;
+
+/**
+ * A BeanStore in front of another, passing every call through to it; subclasses override the calls they
+ * add behavior to. AbstractBeanStoreFactory puts these in front of the stores it constructs.
+ *
+ * @param <T> T extends StorableBean
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public abstract class DelegatingBeanStore<T extends StorableBean> extends AbstractBeanStore<T> {
+
+  private final BeanStore<T> beanStore;
+
+  /**
+   * @return BeanStore<T> the store calls are passed to
+   */
+  public BeanStore<T> getBeanStore() {
+    return this.beanStore;
+  }
+
+  protected DelegatingBeanStore(final AbstractBeanStoreFactory beanStoreFactory1, final Class<T> beanType1, final BeanStore<T> beanStore1) {
+    super(beanStoreFactory1, beanType1);
+    this.beanStore = beanStore1;
+  }
+
+  @Override
+  public boolean hasBean(String beanId) throws BeanStoreException {
+    return getBeanStore().hasBean(beanId);
+  }
+
+  @Override
+  public boolean hasBeanByUniqueKey(Map<String, String> propertyValues) throws ConflictingBeansFoundException, BeanStoreException {
+    return getBeanStore().hasBeanByUniqueKey(propertyValues);
+  }
+
+  @Override
+  public T getBean(String beanId) throws NoBeanFoundException, BeanStoreException {
+    return getBeanStore().getBean(beanId);
+  }
+
+  @Override
+  public BeanList<T> getBeans(Collection<String> beanIds) throws BeanStoreException {
+    return getBeanStore().getBeans(beanIds);
+  }
+
+  @Override
+  public T getBeanByUniqueKey(Map<String, String> propertyValues) throws NoBeanFoundException, ConflictingBeansFoundException, BeanStoreException {
+    return getBeanStore().getBeanByUniqueKey(propertyValues);
+  }
+
+  @Override
+  public BeanList<T> getAllMatchingBeans(Map<String, String> propertyValues) throws BeanStoreException {
+    return getBeanStore().getAllMatchingBeans(propertyValues);
+  }
+
+  @Override
+  public BeanList<T> getAllBeansViaQuery(String queryName, Object... queryParameters) throws BeanStoreException {
+    return getBeanStore().getAllBeansViaQuery(queryName, queryParameters);
+  }
+
+  @Override
+  public BeanIterator<T> streamMatchingBeans(Map<String, String> propertyValues) throws BeanStoreException {
+    return getBeanStore().streamMatchingBeans(propertyValues);
+  }
+
+  @Override
+  public BeanIterator<T> streamBeansViaQuery(String queryName, Object... queryParameters) throws BeanStoreException {
+    return getBeanStore().streamBeansViaQuery(queryName, queryParameters);
+  }
+
+  @Override
+  public PageableBeanList<T> getPageOfMatchingBeans(int start, int end, String sortBy, String sortDirection, Map<String, String> propertyValues, BeanStoreCountStrategy countStrategy) throws BeanStoreException {
+    return getBeanStore().getPageOfMatchingBeans(start, end, sortBy, sortDirection, propertyValues, countStrategy);
+  }
+
+  @Override
+  public PageableBeanList<T> getPageOfMatchingBeansAfter(String cursor, int pageSize, String sortBy, String sortDirection, Map<String, String> propertyValues, BeanStoreCountStrategy countStrategy) throws BeanStoreException {
+    return getBeanStore().getPageOfMatchingBeansAfter(cursor, pageSize, sortBy, sortDirection, propertyValues, countStrategy);
+  }
+
+  @Override
+  public PageableBeanList<T> getPageOfBeansViaQuery(int start, int end, String sortBy, String sortDirection, BeanStoreCountStrategy countStrategy, String queryName, Object... queryParameters) throws BeanStoreException {
+    return getBeanStore().getPageOfBeansViaQuery(start, end, sortBy, sortDirection, countStrategy, queryName, queryParameters);
+  }
+
+  @Override
+  public T createOrUpdateBean(T bean, BeanStoreTransaction transaction) throws BeanStoreException {
+    return getBeanStore().createOrUpdateBean(bean, transaction);
+  }
+
+  @Override
+  public boolean deleteBean(String beanId, BeanStoreTransaction transaction) throws NoBeanFoundException, BeanStoreException {
+    return getBeanStore().deleteBean(beanId, transaction);
+  }
+
+  @Override
+  public List<T> createOrUpdateBeans(Collection<T> beans, BeanStoreTransaction transaction) throws BeanStoreException {
+    return getBeanStore().createOrUpdateBeans(beans, transaction);
+  }
+
+  @Override
+  public int deleteBeans(Collection<String> beanIds, BeanStoreTransaction transaction) throws BeanStoreException {
+    return getBeanStore().deleteBeans(beanIds, transaction);
+  }
+
+  @Override
+  public int deleteMatchingBeans(Map<String, String> propertyValues, BeanStoreTransaction transaction) throws BeanStoreException {
+    return getBeanStore().deleteMatchingBeans(propertyValues, transaction);
+  }
+
+  @Override
+  public int updateMatchingBeans(Map<String, String> propertyValues, Map<String, String> newPropertyValues, BeanStoreTransaction transaction) throws BeanStoreException {
+    return getBeanStore().updateMatchingBeans(propertyValues, newPropertyValues, transaction);
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .appendSuper(super.toString())
+        .append("beanStore", getBeanStore())
+        .toString();
+  }
+}
@@ -39,4 +39,11 @@ public class BeanStoreException extends RuntimeException {
   public BeanStoreException(BeanStoreStackInfo info, String message, Throwable cause) {
     super(makeMessage(info, message), cause);
   }
+
+  /**
+   * For failures expected often enough that filling in the stack trace would cost more than it tells.
+   */
+  protected BeanStoreException(BeanStoreStackInfo info, String message, boolean writableStackTrace) {
+    super(makeMessage(info, message), null, true, writableStackTrace);
+  }
 }
@@ -0,0 +1,21 @@
+package org.tharrisx.framework.store.exception;
+
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
+
+/**
+ * Thrown when a transaction can't commit because a bean it wrote was changed by another transaction since
+ * this one began. Nothing the transaction wrote to that bean type has been kept, so it may simply be
+ * retried.
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class ConcurrentBeanChangeException extends BeanStoreException {
+
+  private static final long serialVersionUID = -2315609471182530718L;
+
+  public ConcurrentBeanChangeException(BeanStoreStackInfo info, String beanId) {
+    super(info, "Bean was changed by another transaction since this one began, id: " + beanId);
+  }
+}
@@ -20,6 +20,14 @@ public class NoBeanFoundException extends BeanStoreException {
     super(info, "No beans matched id: " + beanId);
   }
 
+  /**
+   * @param writableStackTrace boolean false to skip filling in the stack trace, for misses answered
+   * without asking the store
+   */
+  public NoBeanFoundException(BeanStoreStackInfo info, String beanId, boolean writableStackTrace) {
+    super(info, "No beans matched id: " + beanId, writableStackTrace);
+  }
+
   public NoBeanFoundException(BeanStoreStackInfo info, Map<String, String> propertyValues) {
     super(info, "No beans matched unique criteria: " + propertyValues);
   }
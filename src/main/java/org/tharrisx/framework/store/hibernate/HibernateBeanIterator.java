@@ -0,0 +1,98 @@
+package org.tharrisx.framework.store.hibernate;
+
+import java.util.NoSuchElementException;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.hibernate.HibernateException;
+import org.hibernate.ScrollableResults;
+import org.tharrisx.framework.store.BeanIterator;
+import org.tharrisx.framework.store.BeanStoreFactory;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+
+/**
+ * Streams beans from a forward-only ScrollableResults, in a transaction of its own that it ends when
+ * closed. The session is cleared every evictInterval beans, so it never holds more than that many,
+ * however many are read; beans already handed out are detached then.
+ * 
+ * @param <T> T extends StorableBean
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class HibernateBeanIterator<T extends StorableBean> implements BeanIterator<T> {
+
+  private static final String METHOD_CLOSE = "close";
+
+  private final BeanStoreFactory beanStoreFactory;
+  private final Class<T> beanType;
+  private final HibernateBeanStoreTransaction transaction;
+  private final ScrollableResults results;
+  private final int evictInterval;
+
+  private T nextBean;
+  private boolean exhausted;
+  private boolean closed;
+  private int count;
+
+  HibernateBeanIterator(final BeanStoreFactory beanStoreFactory1, final Class<T> beanType1, final HibernateBeanStoreTransaction transaction1, final ScrollableResults results1, final int evictInterval1) {
+    this.beanStoreFactory = beanStoreFactory1;
+    this.beanType = beanType1;
+    this.transaction = transaction1;
+    this.results = results1;
+    this.evictInterval = evictInterval1;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if(null == this.nextBean && !this.exhausted && !this.closed) {
+      if(this.results.next()) {
+        this.nextBean = this.beanType.cast(this.results.get(0));
+      } else {
+        this.exhausted = true;
+      }
+    }
+    return null != this.nextBean;
+  }
+
+  @Override
+  public T next() {
+    if(!hasNext()) throw new NoSuchElementException();
+    T ret = this.nextBean;
+    this.nextBean = null;
+    if(0 == ++this.count % this.evictInterval) {
+      this.transaction.getSession().clear();
+    }
+    return ret;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void close() throws BeanStoreException {
+    if(this.closed) return;
+    this.closed = true;
+    try {
+      this.results.close();
+    } catch(HibernateException e) {
+      throw new BeanStoreException(new BeanStoreStackInfo(this.beanType, this.transaction, METHOD_CLOSE), e);
+    } finally {
+      this.beanStoreFactory.endTransaction(this.beanType, this.transaction);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("beanType", this.beanType)
+        .append("count", this.count)
+        .append("exhausted", this.exhausted)
+        .append("closed", this.closed)
+        .toString();
+  }
+}
@@ -1,26 +1,69 @@
 package org.tharrisx.framework.store.hibernate;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
-import org.hibernate.Criteria;
+import org.hibernate.CacheMode;
+import org.hibernate.EmptyInterceptor;
 import org.hibernate.HibernateException;
 import org.hibernate.Query;
+import org.hibernate.SQLQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.envers.Audited;
+import org.hibernate.event.internal.DefaultDeleteEventListener;
+import org.hibernate.event.internal.DefaultFlushEntityEventListener;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.DeleteEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEntityEventListener;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
 import org.tharrisx.framework.bean.BeanList;
 import org.tharrisx.framework.bean.PageableBeanList;
+import org.tharrisx.framework.bean.StampedBean;
+import org.tharrisx.framework.store.BeanIterator;
+import org.tharrisx.framework.store.BeanStoreCountStrategy;
 import org.tharrisx.framework.store.BeanStoreFactory;
 import org.tharrisx.framework.store.BeanStoreTransaction;
 import org.tharrisx.framework.store.StorableBean;
 import org.tharrisx.framework.store.core.AbstractBeanStore;
+import org.tharrisx.framework.store.core.BeanStoreCountCache;
+import org.tharrisx.framework.store.core.BeanStoreCursor;
 import org.tharrisx.framework.store.core.BeanStoreStackInfo;
 import org.tharrisx.framework.store.core.BeanStoreTransactionWrapper;
 import org.tharrisx.framework.store.exception.BeanStoreException;
 import org.tharrisx.framework.store.exception.ConflictingBeansFoundException;
 import org.tharrisx.framework.store.exception.NoBeanFoundException;
+import org.tharrisx.framework.store.exception.NoSuchBeanPropertyException;
+import org.tharrisx.framework.store.exception.OperationNotSupportedException;
+import org.tharrisx.util.collection.MapStringUtils;
 import org.tharrisx.util.log.Log;
+import org.tharrisx.util.reflect.BeanAccessorRegistry;
 
 /**
  * BeanStore a la Hibernate
@@ -31,10 +74,32 @@ import org.tharrisx.util.log.Log;
  */
 public final class HibernateBeanStore<T extends StorableBean> extends AbstractBeanStore<T> {
 
-  private abstract class HibernateBeanStoreTransactionWrapper<U> extends BeanStoreTransactionWrapper<U> {
+  /**
+   * How many beans a batch write sends before flushing and clearing the session, when the SessionFactory
+   * has no hibernate.jdbc.batch_size set.
+   */
+  public static final int DEFAULT_WRITE_BATCH_SIZE = 50;
+
+  /**
+   * How many rows a stream has the JDBC driver fetch at a time, and reads before clearing its session,
+   * when the SessionFactory has no hibernate.jdbc.fetch_size set.
+   */
+  public static final int DEFAULT_STREAM_FETCH_SIZE = 500;
+
+  /**
+   * How many ids getBeans() looks up in each IN query.
+   */
+  public static final int DEFAULT_MULTI_GET_BATCH_SIZE = 500;
+
+  /**
+   * The StampedBean property an HQL update stamps.
+   */
+  private static final String PROPERTY_LAST_CHANGED = "lastChanged";
 
-    // method names for tracking
-    final String MAKE_PROPERTY_VALUE_CRITERIA = "makePropertyValueCriteria";
+  // method names for tracking
+  private static final String GET_MATCH_PLAN = "getMatchPlan";
+
+  private abstract class HibernateBeanStoreTransactionWrapper<U> extends BeanStoreTransactionWrapper<U> {
 
     HibernateBeanStoreTransactionWrapper(final BeanStoreFactory beanStoreFactory1, final Class<? extends StorableBean> beanType1, final String beanStoreMethod1) {
       super(beanStoreFactory1, beanType1, beanStoreMethod1);
@@ -44,47 +109,472 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
       return (HibernateBeanStoreTransaction) transaction;
     }
 
-    Criteria makePropertyValueCriteria(BeanStoreTransaction transaction, Map<String, String> propertyValues, String sortBy, String sortDirection) {
-      if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), this.MAKE_PROPERTY_VALUE_CRITERIA, transaction, propertyValues, sortBy, sortDirection);
-      Criteria ret = null;
+    /**
+     * The total count of the beans a named query returns, as the count strategy says. There's no estimate
+     * of a query's count, so ESTIMATED counts exactly.
+     * 
+     * @param transaction BeanStoreTransaction
+     * @param queryName String
+     * @param queryParameters Object[]
+     * @param countStrategy BeanStoreCountStrategy as requested, or null
+     * @return int -1 if not counted
+     */
+    int countQueryBeans(BeanStoreTransaction transaction, String queryName, Object[] queryParameters, BeanStoreCountStrategy countStrategy) {
+      int ret = -1;
+      switch(getCountStrategy(countStrategy)) {
+        case NONE:
+          break;
+        case CACHED:
+          String predicate = queryName + Arrays.asList(queryParameters);
+          Integer cachedCount = getCountCache().get(predicate);
+          if(null == cachedCount) {
+            ret = countQueryBeansExactly(transaction, queryName, queryParameters);
+            getCountCache().put(predicate, ret);
+          } else {
+            ret = cachedCount.intValue();
+          }
+          break;
+        default:
+          ret = countQueryBeansExactly(transaction, queryName, queryParameters);
+          break;
+      }
+      return ret;
+    }
+
+    /**
+     * Counts with a SELECT COUNT derived from the named query's HQL, where it's simple enough to derive one;
+     * otherwise scrolls to the end of its results, which doesn't load the beans before the last.
+     */
+    private int countQueryBeansExactly(BeanStoreTransaction transaction, String queryName, Object[] queryParameters) {
+      Session session = getTransactionCast(transaction).getSession();
+      Query namedQuery = session.getNamedQuery(queryName);
+      String countQueryString = namedQuery instanceof SQLQuery ? null : makeCountQueryString(namedQuery.getQueryString());
+      if(null != countQueryString) {
+        if(Log.isDebugEnabled(getClass())) Log.debug(getClass(), "countQueryBeansExactly", "Counting query " + queryName + " with: " + countQueryString);
+        return ((Number) bindParameters(session.createQuery(countQueryString), queryParameters).uniqueResult()).intValue();
+      }
+      ScrollableResults results = bindParameters(namedQuery, queryParameters).scroll(ScrollMode.SCROLL_INSENSITIVE);
       try {
+        return results.last() ? results.getRowNumber() + 1 : 0;
+      } finally {
+        results.close();
+      }
+    }
 
-        ret = getTransactionCast(transaction).getSession().createCriteria(getBeanType());
+    /**
+     * Ready the stream's own read-only transaction for a long read, bypassing the second level cache, so
+     * nothing accumulates but the beans read since the last clear.
+     * 
+     * @param transaction BeanStoreTransaction
+     * @return Session
+     */
+    Session prepareStreamSession(BeanStoreTransaction transaction) {
+      Session ret = getTransactionCast(transaction).getSession();
+      ret.setCacheMode(CacheMode.IGNORE);
+      return ret;
+    }
+
+    BeanIterator<T> makeBeanIterator(BeanStoreTransaction transaction, ScrollableResults results, int fetchSize) {
+      return new HibernateBeanIterator<>(getBeanStoreFactory(), HibernateBeanStore.this.getBeanType(), getTransactionCast(transaction), results, fetchSize);
+    }
+
+    Query bindParameters(Query query, Object[] queryParameters) {
+      for(int idx = 0; idx < queryParameters.length; idx++) {
+        query.setParameter(idx, queryParameters[idx]);
+      }
+      return query;
+    }
+  }
 
-        // Matching
-        Object castValue = null;
-        for(Map.Entry<String, String> entry : propertyValues.entrySet()) {
-          castValue = castAsPropertyTypeValue(transaction, entry.getKey(), entry.getValue());
-          ret.add(Restrictions.eq(entry.getKey(), castValue));
+  /**
+   * The cached plan for matching the property names with the sort, compiled now if there isn't one.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param propertyNames Collection<String>
+   * @param sortBy String
+   * @param sortDirection String
+   * @return HibernateMatchPlan
+   */
+  HibernateMatchPlan getMatchPlan(BeanStoreTransaction transaction, String beanStoreMethod, Collection<String> propertyNames, String sortBy, String sortDirection) {
+    String[] sortedNames = propertyNames.toArray(new String[propertyNames.size()]);
+    Arrays.sort(sortedNames);
+    String key = Arrays.toString(sortedNames) + '|' + sortBy + '|' + sortDirection;
+    HibernateMatchPlan ret = getMatchPlans().get(key);
+    if(null != ret) {
+      getMatchPlanHits().incrementAndGet();
+      return ret;
+    }
+    getMatchPlanMisses().incrementAndGet();
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), GET_MATCH_PLAN, transaction, key);
+    try {
+      // the names go into HQL, so each must be one of the bean type's own properties
+      for(String propertyName : sortedNames) {
+        checkPropertyName(transaction, beanStoreMethod, propertyName);
+      }
+      String[] sortFields = new String[0];
+      boolean[] sortAscending = new boolean[0];
+      if(!"".equals(sortBy)) {
+        sortFields = sortBy.split(",");
+        String[] sortOrders = sortDirection.split(",");
+        if(sortFields.length != sortOrders.length) throw new IllegalArgumentException("sortBy and sortDirection must contain the same number of values");
+        sortAscending = new boolean[sortFields.length];
+        for(int idx = 0; idx < sortFields.length; idx++) {
+          checkPropertyName(transaction, beanStoreMethod, sortFields[idx]);
+          sortAscending[idx] = "ASCENDING".equalsIgnoreCase(sortOrders[idx]) || "ASC".equalsIgnoreCase(sortOrders[idx]);
         }
+      }
+      HibernatePropertyBinding[] bindings = new HibernatePropertyBinding[sortedNames.length];
+      for(int idx = 0; idx < sortedNames.length; idx++) {
+        bindings[idx] = getBinding(transaction, beanStoreMethod, sortedNames[idx]);
+      }
+      ClassMetadata classMetadata = ((HibernateBeanStoreTransaction) transaction).getSession().getSessionFactory().getClassMetadata(getBeanType());
+      String entityName = null == classMetadata ? getBeanType().getName() : classMetadata.getEntityName();
+      boolean[] sortNullable = new boolean[sortFields.length];
+      for(int idx = 0; idx < sortFields.length; idx++) {
+        sortNullable[idx] = isNullable(classMetadata, sortFields[idx]);
+      }
+      ret = new HibernateMatchPlan(entityName, sortedNames, bindings, sortFields, sortAscending, sortNullable);
+      if(getMatchPlans().size() < MAX_MATCH_PLANS) {
+        HibernateMatchPlan cached = getMatchPlans().putIfAbsent(key, ret);
+        if(null != cached) ret = cached;
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), GET_MATCH_PLAN, ret);
+    }
+  }
 
-        // Sorting
-        if(!"".equals(sortBy)) {
-          String[] sortFields = sortBy.split(",");
-          if(Log.isDebugEnabled(getClass())) Log.debug(getClass(), this.MAKE_PROPERTY_VALUE_CRITERIA, "sortBy " + sortBy + " is parsed to " + sortFields.length + " items");
-          String[] sortOrders = sortDirection.split(",");
-          if(Log.isDebugEnabled(getClass())) Log.debug(getClass(), this.MAKE_PROPERTY_VALUE_CRITERIA, "sortDirection " + sortDirection + " is parsed to " + sortOrders.length + " items");
-          if(sortFields.length != sortOrders.length) throw new IllegalArgumentException("sortBy and sortDirection must contain the same number of values");
-          for(int idx = 0; idx < sortFields.length; idx++) {
-            if("ASCENDING".equalsIgnoreCase(sortOrders[idx]) || "ASC".equalsIgnoreCase(sortOrders[idx])) {
-              if(Log.isDebugEnabled(getClass())) Log.debug(getClass(), this.MAKE_PROPERTY_VALUE_CRITERIA, "Adding ascending sort for '" + sortFields[idx] + "'");
-              ret.addOrder(org.hibernate.criterion.Order.asc(sortFields[idx]));
-            } else {
-              if(Log.isDebugEnabled(getClass())) Log.debug(getClass(), this.MAKE_PROPERTY_VALUE_CRITERIA, "Adding descending sort for '" + sortFields[idx] + "'");
-              ret.addOrder(org.hibernate.criterion.Order.desc(sortFields[idx]));
-            }
-          }
+  /**
+   * @param classMetadata ClassMetadata or null if the bean type isn't mapped
+   * @param propertyName String known to be the bean type's
+   * @return boolean false only if the property's column can't be null: the id, a primitive, or a property
+   *         mapped not-null; true if that isn't known
+   */
+  private boolean isNullable(ClassMetadata classMetadata, String propertyName) {
+    try {
+      if(BeanAccessorRegistry.get().getAccessor(getBeanType(), propertyName).getType().isPrimitive()) return false;
+    } catch(NoSuchFieldException e) {
+      return true;
+    }
+    if(null == classMetadata) return true;
+    if(propertyName.equals(classMetadata.getIdentifierPropertyName())) return false;
+    String[] propertyNames = classMetadata.getPropertyNames();
+    for(int idx = 0; idx < propertyNames.length; idx++) {
+      if(propertyName.equals(propertyNames[idx])) return classMetadata.getPropertyNullability()[idx];
+    }
+    return true;
+  }
+
+  private void checkPropertyName(BeanStoreTransaction transaction, String beanStoreMethod, String propertyName) {
+    try {
+      BeanAccessorRegistry.get().getAccessor(getBeanType(), propertyName);
+    } catch(NoSuchFieldException e) {
+      throw new NoSuchBeanPropertyException(new BeanStoreStackInfo(getBeanType(), transaction, GET_MATCH_PLAN), e);
+    }
+  }
+
+  /**
+   * The binding for the property, made now if there isn't one yet.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param propertyName String known to be the bean type's
+   * @return HibernatePropertyBinding
+   */
+  HibernatePropertyBinding getBinding(BeanStoreTransaction transaction, String beanStoreMethod, String propertyName) {
+    HibernatePropertyBinding ret = getBindings().get(propertyName);
+    if(null == ret) {
+      ClassMetadata classMetadata = ((HibernateBeanStoreTransaction) transaction).getSession().getSessionFactory().getClassMetadata(getBeanType());
+      Type type = null;
+      if(null != classMetadata) {
+        try {
+          type = classMetadata.getPropertyType(propertyName);
+        } catch(HibernateException e) {
+          // not a mapped property; Hibernate works out each value's type
         }
+      }
+      ret = new HibernatePropertyBinding(new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod), propertyName, getBeanStoreFactory().getBeanPropertyValueAdapter(), type);
+      HibernatePropertyBinding cached = getBindings().putIfAbsent(propertyName, ret);
+      if(null != cached) ret = cached;
+    }
+    return ret;
+  }
 
-        return ret;
-      } finally {
-        if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), this.MAKE_PROPERTY_VALUE_CRITERIA, ret);
+  /**
+   * A query of one of the plan's HQL strings, with the property values bound.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param plan HibernateMatchPlan
+   * @param queryString String
+   * @param propertyValues Map<String, String>
+   * @return Query
+   */
+  Query makeMatchQuery(BeanStoreTransaction transaction, String beanStoreMethod, HibernateMatchPlan plan, String queryString, Map<String, String> propertyValues) {
+    Query query = ((HibernateBeanStoreTransaction) transaction).getSession().createQuery(queryString);
+    return plan.bind(query, new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod), propertyValues);
+  }
+
+  /**
+   * An update of the plan's matching rows, with the new values bound as the types Hibernate maps them to.
+   * Only the bean type's own column properties can be set, not its id, associations or collections; a
+   * StampedBean's lastChanged is always set to now, whatever new value is given for it.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param plan HibernateMatchPlan
+   * @param propertyValues Map<String, String>
+   * @param newPropertyValues Map<String, String>
+   * @return Query
+   */
+  Query makeUpdateQuery(BeanStoreTransaction transaction, String beanStoreMethod, HibernateMatchPlan plan, Map<String, String> propertyValues, Map<String, String> newPropertyValues) {
+    EntityPersister persister = getEntityPersister(transaction, beanStoreMethod);
+    List<String> setNames = getUpdatePropertyNames(transaction, beanStoreMethod, persister, newPropertyValues);
+    Object[] setValues = getUpdatePropertyValues(transaction, beanStoreMethod, setNames, newPropertyValues);
+    Query ret = makeMatchQuery(transaction, beanStoreMethod, plan, plan.makeUpdateQueryString(setNames.toArray(new String[setNames.size()]), persister.isVersioned()), propertyValues);
+    for(int idx = 0; idx < setNames.size(); idx++) {
+      getBinding(transaction, beanStoreMethod, setNames.get(idx)).bind(ret, HibernateMatchPlan.getSetParameterName(idx), setValues[idx]);
+    }
+    return ret;
+  }
+
+  private EntityPersister getEntityPersister(BeanStoreTransaction transaction, String beanStoreMethod) {
+    ClassMetadata classMetadata = ((HibernateBeanStoreTransaction) transaction).getSession().getSessionFactory().getClassMetadata(getBeanType());
+    if(!(classMetadata instanceof EntityPersister)) {
+      throw new OperationNotSupportedException(new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod), "Bean type " + getBeanType().getName() + " is not mapped as an entity.");
+    }
+    return (EntityPersister) classMetadata;
+  }
+
+  /**
+   * @return List<String> the properties an update by match sets, with a StampedBean's lastChanged last
+   * @throws OperationNotSupportedException if one is the id, an association or a collection
+   */
+  private List<String> getUpdatePropertyNames(BeanStoreTransaction transaction, String beanStoreMethod, EntityPersister persister, Map<String, String> newPropertyValues) {
+    boolean stamped = StampedBean.class.isAssignableFrom(getBeanType());
+    List<String> ret = new ArrayList<>(newPropertyValues.size() + 1);
+    for(String propertyName : newPropertyValues.keySet()) {
+      if(stamped && PROPERTY_LAST_CHANGED.equals(propertyName)) continue;
+      checkPropertyName(transaction, beanStoreMethod, propertyName);
+      Type type = persister.getPropertyType(propertyName);
+      if(propertyName.equals(persister.getIdentifierPropertyName()) || type.isAssociationType() || type.isCollectionType()) {
+        throw new OperationNotSupportedException(new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod), "Bean property " + propertyName + " can't be set by match.");
       }
+      ret.add(propertyName);
+    }
+    if(stamped) ret.add(PROPERTY_LAST_CHANGED);
+    return ret;
+  }
+
+  /**
+   * @return Object[] the adapted new value of each property getUpdatePropertyNames() gave, and now for lastChanged
+   */
+  private Object[] getUpdatePropertyValues(BeanStoreTransaction transaction, String beanStoreMethod, List<String> setNames, Map<String, String> newPropertyValues) {
+    boolean stamped = StampedBean.class.isAssignableFrom(getBeanType());
+    BeanStoreStackInfo info = new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod);
+    Date now = new Date();
+    Object[] ret = new Object[setNames.size()];
+    for(int idx = 0; idx < ret.length; idx++) {
+      String propertyName = setNames.get(idx);
+      ret[idx] = stamped && PROPERTY_LAST_CHANGED.equals(propertyName) ? now : getBinding(transaction, beanStoreMethod, propertyName).adapt(info, newPropertyValues.get(propertyName));
+    }
+    return ret;
+  }
+
+  /**
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param propertyValues Map<String, String>
+   * @return Query selecting the matching beans, unsorted
+   */
+  Query makeMatchQuery(BeanStoreTransaction transaction, String beanStoreMethod, Map<String, String> propertyValues) {
+    HibernateMatchPlan plan = getMatchPlan(transaction, beanStoreMethod, propertyValues.keySet(), "", "");
+    return makeMatchQuery(transaction, beanStoreMethod, plan, plan.getQueryString(), propertyValues);
+  }
+
+  /**
+   * The total count of the beans matching the property values, as the count strategy says.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param propertyValues Map<String, String>
+   * @param countStrategy BeanStoreCountStrategy as requested, or null
+   * @return int -1 if not counted
+   */
+  int countMatchingBeans(BeanStoreTransaction transaction, String beanStoreMethod, Map<String, String> propertyValues, BeanStoreCountStrategy countStrategy) {
+    int ret = -1;
+    switch(getCountStrategy(countStrategy)) {
+      case NONE:
+        break;
+      case CACHED:
+        String predicate = MapStringUtils.constructKey(propertyValues);
+        Integer cachedCount = getCountCache().get(predicate);
+        if(null == cachedCount) {
+          ret = countMatchingBeansExactly(transaction, beanStoreMethod, propertyValues);
+          getCountCache().put(predicate, ret);
+        } else {
+          ret = cachedCount.intValue();
+        }
+        break;
+      case ESTIMATED:
+        Integer estimate = propertyValues.isEmpty() ? estimateBeanCount(transaction) : null;
+        ret = null == estimate ? countMatchingBeansExactly(transaction, beanStoreMethod, propertyValues) : estimate.intValue();
+        break;
+      default:
+        ret = countMatchingBeansExactly(transaction, beanStoreMethod, propertyValues);
+        break;
+    }
+    return ret;
+  }
+
+  private int countMatchingBeansExactly(BeanStoreTransaction transaction, String beanStoreMethod, Map<String, String> propertyValues) {
+    HibernateMatchPlan plan = getMatchPlan(transaction, beanStoreMethod, propertyValues.keySet(), "", "");
+    return ((Number) makeMatchQuery(transaction, beanStoreMethod, plan, plan.getCountQueryString(), propertyValues).uniqueResult()).intValue();
+  }
+
+  /**
+   * The database's own estimate of the bean type's row count, from its statistics, on the databases
+   * where there is a cheap way to read it: MySQL's information_schema, and PostgreSQL's pg_class.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @return Integer null if the database keeps no estimate we can read
+   */
+  Integer estimateBeanCount(BeanStoreTransaction transaction) {
+    Session session = ((HibernateBeanStoreTransaction) transaction).getSession();
+    SessionFactoryImplementor sessionFactory = (SessionFactoryImplementor) session.getSessionFactory();
+    ClassMetadata classMetadata = sessionFactory.getClassMetadata(getBeanType());
+    if(!(classMetadata instanceof AbstractEntityPersister)) return null;
+    String tableName = ((AbstractEntityPersister) classMetadata).getTableName();
+    // drop any schema, and quoting
+    tableName = tableName.substring(tableName.lastIndexOf('.') + 1).replace("`", "").replace("\"", "");
+    Dialect dialect = sessionFactory.getDialect();
+    String sql = null;
+    if(dialect instanceof MySQLDialect) {
+      sql = "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+    } else if(dialect instanceof PostgreSQL81Dialect) {
+      sql = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE relkind = 'r' AND relname = ?";
+      tableName = tableName.toLowerCase();
+    } else {
+      return null;
     }
+    Object estimate = session.createSQLQuery(sql).setString(0, tableName).setMaxResults(1).uniqueResult();
+    if(Log.isDebugEnabled(getClass())) Log.debug(getClass(), "estimateBeanCount", "Table " + tableName + " row estimate is " + estimate);
+    return estimate instanceof Number && 0 <= ((Number) estimate).longValue() ? Integer.valueOf(((Number) estimate).intValue()) : null;
+  }
+
+  /**
+   * How many match plans a store caches; beyond that, new ones are compiled for each use.
+   */
+  public static final int MAX_MATCH_PLANS = 1024;
+
+  private final BeanStoreCountCache countCache = new BeanStoreCountCache();
+
+  BeanStoreCountCache getCountCache() {
+    return this.countCache;
+  }
+
+  private final Runnable countCacheClearer = new Runnable() {
+    @Override public void run() {
+      getCountCache().clear();
+    }
+  };
+
+  /**
+   * Clear the count cache once the writing transaction commits. Cleared at write time, a count taken by
+   * another transaction before the commit would be cached without the writes, and kept until it expired.
+   * 
+   * @param transaction BeanStoreTransaction
+   */
+  private void clearCountCacheOnCommit(BeanStoreTransaction transaction) {
+    transaction.addCommitAction(this.countCacheClearer);
+  }
+
+  private final ConcurrentMap<String, HibernateMatchPlan> matchPlans = new ConcurrentHashMap<>();
+
+  ConcurrentMap<String, HibernateMatchPlan> getMatchPlans() {
+    return this.matchPlans;
+  }
+
+  private final ConcurrentMap<String, HibernatePropertyBinding> bindings = new ConcurrentHashMap<>();
+
+  ConcurrentMap<String, HibernatePropertyBinding> getBindings() {
+    return this.bindings;
+  }
+
+  private final AtomicLong matchPlanHits = new AtomicLong();
+
+  AtomicLong getMatchPlanHits() {
+    return this.matchPlanHits;
+  }
+
+  private final AtomicLong matchPlanMisses = new AtomicLong();
+
+  AtomicLong getMatchPlanMisses() {
+    return this.matchPlanMisses;
+  }
+
+  /**
+   * @return long how many property matches found their plan already cached
+   */
+  public long getMatchPlanHitCount() {
+    return getMatchPlanHits().get();
+  }
+
+  /**
+   * @return long how many property matches had to compile their plan
+   */
+  public long getMatchPlanMissCount() {
+    return getMatchPlanMisses().get();
+  }
+
+  /**
+   * @return int how many match plans are cached
+   */
+  public int getMatchPlanCount() {
+    return getMatchPlans().size();
+  }
+
+  private final boolean audited;
+
+  /**
+   * @return boolean true if Envers audits the bean type
+   */
+  boolean isAudited() {
+    return this.audited;
   }
 
   HibernateBeanStore(final BeanStoreFactory beanStoreFactory1, final Class<T> beanType1) {
     super(beanStoreFactory1, beanType1);
+    this.audited = isAudited(beanType1);
+  }
+
+  /**
+   * Turn "[select ...] from ... [order by ...]" into "select count(*) from ...". Queries whose row count
+   * a plain count(*) wouldn't give, or whose top level is hard to find, are left alone.
+   * 
+   * @param queryString String HQL
+   * @return String the count HQL, or null if it couldn't be derived
+   */
+  static String makeCountQueryString(String queryString) {
+    if(null == queryString) return null;
+    String trimmed = queryString.trim();
+    String lower = trimmed.toLowerCase().replaceAll("\\s", " ");
+    if(lower.contains(" group by ") || lower.contains("distinct") || lower.contains(" union ") || lower.startsWith("select new ")) return null;
+    int from = -1;
+    if(lower.startsWith("from ")) {
+      from = 0;
+    } else if(lower.startsWith("select ")) {
+      from = lower.indexOf(" from ") + 1;
+      // a subquery in the select clause would hide the top level from
+      if(0 == from || lower.substring(0, from).contains("(")) return null;
+    } else {
+      return null;
+    }
+    int end = lower.length();
+    int orderBy = lower.lastIndexOf(" order by ");
+    if(orderBy > from && !lower.substring(orderBy).contains(")")) end = orderBy;
+    return "select count(*) " + trimmed.substring(from, end);
   }
 
   @Override
@@ -97,7 +587,7 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
         protected Boolean perform(BeanStoreTransaction transaction) throws BeanStoreException {
           return Boolean.valueOf(null != getTransactionCast(transaction).getSession().get(getBeanType(), beanId));
         }
-      }.handle().booleanValue();
+      }.handleReadOnly().booleanValue();
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_HAS_BEAN, ret);
@@ -112,23 +602,16 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
       ret = new HibernateBeanStoreTransactionWrapper<Boolean>(getBeanStoreFactory(), getBeanType(), METHOD_HAS_BEAN) {
         @Override
         protected Boolean perform(BeanStoreTransaction transaction) throws BeanStoreException {
-          Boolean retInner = Boolean.FALSE;
-
-          @SuppressWarnings("unchecked")
-          List<T> items = Collections.checkedList(makePropertyValueCriteria(transaction, propertyValues, "", "").list(), Object.class);
-
-          if(items.size() > 1) {
-            throw new ConflictingBeansFoundException(new BeanStoreStackInfo(getBeanType(), transaction, METHOD_HAS_BEAN_BY_UNIQUE_KEY), items.size(), propertyValues);
-          }
-          T itemRef = null;
-          if(!items.isEmpty())
-            itemRef = items.get(0);
-          if(null == itemRef) {
-            throw new NoBeanFoundException(new BeanStoreStackInfo(getBeanType(), transaction, METHOD_HAS_BEAN_BY_UNIQUE_KEY), "No beans matched unique criteria: " + propertyValues);
+          // ids of at most two matches are all it takes to tell none, one, or too many
+          HibernateMatchPlan plan = getMatchPlan(transaction, METHOD_HAS_BEAN, propertyValues.keySet(), "", "");
+          List<?> ids = makeMatchQuery(transaction, METHOD_HAS_BEAN, plan, plan.getIdQueryString(), propertyValues).setMaxResults(2).list();
+          if(ids.size() > 1) {
+            throw new ConflictingBeansFoundException(new BeanStoreStackInfo(getBeanType(), transaction, METHOD_HAS_BEAN_BY_UNIQUE_KEY), ids.size(), propertyValues);
           }
+          Boolean retInner = Boolean.valueOf(!ids.isEmpty());
           return retInner;
         }
-      }.handle().booleanValue();
+      }.handleReadOnly().booleanValue();
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_HAS_BEAN_BY_UNIQUE_KEY, ret);
@@ -155,13 +638,48 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
           retInner = itemRef;
           return retInner;
         }
-      }.handle();
+      }.handleReadOnly();
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEAN, ret);
     }
   }
 
+  /**
+   * Loads the beans a chunk of ids at a time, each chunk in one IN query.
+   */
+  @Override
+  public BeanList<T> getBeans(final Collection<String> beanIds) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEANS, beanIds);
+    BeanList<T> ret = null;
+    try {
+      ret = new HibernateBeanStoreTransactionWrapper<BeanList<T>>(getBeanStoreFactory(), getBeanType(), METHOD_GET_BEANS) {
+        @SuppressWarnings("unchecked")
+        @Override
+        protected BeanList<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
+          Session session = getTransactionCast(transaction).getSession();
+          List<String> distinctBeanIds = new ArrayList<>(new LinkedHashSet<>(beanIds));
+          Map<String, T> beansById = new HashMap<>();
+          for(int from = 0; from < distinctBeanIds.size(); from += DEFAULT_MULTI_GET_BATCH_SIZE) {
+            List<?> items = session.createCriteria(getBeanType()).add(Restrictions.in("id", distinctBeanIds.subList(from, Math.min(from + DEFAULT_MULTI_GET_BATCH_SIZE, distinctBeanIds.size())))).list();
+            for(Object itemRef : items) {
+              beansById.put(((T) itemRef).getId(), (T) itemRef);
+            }
+          }
+          List<T> retItems = new ArrayList<>(beansById.size());
+          for(String beanId : distinctBeanIds) {
+            T itemRef = beansById.get(beanId);
+            if(null != itemRef) retItems.add(itemRef);
+          }
+          return new BeanList<>(retItems);
+        }
+      }.handleReadOnly();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEANS, ret);
+    }
+  }
+
   @Override
   public T getBeanByUniqueKey(final Map<String, String> propertyValues) throws NoBeanFoundException, ConflictingBeansFoundException, BeanStoreException {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEAN_BY_UNIQUE_KEY, propertyValues);
@@ -172,7 +690,7 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
         @Override
         protected T perform(BeanStoreTransaction transaction) throws BeanStoreException {
           T retInner = null;
-          List<T> items = Collections.checkedList(makePropertyValueCriteria(transaction, propertyValues, "", "").list(), Object.class);
+          List<T> items = Collections.checkedList(makeMatchQuery(transaction, METHOD_GET_BEAN_BY_UNIQUE_KEY, propertyValues).list(), Object.class);
           if(items.size() > 1) {
             throw new ConflictingBeansFoundException(new BeanStoreStackInfo(getBeanType(), transaction, METHOD_GET_BEAN_BY_UNIQUE_KEY), items.size(), propertyValues);
           }
@@ -185,7 +703,7 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
           retInner = itemRef;
           return retInner;
         }
-      }.handle();
+      }.handleReadOnly();
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEAN_BY_UNIQUE_KEY, ret);
@@ -202,11 +720,11 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
         protected BeanList<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
 
           @SuppressWarnings("unchecked")
-          BeanList<T> retBeanList = new BeanList<>(Collections.checkedList(makePropertyValueCriteria(transaction, propertyValues, "", "").list(), Object.class));
+          BeanList<T> retBeanList = new BeanList<>(Collections.checkedList(makeMatchQuery(transaction, METHOD_GET_ALL_MATCHING_BEANS, propertyValues).list(), Object.class));
 
           return retBeanList;
         }
-      }.handle();
+      }.handleReadOnly();
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_ALL_MATCHING_BEANS, ret);
@@ -223,11 +741,11 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
         protected BeanList<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
 
           @SuppressWarnings("unchecked")
-          BeanList<T> retBeanList = new BeanList<>(getTransactionCast(transaction).getSession().getNamedQuery(queryName).list());
+          BeanList<T> retBeanList = new BeanList<>(bindParameters(getTransactionCast(transaction).getSession().getNamedQuery(queryName), queryParameters).list());
 
           return retBeanList;
         }
-      }.handle();
+      }.handleReadOnly();
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_ALL_BEANS_VIA_QUERY, ret);
@@ -235,7 +753,53 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
   }
 
   @Override
-  public PageableBeanList<T> getPageOfMatchingBeans(final int start, final int end, final String sortBy, final String sortDirection, final Map<String, String> propertyValues) throws BeanStoreException {
+  public BeanIterator<T> streamMatchingBeans(final Map<String, String> propertyValues) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_STREAM_MATCHING_BEANS, propertyValues);
+    BeanIterator<T> ret = null;
+    try {
+      ret = new HibernateBeanStoreTransactionWrapper<BeanIterator<T>>(getBeanStoreFactory(), getBeanType(), METHOD_STREAM_MATCHING_BEANS) {
+        @Override
+        protected BeanIterator<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
+          int fetchSize = getStreamFetchSize(prepareStreamSession(transaction));
+          ScrollableResults results = makeMatchQuery(transaction, METHOD_STREAM_MATCHING_BEANS, propertyValues)
+              .setFetchSize(fetchSize).setReadOnly(true).setCacheMode(CacheMode.IGNORE).scroll(ScrollMode.FORWARD_ONLY);
+          return makeBeanIterator(transaction, results, fetchSize);
+        }
+      }.handleKeepingOpen();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_STREAM_MATCHING_BEANS, ret);
+    }
+  }
+
+  @Override
+  public BeanIterator<T> streamBeansViaQuery(final String queryName, final Object... queryParameters) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_STREAM_BEANS_VIA_QUERY, queryName, queryParameters);
+    BeanIterator<T> ret = null;
+    try {
+      ret = new HibernateBeanStoreTransactionWrapper<BeanIterator<T>>(getBeanStoreFactory(), getBeanType(), METHOD_STREAM_BEANS_VIA_QUERY) {
+        @Override
+        protected BeanIterator<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
+          Session session = prepareStreamSession(transaction);
+          int fetchSize = getStreamFetchSize(session);
+          ScrollableResults results = bindParameters(session.getNamedQuery(queryName), queryParameters)
+              .setFetchSize(fetchSize).setReadOnly(true).setCacheMode(CacheMode.IGNORE).scroll(ScrollMode.FORWARD_ONLY);
+          return makeBeanIterator(transaction, results, fetchSize);
+        }
+      }.handleKeepingOpen();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_STREAM_BEANS_VIA_QUERY, ret);
+    }
+  }
+
+  private static int getStreamFetchSize(Session session) {
+    Integer ret = ((SessionFactoryImplementor) session.getSessionFactory()).getSettings().getJdbcFetchSize();
+    return null != ret && 0 < ret.intValue() ? ret.intValue() : DEFAULT_STREAM_FETCH_SIZE;
+  }
+
+  @Override
+  public PageableBeanList<T> getPageOfMatchingBeans(final int start, final int end, final String sortBy, final String sortDirection, final Map<String, String> propertyValues, final BeanStoreCountStrategy countStrategy) throws BeanStoreException {
     if(Log.isInfoEnabled(getClass())) Log.info(getClass(), METHOD_GET_PAGE_OF_MATCHING_BEANS, propertyValues);
     PageableBeanList<T> ret = null;
     try {
@@ -243,15 +807,21 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
 
         @Override
         protected PageableBeanList<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
-          Criteria countCrit = makePropertyValueCriteria(transaction, propertyValues, sortBy, sortDirection);
-          Criteria pageCrit = makePropertyValueCriteria(transaction, propertyValues, sortBy, sortDirection).setFirstResult(start).setMaxResults(end - start + 1);
+          // id breaks ties, so the order is total, and the page's next cursor can carry on from it
+          HibernateMatchPlan plan = getMatchPlan(transaction, METHOD_GET_PAGE_OF_MATCHING_BEANS, propertyValues.keySet(), sortBy, sortDirection);
+          Query pageQuery = makeMatchQuery(transaction, METHOD_GET_PAGE_OF_MATCHING_BEANS, plan, plan.getSortedQueryString(), propertyValues).setFirstResult(start).setMaxResults(end - start + 1);
 
           @SuppressWarnings("unchecked")
-          PageableBeanList<T> retBeanList = new PageableBeanList<>(Collections.checkedList(pageCrit.list(), Object.class), countCrit.list().size(), start, end, sortBy, sortDirection);
+          List<T> items = Collections.checkedList(pageQuery.list(), Object.class);
+          String next = "";
+          if(!items.isEmpty() && items.size() == end - start + 1) {
+            next = BeanStoreCursor.afterBean(getBeanType(), sortBy, sortDirection, items.get(items.size() - 1)).encode();
+          }
+          PageableBeanList<T> retBeanList = new PageableBeanList<>(items, countMatchingBeans(transaction, METHOD_GET_PAGE_OF_MATCHING_BEANS, propertyValues, countStrategy), start, end, sortBy, sortDirection, next);
 
           return retBeanList;
         }
-      }.handle();
+      }.handleReadOnly();
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_PAGE_OF_MATCHING_BEANS, ret);
@@ -259,7 +829,47 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
   }
 
   @Override
-  public PageableBeanList<T> getPageOfBeansViaQuery(final int start, final int end, final String sortBy, final String sortDirection, final String queryName, final Object... queryParameters) throws BeanStoreException {
+  public PageableBeanList<T> getPageOfMatchingBeansAfter(final String cursor, final int pageSize, final String sortBy, final String sortDirection, final Map<String, String> propertyValues, final BeanStoreCountStrategy countStrategy) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, cursor, pageSize, sortBy, sortDirection, propertyValues);
+    PageableBeanList<T> ret = null;
+    try {
+      ret = new HibernateBeanStoreTransactionWrapper<PageableBeanList<T>>(getBeanStoreFactory(), getBeanType(), METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER) {
+
+        @Override
+        protected PageableBeanList<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
+          HibernateMatchPlan plan = getMatchPlan(transaction, METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, propertyValues.keySet(), sortBy, sortDirection);
+          Query pageQuery = null;
+          if(null == cursor || "".equals(cursor)) {
+            pageQuery = makeMatchQuery(transaction, METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, plan, plan.getSortedQueryString(), propertyValues);
+          } else {
+            BeanStoreCursor after = BeanStoreCursor.decode(getBeanType(), sortBy, sortDirection, cursor);
+            Object[] cursorValues = after.getValues();
+            pageQuery = makeMatchQuery(transaction, METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, plan, plan.makeSortedAfterQueryString(cursorValues), propertyValues);
+            for(int idx = 0; idx < cursorValues.length; idx++) {
+              if(null != cursorValues[idx]) pageQuery.setParameter(HibernateMatchPlan.getCursorParameterName(idx), cursorValues[idx]);
+            }
+            pageQuery.setParameter(HibernateMatchPlan.getCursorParameterName(cursorValues.length), after.getBeanId());
+          }
+
+          @SuppressWarnings("unchecked")
+          List<T> items = Collections.checkedList(pageQuery.setMaxResults(pageSize).list(), Object.class);
+          String next = "";
+          if(!items.isEmpty() && items.size() == pageSize) {
+            next = BeanStoreCursor.afterBean(getBeanType(), sortBy, sortDirection, items.get(items.size() - 1)).encode();
+          }
+          PageableBeanList<T> retBeanList = new PageableBeanList<>(items, countMatchingBeans(transaction, METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, propertyValues, countStrategy), 0, pageSize - 1, sortBy, sortDirection, next);
+
+          return retBeanList;
+        }
+      }.handleReadOnly();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, ret);
+    }
+  }
+
+  @Override
+  public PageableBeanList<T> getPageOfBeansViaQuery(final int start, final int end, final String sortBy, final String sortDirection, final BeanStoreCountStrategy countStrategy, final String queryName, final Object... queryParameters) throws BeanStoreException {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_PAGE_OF_BEANS_VIA_QUERY, queryName, queryParameters);
     PageableBeanList<T> ret = null;
     try {
@@ -267,15 +877,14 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
 
         @Override
         protected PageableBeanList<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
-          Query countQuery = getTransactionCast(transaction).getSession().getNamedQuery(queryName);
-          Query pageQuery = getTransactionCast(transaction).getSession().getNamedQuery(queryName).setFirstResult(start).setMaxResults(end - start + 1);
+          Query pageQuery = bindParameters(getTransactionCast(transaction).getSession().getNamedQuery(queryName), queryParameters).setFirstResult(start).setMaxResults(end - start + 1);
 
           @SuppressWarnings("unchecked")
-          PageableBeanList<T> retBeanList = new PageableBeanList<>(pageQuery.list(), countQuery.list().size(), start, end, sortBy, sortDirection);
+          PageableBeanList<T> retBeanList = new PageableBeanList<>(pageQuery.list(), countQueryBeans(transaction, queryName, queryParameters, countStrategy), start, end, sortBy, sortDirection);
 
           return retBeanList;
         }
-      }.handle();
+      }.handleReadOnly();
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_PAGE_OF_BEANS_VIA_QUERY, ret);
@@ -289,6 +898,7 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
     T ret = null;
     try {
       HibernateBeanStoreTransaction transactionCast = (HibernateBeanStoreTransaction) transaction;
+      clearCountCacheOnCommit(transaction);
       if(!wasBeanStoredPreviously(bean)) {
         // create
         handleStampedBeanCreate(bean);
@@ -323,6 +933,11 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
     }
   }
 
+  /**
+   * Deletes the row with one HQL delete, without loading the bean first, unless the mapping cascades, has
+   * collection tables, is audited, or has delete listeners or an interceptor, which only a delete through
+   * the session takes care of.
+   */
   @Override
   public boolean deleteBean(String beanId, BeanStoreTransaction transaction) throws NoBeanFoundException, BeanStoreException {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_BEAN, beanId, transaction);
@@ -330,12 +945,23 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
     try {
       HibernateBeanStoreTransaction transactionCast = (HibernateBeanStoreTransaction) transaction;
       try {
-        Object itemRef = transactionCast.getSession().get(getBeanType(), beanId);
-        if(null != itemRef) {
-          transactionCast.getSession().delete(itemRef);
+        Session session = transactionCast.getSession();
+        if(isBulkDeletable(session)) {
+          Map<String, String> idValue = Collections.singletonMap("id", beanId);
+          HibernateMatchPlan plan = getMatchPlan(transaction, METHOD_DELETE_BEAN, idValue.keySet(), "", "");
+          ret = 0 < makeMatchQuery(transaction, METHOD_DELETE_BEAN, plan, plan.getDeleteQueryString(), idValue).executeUpdate();
+          evictBulkWrittenBeans(session, Collections.singleton(beanId));
+        } else {
+          Object itemRef = session.get(getBeanType(), beanId);
+          if(null != itemRef) {
+            session.delete(itemRef);
+            ret = true;
+          }
+        }
+        if(ret) {
+          clearCountCacheOnCommit(transaction);
           if(Log.isInfoEnabled(getClass())) Log.info(getClass(), METHOD_DELETE_BEAN, "Bean deleted for BeanType " + getBeanType()
               + " id '" + beanId + "' as part of transaction '" + transaction.getTransactionName() + "'.");
-          ret = true;
         }
       } catch(HibernateException e) {
         throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), transaction, METHOD_DELETE_BEAN), e);
@@ -346,8 +972,293 @@ public final class HibernateBeanStore<T extends StorableBean> extends AbstractBe
     }
   }
 
+  /**
+   * Saves or updates the beans through the transaction's session, flushing and clearing it every
+   * hibernate.jdbc.batch_size beans (or DEFAULT_WRITE_BATCH_SIZE), so the inserts and updates go to the
+   * database in JDBC batches and the session never holds more than a batch. The beans are returned as
+   * given, rather than reloaded. For inserts to batch well, also set hibernate.order_inserts and
+   * hibernate.order_updates.
+   * 
+   * Clearing the session detaches whatever else the transaction loaded before the call, once flushed.
+   */
+  @Override
+  public List<T> createOrUpdateBeans(Collection<T> beans, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_CREATE_OR_UPDATE_BEANS, beans.size(), transaction);
+    List<T> ret = null;
+    try {
+      Session session = ((HibernateBeanStoreTransaction) transaction).getSession();
+      int batchSize = getWriteBatchSize(session);
+      clearCountCacheOnCommit(transaction);
+      ret = new ArrayList<>(beans.size());
+      try {
+        for(T bean : beans) {
+          if(!wasBeanStoredPreviously(bean)) {
+            handleStampedBeanCreate(bean);
+            bean.setId(createBeanId());
+            session.save(bean);
+          } else {
+            handleStampedBeanUpdate(bean);
+            session.update(bean);
+          }
+          ret.add(bean);
+          if(0 == ret.size() % batchSize) {
+            session.flush();
+            session.clear();
+          }
+        }
+        // the last partial batch goes with the transaction's commit
+        if(Log.isInfoEnabled(getClass())) Log.info(getClass(), METHOD_CREATE_OR_UPDATE_BEANS, ret.size() + " beans stored for BeanType " + getBeanType()
+            + " in batches of " + batchSize + " as part of transaction '" + transaction.getTransactionName() + "'.");
+      } catch(HibernateException e) {
+        throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), transaction, METHOD_CREATE_OR_UPDATE_BEANS), e);
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_CREATE_OR_UPDATE_BEANS, null == ret ? null : ret.size());
+    }
+  }
+
+  /**
+   * Loads the beans a batch of ids at a time, with one query per batch, and deletes them, flushing and
+   * clearing the session after each batch. Deleting through the session, rather than with a bulk HQL
+   * delete, keeps the mapping's cascades.
+   */
+  @Override
+  public int deleteBeans(Collection<String> beanIds, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_BEANS, beanIds.size(), transaction);
+    int ret = 0;
+    try {
+      Session session = ((HibernateBeanStoreTransaction) transaction).getSession();
+      int batchSize = getWriteBatchSize(session);
+      List<String> distinctBeanIds = new ArrayList<>(new LinkedHashSet<>(beanIds));
+      clearCountCacheOnCommit(transaction);
+      try {
+        for(int from = 0; from < distinctBeanIds.size(); from += batchSize) {
+          List<?> items = session.createCriteria(getBeanType()).add(Restrictions.in("id", distinctBeanIds.subList(from, Math.min(from + batchSize, distinctBeanIds.size())))).list();
+          for(Object itemRef : items) {
+            session.delete(itemRef);
+          }
+          ret += items.size();
+          session.flush();
+          session.clear();
+        }
+        if(Log.isInfoEnabled(getClass())) Log.info(getClass(), METHOD_DELETE_BEANS, ret + " beans deleted for BeanType " + getBeanType()
+            + " as part of transaction '" + transaction.getTransactionName() + "'.");
+      } catch(HibernateException e) {
+        throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), transaction, METHOD_DELETE_BEANS), e);
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_BEANS, ret);
+    }
+  }
+
+  /**
+   * Deletes all the matching rows with one HQL delete, unless the mapping cascades, has collection tables,
+   * is audited, or has delete listeners or an interceptor; then only their ids are selected, and
+   * deleteBeans() deletes them through the session.
+   */
+  @Override
+  public int deleteMatchingBeans(Map<String, String> propertyValues, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_MATCHING_BEANS, propertyValues, transaction);
+    int ret = 0;
+    try {
+      Session session = ((HibernateBeanStoreTransaction) transaction).getSession();
+      HibernateMatchPlan plan = getMatchPlan(transaction, METHOD_DELETE_MATCHING_BEANS, propertyValues.keySet(), "", "");
+      try {
+        if(isBulkDeletable(session)) {
+          clearCountCacheOnCommit(transaction);
+          ret = makeMatchQuery(transaction, METHOD_DELETE_MATCHING_BEANS, plan, plan.getDeleteQueryString(), propertyValues).executeUpdate();
+          evictBulkWrittenBeans(session, null);
+        } else {
+          @SuppressWarnings("unchecked")
+          List<String> beanIds = makeMatchQuery(transaction, METHOD_DELETE_MATCHING_BEANS, plan, plan.getIdQueryString(), propertyValues).list();
+          ret = deleteBeans(beanIds, transaction);
+        }
+        if(Log.isInfoEnabled(getClass())) Log.info(getClass(), METHOD_DELETE_MATCHING_BEANS, ret + " beans deleted for BeanType " + getBeanType()
+            + " matching " + propertyValues + " as part of transaction '" + transaction.getTransactionName() + "'.");
+      } catch(HibernateException e) {
+        throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), transaction, METHOD_DELETE_MATCHING_BEANS), e);
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_MATCHING_BEANS, ret);
+    }
+  }
+
+  /**
+   * Sets the new values on all the matching rows with one HQL update, also stamping a StampedBean's
+   * lastChanged, and bumping the version of a versioned bean type so optimistic locking still catches
+   * writers holding the old values. The session's copies of the bean type are detached after, so it never
+   * flushes their old values back over the new.
+   * 
+   * If the bean type is audited, or has update listeners or an interceptor, which an HQL update would skip,
+   * the matching beans are instead loaded and updated through the session, flushing and clearing it every
+   * hibernate.jdbc.batch_size beans, as createOrUpdateBeans() does.
+   */
+  @Override
+  public int updateMatchingBeans(Map<String, String> propertyValues, Map<String, String> newPropertyValues, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_UPDATE_MATCHING_BEANS, propertyValues, newPropertyValues, transaction);
+    int ret = 0;
+    try {
+      if(newPropertyValues.isEmpty()) return ret;
+      Session session = ((HibernateBeanStoreTransaction) transaction).getSession();
+      HibernateMatchPlan plan = getMatchPlan(transaction, METHOD_UPDATE_MATCHING_BEANS, propertyValues.keySet(), "", "");
+      try {
+        clearCountCacheOnCommit(transaction);
+        if(isBulkUpdatable(session)) {
+          ret = makeUpdateQuery(transaction, METHOD_UPDATE_MATCHING_BEANS, plan, propertyValues, newPropertyValues).executeUpdate();
+          evictBulkWrittenBeans(session, null);
+        } else {
+          ret = updateMatchingBeansThroughSession(transaction, session, plan, propertyValues, newPropertyValues);
+        }
+        if(Log.isInfoEnabled(getClass())) Log.info(getClass(), METHOD_UPDATE_MATCHING_BEANS, ret + " beans updated for BeanType " + getBeanType()
+            + " matching " + propertyValues + " with " + newPropertyValues + " as part of transaction '" + transaction.getTransactionName() + "'.");
+      } catch(HibernateException e) {
+        throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), transaction, METHOD_UPDATE_MATCHING_BEANS), e);
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_UPDATE_MATCHING_BEANS, ret);
+    }
+  }
+
+  private int updateMatchingBeansThroughSession(BeanStoreTransaction transaction, Session session, HibernateMatchPlan plan, Map<String, String> propertyValues, Map<String, String> newPropertyValues) {
+    EntityPersister persister = getEntityPersister(transaction, METHOD_UPDATE_MATCHING_BEANS);
+    // the same object, whose property setter goes by name
+    ClassMetadata classMetadata = (ClassMetadata) persister;
+    List<String> setNames = getUpdatePropertyNames(transaction, METHOD_UPDATE_MATCHING_BEANS, persister, newPropertyValues);
+    Object[] setValues = getUpdatePropertyValues(transaction, METHOD_UPDATE_MATCHING_BEANS, setNames, newPropertyValues);
+    int batchSize = getWriteBatchSize(session);
+    int ret = 0;
+    ScrollableResults results = makeMatchQuery(transaction, METHOD_UPDATE_MATCHING_BEANS, plan, plan.getQueryString(), propertyValues).scroll(ScrollMode.FORWARD_ONLY);
+    try {
+      while(results.next()) {
+        Object bean = results.get(0);
+        for(int idx = 0; idx < setNames.size(); idx++) {
+          classMetadata.setPropertyValue(bean, setNames.get(idx), setValues[idx]);
+        }
+        ret++;
+        if(0 == ret % batchSize) {
+          session.flush();
+          session.clear();
+        }
+      }
+    } finally {
+      results.close();
+    }
+    // the last partial batch goes with the transaction's commit
+    return ret;
+  }
+
+  /**
+   * An HQL delete goes straight to the database, so it skips everything a delete through the session would
+   * do besides removing the rows: cascading, clearing collection tables, writing Envers audit records,
+   * and calling delete event listeners and interceptors. It is only used when there are none of those.
+   * 
+   * @param session Session
+   * @return boolean true if an HQL delete of the bean type's rows leaves nothing undone that a delete through
+   *         the session would do: it has no cascades, no collection tables to clear, isn't audited, and the
+   *         session has no interceptor, and its factory no delete event listeners, but Hibernate's own
+   */
+  private boolean isBulkDeletable(Session session) {
+    ClassMetadata classMetadata = session.getSessionFactory().getClassMetadata(getBeanType());
+    if(!(classMetadata instanceof EntityPersister)) return false;
+    EntityPersister persister = (EntityPersister) classMetadata;
+    if(persister.hasCascades() || persister.hasCollections()) return false;
+    EventListenerRegistry listeners = getBulkWriteListeners(session);
+    if(null == listeners) return false;
+    if(!listeners.getEventListenerGroup(EventType.PRE_DELETE).isEmpty()
+        || !listeners.getEventListenerGroup(EventType.POST_DELETE).isEmpty()
+        || !listeners.getEventListenerGroup(EventType.POST_COMMIT_DELETE).isEmpty()) return false;
+    for(DeleteEventListener listener : listeners.getEventListenerGroup(EventType.DELETE).listeners()) {
+      if(DefaultDeleteEventListener.class != listener.getClass()) return false;
+    }
+    return true;
+  }
+
+  /**
+   * An HQL update goes straight to the database, so, like an HQL delete, it skips writing Envers audit
+   * records, and calling update event listeners and interceptors. It is only used when there are none of
+   * those. The properties it can set are never associations or collections, so cascades don't matter.
+   * 
+   * @param session Session
+   * @return boolean true if an HQL update of the bean type's rows leaves nothing undone that an update through
+   *         the session would do: it isn't audited, and the session has no interceptor, and its factory no
+   *         update event listeners, but Hibernate's own
+   */
+  private boolean isBulkUpdatable(Session session) {
+    if(!(session.getSessionFactory().getClassMetadata(getBeanType()) instanceof EntityPersister)) return false;
+    EventListenerRegistry listeners = getBulkWriteListeners(session);
+    if(null == listeners) return false;
+    if(!listeners.getEventListenerGroup(EventType.PRE_UPDATE).isEmpty()
+        || !listeners.getEventListenerGroup(EventType.POST_UPDATE).isEmpty()
+        || !listeners.getEventListenerGroup(EventType.POST_COMMIT_UPDATE).isEmpty()) return false;
+    for(FlushEntityEventListener listener : listeners.getEventListenerGroup(EventType.FLUSH_ENTITY).listeners()) {
+      if(DefaultFlushEntityEventListener.class != listener.getClass()) return false;
+    }
+    return true;
+  }
+
+  /**
+   * @param session Session
+   * @return EventListenerRegistry the session factory's listeners, to check an HQL delete or update skips
+   *         none of them; null if the bean type is audited, or the session has an interceptor, which it
+   *         would skip too, or the listeners aren't known
+   */
+  private EventListenerRegistry getBulkWriteListeners(Session session) {
+    if(isAudited()) return null;
+    if(EmptyInterceptor.INSTANCE != ((SessionImplementor) session).getInterceptor()) return null;
+    return ((SessionFactoryImplementor) session.getSessionFactory()).getServiceRegistry().getService(EventListenerRegistry.class);
+  }
+
+  /**
+   * @param beanType Class<?>
+   * @return boolean true if Envers audits the bean type: it, a superclass, or any of their fields or methods
+   *         is marked @Audited
+   */
+  private static boolean isAudited(Class<?> beanType) {
+    for(Class<?> type = beanType; null != type && Object.class != type; type = type.getSuperclass()) {
+      if(type.isAnnotationPresent(Audited.class)) return true;
+      for(Field field : type.getDeclaredFields()) {
+        if(field.isAnnotationPresent(Audited.class)) return true;
+      }
+      for(Method method : type.getDeclaredMethods()) {
+        if(method.isAnnotationPresent(Audited.class)) return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Detach the session's copies of beans whose rows an HQL delete or update wrote, so it never flushes them.
+   * 
+   * @param session Session
+   * @param beanIds Collection<String> null when which were deleted isn't known, to detach every bean of the type
+   */
+  private void evictBulkWrittenBeans(Session session, Collection<String> beanIds) {
+    PersistenceContext persistenceContext = ((SessionImplementor) session).getPersistenceContext();
+    @SuppressWarnings("unchecked")
+    Map<EntityKey, Object> entitiesByKey = persistenceContext.getEntitiesByKey();
+    for(Object entity : new ArrayList<Object>(entitiesByKey.values())) {
+      if(getBeanType().isInstance(entity) && (null == beanIds || beanIds.contains(getBeanType().cast(entity).getId()))) {
+        session.evict(entity);
+      }
+    }
+  }
+
+  private static int getWriteBatchSize(Session session) {
+    int ret = ((SessionFactoryImplementor) session.getSessionFactory()).getSettings().getJdbcBatchSize();
+    return 1 < ret ? ret : DEFAULT_WRITE_BATCH_SIZE;
+  }
+
   @Override
   public String toString() {
-    return new ToStringBuilder(this).appendSuper(super.toString()).toString();
+    return new ToStringBuilder(this)
+        .appendSuper(super.toString())
+        .append("matchPlanCount", getMatchPlanCount())
+        .append("matchPlanHitCount", getMatchPlanHitCount())
+        .append("matchPlanMissCount", getMatchPlanMissCount())
+        .toString();
   }
 }
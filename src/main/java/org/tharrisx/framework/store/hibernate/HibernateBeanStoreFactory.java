@@ -3,6 +3,7 @@ package org.tharrisx.framework.store.hibernate;
 import java.util.List;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.hibernate.FlushMode;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
@@ -26,7 +27,7 @@ public class HibernateBeanStoreFactory extends AbstractBeanStoreFactory {
 
   private final SessionFactory sessionFactory;
 
-  private SessionFactory getSessionFactory() {
+  protected final SessionFactory getSessionFactory() {
     return this.sessionFactory;
   }
 
@@ -68,6 +69,44 @@ public class HibernateBeanStoreFactory extends AbstractBeanStoreFactory {
     }
   }
 
+  /**
+   * The session loads beans read-only, so it keeps no snapshots to dirty check them against, and never
+   * flushes, so ending the transaction has no changes to look for.
+   */
+  @Override
+  public <T extends StorableBean> BeanStoreTransaction beginReadOnlyTransaction(Class<T> mainBeanType, String transactionName) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_BEGIN_READ_ONLY_TRANSACTION, mainBeanType, transactionName);
+    BeanStoreTransaction ret = null;
+    try {
+      ret = openReadOnlyTransaction(getSessionFactory(), transactionName);
+      if(Log.isInfoEnabled(getClass())) Log.info(getClass(), METHOD_BEGIN_READ_ONLY_TRANSACTION, "Read-only transaction begun for mainBeanType " + mainBeanType + " named '" + transactionName + "'.");
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_BEGIN_READ_ONLY_TRANSACTION, ret);
+    }
+  }
+
+  /**
+   * Open a read-only session on the SessionFactory, and begin a transaction in it.
+   * 
+   * @param sessionFactory SessionFactory
+   * @param transactionName String
+   * @return HibernateBeanStoreTransaction
+   * @throws HibernateException if the session or transaction could not be had
+   */
+  protected static HibernateBeanStoreTransaction openReadOnlyTransaction(SessionFactory sessionFactory, String transactionName) {
+    Session hibSession = sessionFactory.openSession();
+    try {
+      hibSession.setDefaultReadOnly(true);
+      hibSession.setFlushMode(FlushMode.MANUAL);
+      Transaction hibTransaction = hibSession.beginTransaction();
+      return new HibernateBeanStoreTransaction(transactionName, hibSession, hibTransaction);
+    } catch(HibernateException e) {
+      hibSession.close();
+      throw e;
+    }
+  }
+
   @Override
   public <T extends StorableBean> void endTransaction(Class<T> mainBeanType, BeanStoreTransaction transaction) throws BeanStoreException {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_END_TRANSACTION, mainBeanType, transaction);
@@ -80,10 +119,17 @@ public class HibernateBeanStoreFactory extends AbstractBeanStoreFactory {
       if(null == hibSession || null == hibTransaction) {
         throw new BeanStoreException(new BeanStoreStackInfo(mainBeanType, transaction, null), "Hibernate transaction was not started.");
       }
+      boolean committed = false;
       try {
-        // $$$ hibSession.flush();
-        hibTransaction.commit();
-        if(Log.isInfoEnabled(getClass())) Log.info(getClass(), METHOD_END_TRANSACTION, "Transaction committed for mainBeanType " + mainBeanType + " named '" + transaction.getTransactionName() + "'.");
+        if(transaction.isRollbackOnly()) {
+          hibTransaction.rollback();
+          if(Log.isInfoEnabled(getClass())) Log.info(getClass(), METHOD_END_TRANSACTION, "Transaction rolled back, as marked, for mainBeanType " + mainBeanType + " named '" + transaction.getTransactionName() + "'.");
+        } else {
+          // $$$ hibSession.flush();
+          hibTransaction.commit();
+          committed = true;
+          if(Log.isInfoEnabled(getClass())) Log.info(getClass(), METHOD_END_TRANSACTION, "Transaction committed for mainBeanType " + mainBeanType + " named '" + transaction.getTransactionName() + "'.");
+        }
       } catch(HibernateException e) {
         try {
           Log.warn(getClass(), METHOD_END_TRANSACTION, "Transaction rolling back for mainBeanType " + mainBeanType + " named '" + transaction.getTransactionName() + "'.");
@@ -98,6 +144,7 @@ public class HibernateBeanStoreFactory extends AbstractBeanStoreFactory {
         } catch(HibernateException e) {
           Log.fatal(getClass(), METHOD_END_TRANSACTION, "Close of session failed.", e);
         }
+        transaction.runEndActions(committed);
       }
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_END_TRANSACTION);
@@ -0,0 +1,256 @@
+package org.tharrisx.framework.store.hibernate;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.hibernate.Query;
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
+
+/**
+ * The HQL for matching a bean type's beans on a set of property values, with a sort, worked out once and
+ * then reused, with only the values bound per call. Because it's always the same HQL for the same match,
+ * Hibernate's own query plan cache keeps its translation to SQL as well, which a Criteria never gets.
+ *
+ * The value for propertyNames[idx] binds to the parameter named getParameterName(idx), through the
+ * plan's HibernatePropertyBinding for the property, so nothing about binding it is looked up per call.
+ *
+ * The sort puts nulls first in ascending order and last in descending order, as the memory store does.
+ * HQL can't say NULLS FIRST here, and databases differ on where nulls go, so each sort property that may
+ * be null is preceded by a key that is 0 for null and 1 otherwise, sorted the same way. That key keeps the
+ * database from reading the order off an index, so properties that can't be null go without it, and sort
+ * on the column alone.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class HibernateMatchPlan {
+
+  private static final String ALIAS = "bean";
+
+  private final String entityName;
+
+  private String getEntityName() {
+    return this.entityName;
+  }
+
+  private final String whereClause;
+
+  /**
+   * @return String the where clause matching the property values, or "" when there are none
+   */
+  private String getWhereClause() {
+    return this.whereClause;
+  }
+
+  private final String[] propertyNames;
+
+  private final HibernatePropertyBinding[] bindings;
+
+  private HibernatePropertyBinding[] getBindings() {
+    return this.bindings;
+  }
+
+  private final String[] sortFields;
+
+  private String[] getSortFields() {
+    return this.sortFields;
+  }
+
+  private final boolean[] sortAscending;
+
+  private boolean[] getSortAscending() {
+    return this.sortAscending;
+  }
+
+  private final boolean[] sortNullable;
+
+  private boolean[] getSortNullable() {
+    return this.sortNullable;
+  }
+
+  private final String orderBy;
+
+  private String getOrderBy() {
+    return this.orderBy;
+  }
+
+  /**
+   * @return String[] the matched property names, in the order their values bind
+   */
+  String[] getPropertyNames() {
+    return this.propertyNames;
+  }
+
+  private final String queryString;
+
+  /**
+   * @return String HQL selecting the matching beans, unsorted
+   */
+  String getQueryString() {
+    return this.queryString;
+  }
+
+  private final String sortedQueryString;
+
+  /**
+   * @return String HQL selecting the matching beans in sort order, with id breaking ties
+   */
+  String getSortedQueryString() {
+    return this.sortedQueryString;
+  }
+
+  private final String idQueryString;
+
+  /**
+   * @return String HQL selecting the matching beans' ids
+   */
+  String getIdQueryString() {
+    return this.idQueryString;
+  }
+
+  private final String countQueryString;
+
+  /**
+   * @return String HQL counting the matching beans
+   */
+  String getCountQueryString() {
+    return this.countQueryString;
+  }
+
+  private final String deleteQueryString;
+
+  /**
+   * @return String HQL deleting the matching beans' rows, without loading them
+   */
+  String getDeleteQueryString() {
+    return this.deleteQueryString;
+  }
+
+  /**
+   * @param entityName1 String
+   * @param propertyNames1 String[] known to be the bean type's
+   * @param bindings1 HibernatePropertyBinding[] one per property name
+   * @param sortFields String[] known to be the bean type's
+   * @param sortAscending boolean[] one per sort field
+   * @param sortNullable boolean[] one per sort field, false if the property's column can't be null
+   */
+  HibernateMatchPlan(final String entityName1, final String[] propertyNames1, final HibernatePropertyBinding[] bindings1, final String[] sortFields, final boolean[] sortAscending, final boolean[] sortNullable) {
+    this.entityName = entityName1;
+    this.propertyNames = propertyNames1;
+    this.bindings = bindings1;
+    this.sortFields = sortFields;
+    this.sortAscending = sortAscending;
+    this.sortNullable = sortNullable;
+    StringBuilder whereClause1 = new StringBuilder();
+    for(int idx = 0; idx < propertyNames1.length; idx++) {
+      whereClause1.append(0 == idx ? " where " : " and ").append(ALIAS).append('.').append(propertyNames1[idx]).append(" = :").append(getParameterName(idx));
+    }
+    this.whereClause = whereClause1.toString();
+    String where = " from " + entityName1 + ' ' + ALIAS + this.whereClause;
+    StringBuilder orderBy1 = new StringBuilder(" order by ");
+    for(int idx = 0; idx < sortFields.length; idx++) {
+      String direction = sortAscending[idx] ? " asc, " : " desc, ";
+      if(sortNullable[idx]) orderBy1.append("case when ").append(ALIAS).append('.').append(sortFields[idx]).append(" is null then 0 else 1 end").append(direction);
+      orderBy1.append(ALIAS).append('.').append(sortFields[idx]).append(direction);
+    }
+    orderBy1.append(ALIAS).append(".id asc");
+    this.orderBy = orderBy1.toString();
+    this.queryString = "select " + ALIAS + where;
+    this.sortedQueryString = this.queryString + this.orderBy;
+    this.idQueryString = "select " + ALIAS + ".id" + where;
+    this.countQueryString = "select count(*)" + where;
+    this.deleteQueryString = "delete" + where;
+  }
+
+  /**
+   * Bind the property values to a query of one of the plan's HQL strings.
+   * 
+   * @param query Query
+   * @param info BeanStoreStackInfo
+   * @param propertyValues Map<String, String> with a value for each of the plan's property names
+   * @return Query
+   */
+  Query bind(final Query query, final BeanStoreStackInfo info, final Map<String, String> propertyValues) {
+    for(int idx = 0; idx < getBindings().length; idx++) {
+      HibernatePropertyBinding binding = getBindings()[idx];
+      binding.bind(query, getParameterName(idx), binding.adapt(info, propertyValues.get(binding.getPropertyName())));
+    }
+    return query;
+  }
+
+  /**
+   * The set clause varies with the properties set, so isn't kept with the plan; Hibernate's query plan
+   * cache still keeps each translation.
+   * 
+   * @param setPropertyNames String[] known to be the bean type's, each bound to getSetParameterName(idx)
+   * @param versioned boolean true to increment the version of a versioned bean type
+   * @return String HQL setting the properties on the matching beans' rows, without loading them
+   */
+  String makeUpdateQueryString(final String[] setPropertyNames, final boolean versioned) {
+    StringBuilder ret = new StringBuilder("update ").append(versioned ? "versioned " : "").append(getEntityName()).append(' ').append(ALIAS);
+    for(int idx = 0; idx < setPropertyNames.length; idx++) {
+      ret.append(0 == idx ? " set " : ", ").append(ALIAS).append('.').append(setPropertyNames[idx]).append(" = :").append(getSetParameterName(idx));
+    }
+    return ret.append(getWhereClause()).toString();
+  }
+
+  /**
+   * The rows sorting after a cursor on the plan's sort: (sortKey, id) > (?, ?), spelled out as an OR of
+   * ANDs, since HQL has no row value comparison, with nulls placed as the sort places them. Which of the
+   * cursor's values are null shapes the HQL, so it isn't kept with the plan; Hibernate's query plan cache
+   * still keeps each translation.
+   * 
+   * @param cursorValues Object[] the cursor's sort property values, one per sort field; each one not null
+   * binds to getCursorParameterName(idx), and the cursor's bean id to getCursorParameterName(length)
+   * @return String HQL selecting the matching beans after the cursor, in sort order
+   */
+  String makeSortedAfterQueryString(final Object[] cursorValues) {
+    StringBuilder after = new StringBuilder();
+    for(int idx = 0; idx <= getSortFields().length; idx++) {
+      StringBuilder conjunction = new StringBuilder("(");
+      for(int equalIdx = 0; equalIdx < idx; equalIdx++) {
+        String sortField = ALIAS + '.' + getSortFields()[equalIdx];
+        conjunction.append(null == cursorValues[equalIdx] ? sortField + " is null" : sortField + " = :" + getCursorParameterName(equalIdx)).append(" and ");
+      }
+      if(idx < getSortFields().length) {
+        String sortField = ALIAS + '.' + getSortFields()[idx];
+        if(getSortAscending()[idx]) {
+          conjunction.append(null == cursorValues[idx] ? sortField + " is not null" : sortField + " > :" + getCursorParameterName(idx));
+        } else if(null != cursorValues[idx] && !getSortNullable()[idx]) {
+          conjunction.append(sortField).append(" < :").append(getCursorParameterName(idx));
+        } else if(null != cursorValues[idx]) {
+          conjunction.append('(').append(sortField).append(" < :").append(getCursorParameterName(idx)).append(" or ").append(sortField).append(" is null)");
+        } else {
+          // nothing sorts after null, descending
+          continue;
+        }
+      } else {
+        conjunction.append(ALIAS).append(".id > :").append(getCursorParameterName(idx));
+      }
+      after.append(0 == after.length() ? "" : " or ").append(conjunction).append(')');
+    }
+    return getQueryString() + ("".equals(getWhereClause()) ? " where (" : " and (") + after + ')' + getOrderBy();
+  }
+
+  static String getParameterName(final int idx) {
+    return "p" + idx;
+  }
+
+  static String getSetParameterName(final int idx) {
+    return "s" + idx;
+  }
+
+  static String getCursorParameterName(final int idx) {
+    return "c" + idx;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("propertyNames", Arrays.asList(getPropertyNames()))
+        .append("sortedQueryString", getSortedQueryString())
+        .toString();
+  }
+}
@@ -0,0 +1,105 @@
+package org.tharrisx.framework.store.hibernate;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.hibernate.Query;
+import org.hibernate.type.Type;
+import org.tharrisx.framework.store.BeanPropertyValueAdapter;
+import org.tharrisx.framework.store.DefaultBeanPropertyValueAdapter;
+import org.tharrisx.framework.store.DefaultBeanPropertyValueAdapter.PropertyTypeStringAdapter;
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
+
+/**
+ * How one bean property's String values become query parameters: adapted to the property's type, and
+ * bound as the type Hibernate maps it to. Both are looked up once, when the binding is made, rather than
+ * for each value bound.
+ *
+ * The type adapter is only used directly when the BeanPropertyValueAdapter is a
+ * DefaultBeanPropertyValueAdapter that adapts values by its type adapters, as it does unless a subclass
+ * overrides getAdaptedValue(); otherwise every value is still adapted by the BeanPropertyValueAdapter.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class HibernatePropertyBinding {
+
+  private final String propertyName;
+
+  String getPropertyName() {
+    return this.propertyName;
+  }
+
+  private final BeanPropertyValueAdapter valueAdapter;
+
+  private BeanPropertyValueAdapter getValueAdapter() {
+    return this.valueAdapter;
+  }
+
+  private final PropertyTypeStringAdapter typeAdapter;
+
+  /**
+   * @return PropertyTypeStringAdapter or null to adapt through the BeanPropertyValueAdapter
+   */
+  private PropertyTypeStringAdapter getTypeAdapter() {
+    return this.typeAdapter;
+  }
+
+  private final Type type;
+
+  /**
+   * @return Type or null to let Hibernate work it out from each value
+   */
+  Type getType() {
+    return this.type;
+  }
+
+  /**
+   * @param info BeanStoreStackInfo
+   * @param propertyName1 String known to be the bean type's
+   * @param valueAdapter1 BeanPropertyValueAdapter
+   * @param type1 Type or null if the bean type isn't mapped
+   */
+  HibernatePropertyBinding(final BeanStoreStackInfo info, final String propertyName1, final BeanPropertyValueAdapter valueAdapter1, final Type type1) {
+    this.propertyName = propertyName1;
+    this.valueAdapter = valueAdapter1;
+    this.typeAdapter = adaptsByType(valueAdapter1) ? ((DefaultBeanPropertyValueAdapter) valueAdapter1).getTypeAdapter(info, propertyName1) : null;
+    this.type = type1;
+  }
+
+  private static boolean adaptsByType(final BeanPropertyValueAdapter valueAdapter) {
+    if(!(valueAdapter instanceof DefaultBeanPropertyValueAdapter)) return false;
+    try {
+      return DefaultBeanPropertyValueAdapter.class == valueAdapter.getClass().getMethod("getAdaptedValue", BeanStoreStackInfo.class, String.class, String.class).getDeclaringClass();
+    } catch(NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @param info BeanStoreStackInfo
+   * @param propertyValue String
+   * @return Object the value as the property's type
+   */
+  Object adapt(final BeanStoreStackInfo info, final String propertyValue) {
+    return null == getTypeAdapter() ? getValueAdapter().getAdaptedValue(info, getPropertyName(), propertyValue) : getTypeAdapter().destringify(info, propertyValue);
+  }
+
+  /**
+   * @param query Query
+   * @param parameterName String
+   * @param value Object already of the property's type
+   * @return Query
+   */
+  Query bind(final Query query, final String parameterName, final Object value) {
+    return null == getType() ? query.setParameter(parameterName, value) : query.setParameter(parameterName, value, getType());
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("propertyName", getPropertyName())
+        .append("typeAdapter", getTypeAdapter())
+        .append("type", getType())
+        .toString();
+  }
+}
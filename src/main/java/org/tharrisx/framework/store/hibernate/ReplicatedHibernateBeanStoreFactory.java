@@ -0,0 +1,175 @@
+package org.tharrisx.framework.store.hibernate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.hibernate.HibernateException;
+import org.hibernate.SessionFactory;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.util.log.Log;
+
+/**
+ * A HibernateBeanStoreFactory that sends read-only transactions, which is what every BeanStore read and
+ * stream runs in, to replicas of the primary database, taking turns among them. Read/write transactions,
+ * and with them writes, stay on the primary, so a transaction always reads its own writes. A
+ * BeanStoreUnitOfWork reads from a replica until its first write, and from the primary after it.
+ *
+ * A replica that fails to begin a transaction is left out for the retry interval, then tried again by the
+ * next read to come its way. With no replica up, reads go to the primary.
+ *
+ * A thread can ask for its reads to go to the primary, to see writes the replicas may not have caught up
+ * with yet, with setConsistentReads().
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class ReplicatedHibernateBeanStoreFactory extends HibernateBeanStoreFactory {
+
+  /**
+   * How long a failed replica is left out before being tried again, in milliseconds.
+   */
+  public static final long DEFAULT_RETRY_INTERVAL = 30000L;
+
+  private static final ThreadLocal<Boolean> CONSISTENT_READS = new ThreadLocal<>();
+
+  /**
+   * A replica, and when it may next be tried if it failed.
+   */
+  private static final class Replica {
+
+    private final SessionFactory sessionFactory;
+
+    SessionFactory getSessionFactory() {
+      return this.sessionFactory;
+    }
+
+    private volatile long downUntil = 0L;
+
+    boolean isUp(final long now) {
+      return this.downUntil <= now;
+    }
+
+    void markUp() {
+      this.downUntil = 0L;
+    }
+
+    void markDown(final long until) {
+      this.downUntil = until;
+    }
+
+    Replica(final SessionFactory sessionFactory1) {
+      this.sessionFactory = sessionFactory1;
+    }
+
+    @Override
+    public String toString() {
+      return new ToStringBuilder(this)
+          .append("sessionFactory", getSessionFactory())
+          .append("downUntil", this.downUntil)
+          .toString();
+    }
+  }
+
+  private final List<Replica> replicas;
+
+  private List<Replica> getReplicas() {
+    return this.replicas;
+  }
+
+  private final long retryInterval;
+
+  public long getRetryInterval() {
+    return this.retryInterval;
+  }
+
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  private AtomicInteger getNextReplica() {
+    return this.nextReplica;
+  }
+
+  public ReplicatedHibernateBeanStoreFactory(List<Class<? extends StorableBean>> beanTypes1, SessionFactory primarySessionFactory1, List<SessionFactory> replicaSessionFactories1) {
+    this(beanTypes1, primarySessionFactory1, replicaSessionFactories1, DEFAULT_RETRY_INTERVAL);
+  }
+
+  public ReplicatedHibernateBeanStoreFactory(List<Class<? extends StorableBean>> beanTypes1, SessionFactory primarySessionFactory1, List<SessionFactory> replicaSessionFactories1, long retryInterval1) {
+    super(beanTypes1, primarySessionFactory1);
+    if(Log.isEnteringEnabled(ReplicatedHibernateBeanStoreFactory.class)) Log.entering(ReplicatedHibernateBeanStoreFactory.class, Log.METHOD_NAME_CONSTRUCTOR, beanTypes1, primarySessionFactory1, replicaSessionFactories1, Long.valueOf(retryInterval1));
+    try {
+      List<Replica> replicaList = new ArrayList<>(replicaSessionFactories1.size());
+      for(SessionFactory replicaSessionFactory : replicaSessionFactories1) {
+        replicaList.add(new Replica(replicaSessionFactory));
+      }
+      this.replicas = Collections.unmodifiableList(replicaList);
+      this.retryInterval = retryInterval1;
+    } finally {
+      if(Log.isExitingEnabled(ReplicatedHibernateBeanStoreFactory.class)) Log.exiting(ReplicatedHibernateBeanStoreFactory.class, Log.METHOD_NAME_CONSTRUCTOR);
+    }
+  }
+
+  /**
+   * Have the current thread's reads go to the primary, or back to the replicas. Whoever sets this should
+   * clear it when done, as a pooled thread keeps it for its next task otherwise.
+   *
+   * @param consistentReads boolean
+   */
+  public static void setConsistentReads(final boolean consistentReads) {
+    if(consistentReads) {
+      CONSISTENT_READS.set(Boolean.TRUE);
+    } else {
+      CONSISTENT_READS.remove();
+    }
+  }
+
+  /**
+   * @return boolean true if the current thread's reads go to the primary
+   */
+  public static boolean isConsistentReads() {
+    return Boolean.TRUE.equals(CONSISTENT_READS.get());
+  }
+
+  @Override
+  public <T extends StorableBean> BeanStoreTransaction beginReadOnlyTransaction(Class<T> mainBeanType, String transactionName) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_BEGIN_READ_ONLY_TRANSACTION, mainBeanType, transactionName);
+    BeanStoreTransaction ret = null;
+    try {
+      if(!isConsistentReads()) {
+        int replicaCount = getReplicas().size();
+        int first = replicaCount == 0 ? 0 : (getNextReplica().getAndIncrement() & Integer.MAX_VALUE) % replicaCount;
+        long now = System.currentTimeMillis();
+        for(int idx = 0; idx < replicaCount; idx++) {
+          Replica replica = getReplicas().get((first + idx) % replicaCount);
+          if(!replica.isUp(now)) continue;
+          try {
+            ret = openReadOnlyTransaction(replica.getSessionFactory(), transactionName);
+            replica.markUp();
+            if(Log.isInfoEnabled(getClass())) Log.info(getClass(), METHOD_BEGIN_READ_ONLY_TRANSACTION, "Read-only transaction begun on replica " + ((first + idx) % replicaCount) + " for mainBeanType " + mainBeanType + " named '" + transactionName + "'.");
+            return ret;
+          } catch(HibernateException e) {
+            replica.markDown(now + getRetryInterval());
+            Log.warn(getClass(), METHOD_BEGIN_READ_ONLY_TRANSACTION, "Replica " + ((first + idx) % replicaCount) + " failed; leaving it out for " + getRetryInterval() + "ms.", e);
+          }
+        }
+      }
+      ret = super.beginReadOnlyTransaction(mainBeanType, transactionName);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_BEGIN_READ_ONLY_TRANSACTION, ret);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .appendSuper(super.toString())
+        .append("replicas", getReplicas())
+        .append("retryInterval", getRetryInterval())
+        .toString();
+  }
+}
@@ -0,0 +1,68 @@
+package org.tharrisx.framework.store.memory;
+
+import java.util.Collection;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Keeps the beans themselves on the heap; a bean's stored form is the bean. Readers get their own copy,
+ * so no caller can change a bean that snapshots share. The garbage collector does the reclaiming.
+ *
+ * @param <T> T extends StorableBean
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class HeapMemoryBeanStorage<T extends StorableBean> implements MemoryBeanStorage<T> {
+
+  private final MemoryBeanCodec<T> codec;
+
+  private MemoryBeanCodec<T> getCodec() {
+    return this.codec;
+  }
+
+  HeapMemoryBeanStorage(final MemoryBeanCodec<T> codec1) {
+    this.codec = codec1;
+  }
+
+  @Override
+  public Object store(final T bean) {
+    return bean;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public T view(final Object storedBean) {
+    return (T) storedBean;
+  }
+
+  /**
+   * The bean itself, as detach() copies it anyway.
+   */
+  @Override
+  public T viewWrite(final T writtenBean) {
+    return writtenBean;
+  }
+
+  @Override
+  public T detach(final T view) {
+    return getCodec().copy(view);
+  }
+
+  @Override
+  public void release(final Collection<Object> storedBeans, final long supersededVersion) {
+    // nothing to do
+  }
+
+  @Override
+  public void reclaim(final long oldestPinnedVersion) {
+    // nothing to do
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this).toString();
+  }
+}
@@ -0,0 +1,257 @@
+package org.tharrisx.framework.store.memory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.BeanStoreFactory;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
+import org.tharrisx.util.reflect.BeanAccessor;
+import org.tharrisx.util.reflect.BeanAccessorRegistry;
+import org.tharrisx.util.reflect.ReflectionException;
+
+/**
+ * Converts beans to and from a compact binary form, for the memory store's log and snapshot files and its
+ * off-heap storage, and makes the private copies the heap storage keeps. Beans aren't Serializable, so
+ * every property declared by StorableBean or a subclass of it is written by name, with a type tag. Common
+ * types get a native encoding; anything else goes through the factory's BeanPropertyValueAdapter as a
+ * String, so applications that teach the adapter a type get persistence of it for free.
+ *
+ * Properties are matched up by name when read back, so adding or removing properties between runs is
+ * harmless; unknown names are skipped, and missing ones keep their constructed defaults.
+ *
+ * @param <T> T extends StorableBean
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class MemoryBeanCodec<T extends StorableBean> {
+
+  static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private static final byte TAG_NULL = 0;
+  private static final byte TAG_STRING = 1;
+  private static final byte TAG_BOOLEAN = 2;
+  private static final byte TAG_BYTE = 3;
+  private static final byte TAG_SHORT = 4;
+  private static final byte TAG_CHAR = 5;
+  private static final byte TAG_INT = 6;
+  private static final byte TAG_LONG = 7;
+  private static final byte TAG_FLOAT = 8;
+  private static final byte TAG_DOUBLE = 9;
+  private static final byte TAG_DATE = 10;
+  private static final byte TAG_ENUM = 11;
+  private static final byte TAG_ADAPTED = 12;
+
+  private static final String METHOD_ENCODE = "encode";
+  private static final String METHOD_DECODE = "decode";
+
+  private final BeanStoreFactory beanStoreFactory;
+
+  private BeanStoreFactory getBeanStoreFactory() {
+    return this.beanStoreFactory;
+  }
+
+  private final Class<T> beanType;
+
+  Class<T> getBeanType() {
+    return this.beanType;
+  }
+
+  private final BeanAccessor[] accessors;
+
+  private BeanAccessor[] getAccessors() {
+    return this.accessors;
+  }
+
+  private final Map<String, BeanAccessor> accessorsByName;
+
+  private Map<String, BeanAccessor> getAccessorsByName() {
+    return this.accessorsByName;
+  }
+
+  MemoryBeanCodec(final BeanStoreFactory beanStoreFactory1, final Class<T> beanType1) {
+    this.beanStoreFactory = beanStoreFactory1;
+    this.beanType = beanType1;
+    this.accessorsByName = BeanAccessorRegistry.get().getAccessors(beanType1);
+    List<BeanAccessor> persisted = new ArrayList<>();
+    for(BeanAccessor accessor : this.accessorsByName.values()) {
+      // skip the pipe plumbing in Bean and above
+      if(StorableBean.class.isAssignableFrom(accessor.getDeclaringClass()) && accessor.isWritable()) {
+        persisted.add(accessor);
+      }
+    }
+    this.accessors = persisted.toArray(new BeanAccessor[persisted.size()]);
+  }
+
+  byte[] encode(final T bean) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    encode(bean, new DataOutputStream(bytes));
+    return bytes.toByteArray();
+  }
+
+  void encode(final T bean, final DataOutput out) throws IOException {
+    out.writeShort(getAccessors().length);
+    for(BeanAccessor accessor : getAccessors()) {
+      writeString(out, accessor.getName());
+      writeValue(out, accessor, accessor.get(bean));
+    }
+  }
+
+  T decode(final byte[] bytes) throws IOException {
+    return decode(new DataInputStream(new ByteArrayInputStream(bytes)));
+  }
+
+  T decode(final DataInput in) throws IOException {
+    T ret = newBean();
+    int propertyCount = in.readUnsignedShort();
+    for(int idx = 0; idx < propertyCount; idx++) {
+      String name = readString(in);
+      BeanAccessor accessor = getAccessorsByName().get(name);
+      Object value = readValue(in, accessor, name);
+      if(null != accessor && accessor.isWritable() && !(null == value && accessor.getType().isPrimitive())) {
+        accessor.set(ret, value);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * A shallow copy of the bean: a new instance, with the same value for every property encode() writes.
+   *
+   * @param bean T
+   * @return T
+   */
+  T copy(final T bean) {
+    T ret = newBean();
+    for(BeanAccessor accessor : getAccessors()) {
+      accessor.set(ret, accessor.get(bean));
+    }
+    return ret;
+  }
+
+  private T newBean() {
+    try {
+      return getBeanType().getDeclaredConstructor().newInstance();
+    } catch(ReflectiveOperationException e) {
+      throw new ReflectionException("Bean type " + getBeanType().getName() + " needs a public no-argument constructor to be kept in a MemoryBeanStore.", e);
+    }
+  }
+
+  private void writeValue(final DataOutput out, final BeanAccessor accessor, final Object value) throws IOException {
+    if(null == value) {
+      out.writeByte(TAG_NULL);
+    } else if(value instanceof String) {
+      out.writeByte(TAG_STRING);
+      writeString(out, (String) value);
+    } else if(value instanceof Boolean) {
+      out.writeByte(TAG_BOOLEAN);
+      out.writeBoolean(((Boolean) value).booleanValue());
+    } else if(value instanceof Byte) {
+      out.writeByte(TAG_BYTE);
+      out.writeByte(((Byte) value).byteValue());
+    } else if(value instanceof Short) {
+      out.writeByte(TAG_SHORT);
+      out.writeShort(((Short) value).shortValue());
+    } else if(value instanceof Character) {
+      out.writeByte(TAG_CHAR);
+      out.writeChar(((Character) value).charValue());
+    } else if(value instanceof Integer) {
+      out.writeByte(TAG_INT);
+      out.writeInt(((Integer) value).intValue());
+    } else if(value instanceof Long) {
+      out.writeByte(TAG_LONG);
+      out.writeLong(((Long) value).longValue());
+    } else if(value instanceof Float) {
+      out.writeByte(TAG_FLOAT);
+      out.writeFloat(((Float) value).floatValue());
+    } else if(value instanceof Double) {
+      out.writeByte(TAG_DOUBLE);
+      out.writeDouble(((Double) value).doubleValue());
+    } else if(Date.class.equals(value.getClass())) {
+      out.writeByte(TAG_DATE);
+      out.writeLong(((Date) value).getTime());
+    } else if(value instanceof Enum) {
+      out.writeByte(TAG_ENUM);
+      writeString(out, ((Enum<?>) value).name());
+    } else {
+      out.writeByte(TAG_ADAPTED);
+      writeString(out, getBeanStoreFactory().getBeanPropertyValueAdapter().getStringValue(new BeanStoreStackInfo(getBeanType(), null, METHOD_ENCODE), accessor.getName(), value));
+    }
+  }
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  private Object readValue(final DataInput in, final BeanAccessor accessor, final String name) throws IOException {
+    byte tag = in.readByte();
+    switch(tag) {
+      case TAG_NULL:
+        return null;
+      case TAG_STRING:
+        return readString(in);
+      case TAG_BOOLEAN:
+        return Boolean.valueOf(in.readBoolean());
+      case TAG_BYTE:
+        return Byte.valueOf(in.readByte());
+      case TAG_SHORT:
+        return Short.valueOf(in.readShort());
+      case TAG_CHAR:
+        return Character.valueOf(in.readChar());
+      case TAG_INT:
+        return Integer.valueOf(in.readInt());
+      case TAG_LONG:
+        return Long.valueOf(in.readLong());
+      case TAG_FLOAT:
+        return Float.valueOf(in.readFloat());
+      case TAG_DOUBLE:
+        return Double.valueOf(in.readDouble());
+      case TAG_DATE:
+        return new Date(in.readLong());
+      case TAG_ENUM: {
+        String constant = readString(in);
+        return null == accessor ? null : Enum.valueOf((Class<? extends Enum>) accessor.getType(), constant);
+      }
+      case TAG_ADAPTED: {
+        String stringValue = readString(in);
+        return null == accessor ? null : getBeanStoreFactory().getBeanPropertyValueAdapter().getAdaptedValue(new BeanStoreStackInfo(getBeanType(), null, METHOD_DECODE), name, stringValue);
+      }
+      default:
+        throw new IOException("Unknown property type tag " + tag + " for property " + name + " of " + getBeanType().getName());
+    }
+  }
+
+  /**
+   * Unlike DataOutput.writeUTF(), not limited to 64k.
+   *
+   * @param out DataOutput
+   * @param value String
+   * @throws IOException
+   */
+  static void writeString(final DataOutput out, final String value) throws IOException {
+    byte[] bytes = value.getBytes(UTF8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(final DataInput in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, UTF8);
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this).append("beanType", getBeanType()).append("propertyCount", getAccessors().length).toString();
+  }
+}
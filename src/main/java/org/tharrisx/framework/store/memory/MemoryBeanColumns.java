@@ -0,0 +1,388 @@
+package org.tharrisx.framework.store.memory;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.util.reflect.BeanAccessor;
+
+/**
+ * A columnar copy of one snapshot's simple bean properties, for matching and sorting without touching the
+ * beans: numbers, booleans, characters and enums as int, long or double arrays, dates as epoch
+ * milliseconds, and strings as int codes into a sorted dictionary, so codes compare as the strings do.
+ * Nulls are flagged in a bit set beside each column. Each row is one bean, and bean ids break ties, so
+ * rows sort exactly as MemoryBeanComparator sorts the beans.
+ * 
+ * Built in one pass over the snapshot the first time it is asked for, and immutable after, so only a
+ * snapshot read more than once repays the building; see MemoryBeanSnapshot.getColumns().
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class MemoryBeanColumns {
+
+  /**
+   * @param type Class<?>
+   * @return boolean whether properties of the type can be kept in a column
+   */
+  static boolean isColumnar(Class<?> type) {
+    return isIntType(type) || isLongType(type) || isDoubleType(type) || String.class == type;
+  }
+
+  private static boolean isIntType(Class<?> type) {
+    return int.class == type || Integer.class == type || short.class == type || Short.class == type || byte.class == type || Byte.class == type
+        || char.class == type || Character.class == type || boolean.class == type || Boolean.class == type || type.isEnum();
+  }
+
+  private static boolean isLongType(Class<?> type) {
+    return long.class == type || Long.class == type || Date.class == type;
+  }
+
+  private static boolean isDoubleType(Class<?> type) {
+    return double.class == type || Double.class == type || float.class == type || Float.class == type;
+  }
+
+  private abstract static class Column {
+
+    /**
+     * Null for primitive properties, which can't be.
+     */
+    private final BitSet nulls;
+
+    Column(final Object[] values) {
+      BitSet found = null;
+      for(int row = 0; row < values.length; row++) {
+        if(null == values[row]) {
+          if(null == found) found = new BitSet(values.length);
+          found.set(row);
+        }
+      }
+      this.nulls = found;
+    }
+
+    final boolean isNull(int row) {
+      return null != this.nulls && this.nulls.get(row);
+    }
+
+    /**
+     * Keep the rows whose value equals the given one.
+     * 
+     * @param rows int[] compacted in place
+     * @param count int how many of rows are in use
+     * @param value Object of the property's type
+     * @return int how many rows were kept
+     */
+    final int filter(int[] rows, int count, Object value) {
+      if(null != value) return filterValue(rows, count, value);
+      int ret = 0;
+      for(int idx = 0; idx < count; idx++) {
+        if(isNull(rows[idx])) rows[ret++] = rows[idx];
+      }
+      return ret;
+    }
+
+    abstract int filterValue(int[] rows, int count, Object value);
+
+    /**
+     * Nulls first, as BeanAccessor's bean comparators have them.
+     */
+    final int compare(int row1, int row2) {
+      boolean null1 = isNull(row1);
+      boolean null2 = isNull(row2);
+      if(null1 || null2) return null1 == null2 ? 0 : (null1 ? -1 : 1);
+      return compareValues(row1, row2);
+    }
+
+    abstract int compareValues(int row1, int row2);
+  }
+
+  private static final class IntColumn extends Column {
+
+    private final int[] values;
+
+    IntColumn(final Object[] values1) {
+      super(values1);
+      this.values = new int[values1.length];
+      for(int row = 0; row < values1.length; row++) {
+        if(null != values1[row]) this.values[row] = encode(values1[row]);
+      }
+    }
+
+    private static int encode(Object value) {
+      if(value instanceof Boolean) return ((Boolean) value).booleanValue() ? 1 : 0;
+      if(value instanceof Character) return ((Character) value).charValue();
+      if(value instanceof Enum) return ((Enum<?>) value).ordinal();
+      return ((Number) value).intValue();
+    }
+
+    @Override
+    int filterValue(int[] rows, int count, Object value) {
+      int code = encode(value);
+      int ret = 0;
+      for(int idx = 0; idx < count; idx++) {
+        int row = rows[idx];
+        if(this.values[row] == code && !isNull(row)) rows[ret++] = row;
+      }
+      return ret;
+    }
+
+    @Override
+    int compareValues(int row1, int row2) {
+      return Integer.compare(this.values[row1], this.values[row2]);
+    }
+  }
+
+  private static final class LongColumn extends Column {
+
+    private final long[] values;
+
+    LongColumn(final Object[] values1) {
+      super(values1);
+      this.values = new long[values1.length];
+      for(int row = 0; row < values1.length; row++) {
+        if(null != values1[row]) this.values[row] = encode(values1[row]);
+      }
+    }
+
+    private static long encode(Object value) {
+      return value instanceof Date ? ((Date) value).getTime() : ((Number) value).longValue();
+    }
+
+    @Override
+    int filterValue(int[] rows, int count, Object value) {
+      long code = encode(value);
+      int ret = 0;
+      for(int idx = 0; idx < count; idx++) {
+        int row = rows[idx];
+        if(this.values[row] == code && !isNull(row)) rows[ret++] = row;
+      }
+      return ret;
+    }
+
+    @Override
+    int compareValues(int row1, int row2) {
+      return Long.compare(this.values[row1], this.values[row2]);
+    }
+  }
+
+  private static final class DoubleColumn extends Column {
+
+    private final double[] values;
+
+    DoubleColumn(final Object[] values1) {
+      super(values1);
+      this.values = new double[values1.length];
+      for(int row = 0; row < values1.length; row++) {
+        if(null != values1[row]) this.values[row] = ((Number) values1[row]).doubleValue();
+      }
+    }
+
+    @Override
+    int filterValue(int[] rows, int count, Object value) {
+      double code = ((Number) value).doubleValue();
+      int ret = 0;
+      for(int idx = 0; idx < count; idx++) {
+        int row = rows[idx];
+        // compare() rather than ==, to agree with Double.equals() on NaN and negative zero
+        if(0 == Double.compare(this.values[row], code) && !isNull(row)) rows[ret++] = row;
+      }
+      return ret;
+    }
+
+    @Override
+    int compareValues(int row1, int row2) {
+      return Double.compare(this.values[row1], this.values[row2]);
+    }
+  }
+
+  private static final class DictionaryColumn extends Column {
+
+    private final String[] dictionary;
+
+    private final int[] codes;
+
+    DictionaryColumn(final Object[] values1) {
+      super(values1);
+      TreeSet<String> distinct = new TreeSet<>();
+      for(Object value : values1) {
+        if(null != value) distinct.add((String) value);
+      }
+      this.dictionary = distinct.toArray(new String[distinct.size()]);
+      Map<String, Integer> codesByValue = new HashMap<>(2 * this.dictionary.length);
+      for(int code = 0; code < this.dictionary.length; code++) {
+        codesByValue.put(this.dictionary[code], Integer.valueOf(code));
+      }
+      this.codes = new int[values1.length];
+      for(int row = 0; row < values1.length; row++) {
+        if(null != values1[row]) this.codes[row] = codesByValue.get(values1[row]).intValue();
+      }
+    }
+
+    @Override
+    int filterValue(int[] rows, int count, Object value) {
+      int code = Arrays.binarySearch(this.dictionary, value);
+      if(code < 0) return 0;
+      int ret = 0;
+      for(int idx = 0; idx < count; idx++) {
+        int row = rows[idx];
+        if(this.codes[row] == code && !isNull(row)) rows[ret++] = row;
+      }
+      return ret;
+    }
+
+    @Override
+    int compareValues(int row1, int row2) {
+      return Integer.compare(this.codes[row1], this.codes[row2]);
+    }
+  }
+
+  private final String[] ids;
+
+  private final Object[] storedBeans;
+
+  private final Map<String, Column> columns;
+
+  /**
+   * @param ids1 String[] the bean id of each row
+   * @param storedBeans1 Object[] the stored form of each row's bean
+   * @param storage MemoryBeanStorage<?> to view the stored forms with
+   * @param accessors Collection<BeanAccessor> the properties to make columns of, all isColumnar()
+   */
+  MemoryBeanColumns(final String[] ids1, final Object[] storedBeans1, final MemoryBeanStorage<?> storage, final Collection<BeanAccessor> accessors) {
+    this.ids = ids1;
+    this.storedBeans = storedBeans1;
+    BeanAccessor[] columnAccessors = accessors.toArray(new BeanAccessor[accessors.size()]);
+    Object[][] values = new Object[columnAccessors.length][storedBeans1.length];
+    for(int row = 0; row < storedBeans1.length; row++) {
+      Object bean = storage.view(storedBeans1[row]);
+      for(int idx = 0; idx < columnAccessors.length; idx++) {
+        values[idx][row] = columnAccessors[idx].get(bean);
+      }
+    }
+    this.columns = new HashMap<>(2 * columnAccessors.length);
+    for(int idx = 0; idx < columnAccessors.length; idx++) {
+      Class<?> type = columnAccessors[idx].getType();
+      Column column = null;
+      if(isIntType(type)) {
+        column = new IntColumn(values[idx]);
+      } else if(isLongType(type)) {
+        column = new LongColumn(values[idx]);
+      } else if(isDoubleType(type)) {
+        column = new DoubleColumn(values[idx]);
+      } else {
+        column = new DictionaryColumn(values[idx]);
+      }
+      this.columns.put(columnAccessors[idx].getName(), column);
+      // let the boxed values go as soon as their column is built
+      values[idx] = null;
+    }
+  }
+
+  int size() {
+    return this.ids.length;
+  }
+
+  Object getStoredBean(int row) {
+    return this.storedBeans[row];
+  }
+
+  /**
+   * @param values Map<String, Object> property values, of the properties' types, all of columns here
+   * @return int[] the rows whose properties equal all the values, in row order
+   */
+  int[] select(Map<String, Object> values) {
+    int[] rows = new int[size()];
+    for(int row = 0; row < rows.length; row++) {
+      rows[row] = row;
+    }
+    int count = rows.length;
+    for(Map.Entry<String, Object> value : values.entrySet()) {
+      if(0 == count) break;
+      count = this.columns.get(value.getKey()).filter(rows, count, value.getValue());
+    }
+    return Arrays.copyOf(rows, count);
+  }
+
+  /**
+   * The best rows, in order, kept in a bounded heap whose root is the worst of them. Costs
+   * O(n log topCount), with no boxing and no beans touched.
+   * 
+   * @param rows int[]
+   * @param sortFields String[] properties, all of columns here
+   * @param ascending boolean[] by sort field
+   * @param topCount int
+   * @return int[] at most topCount rows
+   */
+  int[] top(int[] rows, String[] sortFields, boolean[] ascending, int topCount) {
+    Column[] sortColumns = new Column[sortFields.length];
+    for(int idx = 0; idx < sortFields.length; idx++) {
+      sortColumns[idx] = this.columns.get(sortFields[idx]);
+    }
+    int[] heap = new int[Math.max(0, Math.min(topCount, rows.length))];
+    if(0 == heap.length) return heap;
+    int size = 0;
+    for(int row : rows) {
+      if(size < heap.length) {
+        heap[size] = row;
+        siftUp(heap, size++, sortColumns, ascending);
+      } else if(compareRows(row, heap[0], sortColumns, ascending) < 0) {
+        heap[0] = row;
+        siftDown(heap, 0, size, sortColumns, ascending);
+      }
+    }
+    // heap sort: move the worst to the end, one at a time
+    for(int end = size - 1; end > 0; end--) {
+      int worst = heap[0];
+      heap[0] = heap[end];
+      heap[end] = worst;
+      siftDown(heap, 0, end, sortColumns, ascending);
+    }
+    return heap;
+  }
+
+  private void siftUp(int[] heap, int position, Column[] sortColumns, boolean[] ascending) {
+    int row = heap[position];
+    while(position > 0) {
+      int parent = (position - 1) >>> 1;
+      if(compareRows(row, heap[parent], sortColumns, ascending) <= 0) break;
+      heap[position] = heap[parent];
+      position = parent;
+    }
+    heap[position] = row;
+  }
+
+  private void siftDown(int[] heap, int position, int size, Column[] sortColumns, boolean[] ascending) {
+    int row = heap[position];
+    while(true) {
+      int child = 2 * position + 1;
+      if(child >= size) break;
+      if(child + 1 < size && compareRows(heap[child + 1], heap[child], sortColumns, ascending) > 0) child++;
+      if(compareRows(row, heap[child], sortColumns, ascending) >= 0) break;
+      heap[position] = heap[child];
+      position = child;
+    }
+    heap[position] = row;
+  }
+
+  private int compareRows(int row1, int row2, Column[] sortColumns, boolean[] ascending) {
+    for(int idx = 0; idx < sortColumns.length; idx++) {
+      int ret = sortColumns[idx].compare(row1, row2);
+      if(0 != ret) return ascending[idx] ? ret : -ret;
+    }
+    return this.ids[row1].compareTo(this.ids[row2]);
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("size", size())
+        .append("columns", this.columns.keySet())
+        .toString();
+  }
+}
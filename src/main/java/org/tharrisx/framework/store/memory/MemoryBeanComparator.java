@@ -0,0 +1,126 @@
+package org.tharrisx.framework.store.memory;
+
+import java.util.Comparator;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.core.BeanStoreCursor;
+import org.tharrisx.util.reflect.BeanAccessor;
+
+/**
+ * Orders beans by a sortBy/sortDirection pair of comma separated lists, the same arguments the BeanStore
+ * paging methods take. The sort is lexicographic: later properties only break ties in earlier ones. Nulls
+ * sort first in ascending order, and bean id breaks any remaining ties, so pages are stable.
+ *
+ * An empty sortBy orders by bean id alone.
+ *
+ * @param <T> T extends StorableBean
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class MemoryBeanComparator<T extends StorableBean> implements Comparator<T> {
+
+  private final String[] sortFields;
+
+  String[] getSortFields() {
+    return this.sortFields;
+  }
+
+  private final BeanAccessor[] accessors;
+
+  private BeanAccessor[] getAccessors() {
+    return this.accessors;
+  }
+
+  private final boolean[] ascending;
+
+  boolean[] getAscending() {
+    return this.ascending;
+  }
+
+  MemoryBeanComparator(final MemoryBeanStore<T> beanStore, final BeanStoreTransaction transaction, final String beanStoreMethod, final String sortBy, final String sortDirection) {
+    if(null == sortBy || "".equals(sortBy)) {
+      this.sortFields = new String[0];
+      this.ascending = new boolean[0];
+    } else {
+      this.sortFields = sortBy.split(",");
+      String[] sortOrders = (null == sortDirection ? "" : sortDirection).split(",");
+      if(this.sortFields.length != sortOrders.length) throw new IllegalArgumentException("sortBy and sortDirection must contain the same number of values");
+      this.ascending = new boolean[sortOrders.length];
+      for(int idx = 0; idx < sortOrders.length; idx++) {
+        this.ascending[idx] = "ASCENDING".equalsIgnoreCase(sortOrders[idx]) || "ASC".equalsIgnoreCase(sortOrders[idx]);
+      }
+    }
+    // resolve each property once, not once per comparison
+    this.accessors = new BeanAccessor[this.sortFields.length];
+    for(int idx = 0; idx < this.sortFields.length; idx++) {
+      this.accessors[idx] = beanStore.getBeanPropertyAccessor(transaction, beanStoreMethod, this.sortFields[idx]);
+      if(!this.accessors[idx].isComparable()) throw new IllegalArgumentException("sortBy field named " + this.sortFields[idx] + " is not Comparable");
+    }
+  }
+
+  /**
+   * @return String the first sortBy property, or null when sorting by id alone
+   */
+  String getPrimarySortField() {
+    return 0 == getSortFields().length ? null : getSortFields()[0];
+  }
+
+  boolean isPrimaryAscending() {
+    return 0 == getAscending().length || getAscending()[0];
+  }
+
+  @Override
+  public int compare(T o1, T o2) {
+    int ret = 0;
+    for(int idx = 0; idx < getAccessors().length && 0 == ret; idx++) {
+      ret = getAccessors()[idx].getBeanComparator().compare(o1, o2);
+      if(!getAscending()[idx]) ret = -ret;
+    }
+    if(0 == ret) {
+      ret = o1.getId().compareTo(o2.getId());
+    }
+    return ret;
+  }
+
+  /**
+   * Compare a bean with a keyset page's cursor, as if the cursor were the bean it was made after.
+   * 
+   * @param bean T
+   * @param cursor BeanStoreCursor made under the same sortBy and sortDirection
+   * @return int greater than zero if the bean sorts after the cursor
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  int compareToCursor(T bean, BeanStoreCursor cursor) {
+    int ret = 0;
+    for(int idx = 0; idx < getAccessors().length && 0 == ret; idx++) {
+      Object v1 = getAccessors()[idx].get(bean);
+      Object v2 = cursor.getValues()[idx];
+      if(v1 == v2) {
+        ret = 0;
+      } else if(null == v1) {
+        ret = -1;
+      } else if(null == v2) {
+        ret = 1;
+      } else {
+        ret = ((Comparable) v1).compareTo(v2);
+      }
+      if(!getAscending()[idx]) ret = -ret;
+    }
+    if(0 == ret) {
+      ret = bean.getId().compareTo(cursor.getBeanId());
+    }
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("sortFields", getSortFields())
+        .append("ascending", getAscending())
+        .toString();
+  }
+}
@@ -0,0 +1,192 @@
+package org.tharrisx.framework.store.memory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.util.collection.PersistentHashMap;
+import org.tharrisx.util.collection.PersistentMap;
+import org.tharrisx.util.collection.PersistentSortedMap;
+import org.tharrisx.util.reflect.BeanAccessor;
+
+/**
+ * An index over one bean property, mapping each property value to the ids of the beans holding it. Hashed
+ * by default; a sorted index keeps its values in order, with null first.
+ *
+ * Beans are often updated in place, so the value a bean was indexed under is remembered by id; that way
+ * the old entry can be removed even after the bean's property has already been changed.
+ *
+ * Immutable, like the MemoryBeanSnapshot holding it: index() and unindex() return a new index sharing most
+ * of its structure with this one.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class MemoryBeanIndex {
+
+  /**
+   * Stands in for null property values, which the persistent maps can't hold as keys.
+   */
+  private static final Object NULL_VALUE = new Object();
+
+  /**
+   * Orders the values of a sorted index, null first.
+   */
+  private static final Comparator<Object> NULL_FIRST_COMPARATOR = new Comparator<Object>() {
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Override public int compare(Object o1, Object o2) {
+      if(o1 == o2) return 0;
+      if(NULL_VALUE == o1) return -1;
+      if(NULL_VALUE == o2) return 1;
+      return ((Comparable) o1).compareTo(o2);
+    }
+  };
+
+  private final String propertyName;
+
+  String getPropertyName() {
+    return this.propertyName;
+  }
+
+  private final BeanAccessor accessor;
+
+  private BeanAccessor getAccessor() {
+    return this.accessor;
+  }
+
+  private final PersistentMap<Object, PersistentHashMap<String, Boolean>> idsByValue;
+
+  private PersistentMap<Object, PersistentHashMap<String, Boolean>> getIdsByValue() {
+    return this.idsByValue;
+  }
+
+  private final PersistentHashMap<String, Object> valuesById;
+
+  private PersistentHashMap<String, Object> getValuesById() {
+    return this.valuesById;
+  }
+
+  MemoryBeanIndex(final BeanAccessor accessor1, final boolean sorted) {
+    this.propertyName = accessor1.getName();
+    this.accessor = accessor1;
+    if(sorted) {
+      if(!accessor1.isComparable()) {
+        throw new IllegalArgumentException("Property '" + accessor1.getName() + "' of type " + accessor1.getType().getName() + " is not Comparable, and so can't have a sorted index.");
+      }
+      this.idsByValue = PersistentSortedMap.empty(NULL_FIRST_COMPARATOR);
+    } else {
+      this.idsByValue = PersistentHashMap.empty();
+    }
+    this.valuesById = PersistentHashMap.empty();
+  }
+
+  private MemoryBeanIndex(final MemoryBeanIndex previous, final PersistentMap<Object, PersistentHashMap<String, Boolean>> idsByValue1, final PersistentHashMap<String, Object> valuesById1) {
+    this.propertyName = previous.getPropertyName();
+    this.accessor = previous.getAccessor();
+    this.idsByValue = idsByValue1;
+    this.valuesById = valuesById1;
+  }
+
+  boolean isSorted() {
+    return getIdsByValue() instanceof PersistentSortedMap;
+  }
+
+  /**
+   * Add or move the bean's entry to match its current property value.
+   *
+   * @param bean StorableBean
+   * @return MemoryBeanIndex
+   */
+  MemoryBeanIndex index(final StorableBean bean) {
+    Object value = maskNull(getAccessor().get(bean));
+    Object oldValue = getValuesById().get(bean.getId());
+    if(value.equals(oldValue)) return this;
+    PersistentMap<Object, PersistentHashMap<String, Boolean>> newIdsByValue = getIdsByValue();
+    if(null != oldValue) {
+      newIdsByValue = removeId(newIdsByValue, oldValue, bean.getId());
+    }
+    PersistentHashMap<String, Boolean> ids = newIdsByValue.get(value);
+    if(null == ids) ids = PersistentHashMap.empty();
+    newIdsByValue = newIdsByValue.plus(value, ids.plus(bean.getId(), Boolean.TRUE));
+    return new MemoryBeanIndex(this, newIdsByValue, getValuesById().plus(bean.getId(), value));
+  }
+
+  /**
+   * Remove the bean's entry, if it has one.
+   *
+   * @param beanId String
+   * @return MemoryBeanIndex
+   */
+  MemoryBeanIndex unindex(final String beanId) {
+    Object oldValue = getValuesById().get(beanId);
+    if(null == oldValue) return this;
+    return new MemoryBeanIndex(this, removeId(getIdsByValue(), oldValue, beanId), getValuesById().minus(beanId));
+  }
+
+  /**
+   * The ids of the beans indexed under the value.
+   *
+   * @param value Object
+   * @return Set<String>
+   */
+  Set<String> getBeanIds(final Object value) {
+    PersistentHashMap<String, Boolean> ids = getIdsByValue().get(maskNull(value));
+    return null == ids ? Collections.<String> emptySet() : ids.keySet();
+  }
+
+  /**
+   * For a sorted index, the id sets in property value order, one set per distinct value.
+   *
+   * @param ascending boolean
+   * @return Iterable<Set<String>>
+   */
+  Iterable<Set<String>> getBeanIdsInOrder(final boolean ascending) {
+    if(!isSorted()) throw new IllegalStateException("The index on '" + getPropertyName() + "' is not sorted.");
+    PersistentSortedMap<Object, PersistentHashMap<String, Boolean>> sortedIdsByValue = (PersistentSortedMap<Object, PersistentHashMap<String, Boolean>>) getIdsByValue();
+    final Collection<PersistentHashMap<String, Boolean>> idMaps = ascending ? sortedIdsByValue.values() : sortedIdsByValue.descendingValues();
+    return new Iterable<Set<String>>() {
+      @Override public Iterator<Set<String>> iterator() {
+        final Iterator<PersistentHashMap<String, Boolean>> idMapIterator = idMaps.iterator();
+        return new Iterator<Set<String>>() {
+          @Override public boolean hasNext() {
+            return idMapIterator.hasNext();
+          }
+
+          @Override public Set<String> next() {
+            return idMapIterator.next().keySet();
+          }
+
+          @Override public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+    };
+  }
+
+  private static PersistentMap<Object, PersistentHashMap<String, Boolean>> removeId(final PersistentMap<Object, PersistentHashMap<String, Boolean>> idsByValue1, final Object value, final String beanId) {
+    PersistentHashMap<String, Boolean> ids = idsByValue1.get(value);
+    if(null == ids) return idsByValue1;
+    ids = ids.minus(beanId);
+    return ids.isEmpty() ? idsByValue1.minus(value) : idsByValue1.plus(value, ids);
+  }
+
+  private static Object maskNull(final Object value) {
+    return null == value ? NULL_VALUE : value;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("propertyName", getPropertyName())
+        .append("sorted", isSorted())
+        .append("valueCount", getIdsByValue().size())
+        .append("beanCount", getValuesById().size())
+        .toString();
+  }
+}
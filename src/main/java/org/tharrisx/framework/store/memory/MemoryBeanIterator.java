@@ -0,0 +1,115 @@
+package org.tharrisx.framework.store.memory;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.BeanIterator;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Streams the beans a filter accepts from one snapshot of a MemoryBeanStore, which it pins for as long as
+ * it is open, so a long read sees a consistent store without copying it. Each bean is detached as it is
+ * handed out.
+ * 
+ * The iterator pins the snapshot first, then is opened on that snapshot's beans; see getSnapshot(). Opened
+ * with the writes of the transaction reading, it hands out those instead of the snapshot's beans of the
+ * same ids, after the rest.
+ * 
+ * @param <T> T extends StorableBean
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class MemoryBeanIterator<T extends StorableBean> implements BeanIterator<T> {
+
+  private final MemoryBeanStore<T> beanStore;
+  private final MemoryBeanSnapshotPins.Pin pin;
+
+  private Iterator<Object> storedBeans = Collections.emptyIterator();
+  private Map<String, T> writes = Collections.emptyMap();
+  private Iterator<T> writtenBeans = Collections.emptyIterator();
+  private MemoryBeanScan.Filter<T> filter;
+  private T nextBean;
+  private boolean closed;
+
+  MemoryBeanIterator(final MemoryBeanStore<T> beanStore1) {
+    this.beanStore = beanStore1;
+    // the iterator holds the pin, so an iterator that is never closed lets go of it once collected
+    this.pin = beanStore1.pinSnapshot(this);
+  }
+
+  /**
+   * @return MemoryBeanSnapshot the snapshot pinned, for finding the beans to open the iterator on
+   */
+  MemoryBeanSnapshot getSnapshot() {
+    return this.pin.getSnapshot();
+  }
+
+  /**
+   * @param storedBeans1 Iterable<Object> stored forms from the pinned snapshot
+   * @param filter1 MemoryBeanScan.Filter<T> which of them to hand out
+   */
+  void open(final Iterable<Object> storedBeans1, final MemoryBeanScan.Filter<T> filter1) {
+    this.storedBeans = storedBeans1.iterator();
+    this.filter = filter1;
+  }
+
+  /**
+   * @param storedBeans1 Iterable<Object> stored forms from the pinned snapshot
+   * @param writes1 Map<String, T> views of the beans the transaction reading has written, by id, that no
+   *          one else holds; a null bean is a delete
+   * @param filter1 MemoryBeanScan.Filter<T> which of them to hand out
+   */
+  void open(final Iterable<Object> storedBeans1, final Map<String, T> writes1, final MemoryBeanScan.Filter<T> filter1) {
+    open(storedBeans1, filter1);
+    this.writes = writes1;
+    this.writtenBeans = writes1.values().iterator();
+  }
+
+  @Override
+  public boolean hasNext() {
+    while(null == this.nextBean && !this.closed && this.storedBeans.hasNext()) {
+      T view = this.beanStore.getStorage().view(this.storedBeans.next());
+      if(!this.writes.containsKey(view.getId()) && this.filter.accept(view)) this.nextBean = view;
+    }
+    while(null == this.nextBean && !this.closed && this.writtenBeans.hasNext()) {
+      T view = this.writtenBeans.next();
+      if(null != view && this.filter.accept(view)) this.nextBean = view;
+    }
+    return null != this.nextBean;
+  }
+
+  @Override
+  public T next() {
+    if(!hasNext()) throw new NoSuchElementException();
+    T ret = this.beanStore.getStorage().detach(this.nextBean);
+    this.nextBean = null;
+    return ret;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void close() {
+    if(this.closed) return;
+    this.closed = true;
+    this.nextBean = null;
+    this.beanStore.unpinSnapshot(this.pin);
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("beanType", this.beanStore.getBeanType())
+        .append("version", getSnapshot().getVersion())
+        .append("closed", this.closed)
+        .toString();
+  }
+}
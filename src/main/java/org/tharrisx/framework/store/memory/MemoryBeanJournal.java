@@ -0,0 +1,644 @@
+package org.tharrisx.framework.store.memory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.util.log.Log;
+
+/**
+ * Makes one MemoryBeanStore durable: every write is appended to a write-ahead log before it is applied,
+ * and the log is periodically compacted into a snapshot of the whole store.
+ *
+ * <p>Files, all in the persistence directory and named for the bean type and a generation number:</p>
+ * <ul>
+ *   <li><code>type.N.log</code> - records of [length][crc32][op][payload], where a put's payload is the
+ *       encoded bean and a delete's is the bean id. A transaction of several writes is one batch record of
+ *       [count] then [op][length][payload] for each, so it is recovered whole or not at all.</li>
+ *   <li><code>type.N.snapshot</code> - every bean as of the start of log N, in independently readable
+ *       segments, followed by a footer of segment offsets.</li>
+ * </ul>
+ *
+ * <p>Writers wait for their record to be forced to disk, but don't force it themselves: a single syncer
+ * thread forces the log repeatedly, and each force covers every record appended before it started. Under
+ * load, one fsync commits a whole group of writers.</p>
+ *
+ * <p>A snapshot starts a new log generation and then writes out the store's beans while writes carry on.
+ * The snapshot may catch some writes that are also in the new log, but replaying a put or delete of a
+ * whole bean is idempotent, and the last record for each id wins, so recovery still ends at the right
+ * state. Recovery loads the latest complete snapshot, decoding its segments in parallel from mapped
+ * buffers, then replays every later log in order. A torn record at the end of a log is truncated away.</p>
+ *
+ * @param <T> T extends StorableBean
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class MemoryBeanJournal<T extends StorableBean> {
+
+  /**
+   * Receives the recovered state of the store. Implementations must not write to the journal.
+   *
+   * @param <T> T extends StorableBean
+   */
+  interface Replayer<T extends StorableBean> {
+
+    void restore(T bean);
+
+    void forget(String beanId);
+  }
+
+  static final int DEFAULT_SNAPSHOT_LOG_RECORDS = 100000;
+
+  private static final byte OP_PUT = 1;
+  private static final byte OP_DELETE = 2;
+  private static final byte OP_BATCH = 3;
+
+  private static final int RECORD_HEADER_SIZE = 4 + 4;
+  private static final int SNAPSHOT_MAGIC = 0x4D425353; // "MBSS"
+  private static final int SNAPSHOT_SEGMENT_BEANS = 8192;
+
+  private static final String LOG_SUFFIX = ".log";
+  private static final String SNAPSHOT_SUFFIX = ".snapshot";
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private final File directory;
+
+  File getDirectory() {
+    return this.directory;
+  }
+
+  private final MemoryBeanCodec<T> codec;
+
+  private MemoryBeanCodec<T> getCodec() {
+    return this.codec;
+  }
+
+  private final int snapshotLogRecords;
+
+  int getSnapshotLogRecords() {
+    return this.snapshotLogRecords;
+  }
+
+  /**
+   * Guards the log channel, its generation, and the appended position.
+   */
+  private final ReentrantLock logLock = new ReentrantLock();
+
+  private ReentrantLock getLogLock() {
+    return this.logLock;
+  }
+
+  /**
+   * Signalled when records are appended, for the syncer.
+   */
+  private final Condition appendedCondition = this.logLock.newCondition();
+
+  private Condition getAppendedCondition() {
+    return this.appendedCondition;
+  }
+
+  /**
+   * Signalled when the durable position moves, for waiting writers.
+   */
+  private final Condition durableCondition = this.logLock.newCondition();
+
+  private Condition getDurableCondition() {
+    return this.durableCondition;
+  }
+
+  private FileChannel logChannel = null;
+  private long generation = 0L;
+
+  /**
+   * Positions here are logical: the total bytes appended across all generations, so they keep increasing
+   * across log rotation.
+   */
+  private long appendedPosition = 0L;
+  private long durablePosition = 0L;
+  private int logRecordsSinceSnapshot = 0;
+  private boolean closed = false;
+  private IOException syncFailure = null;
+
+  private final AtomicBoolean snapshotRunning = new AtomicBoolean(false);
+
+  private AtomicBoolean getSnapshotRunning() {
+    return this.snapshotRunning;
+  }
+
+  private Iterable<T> snapshotSource = null;
+  private Thread syncer = null;
+  private ExecutorService snapshotter = null;
+
+  MemoryBeanJournal(final File directory1, final MemoryBeanCodec<T> codec1, final int snapshotLogRecords1) {
+    this.directory = directory1;
+    this.codec = codec1;
+    this.snapshotLogRecords = snapshotLogRecords1;
+  }
+
+  /**
+   * Recover the store's state from disk, then start logging. Call once, before any writes.
+   *
+   * @param replayer Replayer<T> receives the recovered beans
+   * @param beans Iterable<T> the live beans of the store, read when taking snapshots
+   * @throws IOException
+   */
+  void open(final Replayer<T> replayer, final Iterable<T> beans) throws IOException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "open", getCodec().getBeanType());
+    try {
+      if(!getDirectory().isDirectory() && !getDirectory().mkdirs()) {
+        throw new IOException("Unable to create persistence directory " + getDirectory());
+      }
+      long startTime = System.currentTimeMillis();
+      List<Long> snapshotGenerations = listGenerations(SNAPSHOT_SUFFIX);
+      List<Long> logGenerations = listGenerations(LOG_SUFFIX);
+      long snapshotGeneration = snapshotGenerations.isEmpty() ? -1L : snapshotGenerations.get(snapshotGenerations.size() - 1).longValue();
+      int snapshotBeans = 0;
+      if(snapshotGeneration >= 0L) {
+        snapshotBeans = readSnapshot(getFile(snapshotGeneration, SNAPSHOT_SUFFIX), replayer);
+      }
+      long lastGeneration = Math.max(0L, snapshotGeneration);
+      int replayedRecords = 0;
+      for(Long logGeneration : logGenerations) {
+        if(logGeneration.longValue() >= lastGeneration) {
+          replayedRecords += replayLog(getFile(logGeneration.longValue(), LOG_SUFFIX), replayer);
+          lastGeneration = logGeneration.longValue();
+        }
+      }
+      deleteGenerationsBefore(Math.max(0L, snapshotGeneration));
+      if(Log.isInfoEnabled(getClass())) Log.info(getClass(), "open", "Recovered " + getCodec().getBeanType().getName() + " from " + snapshotBeans + " snapshot beans and " + replayedRecords + " log records in " + (System.currentTimeMillis() - startTime) + "ms.");
+
+      this.generation = lastGeneration;
+      this.logChannel = openLog(lastGeneration);
+      this.logRecordsSinceSnapshot = replayedRecords;
+      this.snapshotSource = beans;
+      final String threadName = "MemoryBeanJournal-" + getCodec().getBeanType().getSimpleName();
+      this.syncer = new Thread(new Runnable() {
+        @Override public void run() {
+          syncLoop();
+        }
+      }, threadName + "-sync");
+      this.syncer.setDaemon(true);
+      this.syncer.start();
+      this.snapshotter = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override public Thread newThread(Runnable runnable) {
+          Thread ret = new Thread(runnable, threadName + "-snapshot");
+          ret.setDaemon(true);
+          return ret;
+        }
+      });
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "open");
+    }
+  }
+
+  /**
+   * Append the writes of one commit, as a single record. The caller must hold the write lock of every bean
+   * id written, so the log order for each id matches the order the writes are applied in.
+   *
+   * @param writes Map<String, T> the beans written, by id; a null bean is a delete
+   * @return long the position to pass to awaitDurable()
+   * @throws IOException
+   */
+  long logCommit(final Map<String, T> writes) throws IOException {
+    if(1 == writes.size()) {
+      Map.Entry<String, T> write = writes.entrySet().iterator().next();
+      return null == write.getValue() ? append(OP_DELETE, encodeDelete(write.getKey())) : append(OP_PUT, getCodec().encode(write.getValue()));
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * writes.size());
+    DataOutputStream batch = new DataOutputStream(bytes);
+    batch.writeInt(writes.size());
+    for(Map.Entry<String, T> write : writes.entrySet()) {
+      byte[] payload = null == write.getValue() ? encodeDelete(write.getKey()) : getCodec().encode(write.getValue());
+      batch.writeByte(null == write.getValue() ? OP_DELETE : OP_PUT);
+      batch.writeInt(payload.length);
+      batch.write(payload);
+    }
+    return append(OP_BATCH, bytes.toByteArray());
+  }
+
+  private static byte[] encodeDelete(final String beanId) {
+    return beanId.getBytes(MemoryBeanCodec.UTF8);
+  }
+
+  private long append(final byte op, final byte[] payload) throws IOException {
+    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + 1 + payload.length);
+    CRC32 crc = new CRC32();
+    crc.update(op);
+    crc.update(payload);
+    record.putInt(1 + payload.length).putInt((int) crc.getValue()).put(op).put(payload);
+    record.flip();
+    long ret = 0L;
+    boolean startSnapshot = false;
+    getLogLock().lock();
+    try {
+      if(this.closed) throw new ClosedChannelException();
+      while(record.hasRemaining()) {
+        this.logChannel.write(record);
+      }
+      this.appendedPosition += record.limit();
+      ret = this.appendedPosition;
+      this.logRecordsSinceSnapshot++;
+      startSnapshot = this.logRecordsSinceSnapshot >= getSnapshotLogRecords();
+      getAppendedCondition().signal();
+    } finally {
+      getLogLock().unlock();
+    }
+    if(startSnapshot && getSnapshotRunning().compareAndSet(false, true)) {
+      this.snapshotter.execute(new Runnable() {
+        @Override public void run() {
+          try {
+            snapshot();
+          } catch(IOException e) {
+            Log.error(MemoryBeanJournal.class, "snapshot", "Snapshot of " + getCodec().getBeanType().getName() + " failed; the log will keep growing until one succeeds.", e);
+          } finally {
+            getSnapshotRunning().set(false);
+          }
+        }
+      });
+    }
+    return ret;
+  }
+
+  /**
+   * Block until everything up to the position is on disk. Call this after releasing the bean id's write
+   * lock, so other writers can join the same fsync.
+   *
+   * @param position long
+   * @throws IOException if the log can't be forced
+   */
+  void awaitDurable(final long position) throws IOException {
+    getLogLock().lock();
+    try {
+      while(this.durablePosition < position) {
+        if(null != this.syncFailure) throw new IOException("Log force failed", this.syncFailure);
+        if(this.closed) throw new ClosedChannelException();
+        getDurableCondition().awaitUninterruptibly();
+      }
+    } finally {
+      getLogLock().unlock();
+    }
+  }
+
+  private void syncLoop() {
+    while(true) {
+      FileChannel channel = null;
+      long target = 0L;
+      getLogLock().lock();
+      try {
+        while(!this.closed && this.durablePosition >= this.appendedPosition) {
+          getAppendedCondition().awaitUninterruptibly();
+        }
+        if(this.closed) return;
+        channel = this.logChannel;
+        target = this.appendedPosition;
+      } finally {
+        getLogLock().unlock();
+      }
+      IOException failure = null;
+      try {
+        channel.force(false);
+      } catch(ClosedChannelException e) {
+        // rotated away; the rotation forced it before closing it
+      } catch(IOException e) {
+        Log.error(getClass(), "syncLoop", "Unable to force the log of " + getCodec().getBeanType().getName(), e);
+        failure = e;
+      }
+      getLogLock().lock();
+      try {
+        if(null == failure) {
+          this.durablePosition = Math.max(this.durablePosition, target);
+        } else {
+          this.syncFailure = failure;
+        }
+        getDurableCondition().signalAll();
+      } finally {
+        getLogLock().unlock();
+      }
+      if(null != failure) return;
+    }
+  }
+
+  /**
+   * Start a new log generation and write every bean to a snapshot for it, then drop the files it
+   * supersedes.
+   *
+   * @throws IOException
+   */
+  void snapshot() throws IOException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "snapshot", getCodec().getBeanType());
+    try {
+      long startTime = System.currentTimeMillis();
+      long snapshotGeneration = 0L;
+      getLogLock().lock();
+      try {
+        if(this.closed) return;
+        this.logChannel.force(false);
+        this.logChannel.close();
+        this.durablePosition = this.appendedPosition;
+        this.generation++;
+        snapshotGeneration = this.generation;
+        this.logChannel = openLog(snapshotGeneration);
+        this.logRecordsSinceSnapshot = 0;
+        getDurableCondition().signalAll();
+      } finally {
+        getLogLock().unlock();
+      }
+      File snapshotFile = getFile(snapshotGeneration, SNAPSHOT_SUFFIX);
+      File tempFile = new File(snapshotFile.getPath() + TEMP_SUFFIX);
+      int beanCount = writeSnapshot(tempFile, this.snapshotSource);
+      Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      deleteGenerationsBefore(snapshotGeneration);
+      if(Log.isInfoEnabled(getClass())) Log.info(getClass(), "snapshot", "Wrote " + beanCount + " " + getCodec().getBeanType().getName() + " beans to " + snapshotFile + " in " + (System.currentTimeMillis() - startTime) + "ms.");
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "snapshot");
+    }
+  }
+
+  /**
+   * Stop the syncer and snapshot threads and close the log. Writers still waiting get an exception. A
+   * snapshot under way is waited for, since it goes on to rename and delete files in the directory, which
+   * would otherwise race with the next journal to open it.
+   */
+  void close() {
+    getLogLock().lock();
+    try {
+      if(this.closed) return;
+      try {
+        this.logChannel.force(false);
+        this.durablePosition = this.appendedPosition;
+      } catch(IOException e) {
+        Log.error(getClass(), "close", "Unable to force the log of " + getCodec().getBeanType().getName(), e);
+      }
+      this.closed = true;
+      try {
+        this.logChannel.close();
+      } catch(IOException e) {
+        Log.error(getClass(), "close", "Unable to close the log of " + getCodec().getBeanType().getName(), e);
+      }
+      getAppendedCondition().signalAll();
+      getDurableCondition().signalAll();
+    } finally {
+      getLogLock().unlock();
+    }
+    if(null != this.snapshotter) {
+      this.snapshotter.shutdown();
+      try {
+        this.snapshotter.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      } catch(InterruptedException e) {
+        Thread.currentThread().interrupt();
+        Log.warn(getClass(), "close", "Interrupted waiting for the snapshot of " + getCodec().getBeanType().getName() + " to finish.");
+      }
+    }
+  }
+
+  private int writeSnapshot(final File file, final Iterable<T> beans) throws IOException {
+    int ret = 0;
+    List<Long> segmentOffsets = new ArrayList<>();
+    try(FileOutputStream stream = new FileOutputStream(file); FileChannel channel = stream.getChannel()) {
+      ByteArrayOutputStream segmentBytes = new ByteArrayOutputStream(1 << 20);
+      DataOutputStream segment = new DataOutputStream(segmentBytes);
+      int segmentBeans = 0;
+      long position = 0L;
+      for(T bean : beans) {
+        byte[] encoded = getCodec().encode(bean);
+        segment.writeInt(encoded.length);
+        segment.write(encoded);
+        segmentBeans++;
+        ret++;
+        if(segmentBeans == SNAPSHOT_SEGMENT_BEANS) {
+          segmentOffsets.add(Long.valueOf(position));
+          position += writeSegment(channel, segmentBytes, segmentBeans);
+          segmentBeans = 0;
+        }
+      }
+      if(segmentBeans > 0) {
+        segmentOffsets.add(Long.valueOf(position));
+        position += writeSegment(channel, segmentBytes, segmentBeans);
+      }
+      ByteBuffer footer = ByteBuffer.allocate(8 * segmentOffsets.size() + 4 + 4);
+      for(Long segmentOffset : segmentOffsets) {
+        footer.putLong(segmentOffset.longValue());
+      }
+      footer.putInt(segmentOffsets.size()).putInt(SNAPSHOT_MAGIC);
+      footer.flip();
+      writeFully(channel, footer);
+      channel.force(true);
+    }
+    return ret;
+  }
+
+  private static long writeSegment(final FileChannel channel, final ByteArrayOutputStream segmentBytes, final int segmentBeans) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(4);
+    header.putInt(segmentBeans).flip();
+    writeFully(channel, header);
+    writeFully(channel, ByteBuffer.wrap(segmentBytes.toByteArray()));
+    long ret = 4L + segmentBytes.size();
+    segmentBytes.reset();
+    return ret;
+  }
+
+  private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+    while(buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * Decode every segment of the snapshot in parallel, each from its own read-only mapping of the file.
+   */
+  private int readSnapshot(final File file, final Replayer<T> replayer) throws IOException {
+    int ret = 0;
+    try(RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+      long size = channel.size();
+      ByteBuffer trailer = ByteBuffer.allocate(8);
+      channel.read(trailer, size - 8);
+      trailer.flip();
+      int segmentCount = trailer.getInt();
+      if(SNAPSHOT_MAGIC != trailer.getInt()) throw new IOException("Snapshot " + file + " is corrupt.");
+      long footerStart = size - 8 - 8L * segmentCount;
+      ByteBuffer offsets = ByteBuffer.allocate(8 * segmentCount);
+      channel.read(offsets, footerStart);
+      offsets.flip();
+      long[] segmentStarts = new long[segmentCount + 1];
+      for(int idx = 0; idx < segmentCount; idx++) {
+        segmentStarts[idx] = offsets.getLong();
+      }
+      segmentStarts[segmentCount] = footerStart;
+      ExecutorService decoders = Executors.newFixedThreadPool(Math.max(1, Math.min(segmentCount, Runtime.getRuntime().availableProcessors())));
+      try {
+        List<Future<Integer>> results = new ArrayList<>(segmentCount);
+        for(int idx = 0; idx < segmentCount; idx++) {
+          final MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStarts[idx], segmentStarts[idx + 1] - segmentStarts[idx]);
+          results.add(decoders.submit(new Callable<Integer>() {
+            @Override public Integer call() throws IOException {
+              int beanCount = segment.getInt();
+              for(int beanIdx = 0; beanIdx < beanCount; beanIdx++) {
+                byte[] encoded = new byte[segment.getInt()];
+                segment.get(encoded);
+                replayer.restore(getCodec().decode(encoded));
+              }
+              return Integer.valueOf(beanCount);
+            }
+          }));
+        }
+        for(Future<Integer> result : results) {
+          ret += result.get().intValue();
+        }
+      } catch(InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted reading snapshot " + file, e);
+      } catch(ExecutionException e) {
+        throw new IOException("Unable to read snapshot " + file, e.getCause());
+      } finally {
+        decoders.shutdownNow();
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Apply every intact record of the log in order, and truncate anything after the last one.
+   */
+  private int replayLog(final File file, final Replayer<T> replayer) throws IOException {
+    int ret = 0;
+    try(RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+      long size = channel.size();
+      long position = 0L;
+      ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+      while(position + RECORD_HEADER_SIZE <= size) {
+        header.clear();
+        channel.read(header, position);
+        header.flip();
+        int length = header.getInt();
+        int checksum = header.getInt();
+        if(length < 1 || position + RECORD_HEADER_SIZE + length > size) break;
+        ByteBuffer body = ByteBuffer.allocate(length);
+        channel.read(body, position + RECORD_HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+        if(checksum != (int) crc.getValue()) break;
+        byte op = body.get(0);
+        byte[] payload = new byte[length - 1];
+        System.arraycopy(body.array(), 1, payload, 0, payload.length);
+        if(OP_BATCH == op) {
+          DataInputStream batch = new DataInputStream(new ByteArrayInputStream(payload));
+          int count = batch.readInt();
+          for(int idx = 0; idx < count; idx++) {
+            byte batchOp = batch.readByte();
+            byte[] batchPayload = new byte[batch.readInt()];
+            batch.readFully(batchPayload);
+            if(!replay(batchOp, batchPayload, replayer)) throw new IOException("Unknown operation " + batchOp + " in a batch record of " + file);
+          }
+        } else if(!replay(op, payload, replayer)) {
+          break;
+        }
+        position += RECORD_HEADER_SIZE + length;
+        ret++;
+      }
+      if(position < size) {
+        Log.warn(getClass(), "replayLog", "Truncating " + (size - position) + " bytes of torn or corrupt records from the end of " + file);
+        channel.truncate(position);
+        channel.force(true);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * @return boolean false if the op is unknown
+   */
+  private boolean replay(final byte op, final byte[] payload, final Replayer<T> replayer) throws IOException {
+    boolean ret = true;
+    if(OP_PUT == op) {
+      replayer.restore(getCodec().decode(payload));
+    } else if(OP_DELETE == op) {
+      replayer.forget(new String(payload, MemoryBeanCodec.UTF8));
+    } else {
+      ret = false;
+    }
+    return ret;
+  }
+
+  private FileChannel openLog(final long logGeneration) throws IOException {
+    @SuppressWarnings("resource")
+    FileChannel ret = new RandomAccessFile(getFile(logGeneration, LOG_SUFFIX), "rw").getChannel();
+    ret.position(ret.size());
+    return ret;
+  }
+
+  private File getFile(final long fileGeneration, final String suffix) {
+    return new File(getDirectory(), getCodec().getBeanType().getName() + '.' + fileGeneration + suffix);
+  }
+
+  private List<Long> listGenerations(final String suffix) {
+    List<Long> ret = new ArrayList<>();
+    String prefix = getCodec().getBeanType().getName() + '.';
+    String[] names = getDirectory().list();
+    if(null != names) {
+      for(String name : names) {
+        if(name.startsWith(prefix) && name.endsWith(suffix)) {
+          try {
+            ret.add(Long.valueOf(name.substring(prefix.length(), name.length() - suffix.length())));
+          } catch(NumberFormatException e) {
+            // not one of ours
+          }
+        }
+      }
+    }
+    Collections.sort(ret);
+    return ret;
+  }
+
+  private void deleteGenerationsBefore(final long keepGeneration) {
+    for(Long tempGeneration : listGenerations(SNAPSHOT_SUFFIX + TEMP_SUFFIX)) {
+      // left behind by a snapshot that didn't finish
+      if(tempGeneration.longValue() <= keepGeneration) getFile(tempGeneration.longValue(), SNAPSHOT_SUFFIX + TEMP_SUFFIX).delete();
+    }
+    for(String suffix : new String[] { LOG_SUFFIX, SNAPSHOT_SUFFIX }) {
+      for(Long oldGeneration : listGenerations(suffix)) {
+        if(oldGeneration.longValue() < keepGeneration && !getFile(oldGeneration.longValue(), suffix).delete()) {
+          Log.warn(getClass(), "deleteGenerationsBefore", "Unable to delete " + getFile(oldGeneration.longValue(), suffix));
+        }
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("directory", getDirectory())
+        .append("beanType", getCodec().getBeanType())
+        .append("snapshotLogRecords", getSnapshotLogRecords())
+        .toString();
+  }
+}
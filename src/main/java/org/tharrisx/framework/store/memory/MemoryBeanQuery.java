@@ -0,0 +1,78 @@
+package org.tharrisx.framework.store.memory;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * A named query for a MemoryBeanStore, standing in for a named HQL query of the HibernateBeanStore, so the
+ * same BeanBehavior code can run against either store. Register it under its HQL counterpart's name, with
+ * MemoryBeanStoreFactory.registerQuery().
+ * 
+ * A query is compiled code rather than text. It names the properties that must equal its leading query
+ * parameters, which the store answers from its indexes where it can; then it may test each remaining
+ * candidate further, with matches(), and give the order of its results, with getComparator(). For example,
+ * the HQL "from Widget where size = ? and weight > ? order by name" might be:
+ * 
+ * <pre>
+ * new MemoryBeanQuery&lt;Widget&gt;("size") {
+ *   public boolean matches(Widget bean, Object... queryParameters) {
+ *     return bean.getWeight() &gt; (Integer) queryParameters[1];
+ *   }
+ *   public Comparator&lt;Widget&gt; getComparator() {
+ *     return BY_NAME;
+ *   }
+ * }
+ * </pre>
+ * 
+ * A query must be safe to run from many threads at once, and must not change the beans it is given.
+ * 
+ * @param <T> T extends StorableBean
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public abstract class MemoryBeanQuery<T extends StorableBean> {
+
+  private final String[] parameterProperties;
+
+  String[] getParameterProperties() {
+    return this.parameterProperties;
+  }
+
+  /**
+   * @param parameterProperties1 String... the properties that must equal the query parameters in the same
+   *          positions. A query may take more parameters than these, for matches() to use. String
+   *          parameters are adapted to their property's type, as the BeanStore's property values are.
+   */
+  protected MemoryBeanQuery(final String... parameterProperties1) {
+    this.parameterProperties = parameterProperties1.clone();
+  }
+
+  /**
+   * Test a bean that already equals every parameter property. By default, all such beans match.
+   * 
+   * @param bean T
+   * @param queryParameters Object...
+   * @return boolean
+   */
+  public boolean matches(T bean, Object... queryParameters) {
+    return true;
+  }
+
+  /**
+   * @return Comparator<T> the order of the query's results, when the caller doesn't give one; by default
+   *         null, for bean id order
+   */
+  public Comparator<T> getComparator() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this).append("parameterProperties", Arrays.asList(getParameterProperties())).toString();
+  }
+}
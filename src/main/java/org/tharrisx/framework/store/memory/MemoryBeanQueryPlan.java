@@ -0,0 +1,107 @@
+package org.tharrisx.framework.store.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.util.reflect.BeanAccessor;
+
+/**
+ * A MemoryBeanQuery compiled against its store once, when registered: the accessor of each parameter
+ * property, and which of those properties are indexed. Running the plan reads the candidate beans from the
+ * most selective of those indexes, and checks the rest of the properties with their accessors.
+ * 
+ * @param <T> T extends StorableBean
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class MemoryBeanQueryPlan<T extends StorableBean> {
+
+  private final String queryName;
+
+  String getQueryName() {
+    return this.queryName;
+  }
+
+  private final MemoryBeanQuery<T> query;
+
+  MemoryBeanQuery<T> getQuery() {
+    return this.query;
+  }
+
+  private final BeanAccessor[] accessors;
+
+  /**
+   * @return BeanAccessor[] by parameter position
+   */
+  BeanAccessor[] getAccessors() {
+    return this.accessors;
+  }
+
+  private final int[] indexedParameters;
+
+  /**
+   * @return int[] the positions of the parameters whose property is indexed
+   */
+  int[] getIndexedParameters() {
+    return this.indexedParameters;
+  }
+
+  MemoryBeanQueryPlan(final String queryName1, final MemoryBeanQuery<T> query1, final BeanAccessor[] accessors1, final Set<String> indexedProperties) {
+    this.queryName = queryName1;
+    this.query = query1;
+    this.accessors = accessors1;
+    List<Integer> indexed = new ArrayList<>(accessors1.length);
+    for(int idx = 0; idx < accessors1.length; idx++) {
+      if(indexedProperties.contains(accessors1[idx].getName())) indexed.add(idx);
+    }
+    this.indexedParameters = new int[indexed.size()];
+    for(int idx = 0; idx < this.indexedParameters.length; idx++) {
+      this.indexedParameters[idx] = indexed.get(idx).intValue();
+    }
+  }
+
+  /**
+   * @param snapshot MemoryBeanSnapshot
+   * @param values Object[] the parameter property values, already adapted
+   * @return Set<String> the ids under the most selective indexed value, or null if no parameter property
+   *         is indexed, and every bean is a candidate
+   */
+  Set<String> getCandidateIds(MemoryBeanSnapshot snapshot, Object[] values) {
+    Set<String> ret = null;
+    for(int parameter : getIndexedParameters()) {
+      Set<String> ids = snapshot.getIndexes().get(getAccessors()[parameter].getName()).getBeanIds(values[parameter]);
+      if(null == ret || ids.size() < ret.size()) ret = ids;
+      if(ret.isEmpty()) break;
+    }
+    return ret;
+  }
+
+  /**
+   * @param bean T
+   * @param values Object[] the parameter property values, already adapted
+   * @param queryParameters Object[] as given
+   * @return boolean whether the bean equals every parameter property value, and the query matches it
+   */
+  boolean matches(T bean, Object[] values, Object[] queryParameters) {
+    for(int idx = 0; idx < getAccessors().length; idx++) {
+      if(!ObjectUtils.equals(values[idx], getAccessors()[idx].get(bean))) return false;
+    }
+    return getQuery().matches(bean, queryParameters);
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("queryName", getQueryName())
+        .append("query", getQuery())
+        .append("indexedParameters", Arrays.toString(getIndexedParameters()))
+        .toString();
+  }
+}
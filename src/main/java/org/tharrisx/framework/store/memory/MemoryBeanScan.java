@@ -0,0 +1,186 @@
+package org.tharrisx.framework.store.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Scans parts of a snapshot for the beans a filter accepts, on a ForkJoinPool: the parts are split in
+ * halves until each task has one, and the results are merged back up as the tasks join.
+ * 
+ * Given a comparator, the scan keeps only the best beans: each part keeps its own in a bounded heap, and
+ * each merge takes the best of two sorted lists, so no task ever holds more than topCount beans, however
+ * many match. The number that matched is counted either way.
+ * 
+ * A second filter may narrow which of the accepted beans are kept, without changing the count, such as to
+ * keep only the beans after a keyset page's cursor.
+ * 
+ * @param <T> T extends StorableBean
+ * 
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class MemoryBeanScan<T extends StorableBean> extends RecursiveTask<MemoryBeanScan.Result<T>> {
+
+  private static final long serialVersionUID = -6480725394613825109L;
+
+  /**
+   * Which beans a scan keeps. Called from many threads at once.
+   * 
+   * @param <T> T extends StorableBean
+   */
+  interface Filter<T extends StorableBean> {
+    boolean accept(T bean);
+  }
+
+  static final class Result<T extends StorableBean> {
+
+    private final List<T> beans;
+
+    /**
+     * @return List<T> views of every accepted bean, or, given a comparator, the best of them in order
+     */
+    List<T> getBeans() {
+      return this.beans;
+    }
+
+    private final int matches;
+
+    /**
+     * @return int how many beans were accepted
+     */
+    int getMatches() {
+      return this.matches;
+    }
+
+    Result(final List<T> beans1, final int matches1) {
+      this.beans = beans1;
+      this.matches = matches1;
+    }
+  }
+
+  private final List<Iterable<Object>> parts;
+  private final int from;
+  private final int to;
+  private final MemoryBeanStorage<T> storage;
+  private final Filter<T> filter;
+  private final Filter<T> keepFilter;
+  private final Comparator<T> comparator;
+  private final int topCount;
+
+  /**
+   * @param parts1 List<Iterable<Object>> stored forms, as from MemoryBeanSnapshot.splitStoredBeans()
+   * @param storage1 MemoryBeanStorage<T> to view the stored forms with
+   * @param filter1 Filter<T>
+   * @param comparator1 Comparator<T> null to keep every accepted bean, in no particular order
+   * @param topCount1 int how many of the best beans to keep, given a comparator
+   */
+  MemoryBeanScan(final List<Iterable<Object>> parts1, final MemoryBeanStorage<T> storage1, final Filter<T> filter1, final Comparator<T> comparator1, final int topCount1) {
+    this(parts1, 0, parts1.size(), storage1, filter1, null, comparator1, topCount1);
+  }
+
+  /**
+   * @param parts1 List<Iterable<Object>> stored forms, as from MemoryBeanSnapshot.splitStoredBeans()
+   * @param storage1 MemoryBeanStorage<T> to view the stored forms with
+   * @param filter1 Filter<T>
+   * @param keepFilter1 Filter<T> which of the accepted beans to keep; null to keep them all
+   * @param comparator1 Comparator<T> null to keep every accepted bean, in no particular order
+   * @param topCount1 int how many of the best beans to keep, given a comparator
+   */
+  MemoryBeanScan(final List<Iterable<Object>> parts1, final MemoryBeanStorage<T> storage1, final Filter<T> filter1, final Filter<T> keepFilter1, final Comparator<T> comparator1, final int topCount1) {
+    this(parts1, 0, parts1.size(), storage1, filter1, keepFilter1, comparator1, topCount1);
+  }
+
+  private MemoryBeanScan(final List<Iterable<Object>> parts1, final int from1, final int to1, final MemoryBeanStorage<T> storage1, final Filter<T> filter1, final Filter<T> keepFilter1, final Comparator<T> comparator1, final int topCount1) {
+    this.parts = parts1;
+    this.from = from1;
+    this.to = to1;
+    this.storage = storage1;
+    this.filter = filter1;
+    this.keepFilter = keepFilter1;
+    this.comparator = comparator1;
+    this.topCount = topCount1;
+  }
+
+  @Override
+  protected Result<T> compute() {
+    if(this.to - this.from <= 1) return scan();
+    int middle = (this.from + this.to) >>> 1;
+    MemoryBeanScan<T> left = new MemoryBeanScan<>(this.parts, this.from, middle, this.storage, this.filter, this.keepFilter, this.comparator, this.topCount);
+    MemoryBeanScan<T> right = new MemoryBeanScan<>(this.parts, middle, this.to, this.storage, this.filter, this.keepFilter, this.comparator, this.topCount);
+    left.fork();
+    Result<T> rightResult = right.compute();
+    return merge(left.join(), rightResult);
+  }
+
+  private Result<T> scan() {
+    List<T> ret = new ArrayList<>();
+    int matches = 0;
+    if(this.from == this.to) return new Result<>(ret, matches);
+    PriorityQueue<T> topBeans = null;
+    if(null != this.comparator && 0 < this.topCount) {
+      // the heap's head is the worst of the best beans seen so far
+      topBeans = new PriorityQueue<>(this.topCount, Collections.reverseOrder(this.comparator));
+    }
+    for(Object storedBean : this.parts.get(this.from)) {
+      T bean = this.storage.view(storedBean);
+      if(!this.filter.accept(bean)) continue;
+      matches++;
+      if(null != this.keepFilter && !this.keepFilter.accept(bean)) continue;
+      if(null == this.comparator) {
+        ret.add(bean);
+      } else if(null != topBeans) {
+        if(topBeans.size() < this.topCount) {
+          topBeans.add(bean);
+        } else if(this.comparator.compare(bean, topBeans.peek()) < 0) {
+          topBeans.poll();
+          topBeans.add(bean);
+        }
+      }
+    }
+    if(null != topBeans) {
+      ret.addAll(topBeans);
+      Collections.sort(ret, this.comparator);
+    }
+    return new Result<>(ret, matches);
+  }
+
+  private Result<T> merge(Result<T> left, Result<T> right) {
+    int matches = left.getMatches() + right.getMatches();
+    if(null == this.comparator) {
+      List<T> ret = new ArrayList<>(left.getBeans().size() + right.getBeans().size());
+      ret.addAll(left.getBeans());
+      ret.addAll(right.getBeans());
+      return new Result<>(ret, matches);
+    }
+    List<T> ret = new ArrayList<>(Math.min(this.topCount, left.getBeans().size() + right.getBeans().size()));
+    int leftIdx = 0;
+    int rightIdx = 0;
+    while(ret.size() < this.topCount && (leftIdx < left.getBeans().size() || rightIdx < right.getBeans().size())) {
+      if(rightIdx == right.getBeans().size()
+          || (leftIdx < left.getBeans().size() && this.comparator.compare(left.getBeans().get(leftIdx), right.getBeans().get(rightIdx)) <= 0)) {
+        ret.add(left.getBeans().get(leftIdx++));
+      } else {
+        ret.add(right.getBeans().get(rightIdx++));
+      }
+    }
+    return new Result<>(ret, matches);
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("from", this.from)
+        .append("to", this.to)
+        .append("comparator", this.comparator)
+        .append("topCount", this.topCount)
+        .toString();
+  }
+}
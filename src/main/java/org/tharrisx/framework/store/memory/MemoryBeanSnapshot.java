@@ -0,0 +1,167 @@
+package org.tharrisx.framework.store.memory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.util.collection.PersistentHashMap;
+import org.tharrisx.util.reflect.BeanAccessor;
+
+/**
+ * One committed version of a MemoryBeanStore: its beans by id, in their stored form (see
+ * MemoryBeanStorage), and its indexes over them. Immutable; a commit makes a new snapshot sharing most of
+ * this one's structure, so a reader holding this one keeps seeing exactly this version for as long as it
+ * likes.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class MemoryBeanSnapshot {
+
+  private final long version;
+
+  /**
+   * @return long one more than the version this snapshot was committed over
+   */
+  long getVersion() {
+    return this.version;
+  }
+
+  private final PersistentHashMap<String, Object> storedBeans;
+
+  private PersistentHashMap<String, Object> getStoredBeans() {
+    return this.storedBeans;
+  }
+
+  private final Map<String, MemoryBeanIndex> indexes;
+
+  /**
+   * @return Map<String, MemoryBeanIndex> the indexes over this version of the beans, by property name
+   */
+  Map<String, MemoryBeanIndex> getIndexes() {
+    return this.indexes;
+  }
+
+  /**
+   * Built the first time it is asked for; see getColumns().
+   */
+  private volatile MemoryBeanColumns columns = null;
+
+  /**
+   * The empty first version of a store.
+   *
+   * @param indexes1 Map<String, MemoryBeanIndex> empty indexes
+   */
+  MemoryBeanSnapshot(final Map<String, MemoryBeanIndex> indexes1) {
+    this(0L, PersistentHashMap.<String, Object> empty(), indexes1);
+  }
+
+  private MemoryBeanSnapshot(final long version1, final PersistentHashMap<String, Object> storedBeans1, final Map<String, MemoryBeanIndex> indexes1) {
+    this.version = version1;
+    this.storedBeans = storedBeans1;
+    this.indexes = Collections.unmodifiableMap(indexes1);
+  }
+
+  /**
+   * @param beanId String
+   * @return Object the stored form of the bean, or null if there is none with the id
+   */
+  Object getStoredBean(final String beanId) {
+    return getStoredBeans().get(beanId);
+  }
+
+  boolean hasBean(final String beanId) {
+    return getStoredBeans().containsKey(beanId);
+  }
+
+  int size() {
+    return getStoredBeans().size();
+  }
+
+  /**
+   * @return Iterable<Object> the stored form of every bean in this version, in no particular order
+   */
+  Iterable<Object> getAllStoredBeans() {
+    return getStoredBeans().values();
+  }
+
+  /**
+   * @return List<Iterable<Object>> the stored form of every bean in this version, in disjoint parts of about
+   *         equal size, for scanning in parallel
+   */
+  List<Iterable<Object>> splitStoredBeans() {
+    return getStoredBeans().splitValues();
+  }
+
+  /**
+   * A columnar copy of this version's beans, built on first use, by whichever reader gets there first, and
+   * shared by every later one. A commit makes a new snapshot without one, so columns suit stores that are
+   * read far more often than written.
+   *
+   * @param storage MemoryBeanStorage<?> to view the stored forms with
+   * @param accessors Collection<BeanAccessor> the properties to make columns of; the same every time
+   * @return MemoryBeanColumns
+   */
+  MemoryBeanColumns getColumns(final MemoryBeanStorage<?> storage, final Collection<BeanAccessor> accessors) {
+    MemoryBeanColumns ret = this.columns;
+    if(null == ret) {
+      synchronized(this) {
+        ret = this.columns;
+        if(null == ret) {
+          String[] ids = new String[size()];
+          Object[] rows = new Object[size()];
+          int row = 0;
+          for(Map.Entry<String, Object> storedBean : getStoredBeans()) {
+            ids[row] = storedBean.getKey();
+            rows[row++] = storedBean.getValue();
+          }
+          ret = new MemoryBeanColumns(ids, rows, storage, accessors);
+          this.columns = ret;
+        }
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * The next version: this one with the writes applied.
+   *
+   * @param writes Map<String, T> the beans written, by id; a null bean is a delete
+   * @param storedBeans1 Map<String, Object> the stored forms of the non-null written beans
+   * @return MemoryBeanSnapshot
+   */
+  <T extends StorableBean> MemoryBeanSnapshot apply(final Map<String, T> writes, final Map<String, Object> storedBeans1) {
+    PersistentHashMap<String, Object> newStoredBeans = getStoredBeans();
+    Map<String, MemoryBeanIndex> newIndexes = new HashMap<>(getIndexes());
+    for(Map.Entry<String, T> write : writes.entrySet()) {
+      String beanId = write.getKey();
+      T bean = write.getValue();
+      if(null == bean) {
+        newStoredBeans = newStoredBeans.minus(beanId);
+        for(Map.Entry<String, MemoryBeanIndex> index : newIndexes.entrySet()) {
+          index.setValue(index.getValue().unindex(beanId));
+        }
+      } else {
+        newStoredBeans = newStoredBeans.plus(beanId, storedBeans1.get(beanId));
+        for(Map.Entry<String, MemoryBeanIndex> index : newIndexes.entrySet()) {
+          index.setValue(index.getValue().index(bean));
+        }
+      }
+    }
+    return new MemoryBeanSnapshot(getVersion() + 1L, newStoredBeans, newIndexes);
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("version", getVersion())
+        .append("size", size())
+        .append("indexes", getIndexes().values())
+        .toString();
+  }
+}
@@ -0,0 +1,98 @@
+package org.tharrisx.framework.store.memory;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * Tracks which snapshots of a store are still being read, so storage superseded by later commits is only
+ * reclaimed once no reader can reach it.
+ *
+ * A pin belongs to a holder, usually a transaction, and should be released when the holder is done. If it
+ * never is, as when a transaction is abandoned after a failure, the pin lapses once the holder has been
+ * garbage collected.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class MemoryBeanSnapshotPins {
+
+  static final class Pin extends WeakReference<Object> {
+
+    private final MemoryBeanSnapshot snapshot;
+
+    MemoryBeanSnapshot getSnapshot() {
+      return this.snapshot;
+    }
+
+    Pin(final Object holder, final MemoryBeanSnapshot snapshot1, final ReferenceQueue<Object> queue) {
+      super(holder, queue);
+      this.snapshot = snapshot1;
+    }
+  }
+
+  private final Set<Pin> pins = Collections.newSetFromMap(new ConcurrentHashMap<Pin, Boolean>());
+
+  private Set<Pin> getPins() {
+    return this.pins;
+  }
+
+  private final ReferenceQueue<Object> lapsedPins = new ReferenceQueue<>();
+
+  private ReferenceQueue<Object> getLapsedPins() {
+    return this.lapsedPins;
+  }
+
+  /**
+   * Pin the newest snapshot for the holder.
+   *
+   * @param holder Object
+   * @param head AtomicReference<MemoryBeanSnapshot> the store's newest snapshot
+   * @return Pin
+   */
+  Pin pin(final Object holder, final AtomicReference<MemoryBeanSnapshot> head) {
+    while(true) {
+      MemoryBeanSnapshot snapshot = head.get();
+      Pin ret = new Pin(holder, snapshot, getLapsedPins());
+      getPins().add(ret);
+      // Only keep the pin if the snapshot was still the newest once pinned. A reclaimer that missed this pin
+      // read the head before it was added, so it saw this snapshot's version or a later one, and won't
+      // have freed anything this snapshot can reach.
+      if(head.get() == snapshot) return ret;
+      unpin(ret);
+    }
+  }
+
+  void unpin(final Pin pin) {
+    getPins().remove(pin);
+    pin.clear();
+  }
+
+  /**
+   * @param head AtomicReference<MemoryBeanSnapshot> the store's newest snapshot
+   * @return long the version of the oldest snapshot any reader may still reach
+   */
+  long getOldestPinnedVersion(final AtomicReference<MemoryBeanSnapshot> head) {
+    // the head first: see pin()
+    long ret = head.get().getVersion();
+    for(Reference<?> lapsed = getLapsedPins().poll(); null != lapsed; lapsed = getLapsedPins().poll()) {
+      getPins().remove(lapsed);
+    }
+    for(Pin pin : getPins()) {
+      ret = Math.min(ret, pin.getSnapshot().getVersion());
+    }
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this).append("pinCount", getPins().size()).toString();
+  }
+}
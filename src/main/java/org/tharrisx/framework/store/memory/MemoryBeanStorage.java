@@ -0,0 +1,62 @@
+package org.tharrisx.framework.store.memory;
+
+import java.util.Collection;
+
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * How a MemoryBeanStore holds its beans. Each bean is turned into a stored form, which is what the store's
+ * snapshots map bean ids to; the stored form is turned back into a bean whenever one is read.
+ *
+ * A stored form may be reachable from old snapshots long after a commit has replaced it, so it is only
+ * released when superseded, and reclaimed later, once no pinned snapshot can reach it.
+ *
+ * @param <T> T extends StorableBean
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+interface MemoryBeanStorage<T extends StorableBean> {
+
+  /**
+   * @param bean T a bean no caller holds any more; the storage may keep it
+   * @return Object its stored form
+   */
+  Object store(T bean);
+
+  /**
+   * A bean for reading, such as for matching and sorting. It may be shared with other readers, so must not
+   * be changed.
+   *
+   * @param storedBean Object
+   * @return T
+   */
+  T view(Object storedBean);
+
+  /**
+   * A bean for reading, as view() gives, of a bean a transaction has written but not yet committed.
+   *
+   * @param writtenBean T the bean the transaction holds, which the storage doesn't have yet
+   * @return T
+   */
+  T viewWrite(T writtenBean);
+
+  /**
+   * @param view T a bean from view()
+   * @return T the same bean, that the caller may change as it likes
+   */
+  T detach(T view);
+
+  /**
+   * @param storedBeans Collection<Object> stored forms replaced or deleted by a commit
+   * @param supersededVersion long the version of the snapshot that commit made; only older snapshots can
+   *          still reach them
+   */
+  void release(Collection<Object> storedBeans, long supersededVersion);
+
+  /**
+   * @param oldestPinnedVersion long the version of the oldest snapshot any reader may still reach
+   */
+  void reclaim(long oldestPinnedVersion);
+}
@@ -1,34 +1,83 @@
 package org.tharrisx.framework.store.memory;
 
-import java.lang.reflect.Field;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.tharrisx.framework.bean.BeanList;
 import org.tharrisx.framework.bean.PageableBeanList;
-import org.tharrisx.framework.store.BeanStoreFactory;
+import org.tharrisx.framework.store.BeanIterator;
+import org.tharrisx.framework.store.BeanStoreCountStrategy;
 import org.tharrisx.framework.store.BeanStoreTransaction;
 import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.annotations.StoreIndex;
 import org.tharrisx.framework.store.core.AbstractBeanStore;
+import org.tharrisx.framework.store.core.BeanStoreCursor;
 import org.tharrisx.framework.store.core.BeanStoreStackInfo;
 import org.tharrisx.framework.store.core.BeanStoreTransactionWrapper;
 import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.framework.store.exception.ConcurrentBeanChangeException;
 import org.tharrisx.framework.store.exception.ConflictingBeansFoundException;
 import org.tharrisx.framework.store.exception.NoBeanFoundException;
+import org.tharrisx.framework.store.exception.NoSuchBeanPropertyException;
 import org.tharrisx.framework.store.exception.OperationNotSupportedException;
 import org.tharrisx.util.log.Log;
+import org.tharrisx.util.reflect.BeanAccessor;
+import org.tharrisx.util.reflect.BeanAccessorRegistry;
+import org.tharrisx.util.reflect.FieldAnnotation;
+import org.tharrisx.util.reflect.FieldAnnotationRegistry;
 
 /**
- * Simple test implementation.
+ * A BeanStore holding its beans in memory: every bean of the type, in the process, read and matched through
+ * compiled BeanAccessors rather than reflection.
  * 
- * DO NOT USE IN PRODUCTION... this class uses reflection to match bean property values against the actual beans,
- * and due to that, this impl. will be fairly slow. Also, storing all beans in memory? It's a store... use some
- * real storage, like a man.
+ * It is safe to share between threads, with snapshot isolation: every committed version of the store is an
+ * immutable MemoryBeanSnapshot, built on persistent maps that share structure between versions, and the
+ * newest is published through an atomic reference. A transaction reads only the snapshot it pinned when it
+ * began, and its own writes, so readers never block and long scans see a consistent view without copying
+ * anything. Writes are buffered in the transaction and committed together when it ends: the committer takes
+ * the striped locks of the bean ids written, checks none of those beans has changed since its snapshot, and
+ * swaps in a new snapshot with a compare-and-set, retrying the swap if commits to other beans got in first.
+ * If one of its beans did change, the first committer wins, and the later one gets a
+ * ConcurrentBeanChangeException and can retry its transaction. Writes made without a transaction commit
+ * straight away, and don't check for changes.
+ * 
+ * Matches on @StoreIndex properties are answered from hash indexes, and pages sorted by a sorted index are
+ * read off it in order; other pages are cut from the matches with a top-K heap rather than a full sort.
+ * 
+ * Given a persistence directory by its factory, it is also durable: writes go to a write-ahead log first,
+ * and the store is recovered from the log and its snapshots on startup. See MemoryBeanJournal. Without one,
+ * its beans last only as long as the process.
+ * 
+ * Named queries are compiled MemoryBeanQuery objects rather than HQL, registered with the store under the
+ * names the HibernateBeanStore knows them by, and served from the store's indexes where they can be.
+ * 
+ * Configured to be columnar, a store matches and sorts whole-store scans over columns of its simple
+ * properties instead, building beans only for the results. See MemoryBeanColumns.
+ * 
+ * Otherwise, scans of the whole store, for matches no index can answer, run in parallel on the factory's
+ * fork/join pool once the store holds enough beans to be worth splitting. See MemoryBeanScan.
+ * 
+ * Configured to keep beans off the heap, it holds them serialized in direct memory slabs instead, and
+ * decodes a copy on every read. See OffHeapMemoryBeanStorage.
  * 
  * @author tharrisx
  * @since 1.0.0
@@ -36,52 +85,547 @@ import org.tharrisx.util.log.Log;
  */
 public class MemoryBeanStore<T extends StorableBean> extends AbstractBeanStore<T> {
 
-  private abstract class MemoryBeanStoreTransactionWrapper<U> extends BeanStoreTransactionWrapper<U> {
-
-    MemoryBeanStoreTransactionWrapper(final BeanStoreFactory beanStoreFactory1, final Class<? extends StorableBean> beanType1, final String beanStoreMethod1) {
-      super(beanStoreFactory1, beanType1, beanStoreMethod1);
-    }
-
-    /**
-     * The memory impl. of BeanStore uses reflection to access the bean property values for matching. This
-     * guarantees that the Memory impl. won't be used in production, as it will be fairly slow.
-     * 
-     * @param transaction BeanStoreTransaction
-     * @param beanStoreMethod String
-     * @param bean T
-     * @param matchingPropertyEntry Map.Entry<String, String>
-     * @return boolean
-     */
-    boolean propertyMatchesValue(BeanStoreTransaction transaction, String beanStoreMethod, T bean, Map.Entry<String, String> matchingPropertyEntry) {
-      boolean ret = false;
-      BeanStoreStackInfo stackInfo = new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod);
-      try {
-        Object potentialBeanPropertyValue = getBeanType().getField(matchingPropertyEntry.getKey()).get(bean);
-        Object beanEquivValue = getBeanStoreFactory().getBeanPropertyValueAdapter().getAdaptedValue(stackInfo, matchingPropertyEntry.getKey(), matchingPropertyEntry.getValue());
-        ret = (beanEquivValue.equals(potentialBeanPropertyValue));
-        return ret;
-      } catch(IllegalAccessException e) {
-        Log.error(getClass(), "propertyMatchesValue", e);
-        throw new BeanStoreException(stackInfo, e);
-      } catch(NoSuchFieldException e) {
-        Log.error(getClass(), "propertyMatchesValue", e);
-        throw new BeanStoreException(stackInfo, e);
+  private static final String METHOD_REGISTER_QUERY = "registerQuery";
+
+  /**
+   * Adapt each String match value to the bean property's type once, up front, rather than once per bean.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param propertyValues Map<String, String>
+   * @return Map<String, Object>
+   */
+  Map<String, Object> adaptPropertyValues(BeanStoreTransaction transaction, String beanStoreMethod, Map<String, String> propertyValues) {
+    Map<String, Object> ret = new HashMap<>(propertyValues.size());
+    for(Map.Entry<String, String> propertyValue : propertyValues.entrySet()) {
+      ret.put(propertyValue.getKey(), castAsPropertyTypeValue(transaction, beanStoreMethod, propertyValue.getKey(), propertyValue.getValue()));
+    }
+    return ret;
+  }
+
+  /**
+   * Whether the bean's property values equal all the adapted values.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param bean T
+   * @param adaptedValues Map<String, Object>
+   * @return boolean
+   */
+  boolean beanMatchesValues(BeanStoreTransaction transaction, String beanStoreMethod, T bean, Map<String, Object> adaptedValues) {
+    for(Map.Entry<String, Object> adaptedValue : adaptedValues.entrySet()) {
+      Object beanPropertyValue = getBeanPropertyValue(transaction, beanStoreMethod, bean, adaptedValue.getKey());
+      if(!ObjectUtils.equals(adaptedValue.getValue(), beanPropertyValue)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Find every bean matching all the property values, in the transaction's snapshot and its own writes.
+   * The beans are views, to be detached before they are handed out.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param propertyValues Map<String, String>
+   * @return List<T> views, in no particular order
+   */
+  List<T> findMatchingBeans(BeanStoreTransaction transaction, String beanStoreMethod, Map<String, String> propertyValues) {
+    return scanMatchingBeans(transaction, beanStoreMethod, propertyValues, null, 0).getBeans();
+  }
+
+  /**
+   * Scan for the beans matching all the property values, in the transaction's snapshot and its own writes.
+   * If any of the properties is indexed, only the beans under the most selective such index are checked;
+   * otherwise every bean in the store is. See scanWithWrites().
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param propertyValues Map<String, String>
+   * @param comparator Comparator<T> null to keep every matching bean
+   * @param topCount int how many of the best beans to keep, given a comparator
+   * @return MemoryBeanScan.Result<T> views
+   */
+  MemoryBeanScan.Result<T> scanMatchingBeans(BeanStoreTransaction transaction, String beanStoreMethod, Map<String, String> propertyValues, Comparator<T> comparator, int topCount) {
+    return scanMatchingBeans(transaction, beanStoreMethod, propertyValues, null, comparator, topCount);
+  }
+
+  /**
+   * As scanMatchingBeans(), but keeping only the matching beans the keep filter accepts. All the matching
+   * beans are still counted.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param propertyValues Map<String, String>
+   * @param keepFilter MemoryBeanScan.Filter<T> null to keep every matching bean
+   * @param comparator Comparator<T> null to keep every matching bean
+   * @param topCount int how many of the best beans to keep, given a comparator
+   * @return MemoryBeanScan.Result<T> views
+   */
+  MemoryBeanScan.Result<T> scanMatchingBeans(final BeanStoreTransaction transaction, final String beanStoreMethod, Map<String, String> propertyValues, MemoryBeanScan.Filter<T> keepFilter, Comparator<T> comparator, int topCount) {
+    MemoryBeanSnapshot snapshot = getSnapshot(transaction);
+    final Map<String, Object> adaptedValues = adaptPropertyValues(transaction, beanStoreMethod, propertyValues);
+    Collection<String> candidateIds = getCandidateIds(snapshot, beanStoreMethod, adaptedValues);
+    if(null == candidateIds && null == keepFilter && null != getColumnarAccessors() && getWrites(transaction).isEmpty()) {
+      MemoryBeanScan.Result<T> ret = scanColumns(snapshot, adaptedValues, comparator, topCount);
+      if(null != ret) return ret;
+    }
+    // the index only covers one of the values
+    return scanWithWrites(transaction, candidateIds, new MemoryBeanScan.Filter<T>() {
+      @Override public boolean accept(T bean) {
+        return beanMatchesValues(transaction, beanStoreMethod, bean, adaptedValues);
       }
+    }, keepFilter, comparator, topCount);
+  }
+
+  /**
+   * The ids of the beans that may match all the adapted values, from the most selective index on any
+   * of their properties.
+   * 
+   * @param snapshot MemoryBeanSnapshot
+   * @param beanStoreMethod String
+   * @param adaptedValues Map<String, Object>
+   * @return Collection<String> null if none of the properties is indexed, and every bean may match
+   */
+  Collection<String> getCandidateIds(MemoryBeanSnapshot snapshot, String beanStoreMethod, Map<String, Object> adaptedValues) {
+    Collection<String> ret = null;
+    for(Map.Entry<String, Object> adaptedValue : adaptedValues.entrySet()) {
+      MemoryBeanIndex index = snapshot.getIndexes().get(adaptedValue.getKey());
+      if(null != index) {
+        Set<String> ids = index.getBeanIds(adaptedValue.getValue());
+        if(null == ret || ids.size() < ret.size()) {
+          ret = ids;
+        }
+        if(ret.isEmpty()) break;
+      }
+    }
+    if(null != ret && Log.isDebugEnabled(getClass())) Log.debug(getClass(), beanStoreMethod, "Using an index, with " + ret.size() + " candidate beans.");
+    return ret;
+  }
+
+  /**
+   * Adapt a registered query's String parameters to the types of the properties they are matched against.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param plan MemoryBeanQueryPlan<T>
+   * @param queryName String
+   * @param queryParameters Object[]
+   * @return Object[] one value per property the query's plan names
+   */
+  Object[] adaptQueryParameters(BeanStoreTransaction transaction, String beanStoreMethod, MemoryBeanQueryPlan<T> plan, String queryName, Object[] queryParameters) {
+    BeanAccessor[] accessors = plan.getAccessors();
+    if(queryParameters.length < accessors.length) {
+      throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod), "Query " + queryName + " needs at least " + accessors.length + " parameters.");
+    }
+    Object[] ret = new Object[accessors.length];
+    for(int idx = 0; idx < accessors.length; idx++) {
+      Object queryParameter = queryParameters[idx];
+      if(queryParameter instanceof String && String.class != accessors[idx].getType()) {
+        queryParameter = castAsPropertyTypeValue(transaction, beanStoreMethod, accessors[idx].getName(), (String) queryParameter);
+      }
+      ret[idx] = queryParameter;
+    }
+    return ret;
+  }
+
+  /**
+   * Scan for the beans a registered query matches, in the transaction's snapshot and its own writes. See
+   * scanWithWrites().
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param queryName String
+   * @param queryParameters Object[]
+   * @param comparator Comparator<T> null to keep every matching bean
+   * @param topCount int how many of the best beans to keep, given a comparator
+   * @return MemoryBeanScan.Result<T> views
+   */
+  MemoryBeanScan.Result<T> scanQueryBeans(BeanStoreTransaction transaction, String beanStoreMethod, String queryName, final Object[] queryParameters, Comparator<T> comparator, int topCount) {
+    final MemoryBeanQueryPlan<T> plan = getQueryPlan(transaction, beanStoreMethod, queryName);
+    final Object[] values = adaptQueryParameters(transaction, beanStoreMethod, plan, queryName, queryParameters);
+    Set<String> candidateIds = plan.getCandidateIds(getSnapshot(transaction), values);
+    if(null != candidateIds && Log.isDebugEnabled(getClass())) Log.debug(getClass(), beanStoreMethod, "Query " + queryName + " using an index, with " + candidateIds.size() + " candidate beans.");
+    return scanWithWrites(transaction, candidateIds, new MemoryBeanScan.Filter<T>() {
+      @Override public boolean accept(T bean) {
+        return plan.matches(bean, values, queryParameters);
+      }
+    }, null, comparator, topCount);
+  }
+
+  /**
+   * Read a bean property value, whichever class in the bean's hierarchy declares it.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param bean T
+   * @param propertyName String
+   * @return Object
+   */
+  Object getBeanPropertyValue(BeanStoreTransaction transaction, String beanStoreMethod, T bean, String propertyName) {
+    return getBeanPropertyAccessor(transaction, beanStoreMethod, propertyName).get(bean);
+  }
+
+  /**
+   * The compiled accessor for a bean property, whichever class in the bean's hierarchy declares it.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param propertyName String
+   * @return BeanAccessor
+   */
+  BeanAccessor getBeanPropertyAccessor(BeanStoreTransaction transaction, String beanStoreMethod, String propertyName) {
+    try {
+      return BeanAccessorRegistry.get().getAccessor(getBeanType(), propertyName);
+    } catch(NoSuchFieldException e) {
+      Log.error(getClass(), "getBeanPropertyAccessor", e);
+      throw new NoSuchBeanPropertyException(new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod), e);
     }
   }
 
   // properties
 
-  private final Map<String, T> cache = new HashMap<>();
+  private final MemoryBeanCodec<T> codec;
 
-  Map<String, T> getCache() {
-    return this.cache;
+  MemoryBeanCodec<T> getCodec() {
+    return this.codec;
+  }
+
+  private final MemoryBeanStorage<T> storage;
+
+  /**
+   * @return MemoryBeanStorage<T> how the beans are held, on or off the heap as the factory was configured
+   */
+  MemoryBeanStorage<T> getStorage() {
+    return this.storage;
+  }
+
+  private final StripedLocks writeLocks = new StripedLocks();
+
+  StripedLocks getWriteLocks() {
+    return this.writeLocks;
+  }
+
+  private final AtomicReference<MemoryBeanSnapshot> head;
+
+  /**
+   * @return AtomicReference<MemoryBeanSnapshot> the newest committed snapshot
+   */
+  AtomicReference<MemoryBeanSnapshot> getHead() {
+    return this.head;
+  }
+
+  private final MemoryBeanSnapshotPins pins = new MemoryBeanSnapshotPins();
+
+  MemoryBeanSnapshotPins getPins() {
+    return this.pins;
+  }
+
+  private final ForkJoinPool scanPool;
+
+  /**
+   * @return ForkJoinPool the factory's pool for parallel scans, or null if scans never run in parallel
+   */
+  ForkJoinPool getScanPool() {
+    return this.scanPool;
+  }
+
+  private final int parallelScanThreshold;
+
+  int getParallelScanThreshold() {
+    return this.parallelScanThreshold;
+  }
+
+  private final Map<String, BeanAccessor> columnarAccessors;
+
+  /**
+   * @return Map<String, BeanAccessor> the properties kept in columns, by name, or null if the store isn't
+   *         columnar
+   */
+  Map<String, BeanAccessor> getColumnarAccessors() {
+    return this.columnarAccessors;
+  }
+
+  private final ConcurrentMap<String, MemoryBeanQueryPlan<T>> queryPlans = new ConcurrentHashMap<>();
+
+  /**
+   * @return ConcurrentMap<String, MemoryBeanQueryPlan<T>> the registered queries, compiled, by name
+   */
+  ConcurrentMap<String, MemoryBeanQueryPlan<T>> getQueryPlans() {
+    return this.queryPlans;
+  }
+
+  private final MemoryBeanJournal<T> journal;
+
+  /**
+   * @return MemoryBeanJournal<T> the write-ahead log making this store durable, or null if it isn't
+   */
+  MemoryBeanJournal<T> getJournal() {
+    return this.journal;
   }
 
   // constructor
 
   MemoryBeanStore(final MemoryBeanStoreFactory beanStoreFactory1, final Class<T> beanType1) {
     super(beanStoreFactory1, beanType1);
+    this.codec = new MemoryBeanCodec<>(beanStoreFactory1, beanType1);
+    this.scanPool = beanStoreFactory1.getScanPool();
+    this.parallelScanThreshold = beanStoreFactory1.getParallelScanThreshold();
+    if(beanStoreFactory1.isColumnar()) {
+      Map<String, BeanAccessor> columnar = new HashMap<>();
+      for(BeanAccessor accessor : BeanAccessorRegistry.get().getAccessors(beanType1).values()) {
+        if(MemoryBeanColumns.isColumnar(accessor.getType())) columnar.put(accessor.getName(), accessor);
+      }
+      this.columnarAccessors = Collections.unmodifiableMap(columnar);
+    } else {
+      this.columnarAccessors = null;
+    }
+    if(beanStoreFactory1.isOffHeap()) {
+      this.storage = new OffHeapMemoryBeanStorage<>(this.codec, beanStoreFactory1.getOffHeapSlabSize(), beanStoreFactory1.isOffHeapCompression());
+    } else {
+      this.storage = new HeapMemoryBeanStorage<>(this.codec);
+    }
+    Map<String, MemoryBeanIndex> indexes = new HashMap<>();
+    for(FieldAnnotation<? extends Annotation> fieldAnnotation : FieldAnnotationRegistry.get().getAnnotatedFields(beanType1, StoreIndex.class)) {
+      BeanAccessor accessor = getBeanPropertyAccessor(null, Log.METHOD_NAME_CONSTRUCTOR, fieldAnnotation.getField().getName());
+      MemoryBeanIndex index = new MemoryBeanIndex(accessor, ((StoreIndex) fieldAnnotation.getAnnotation()).sorted());
+      indexes.put(index.getPropertyName(), index);
+    }
+    this.head = new AtomicReference<>(new MemoryBeanSnapshot(indexes));
+    if(null == beanStoreFactory1.getPersistenceDirectory()) {
+      this.journal = null;
+    } else {
+      this.journal = new MemoryBeanJournal<>(beanStoreFactory1.getPersistenceDirectory(), this.codec, beanStoreFactory1.getSnapshotLogRecords());
+      try {
+        this.journal.open(new MemoryBeanJournal.Replayer<T>() {
+          @Override public void restore(T bean) {
+            commit(null, Log.METHOD_NAME_CONSTRUCTOR, Collections.singletonMap(bean.getId(), bean), null, false);
+          }
+
+          @Override public void forget(String beanId) {
+            commit(null, Log.METHOD_NAME_CONSTRUCTOR, Collections.<String, T> singletonMap(beanId, null), null, false);
+          }
+        }, getJournalSnapshotSource());
+      } catch(IOException e) {
+        throw new BeanStoreException(new BeanStoreStackInfo(beanType1, null, Log.METHOD_NAME_CONSTRUCTOR), e);
+      }
+    }
+  }
+
+  /**
+   * Stop journaling, if this store is durable. Writes after this fail.
+   */
+  void close() {
+    if(null != getJournal()) getJournal().close();
+  }
+
+  /**
+   * Register a named query, for getAllBeansViaQuery() and getPageOfBeansViaQuery(). It is compiled against
+   * this store's indexes now, replacing any query already registered under the name.
+   * 
+   * @param queryName String
+   * @param query MemoryBeanQuery<T>
+   * @throws NoSuchBeanPropertyException if one of the query's parameter properties isn't a bean property
+   */
+  public void registerQuery(String queryName, MemoryBeanQuery<T> query) throws NoSuchBeanPropertyException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_REGISTER_QUERY, queryName, query);
+    try {
+      String[] parameterProperties = query.getParameterProperties();
+      BeanAccessor[] accessors = new BeanAccessor[parameterProperties.length];
+      for(int idx = 0; idx < parameterProperties.length; idx++) {
+        accessors[idx] = getBeanPropertyAccessor(null, METHOD_REGISTER_QUERY, parameterProperties[idx]);
+      }
+      MemoryBeanQueryPlan<T> plan = new MemoryBeanQueryPlan<>(queryName, query, accessors, getHead().get().getIndexes().keySet());
+      getQueryPlans().put(queryName, plan);
+      if(Log.isDebugEnabled(getClass())) Log.debug(getClass(), METHOD_REGISTER_QUERY, "Query registered: " + plan);
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_REGISTER_QUERY);
+    }
+  }
+
+  MemoryBeanQueryPlan<T> getQueryPlan(BeanStoreTransaction transaction, String beanStoreMethod, String queryName) {
+    MemoryBeanQueryPlan<T> ret = getQueryPlans().get(queryName);
+    if(null == ret) {
+      throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod), "No query named " + queryName + " is registered with the MemoryBeanStore.");
+    }
+    return ret;
+  }
+
+  /**
+   * Pin the newest snapshot, so the storage it reaches isn't reclaimed while the holder reads it.
+   *
+   * @param holder Object usually a transaction; if it is garbage collected, the pin lapses
+   * @return MemoryBeanSnapshotPins.Pin
+   */
+  MemoryBeanSnapshotPins.Pin pinSnapshot(Object holder) {
+    return getPins().pin(holder, getHead());
+  }
+
+  /**
+   * Storage the snapshot alone could reach is reclaimed with the next commit.
+   *
+   * @param pin MemoryBeanSnapshotPins.Pin
+   */
+  void unpinSnapshot(MemoryBeanSnapshotPins.Pin pin) {
+    getPins().unpin(pin);
+  }
+
+  /**
+   * @param transaction BeanStoreTransaction
+   * @return MemoryBeanSnapshot the snapshot the transaction reads this store from
+   */
+  MemoryBeanSnapshot getSnapshot(BeanStoreTransaction transaction) {
+    return ((MemoryBeanStoreTransaction) transaction).getScope(this).getSnapshot();
+  }
+
+  /**
+   * What the transaction has written to this store and not yet committed, which its reads see in place of
+   * its snapshot's beans of the same ids.
+   *
+   * @param transaction BeanStoreTransaction
+   * @return Map<String, T> the beans written, by id; a null bean is a delete
+   */
+  Map<String, T> getWrites(BeanStoreTransaction transaction) {
+    return ((MemoryBeanStoreTransaction) transaction).getScope(this).getWrites();
+  }
+
+  /**
+   * @param transaction BeanStoreTransaction
+   * @param beanId String
+   * @return T a view of the bean as the transaction sees it, or null if it doesn't
+   */
+  T getView(BeanStoreTransaction transaction, String beanId) {
+    Map<String, T> writes = getWrites(transaction);
+    if(writes.containsKey(beanId)) {
+      T writtenBean = writes.get(beanId);
+      return null == writtenBean ? null : getStorage().viewWrite(writtenBean);
+    }
+    Object storedBean = getSnapshot(transaction).getStoredBean(beanId);
+    return null == storedBean ? null : getStorage().view(storedBean);
+  }
+
+  /**
+   * Commit writes as one new snapshot. The bean ids' write locks are held from the change check, through
+   * the log append, to the snapshot swap, so the log and the snapshots agree on the order of the writes to
+   * each bean. Only the swap itself is retried, when commits to other beans get in first.
+   *
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param writes Map<String, T> the beans written, by id; a null bean is a delete. The store keeps the
+   *          beans.
+   * @param readSnapshot MemoryBeanSnapshot the snapshot the writes were made against; null to skip the check
+   *          that no written bean has changed since
+   * @param journaled boolean false when replaying the journal itself
+   * @return int how many of the written beans already existed
+   */
+  int commit(BeanStoreTransaction transaction, String beanStoreMethod, Map<String, T> writes, MemoryBeanSnapshot readSnapshot, boolean journaled) {
+    int ret = 0;
+    if(writes.isEmpty()) return ret;
+    long logPosition = 0L;
+    List<ReentrantLock> locks = getWriteLocks().getLocks(writes.keySet());
+    for(ReentrantLock lock : locks) {
+      lock.lock();
+    }
+    try {
+      MemoryBeanSnapshot current = getHead().get();
+      Map<String, T> changes = new LinkedHashMap<>(writes.size());
+      List<Object> supersededBeans = new ArrayList<>(writes.size());
+      for(Map.Entry<String, T> write : writes.entrySet()) {
+        Object storedBean = current.getStoredBean(write.getKey());
+        if(null != readSnapshot && storedBean != readSnapshot.getStoredBean(write.getKey())) {
+          throw new ConcurrentBeanChangeException(new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod), write.getKey());
+        }
+        if(null != storedBean) supersededBeans.add(storedBean);
+        // deleting what isn't there changes nothing
+        if(null != storedBean || null != write.getValue()) changes.put(write.getKey(), write.getValue());
+      }
+      ret = supersededBeans.size();
+      if(changes.isEmpty()) return ret;
+      Map<String, Object> storedBeans = new HashMap<>(changes.size());
+      boolean published = false;
+      try {
+        for(Map.Entry<String, T> change : changes.entrySet()) {
+          if(null != change.getValue()) storedBeans.put(change.getKey(), getStorage().store(change.getValue()));
+        }
+        // log before publishing, so a failed log write leaves the store unchanged
+        if(journaled && null != getJournal()) logPosition = getJournal().logCommit(changes);
+        MemoryBeanSnapshot next = null;
+        do {
+          current = getHead().get();
+          next = current.apply(changes, storedBeans);
+        } while(!getHead().compareAndSet(current, next));
+        published = true;
+        getStorage().release(supersededBeans, next.getVersion());
+      } catch(IOException e) {
+        throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod), e);
+      } finally {
+        // never reachable from any snapshot, so free to reclaim at once
+        if(!published) getStorage().release(storedBeans.values(), 0L);
+      }
+    } finally {
+      for(int idx = locks.size() - 1; idx >= 0; idx--) {
+        locks.get(idx).unlock();
+      }
+    }
+    getStorage().reclaim(getPins().getOldestPinnedVersion(getHead()));
+    awaitDurable(transaction, beanStoreMethod, logPosition);
+    return ret;
+  }
+
+  /**
+   * What the journal writes its snapshots from: every bean of a snapshot pinned with all the write locks
+   * held, so every commit the journal logged before it asked is already in it.
+   *
+   * @return Iterable<T>
+   */
+  private Iterable<T> getJournalSnapshotSource() {
+    return new Iterable<T>() {
+      @Override public Iterator<T> iterator() {
+        return new Iterator<T>() {
+          private final MemoryBeanSnapshotPins.Pin pin = pinSnapshotBetweenCommits(this);
+          private final Iterator<Object> storedBeans = this.pin.getSnapshot().getAllStoredBeans().iterator();
+
+          @Override public boolean hasNext() {
+            boolean ret = this.storedBeans.hasNext();
+            if(!ret) unpinSnapshot(this.pin);
+            return ret;
+          }
+
+          @Override public T next() {
+            return getStorage().view(this.storedBeans.next());
+          }
+
+          @Override public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+    };
+  }
+
+  private MemoryBeanSnapshotPins.Pin pinSnapshotBetweenCommits(Object holder) {
+    List<ReentrantLock> locks = getWriteLocks().getAllLocks();
+    for(ReentrantLock lock : locks) {
+      lock.lock();
+    }
+    try {
+      return pinSnapshot(holder);
+    } finally {
+      for(int idx = locks.size() - 1; idx >= 0; idx--) {
+        locks.get(idx).unlock();
+      }
+    }
+  }
+
+  /**
+   * @param views List<T>
+   * @return List<T> beans the caller may change as it likes
+   */
+  List<T> detach(List<T> views) {
+    List<T> ret = new ArrayList<>(views.size());
+    for(T view : views) {
+      ret.add(getStorage().detach(view));
+    }
+    return ret;
   }
 
   // BeanStore implementation
@@ -91,10 +635,11 @@ public class MemoryBeanStore<T extends StorableBean> extends AbstractBeanStore<T
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_HAS_BEAN, beanId);
     boolean ret = false;
     try {
-      ret = new MemoryBeanStoreTransactionWrapper<Boolean>(getBeanStoreFactory(), getBeanType(), METHOD_HAS_BEAN) {
+      ret = new BeanStoreTransactionWrapper<Boolean>(getBeanStoreFactory(), getBeanType(), METHOD_HAS_BEAN) {
         @Override
         protected Boolean perform(BeanStoreTransaction transaction) throws BeanStoreException {
-          return getCache().containsKey(beanId);
+          Map<String, T> writes = getWrites(transaction);
+          return writes.containsKey(beanId) ? null != writes.get(beanId) : getSnapshot(transaction).hasBean(beanId);
         }
       }.handle().booleanValue();
       return ret;
@@ -108,18 +653,11 @@ public class MemoryBeanStore<T extends StorableBean> extends AbstractBeanStore<T
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_HAS_BEAN_BY_UNIQUE_KEY, propertyValues);
     boolean ret = false;
     try {
-      ret = new MemoryBeanStoreTransactionWrapper<Boolean>(getBeanStoreFactory(), getBeanType(), METHOD_HAS_BEAN) {
+      ret = new BeanStoreTransactionWrapper<Boolean>(getBeanStoreFactory(), getBeanType(), METHOD_HAS_BEAN) {
         @Override
         protected Boolean perform(BeanStoreTransaction transaction) throws BeanStoreException {
           Boolean retInner = Boolean.FALSE;
-          int matches = 0;
-          outer: for(T bean : getCache().values()) {
-            for(Map.Entry<String, String> propertyValue : propertyValues.entrySet()) {
-              if(!propertyMatchesValue(transaction, METHOD_HAS_BEAN_BY_UNIQUE_KEY, bean, propertyValue))
-                continue outer;
-            }
-            matches++;
-          }
+          int matches = findMatchingBeans(transaction, METHOD_HAS_BEAN_BY_UNIQUE_KEY, propertyValues).size();
           if(matches == 1) {
             retInner = true;
           } else if(matches > 1) {
@@ -139,14 +677,15 @@ public class MemoryBeanStore<T extends StorableBean> extends AbstractBeanStore<T
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEAN, beanId);
     T ret = null;
     try {
-      ret = new MemoryBeanStoreTransactionWrapper<T>(getBeanStoreFactory(), getBeanType(), METHOD_GET_BEAN) {
+      ret = new BeanStoreTransactionWrapper<T>(getBeanStoreFactory(), getBeanType(), METHOD_GET_BEAN) {
         @Override
         protected T perform(BeanStoreTransaction transaction) throws BeanStoreException {
           T retInner = null;
-          retInner = getCache().get(beanId);
-          if(null == retInner) {
+          T view = getView(transaction, beanId);
+          if(null == view) {
             throw new NoBeanFoundException(new BeanStoreStackInfo(getBeanType(), transaction, "getBean"), beanId);
           }
+          retInner = getStorage().detach(view);
           return retInner;
         }
       }.handle();
@@ -156,24 +695,43 @@ public class MemoryBeanStore<T extends StorableBean> extends AbstractBeanStore<T
     }
   }
 
+  @Override
+  public BeanList<T> getBeans(final Collection<String> beanIds) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEANS, beanIds);
+    BeanList<T> ret = null;
+    try {
+      ret = new BeanStoreTransactionWrapper<BeanList<T>>(getBeanStoreFactory(), getBeanType(), METHOD_GET_BEANS) {
+        @Override
+        protected BeanList<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
+          List<T> items = new ArrayList<>(beanIds.size());
+          for(String beanId : new LinkedHashSet<>(beanIds)) {
+            T view = getView(transaction, beanId);
+            if(null != view) {
+              items.add(getStorage().detach(view));
+            }
+          }
+          return new BeanList<>(items);
+        }
+      }.handle();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEANS, ret);
+    }
+  }
+
   @Override
   public T getBeanByUniqueKey(final Map<String, String> propertyValues) throws NoBeanFoundException, ConflictingBeansFoundException, BeanStoreException {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEAN_BY_UNIQUE_KEY, propertyValues);
     T ret = null;
     try {
-      ret = new MemoryBeanStoreTransactionWrapper<T>(getBeanStoreFactory(), getBeanType(), METHOD_GET_BEAN_BY_UNIQUE_KEY) {
+      ret = new BeanStoreTransactionWrapper<T>(getBeanStoreFactory(), getBeanType(), METHOD_GET_BEAN_BY_UNIQUE_KEY) {
         @Override
         protected T perform(BeanStoreTransaction transaction) throws BeanStoreException {
           T retInner = null;
-          int matches = 0;
-          outer: for(T bean : getCache().values()) {
-            for(Map.Entry<String, String> propertyValue : propertyValues.entrySet()) {
-              if(!propertyMatchesValue(transaction, METHOD_GET_BEAN_BY_UNIQUE_KEY, bean, propertyValue))
-                continue outer;
-            }
-            if(null != bean)
-              retInner = bean;
-            matches++;
+          List<T> matchingBeans = findMatchingBeans(transaction, METHOD_GET_BEAN_BY_UNIQUE_KEY, propertyValues);
+          int matches = matchingBeans.size();
+          if(matches == 1) {
+            retInner = getStorage().detach(matchingBeans.get(0));
           }
           if(matches > 1) {
             throw new ConflictingBeansFoundException(new BeanStoreStackInfo(getBeanType(), transaction, METHOD_GET_BEAN_BY_UNIQUE_KEY), matches, propertyValues);
@@ -193,19 +751,12 @@ public class MemoryBeanStore<T extends StorableBean> extends AbstractBeanStore<T
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_ALL_MATCHING_BEANS, propertyValues);
     BeanList<T> ret = null;
     try {
-      ret = new MemoryBeanStoreTransactionWrapper<BeanList<T>>(getBeanStoreFactory(), getBeanType(), METHOD_GET_ALL_MATCHING_BEANS) {
+      ret = new BeanStoreTransactionWrapper<BeanList<T>>(getBeanStoreFactory(), getBeanType(), METHOD_GET_ALL_MATCHING_BEANS) {
         @Override
         protected BeanList<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
           BeanList<T> retInner = null;
-          List<T> list = new LinkedList<>();
-          outer: for(T bean : getCache().values()) {
-            for(Map.Entry<String, String> propertyValue : propertyValues.entrySet()) {
-              if(!propertyMatchesValue(transaction, METHOD_GET_ALL_MATCHING_BEANS, bean, propertyValue))
-                continue outer;
-            }
-            list.add(bean);
-          }
-          retInner = new BeanList<>(list);
+          List<T> list = findMatchingBeans(transaction, METHOD_GET_ALL_MATCHING_BEANS, propertyValues);
+          retInner = new BeanList<>(detach(list));
           return retInner;
         }
       }.handle();
@@ -216,74 +767,128 @@ public class MemoryBeanStore<T extends StorableBean> extends AbstractBeanStore<T
   }
 
   @Override
-  public BeanList<T> getAllBeansViaQuery(String queryName, Object... queryParameters) throws BeanStoreException {
-    throw new OperationNotSupportedException(new BeanStoreStackInfo(getBeanType(), null, METHOD_GET_ALL_BEANS_VIA_QUERY), "Named queries are not supported by the MemoryBeanStore.");
+  public BeanList<T> getAllBeansViaQuery(final String queryName, final Object... queryParameters) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_ALL_BEANS_VIA_QUERY, queryName, queryParameters);
+    BeanList<T> ret = null;
+    try {
+      ret = new BeanStoreTransactionWrapper<BeanList<T>>(getBeanStoreFactory(), getBeanType(), METHOD_GET_ALL_BEANS_VIA_QUERY) {
+        @Override
+        protected BeanList<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
+          BeanList<T> retInner = null;
+          List<T> list = scanQueryBeans(transaction, METHOD_GET_ALL_BEANS_VIA_QUERY, queryName, queryParameters, null, 0).getBeans();
+          Comparator<T> comparator = getQueryPlan(transaction, METHOD_GET_ALL_BEANS_VIA_QUERY, queryName).getQuery().getComparator();
+          if(null != comparator) Collections.sort(list, comparator);
+          retInner = new BeanList<>(detach(list));
+          return retInner;
+        }
+      }.handle();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_ALL_BEANS_VIA_QUERY, ret);
+    }
+  }
+
+  /**
+   * Streams from the newest snapshot, which the iterator pins until closed, whether or not a transaction
+   * is under way, and the transaction's own writes, as they were when the stream began.
+   */
+  @Override
+  public BeanIterator<T> streamMatchingBeans(final Map<String, String> propertyValues) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_STREAM_MATCHING_BEANS, propertyValues);
+    BeanIterator<T> ret = null;
+    try {
+      ret = new BeanStoreTransactionWrapper<BeanIterator<T>>(getBeanStoreFactory(), getBeanType(), METHOD_STREAM_MATCHING_BEANS) {
+        @Override
+        protected BeanIterator<T> perform(final BeanStoreTransaction transaction) throws BeanStoreException {
+          final Map<String, Object> adaptedValues = adaptPropertyValues(transaction, METHOD_STREAM_MATCHING_BEANS, propertyValues);
+          MemoryBeanIterator<T> retInner = new MemoryBeanIterator<>(MemoryBeanStore.this);
+          try {
+            Collection<String> candidateIds = getCandidateIds(retInner.getSnapshot(), METHOD_STREAM_MATCHING_BEANS, adaptedValues);
+            retInner.open(getStoredBeans(retInner.getSnapshot(), candidateIds), copyWrites(transaction), new MemoryBeanScan.Filter<T>() {
+              @Override public boolean accept(T bean) {
+                return beanMatchesValues(transaction, METHOD_STREAM_MATCHING_BEANS, bean, adaptedValues);
+              }
+            });
+          } catch(RuntimeException e) {
+            retInner.close();
+            throw e;
+          }
+          return retInner;
+        }
+      }.handle();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_STREAM_MATCHING_BEANS, ret);
+    }
+  }
+
+  /**
+   * Streams from the newest snapshot, as streamMatchingBeans() does.
+   */
+  @Override
+  public BeanIterator<T> streamBeansViaQuery(final String queryName, final Object... queryParameters) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_STREAM_BEANS_VIA_QUERY, queryName, queryParameters);
+    BeanIterator<T> ret = null;
+    try {
+      ret = new BeanStoreTransactionWrapper<BeanIterator<T>>(getBeanStoreFactory(), getBeanType(), METHOD_STREAM_BEANS_VIA_QUERY) {
+        @Override
+        protected BeanIterator<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
+          final MemoryBeanQueryPlan<T> plan = getQueryPlan(transaction, METHOD_STREAM_BEANS_VIA_QUERY, queryName);
+          final Object[] values = adaptQueryParameters(transaction, METHOD_STREAM_BEANS_VIA_QUERY, plan, queryName, queryParameters);
+          MemoryBeanIterator<T> retInner = new MemoryBeanIterator<>(MemoryBeanStore.this);
+          try {
+            retInner.open(getStoredBeans(retInner.getSnapshot(), plan.getCandidateIds(retInner.getSnapshot(), values)), copyWrites(transaction), new MemoryBeanScan.Filter<T>() {
+              @Override public boolean accept(T bean) {
+                return plan.matches(bean, values, queryParameters);
+              }
+            });
+          } catch(RuntimeException e) {
+            retInner.close();
+            throw e;
+          }
+          return retInner;
+        }
+      }.handle();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_STREAM_BEANS_VIA_QUERY, ret);
+    }
   }
 
   @Override
-  public PageableBeanList<T> getPageOfMatchingBeans(final int start, final int end, final String sortBy, final String sortDirection, final Map<String, String> propertyValues) throws BeanStoreException {
+  public PageableBeanList<T> getPageOfMatchingBeans(final int start, final int end, final String sortBy, final String sortDirection, final Map<String, String> propertyValues, final BeanStoreCountStrategy countStrategy) throws BeanStoreException {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_PAGE_OF_MATCHING_BEANS, propertyValues);
     PageableBeanList<T> ret = null;
     try {
-      ret = new MemoryBeanStoreTransactionWrapper<PageableBeanList<T>>(getBeanStoreFactory(), getBeanType(), METHOD_GET_PAGE_OF_MATCHING_BEANS) {
+      ret = new BeanStoreTransactionWrapper<PageableBeanList<T>>(getBeanStoreFactory(), getBeanType(), METHOD_GET_PAGE_OF_MATCHING_BEANS) {
         @Override
         protected PageableBeanList<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
           PageableBeanList<T> retInner = null;
-          List<T> list = new LinkedList<>();
-          int matches = 0;
-          outer: for(T bean : getCache().values()) {
-            for(Map.Entry<String, String> propertyValue : propertyValues.entrySet()) {
-              if(!propertyMatchesValue(transaction, METHOD_GET_PAGE_OF_MATCHING_BEANS, bean, propertyValue))
-                continue outer;
-            }
-            list.add(bean);
-            matches++;
+          MemoryBeanComparator<T> comparator = new MemoryBeanComparator<>(MemoryBeanStore.this, transaction, METHOD_GET_PAGE_OF_MATCHING_BEANS, sortBy, sortDirection);
+          MemoryBeanSnapshot snapshot = getSnapshot(transaction);
+          MemoryBeanIndex sortIndex = null;
+          // the index doesn't have the transaction's own writes
+          if(propertyValues.isEmpty() && null != comparator.getPrimarySortField() && getWrites(transaction).isEmpty()) {
+            sortIndex = snapshot.getIndexes().get(comparator.getPrimarySortField());
           }
-          final String[] sortFields = sortBy.split(",");
-          final String[] sortOrders = sortDirection.split(",");
-          if(sortFields.length != sortOrders.length) throw new IllegalArgumentException("sortBy and sortDirection must contain the same number of values");
-          Collections.sort(list, new Comparator<T>() {
-            @SuppressWarnings({ "rawtypes", "unchecked" })
-            @Override public int compare(T o1, T o2) {
-              int retCmp = 0;
-              Class<?> clazz = o1.getClass();
-              for(int idx = 0; idx < sortFields.length; idx++) {
-                Field field = null;
-                try {
-                  field = clazz.getDeclaredField(sortFields[idx]);
-                } catch(NoSuchFieldException | SecurityException e1) {
-                  throw new IllegalArgumentException("sortBy contains no field named " + sortFields[idx]);
-                }
-                Comparable v1 = null;
-                Comparable v2 = null;
-                try {
-                  v1 = (Comparable<?>)field.get(o1);
-                  v2 = (Comparable<?>)field.get(o2);
-                } catch(IllegalArgumentException | IllegalAccessException e) {
-                  throw new IllegalArgumentException("Access to sortBy field named " + sortFields[idx] + " is disallowed");
-                }
-                if("ASCENDING".equalsIgnoreCase(sortOrders[idx]) || "ASC".equalsIgnoreCase(sortOrders[idx])) {
-                  retCmp = v1.compareTo(v2);
-                } else {
-                  retCmp = v2.compareTo(v1);
-                }
-              }
-              return retCmp;
-            }
-          });
-          if(Log.isDebugEnabled(getClass())) Log.debug(getClass(), METHOD_GET_PAGE_OF_MATCHING_BEANS, "list: " + list + ", matches: " + matches);
           List<T> page = null;
-          if(list.size() < start) {
-            page = new LinkedList<>(); // start is past the end of the list, return an empty page
+          int matches = 0;
+          if(null != sortIndex && sortIndex.isSorted()) {
+            // every bean matches, and the index already has them in order
+            matches = snapshot.size();
+            page = getPageFromSortedIndex(snapshot, sortIndex, comparator, start, end);
           } else {
-            int localEnd = end;
-            if(localEnd > list.size()) {
-              localEnd = list.size(); // end is past the end of the list, return a short page
-            }
-            page = list.subList(start, localEnd);
+            MemoryBeanScan.Result<T> result = scanMatchingBeans(transaction, METHOD_GET_PAGE_OF_MATCHING_BEANS, propertyValues, comparator, end + 1);
+            matches = result.getMatches();
+            page = getPage(result.getBeans(), start, end);
           }
+          String next = "";
+          if(!page.isEmpty() && page.size() == end - start + 1) {
+            next = BeanStoreCursor.afterBean(getBeanType(), sortBy, sortDirection, page.get(page.size() - 1)).encode();
+          }
+          page = detach(page);
           if(Log.isDebugEnabled(getClass())) Log.debug(getClass(), METHOD_GET_PAGE_OF_MATCHING_BEANS, "page: " + page + ", matches: " + matches);
-          retInner = new PageableBeanList<>(page, matches, start, end, sortBy, sortDirection);
+          retInner = new PageableBeanList<>(page, countMatches(matches, countStrategy), start, end, sortBy, sortDirection, next);
           return retInner;
         }
       }.handle();
@@ -294,8 +899,272 @@ public class MemoryBeanStore<T extends StorableBean> extends AbstractBeanStore<T
   }
 
   @Override
-  public PageableBeanList<T> getPageOfBeansViaQuery(int start, int end, String sortBy, String sortDirection, String queryName, Object... queryParameters) throws BeanStoreException {
-    throw new OperationNotSupportedException(new BeanStoreStackInfo(getBeanType(), null, METHOD_GET_PAGE_OF_BEANS_VIA_QUERY), "Named queries are not supported by the MemoryBeanStore.");
+  public PageableBeanList<T> getPageOfMatchingBeansAfter(final String cursor, final int pageSize, final String sortBy, final String sortDirection, final Map<String, String> propertyValues, final BeanStoreCountStrategy countStrategy) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, cursor, pageSize, sortBy, sortDirection, propertyValues);
+    PageableBeanList<T> ret = null;
+    try {
+      ret = new BeanStoreTransactionWrapper<PageableBeanList<T>>(getBeanStoreFactory(), getBeanType(), METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER) {
+        @Override
+        protected PageableBeanList<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
+          PageableBeanList<T> retInner = null;
+          final MemoryBeanComparator<T> comparator = new MemoryBeanComparator<>(MemoryBeanStore.this, transaction, METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, sortBy, sortDirection);
+          MemoryBeanScan.Filter<T> afterCursor = null;
+          if(null != cursor && !"".equals(cursor)) {
+            final BeanStoreCursor position = BeanStoreCursor.decode(getBeanType(), sortBy, sortDirection, cursor);
+            afterCursor = new MemoryBeanScan.Filter<T>() {
+              @Override public boolean accept(T bean) {
+                return 0 < comparator.compareToCursor(bean, position);
+              }
+            };
+          }
+          MemoryBeanScan.Result<T> result = scanMatchingBeans(transaction, METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, propertyValues, afterCursor, comparator, pageSize);
+          List<T> page = result.getBeans();
+          String next = "";
+          if(!page.isEmpty() && page.size() == pageSize) {
+            next = BeanStoreCursor.afterBean(getBeanType(), sortBy, sortDirection, page.get(page.size() - 1)).encode();
+          }
+          page = detach(page);
+          retInner = new PageableBeanList<>(page, countMatches(result.getMatches(), countStrategy), 0, pageSize - 1, sortBy, sortDirection, next);
+          return retInner;
+        }
+      }.handle();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, ret);
+    }
+  }
+
+  /**
+   * Every page's scan counts its matches anyway, exactly and for free, so the only strategy that changes
+   * anything here is NONE.
+   * 
+   * @param matches int
+   * @param countStrategy BeanStoreCountStrategy as requested, or null
+   * @return int the total count to report
+   */
+  int countMatches(int matches, BeanStoreCountStrategy countStrategy) {
+    return BeanStoreCountStrategy.NONE == getCountStrategy(countStrategy) ? -1 : matches;
+  }
+
+  /**
+   * Read the page straight from a sorted index on the primary sort property. Beans sharing a value are
+   * ordered among themselves by the rest of the sort. Costs O(log n + end), rather than a sort of the store.
+   * 
+   * @param snapshot MemoryBeanSnapshot
+   * @param sortIndex MemoryBeanIndex one of the snapshot's
+   * @param comparator MemoryBeanComparator<T>
+   * @param start int
+   * @param end int inclusive, as with the other BeanStore implementations
+   * @return List<T> views
+   */
+  List<T> getPageFromSortedIndex(MemoryBeanSnapshot snapshot, MemoryBeanIndex sortIndex, MemoryBeanComparator<T> comparator, int start, int end) {
+    List<T> ret = new ArrayList<>(Math.max(0, end - start + 1));
+    int position = 0;
+    outer: for(Set<String> beanIds : sortIndex.getBeanIdsInOrder(comparator.isPrimaryAscending())) {
+      if(beanIds.isEmpty()) continue;
+      List<T> sameValueBeans = new ArrayList<>(beanIds.size());
+      for(String beanId : beanIds) {
+        sameValueBeans.add(getStorage().view(snapshot.getStoredBean(beanId)));
+      }
+      if(position + sameValueBeans.size() <= start) {
+        position += sameValueBeans.size();
+        continue;
+      }
+      Collections.sort(sameValueBeans, comparator);
+      for(T bean : sameValueBeans) {
+        if(position > end) break outer;
+        if(position >= start) ret.add(bean);
+        position++;
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * @param topBeans List<T> the best end + 1 beans, in order, or fewer if that's all there are
+   * @param start int
+   * @param end int inclusive, as with the other BeanStore implementations
+   * @return List<T>
+   */
+  List<T> getPage(List<T> topBeans, int start, int end) {
+    List<T> ret = new ArrayList<>();
+    if(start < 0 || end < start || start >= topBeans.size()) {
+      return ret; // start is past the end of the list, return an empty page
+    }
+    ret.addAll(topBeans.subList(start, topBeans.size()));
+    return ret;
+  }
+
+  /**
+   * Match and sort over the snapshot's columns, viewing only the beans kept: the page's, when there is a
+   * comparator.
+   * 
+   * @param snapshot MemoryBeanSnapshot
+   * @param adaptedValues Map<String, Object> the property values to match
+   * @param comparator Comparator<T> null to keep every matching bean
+   * @param topCount int how many of the best beans to keep, given a comparator
+   * @return MemoryBeanScan.Result<T> views, or null if a property matched or sorted on has no column
+   */
+  MemoryBeanScan.Result<T> scanColumns(MemoryBeanSnapshot snapshot, Map<String, Object> adaptedValues, Comparator<T> comparator, int topCount) {
+    MemoryBeanComparator<T> sort = null;
+    if(null != comparator) {
+      if(!(comparator instanceof MemoryBeanComparator)) return null;
+      sort = (MemoryBeanComparator<T>) comparator;
+      if(!getColumnarAccessors().keySet().containsAll(Arrays.asList(sort.getSortFields()))) return null;
+    }
+    if(!getColumnarAccessors().keySet().containsAll(adaptedValues.keySet())) return null;
+    MemoryBeanColumns columns = snapshot.getColumns(getStorage(), getColumnarAccessors().values());
+    int[] rows = columns.select(adaptedValues);
+    int matches = rows.length;
+    if(null != sort) rows = columns.top(rows, sort.getSortFields(), sort.getAscending(), topCount);
+    List<T> beans = new ArrayList<>(rows.length);
+    for(int row : rows) {
+      beans.add(getStorage().view(columns.getStoredBean(row)));
+    }
+    return new MemoryBeanScan.Result<>(beans, matches);
+  }
+
+  /**
+   * Scan a snapshot for the beans a filter accepts. Only the candidates are checked, if there are any;
+   * otherwise every bean is, and in parallel on the factory's scan pool, if the snapshot holds at least
+   * the parallel scan threshold of beans.
+   * 
+   * Given a comparator, only the best topCount beans are kept, in a bounded heap: O(n log topCount),
+   * rather than O(n log n) for sorting them all.
+   * 
+   * @param snapshot MemoryBeanSnapshot
+   * @param candidateIds Collection<String> null if every bean is a candidate
+   * @param filter MemoryBeanScan.Filter<T>
+   * @param comparator Comparator<T> null to keep every accepted bean
+   * @param topCount int how many of the best beans to keep, given a comparator
+   * @return MemoryBeanScan.Result<T> views
+   */
+  MemoryBeanScan.Result<T> scan(MemoryBeanSnapshot snapshot, Collection<String> candidateIds, MemoryBeanScan.Filter<T> filter, Comparator<T> comparator, int topCount) {
+    return scan(snapshot, candidateIds, filter, null, comparator, topCount);
+  }
+
+  /**
+   * As scan(), but keeping only the accepted beans the keep filter also accepts. All the accepted beans are
+   * still counted.
+   * 
+   * @param snapshot MemoryBeanSnapshot
+   * @param candidateIds Collection<String> null if every bean is a candidate
+   * @param filter MemoryBeanScan.Filter<T>
+   * @param keepFilter MemoryBeanScan.Filter<T> null to keep every accepted bean
+   * @param comparator Comparator<T> null to keep every accepted bean
+   * @param topCount int how many of the best beans to keep, given a comparator
+   * @return MemoryBeanScan.Result<T> views
+   */
+  MemoryBeanScan.Result<T> scan(MemoryBeanSnapshot snapshot, Collection<String> candidateIds, MemoryBeanScan.Filter<T> filter, MemoryBeanScan.Filter<T> keepFilter, Comparator<T> comparator, int topCount) {
+    if(null == candidateIds && null != getScanPool() && snapshot.size() >= getParallelScanThreshold()) {
+      return getScanPool().invoke(new MemoryBeanScan<>(snapshot.splitStoredBeans(), getStorage(), filter, keepFilter, comparator, topCount));
+    }
+    // a single part, so the scan runs right here
+    return new MemoryBeanScan<>(Collections.singletonList(getStoredBeans(snapshot, candidateIds)), getStorage(), filter, keepFilter, comparator, topCount).invoke();
+  }
+
+  /**
+   * As scan(), over the transaction's snapshot with its own writes laid over it: the snapshot's beans the
+   * transaction has written or deleted are passed over, and the beans it has written are checked instead,
+   * whether or not they are among the candidates, as the snapshot's indexes don't have them.
+   *
+   * @param transaction BeanStoreTransaction
+   * @param candidateIds Collection<String> null if every bean is a candidate
+   * @param filter MemoryBeanScan.Filter<T>
+   * @param keepFilter MemoryBeanScan.Filter<T> null to keep every accepted bean
+   * @param comparator Comparator<T> null to keep every accepted bean
+   * @param topCount int how many of the best beans to keep, given a comparator
+   * @return MemoryBeanScan.Result<T> views
+   */
+  MemoryBeanScan.Result<T> scanWithWrites(BeanStoreTransaction transaction, Collection<String> candidateIds, final MemoryBeanScan.Filter<T> filter, MemoryBeanScan.Filter<T> keepFilter, Comparator<T> comparator, int topCount) {
+    final Map<String, T> writes = getWrites(transaction);
+    if(writes.isEmpty()) return scan(getSnapshot(transaction), candidateIds, filter, keepFilter, comparator, topCount);
+    MemoryBeanScan.Result<T> result = scan(getSnapshot(transaction), candidateIds, new MemoryBeanScan.Filter<T>() {
+      @Override public boolean accept(T bean) {
+        return !writes.containsKey(bean.getId()) && filter.accept(bean);
+      }
+    }, keepFilter, comparator, topCount);
+    List<T> beans = new ArrayList<>(result.getBeans());
+    int matches = result.getMatches();
+    for(T writtenBean : writes.values()) {
+      if(null == writtenBean) continue;
+      T view = getStorage().viewWrite(writtenBean);
+      if(!filter.accept(view)) continue;
+      matches++;
+      if(null != keepFilter && !keepFilter.accept(view)) continue;
+      beans.add(view);
+    }
+    if(null != comparator) {
+      Collections.sort(beans, comparator);
+      if(beans.size() > topCount) beans = new ArrayList<>(beans.subList(0, Math.max(0, topCount)));
+    }
+    return new MemoryBeanScan.Result<>(beans, matches);
+  }
+
+  /**
+   * @param transaction BeanStoreTransaction
+   * @return Map<String, T> copies of the beans the transaction has written, by id, for a stream that may
+   *         outlive its writes; a null bean is a delete
+   */
+  Map<String, T> copyWrites(BeanStoreTransaction transaction) {
+    Map<String, T> writes = getWrites(transaction);
+    Map<String, T> ret = new LinkedHashMap<>(writes.size());
+    for(Map.Entry<String, T> write : writes.entrySet()) {
+      ret.put(write.getKey(), null == write.getValue() ? null : getCodec().copy(write.getValue()));
+    }
+    return ret;
+  }
+
+  /**
+   * @param snapshot MemoryBeanSnapshot
+   * @param candidateIds Collection<String> null for every bean
+   * @return Iterable<Object> the stored forms of the candidates, looked up as they are iterated
+   */
+  Iterable<Object> getStoredBeans(final MemoryBeanSnapshot snapshot, final Collection<String> candidateIds) {
+    if(null == candidateIds) return snapshot.getAllStoredBeans();
+    return new Iterable<Object>() {
+      @Override public Iterator<Object> iterator() {
+        final Iterator<String> beanIds = candidateIds.iterator();
+        return new Iterator<Object>() {
+          @Override public boolean hasNext() {
+            return beanIds.hasNext();
+          }
+
+          @Override public Object next() {
+            return snapshot.getStoredBean(beanIds.next());
+          }
+
+          @Override public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public PageableBeanList<T> getPageOfBeansViaQuery(final int start, final int end, final String sortBy, final String sortDirection, final BeanStoreCountStrategy countStrategy, final String queryName, final Object... queryParameters) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_PAGE_OF_BEANS_VIA_QUERY, queryName, queryParameters);
+    PageableBeanList<T> ret = null;
+    try {
+      ret = new BeanStoreTransactionWrapper<PageableBeanList<T>>(getBeanStoreFactory(), getBeanType(), METHOD_GET_PAGE_OF_BEANS_VIA_QUERY) {
+        @Override
+        protected PageableBeanList<T> perform(BeanStoreTransaction transaction) throws BeanStoreException {
+          PageableBeanList<T> retInner = null;
+          // the caller's order, or else the query's own
+          Comparator<T> comparator = null;
+          if(null == sortBy || "".equals(sortBy)) comparator = getQueryPlan(transaction, METHOD_GET_PAGE_OF_BEANS_VIA_QUERY, queryName).getQuery().getComparator();
+          if(null == comparator) comparator = new MemoryBeanComparator<>(MemoryBeanStore.this, transaction, METHOD_GET_PAGE_OF_BEANS_VIA_QUERY, sortBy, sortDirection);
+          MemoryBeanScan.Result<T> result = scanQueryBeans(transaction, METHOD_GET_PAGE_OF_BEANS_VIA_QUERY, queryName, queryParameters, comparator, end + 1);
+          List<T> page = detach(getPage(result.getBeans(), start, end));
+          retInner = new PageableBeanList<>(page, countMatches(result.getMatches(), countStrategy), start, end, sortBy, sortDirection);
+          return retInner;
+        }
+      }.handle();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_PAGE_OF_BEANS_VIA_QUERY, ret);
+    }
   }
 
   @Override
@@ -303,16 +1172,20 @@ public class MemoryBeanStore<T extends StorableBean> extends AbstractBeanStore<T
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_CREATE_OR_UPDATE_BEAN, bean, transaction);
     T ret = bean;
     try {
-      if(wasBeanStoredPreviously(bean)) {
+      if(!wasBeanStoredPreviously(bean)) {
         // create
         bean.setId(createBeanId());
         handleStampedBeanCreate(bean);
-        getCache().put(bean.getId(), bean);
       } else {
         // update
         handleStampedBeanUpdate(bean);
-        getCache().remove(bean.getId());
-        getCache().put(bean.getId(), bean);
+      }
+      // the caller keeps its bean, so later changes to it don't reach the store
+      T storedBean = getCodec().copy(bean);
+      if(transaction instanceof MemoryBeanStoreTransaction) {
+        ((MemoryBeanStoreTransaction) transaction).getScope(this).getWrites().put(storedBean.getId(), storedBean);
+      } else {
+        commit(transaction, METHOD_CREATE_OR_UPDATE_BEAN, Collections.singletonMap(storedBean.getId(), storedBean), null, true);
       }
       return ret;
     } finally {
@@ -325,19 +1198,193 @@ public class MemoryBeanStore<T extends StorableBean> extends AbstractBeanStore<T
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_BEAN, beanId, transaction);
     boolean ret = false;
     try {
-      T bean = getCache().remove(beanId);
-      ret = null != bean;
+      if(transaction instanceof MemoryBeanStoreTransaction) {
+        MemoryBeanStoreTransaction.Scope<T> scope = ((MemoryBeanStoreTransaction) transaction).getScope(this);
+        // whether the transaction itself can still see the bean
+        ret = scope.getWrites().containsKey(beanId) ? null != scope.getWrites().get(beanId) : scope.getSnapshot().hasBean(beanId);
+        scope.getWrites().put(beanId, null);
+      } else {
+        ret = 0 < commit(transaction, METHOD_DELETE_BEAN, Collections.<String, T> singletonMap(beanId, null), null, true);
+      }
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_BEAN, ret);
     }
   }
 
+  /**
+   * All the beans go in one commit: the write locks are taken once, for every bean, and one new snapshot
+   * is published, and logged, for the lot.
+   */
+  @Override
+  public List<T> createOrUpdateBeans(Collection<T> beans, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_CREATE_OR_UPDATE_BEANS, beans.size(), transaction);
+    List<T> ret = new ArrayList<>(beans);
+    try {
+      Map<String, T> writes = new LinkedHashMap<>(beans.size());
+      for(T bean : ret) {
+        if(!wasBeanStoredPreviously(bean)) {
+          bean.setId(createBeanId());
+          handleStampedBeanCreate(bean);
+        } else {
+          handleStampedBeanUpdate(bean);
+        }
+        T storedBean = getCodec().copy(bean);
+        writes.put(storedBean.getId(), storedBean);
+      }
+      if(transaction instanceof MemoryBeanStoreTransaction) {
+        ((MemoryBeanStoreTransaction) transaction).getScope(this).getWrites().putAll(writes);
+      } else {
+        commit(transaction, METHOD_CREATE_OR_UPDATE_BEANS, writes, null, true);
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_CREATE_OR_UPDATE_BEANS, ret.size());
+    }
+  }
+
+  @Override
+  public int deleteBeans(Collection<String> beanIds, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_BEANS, beanIds.size(), transaction);
+    int ret = 0;
+    try {
+      Map<String, T> writes = new LinkedHashMap<>(beanIds.size());
+      for(String beanId : beanIds) {
+        writes.put(beanId, null);
+      }
+      if(transaction instanceof MemoryBeanStoreTransaction) {
+        MemoryBeanStoreTransaction.Scope<T> scope = ((MemoryBeanStoreTransaction) transaction).getScope(this);
+        for(String beanId : writes.keySet()) {
+          // whether the transaction itself can still see the bean
+          if(scope.getWrites().containsKey(beanId) ? null != scope.getWrites().get(beanId) : scope.getSnapshot().hasBean(beanId)) ret++;
+        }
+        scope.getWrites().putAll(writes);
+      } else {
+        ret = commit(transaction, METHOD_DELETE_BEANS, writes, null, true);
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_BEANS, ret);
+    }
+  }
+
+  /**
+   * Finds the matches as the transaction sees them, through an index where one covers a matched property:
+   * beans it wrote that match are deleted too, and beans it already deleted, or changed so they no longer
+   * match, aren't. Without a transaction of this store's, the deletes are committed in one of their own.
+   */
+  @Override
+  public int deleteMatchingBeans(Map<String, String> propertyValues, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_MATCHING_BEANS, propertyValues, transaction);
+    int ret = 0;
+    try {
+      if(!(transaction instanceof MemoryBeanStoreTransaction)) {
+        BeanStoreTransaction ownTransaction = getBeanStoreFactory().beginTransaction(getBeanType(), METHOD_DELETE_MATCHING_BEANS);
+        try {
+          ret = deleteMatchingBeans(propertyValues, ownTransaction);
+        } catch(RuntimeException e) {
+          // none of a failed call's writes are committed
+          ownTransaction.setRollbackOnly();
+          throw e;
+        } finally {
+          getBeanStoreFactory().endTransaction(getBeanType(), ownTransaction);
+        }
+        return ret;
+      }
+      MemoryBeanStoreTransaction.Scope<T> scope = ((MemoryBeanStoreTransaction) transaction).getScope(this);
+      Set<String> beanIds = new LinkedHashSet<>();
+      for(T view : findMatchingBeans(transaction, METHOD_DELETE_MATCHING_BEANS, propertyValues)) {
+        beanIds.add(view.getId());
+      }
+      for(String beanId : beanIds) {
+        scope.getWrites().put(beanId, null);
+      }
+      ret = beanIds.size();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_MATCHING_BEANS, ret);
+    }
+  }
+
+  /**
+   * Finds the matches the way deleteMatchingBeans() does, sets the new values on a copy of each, and writes
+   * the copies; the commit moves them in the indexes, as it does any write. Beans the transaction already
+   * wrote are updated where they sit in its writes. Without a transaction of this store's, the updates are
+   * committed in one of their own.
+   */
+  @Override
+  public int updateMatchingBeans(Map<String, String> propertyValues, Map<String, String> newPropertyValues, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_UPDATE_MATCHING_BEANS, propertyValues, newPropertyValues, transaction);
+    int ret = 0;
+    try {
+      if(newPropertyValues.isEmpty()) return ret;
+      if(!(transaction instanceof MemoryBeanStoreTransaction)) {
+        BeanStoreTransaction ownTransaction = getBeanStoreFactory().beginTransaction(getBeanType(), METHOD_UPDATE_MATCHING_BEANS);
+        try {
+          ret = updateMatchingBeans(propertyValues, newPropertyValues, ownTransaction);
+        } catch(RuntimeException e) {
+          // none of a failed call's writes are committed
+          ownTransaction.setRollbackOnly();
+          throw e;
+        } finally {
+          getBeanStoreFactory().endTransaction(getBeanType(), ownTransaction);
+        }
+        return ret;
+      }
+      Map<BeanAccessor, Object> newValues = new LinkedHashMap<>(newPropertyValues.size());
+      for(Map.Entry<String, Object> newValue : adaptPropertyValues(transaction, METHOD_UPDATE_MATCHING_BEANS, newPropertyValues).entrySet()) {
+        BeanAccessor accessor = getBeanPropertyAccessor(transaction, METHOD_UPDATE_MATCHING_BEANS, newValue.getKey());
+        if("id".equals(newValue.getKey()) || !accessor.isWritable()) {
+          throw new OperationNotSupportedException(new BeanStoreStackInfo(getBeanType(), transaction, METHOD_UPDATE_MATCHING_BEANS), "Bean property " + newValue.getKey() + " can't be set by match.");
+        }
+        newValues.put(accessor, newValue.getValue());
+      }
+      MemoryBeanStoreTransaction.Scope<T> scope = ((MemoryBeanStoreTransaction) transaction).getScope(this);
+      Map<String, T> beans = new LinkedHashMap<>();
+      for(T view : findMatchingBeans(transaction, METHOD_UPDATE_MATCHING_BEANS, propertyValues)) {
+        // a bean the transaction already wrote is updated where it sits in the writes
+        T bean = scope.getWrites().get(view.getId());
+        beans.put(view.getId(), null == bean ? getStorage().detach(view) : bean);
+      }
+      for(T bean : beans.values()) {
+        for(Map.Entry<BeanAccessor, Object> newValue : newValues.entrySet()) {
+          newValue.getKey().set(bean, newValue.getValue());
+        }
+        handleStampedBeanUpdate(bean);
+      }
+      scope.getWrites().putAll(beans);
+      ret = beans.size();
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_UPDATE_MATCHING_BEANS, ret);
+    }
+  }
+
+  /**
+   * Wait for a logged commit to reach the disk. Called without the write locks held, so that concurrent
+   * committers share the same fsync.
+   * 
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @param logPosition long
+   */
+  private void awaitDurable(BeanStoreTransaction transaction, String beanStoreMethod, long logPosition) {
+    if(null == getJournal() || 0L == logPosition) return;
+    try {
+      getJournal().awaitDurable(logPosition);
+    } catch(IOException e) {
+      throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod), e);
+    }
+  }
+
   @Override
   public String toString() {
     return new ToStringBuilder(this)
         .appendSuper(super.toString())
-        .append("cache", getCache())
+        .append("journal", getJournal())
+        .append("storage", getStorage())
+        .append("head", getHead().get())
+        .append("pins", getPins())
         .toString();
   }
 }
@@ -0,0 +1,143 @@
+package org.tharrisx.framework.store.memory;
+
+import java.io.File;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * Settings for the stores a MemoryBeanStoreFactory makes. The defaults give a store that keeps its beans on
+ * the heap and forgets them on shutdown, as the factory always used to.
+ *
+ * The factory copies what it needs out at construction; changing a configuration afterwards has no effect
+ * on a factory already made from it.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreConfiguration {
+
+  public static final int DEFAULT_PARALLEL_SCAN_THRESHOLD = 20000;
+
+  private File persistenceDirectory = null;
+
+  /**
+   * @return File where the stores keep their logs and snapshots, or null if they aren't durable
+   */
+  public File getPersistenceDirectory() {
+    return this.persistenceDirectory;
+  }
+
+  public void setPersistenceDirectory(File persistenceDirectory1) {
+    this.persistenceDirectory = persistenceDirectory1;
+  }
+
+  private int snapshotLogRecords = MemoryBeanJournal.DEFAULT_SNAPSHOT_LOG_RECORDS;
+
+  /**
+   * @return int how many records a store's log may grow by before it is compacted into a snapshot
+   */
+  public int getSnapshotLogRecords() {
+    return this.snapshotLogRecords;
+  }
+
+  public void setSnapshotLogRecords(int snapshotLogRecords1) {
+    this.snapshotLogRecords = snapshotLogRecords1;
+  }
+
+  private boolean offHeap = false;
+
+  /**
+   * @return boolean whether the stores keep their beans serialized in direct memory rather than as objects
+   *         on the heap; reads then return a fresh copy of the bean each time
+   */
+  public boolean isOffHeap() {
+    return this.offHeap;
+  }
+
+  public void setOffHeap(boolean offHeap1) {
+    this.offHeap = offHeap1;
+  }
+
+  private int offHeapSlabSize = OffHeapSlabs.DEFAULT_SLAB_SIZE;
+
+  /**
+   * @return int the size in bytes of each direct memory slab an off-heap store allocates, rounded up to a
+   *         power of two; also the largest a single serialized bean may be
+   */
+  public int getOffHeapSlabSize() {
+    return this.offHeapSlabSize;
+  }
+
+  public void setOffHeapSlabSize(int offHeapSlabSize1) {
+    this.offHeapSlabSize = offHeapSlabSize1;
+  }
+
+  private boolean offHeapCompression = false;
+
+  /**
+   * @return boolean whether an off-heap store deflates its beans
+   */
+  public boolean isOffHeapCompression() {
+    return this.offHeapCompression;
+  }
+
+  public void setOffHeapCompression(boolean offHeapCompression1) {
+    this.offHeapCompression = offHeapCompression1;
+  }
+
+  private boolean columnar = false;
+
+  /**
+   * @return boolean whether the stores match and sort whole-store scans over columnar copies of their
+   *         simple properties, rather than over the beans; best for stores read far more than written
+   */
+  public boolean isColumnar() {
+    return this.columnar;
+  }
+
+  public void setColumnar(boolean columnar1) {
+    this.columnar = columnar1;
+  }
+
+  private int parallelScanThreshold = DEFAULT_PARALLEL_SCAN_THRESHOLD;
+
+  /**
+   * @return int how many beans a store must hold before it scans them in parallel; Integer.MAX_VALUE for
+   *         never
+   */
+  public int getParallelScanThreshold() {
+    return this.parallelScanThreshold;
+  }
+
+  public void setParallelScanThreshold(int parallelScanThreshold1) {
+    this.parallelScanThreshold = parallelScanThreshold1;
+  }
+
+  private int scanParallelism = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * @return int how many threads the factory's scan pool has; 1 or less for no pool, and no parallel scans
+   */
+  public int getScanParallelism() {
+    return this.scanParallelism;
+  }
+
+  public void setScanParallelism(int scanParallelism1) {
+    this.scanParallelism = scanParallelism1;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("persistenceDirectory", getPersistenceDirectory())
+        .append("snapshotLogRecords", getSnapshotLogRecords())
+        .append("offHeap", isOffHeap())
+        .append("offHeapSlabSize", getOffHeapSlabSize())
+        .append("offHeapCompression", isOffHeapCompression())
+        .append("columnar", isColumnar())
+        .append("parallelScanThreshold", getParallelScanThreshold())
+        .append("scanParallelism", getScanParallelism())
+        .toString();
+  }
+}
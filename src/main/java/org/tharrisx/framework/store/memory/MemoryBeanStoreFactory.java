@@ -1,26 +1,210 @@
 package org.tharrisx.framework.store.memory;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.tharrisx.framework.store.BeanStore;
 import org.tharrisx.framework.store.BeanStoreTransaction;
 import org.tharrisx.framework.store.StorableBean;
 import org.tharrisx.framework.store.core.AbstractBeanStoreFactory;
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
 import org.tharrisx.framework.store.exception.BeanStoreException;
 import org.tharrisx.util.log.Log;
 
 /**
  * Simple test implementation.
  * 
+ * Constructed with a persistence directory, the stores it makes are durable, and every configured bean
+ * type is recovered from that directory, in parallel, before the constructor returns. Constructed with a
+ * MemoryBeanStoreConfiguration, the stores may also keep their beans off the heap.
+ * 
+ * Scans too large for a single thread share one fork/join pool, sized by the configuration.
+ * 
+ * Named queries are registered here, as MemoryBeanQuery objects, rather than mapped in HQL.
+ * 
  * @author tharrisx
  * @since 1.0.0
  * @version 1.0.0
  */
 public class MemoryBeanStoreFactory extends AbstractBeanStoreFactory {
 
+  private final File persistenceDirectory;
+
+  /**
+   * @return File where the stores keep their logs and snapshots, or null if they aren't durable
+   */
+  public File getPersistenceDirectory() {
+    return this.persistenceDirectory;
+  }
+
+  private final int snapshotLogRecords;
+
+  /**
+   * @return int how many records a store's log may grow by before it is compacted into a snapshot
+   */
+  public int getSnapshotLogRecords() {
+    return this.snapshotLogRecords;
+  }
+
+  private final boolean offHeap;
+
+  /**
+   * @return boolean whether the stores keep their beans serialized in direct memory
+   */
+  public boolean isOffHeap() {
+    return this.offHeap;
+  }
+
+  private final int offHeapSlabSize;
+
+  public int getOffHeapSlabSize() {
+    return this.offHeapSlabSize;
+  }
+
+  private final boolean offHeapCompression;
+
+  public boolean isOffHeapCompression() {
+    return this.offHeapCompression;
+  }
+
+  private final boolean columnar;
+
+  /**
+   * @return boolean whether the stores scan columnar copies of their simple properties
+   */
+  public boolean isColumnar() {
+    return this.columnar;
+  }
+
+  private final int parallelScanThreshold;
+
+  /**
+   * @return int how many beans a store must hold before it scans them in parallel
+   */
+  public int getParallelScanThreshold() {
+    return this.parallelScanThreshold;
+  }
+
+  private final ForkJoinPool scanPool;
+
+  /**
+   * @return ForkJoinPool shared by the stores for parallel scans, or null if they never scan in parallel
+   */
+  ForkJoinPool getScanPool() {
+    return this.scanPool;
+  }
+
+  private final Queue<MemoryBeanStore<? extends StorableBean>> constructedBeanStores = new ConcurrentLinkedQueue<>();
+
+  private Queue<MemoryBeanStore<? extends StorableBean>> getConstructedBeanStores() {
+    return this.constructedBeanStores;
+  }
+
   public MemoryBeanStoreFactory(List<Class<? extends StorableBean>> beanTypes1) {
+    this(beanTypes1, new MemoryBeanStoreConfiguration());
+  }
+
+  public MemoryBeanStoreFactory(List<Class<? extends StorableBean>> beanTypes1, File persistenceDirectory1) {
+    this(beanTypes1, persistenceDirectory1, MemoryBeanJournal.DEFAULT_SNAPSHOT_LOG_RECORDS);
+  }
+
+  public MemoryBeanStoreFactory(List<Class<? extends StorableBean>> beanTypes1, File persistenceDirectory1, int snapshotLogRecords1) {
+    this(beanTypes1, makeConfiguration(persistenceDirectory1, snapshotLogRecords1));
+  }
+
+  public MemoryBeanStoreFactory(List<Class<? extends StorableBean>> beanTypes1, MemoryBeanStoreConfiguration configuration1) {
     super(beanTypes1);
+    if(Log.isEnteringEnabled(MemoryBeanStoreFactory.class)) Log.entering(MemoryBeanStoreFactory.class, Log.METHOD_NAME_CONSTRUCTOR, beanTypes1, configuration1);
+    try {
+      this.persistenceDirectory = configuration1.getPersistenceDirectory();
+      this.snapshotLogRecords = configuration1.getSnapshotLogRecords();
+      this.offHeap = configuration1.isOffHeap();
+      this.offHeapSlabSize = configuration1.getOffHeapSlabSize();
+      this.offHeapCompression = configuration1.isOffHeapCompression();
+      this.columnar = configuration1.isColumnar();
+      this.parallelScanThreshold = configuration1.getParallelScanThreshold();
+      // a pool of its own, so scans don't compete with, or wait behind, anything else's fork/join work
+      this.scanPool = configuration1.getScanParallelism() > 1 ? new ForkJoinPool(configuration1.getScanParallelism()) : null;
+      if(null != this.persistenceDirectory) recoverBeanStores(beanTypes1);
+    } finally {
+      if(Log.isExitingEnabled(MemoryBeanStoreFactory.class)) Log.exiting(MemoryBeanStoreFactory.class, Log.METHOD_NAME_CONSTRUCTOR);
+    }
+  }
+
+  private static MemoryBeanStoreConfiguration makeConfiguration(File persistenceDirectory1, int snapshotLogRecords1) {
+    MemoryBeanStoreConfiguration ret = new MemoryBeanStoreConfiguration();
+    ret.setPersistenceDirectory(persistenceDirectory1);
+    ret.setSnapshotLogRecords(snapshotLogRecords1);
+    return ret;
+  }
+
+  /**
+   * Construct, and so recover, the store of every bean type at once.
+   * 
+   * @param beanTypes1 List<Class<? extends StorableBean>>
+   */
+  private void recoverBeanStores(List<Class<? extends StorableBean>> beanTypes1) {
+    ExecutorService recoverers = Executors.newFixedThreadPool(Math.max(1, Math.min(beanTypes1.size(), Runtime.getRuntime().availableProcessors())));
+    try {
+      List<Future<?>> results = new ArrayList<>(beanTypes1.size());
+      for(final Class<? extends StorableBean> beanType : beanTypes1) {
+        results.add(recoverers.submit(new Runnable() {
+          @Override public void run() {
+            getBeanStore(beanType);
+          }
+        }));
+      }
+      for(int idx = 0; idx < results.size(); idx++) {
+        try {
+          results.get(idx).get();
+        } catch(InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new BeanStoreException(new BeanStoreStackInfo(beanTypes1.get(idx), null, Log.METHOD_NAME_CONSTRUCTOR), e);
+        } catch(ExecutionException e) {
+          if(e.getCause() instanceof BeanStoreException) throw (BeanStoreException) e.getCause();
+          throw new BeanStoreException(new BeanStoreStackInfo(beanTypes1.get(idx), null, Log.METHOD_NAME_CONSTRUCTOR), e.getCause());
+        }
+      }
+    } finally {
+      recoverers.shutdown();
+    }
+  }
+
+  /**
+   * Stop journaling for every durable store made by this factory, the scan pool, and the async executor. Call on shutdown;
+   * writes after this fail.
+   */
+  public void close() {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), "close");
+    try {
+      for(MemoryBeanStore<? extends StorableBean> beanStore : getConstructedBeanStores()) {
+        beanStore.close();
+      }
+      if(null != getScanPool()) getScanPool().shutdown();
+      shutdownAsyncExecutor();
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), "close");
+    }
+  }
+
+  /**
+   * Register a named query with the store of its bean type. See MemoryBeanStore.registerQuery().
+   * 
+   * @param beanType Class<T>
+   * @param queryName String
+   * @param query MemoryBeanQuery<T>
+   */
+  public <T extends StorableBean> void registerQuery(Class<T> beanType, String queryName, MemoryBeanQuery<T> query) {
+    ((MemoryBeanStore<T>) getUndecoratedBeanStore(beanType)).registerQuery(queryName, query);
   }
 
   @Override
@@ -28,7 +212,9 @@ public class MemoryBeanStoreFactory extends AbstractBeanStoreFactory {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_CONSTRUCT_BEAN_STORE, type);
     BeanStore<T> ret = null;
     try {
-      ret = new MemoryBeanStore<>(this, type);
+      MemoryBeanStore<T> beanStore = new MemoryBeanStore<>(this, type);
+      getConstructedBeanStores().add(beanStore);
+      ret = beanStore;
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_CONSTRUCT_BEAN_STORE, ret);
@@ -40,8 +226,10 @@ public class MemoryBeanStoreFactory extends AbstractBeanStoreFactory {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_BEGIN_TRANSACTION, mainBeanType);
     BeanStoreTransaction ret = null;
     try {
-      // Hypothetical transaction begins
-      ret = new MemoryBeanStoreTransaction(transactionName);
+      MemoryBeanStoreTransaction transaction = new MemoryBeanStoreTransaction(transactionName);
+      // pin the main store's snapshot now; any other store's is pinned when the transaction first uses it
+      transaction.getScope((MemoryBeanStore<T>) getUndecoratedBeanStore(mainBeanType));
+      ret = transaction;
       return ret;
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_BEGIN_TRANSACTION, ret);
@@ -52,14 +240,47 @@ public class MemoryBeanStoreFactory extends AbstractBeanStoreFactory {
   public <T extends StorableBean> void endTransaction(Class<T> mainBeanType, BeanStoreTransaction transaction) throws BeanStoreException {
     if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_END_TRANSACTION, mainBeanType, transaction);
     try {
-      // Hypothetical transaction ends
+      if(!(transaction instanceof MemoryBeanStoreTransaction)) {
+        throw new BeanStoreException(new BeanStoreStackInfo(mainBeanType, transaction, METHOD_END_TRANSACTION), "Transaction was not begun by this factory.");
+      }
+      MemoryBeanStoreTransaction memoryTransaction = (MemoryBeanStoreTransaction) transaction;
+      boolean committed = false;
+      try {
+        if(transaction.isRollbackOnly()) {
+          // the writes were only ever buffered, so there is nothing to undo
+          if(Log.isDebugEnabled(getClass())) Log.debug(getClass(), METHOD_END_TRANSACTION, "Transaction rolled back, as marked, for mainBeanType " + mainBeanType + " named '" + transaction.getTransactionName() + "'.");
+        } else {
+          for(MemoryBeanStoreTransaction.Scope<? extends StorableBean> scope : memoryTransaction.getScopes()) {
+            commitScope(memoryTransaction, scope);
+          }
+          committed = true;
+          if(Log.isDebugEnabled(getClass())) Log.debug(getClass(), METHOD_END_TRANSACTION, "Transaction committed for mainBeanType " + mainBeanType + " named '" + transaction.getTransactionName() + "'.");
+        }
+      } finally {
+        for(MemoryBeanStoreTransaction.Scope<? extends StorableBean> scope : memoryTransaction.getScopes()) {
+          scope.getBeanStore().unpinSnapshot(scope.getPin());
+        }
+        memoryTransaction.clearScopes();
+        transaction.runEndActions(committed);
+      }
     } finally {
       if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_END_TRANSACTION);
     }
   }
 
+  /**
+   * Commit a transaction's writes to one store. Each store commits separately, so a transaction is only
+   * atomic within each bean type it wrote; if a later store's commit fails, the earlier ones stand.
+   * 
+   * @param transaction MemoryBeanStoreTransaction
+   * @param scope MemoryBeanStoreTransaction.Scope<T>
+   */
+  private static <T extends StorableBean> void commitScope(MemoryBeanStoreTransaction transaction, MemoryBeanStoreTransaction.Scope<T> scope) {
+    scope.getBeanStore().commit(transaction, METHOD_END_TRANSACTION, scope.getWrites(), scope.getSnapshot(), true);
+  }
+
   @Override
   public String toString() {
-    return new ToStringBuilder(this).appendSuper(super.toString()).toString();
+    return new ToStringBuilder(this).appendSuper(super.toString()).append("persistenceDirectory", getPersistenceDirectory()).append("offHeap", isOffHeap()).append("scanPool", getScanPool()).toString();
   }
 }
@@ -1,11 +1,20 @@
 package org.tharrisx.framework.store.memory;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.StorableBean;
 
 /**
  * Simple test implementation.
- * 
+ *
+ * A snapshot isolation transaction. For each store it touches, it pins the snapshot that was newest when
+ * it first did, reads only from that, and buffers its writes, to be committed all at once when the
+ * transaction ends. Like its Hibernate counterpart, a transaction belongs to one thread at a time.
+ *
  * @author tharrisx
  * @since 1.0.0
  * @version 1.0.0
@@ -14,12 +23,86 @@ public class MemoryBeanStoreTransaction extends BeanStoreTransaction {
 
   private static final long serialVersionUID = 4168397445683204939L;
 
+  /**
+   * What the transaction sees of, and has written to, one store.
+   *
+   * @param <T> T extends StorableBean
+   */
+  static final class Scope<T extends StorableBean> {
+
+    private final MemoryBeanStore<T> beanStore;
+
+    MemoryBeanStore<T> getBeanStore() {
+      return this.beanStore;
+    }
+
+    private final MemoryBeanSnapshotPins.Pin pin;
+
+    MemoryBeanSnapshotPins.Pin getPin() {
+      return this.pin;
+    }
+
+    /**
+     * In the order written; a later write of an id replaces the earlier one. A null bean is a delete.
+     */
+    private final Map<String, T> writes = new LinkedHashMap<>();
+
+    Map<String, T> getWrites() {
+      return this.writes;
+    }
+
+    Scope(final MemoryBeanStore<T> beanStore1, final MemoryBeanSnapshotPins.Pin pin1) {
+      this.beanStore = beanStore1;
+      this.pin = pin1;
+    }
+
+    MemoryBeanSnapshot getSnapshot() {
+      return getPin().getSnapshot();
+    }
+
+    @Override
+    public String toString() {
+      return new ToStringBuilder(this)
+          .append("beanType", getBeanStore().getBeanType())
+          .append("version", getSnapshot().getVersion())
+          .append("writeCount", getWrites().size())
+          .toString();
+    }
+  }
+
+  private transient Map<MemoryBeanStore<? extends StorableBean>, Scope<? extends StorableBean>> scopes = new LinkedHashMap<>();
+
+  Collection<Scope<? extends StorableBean>> getScopes() {
+    return this.scopes.values();
+  }
+
+  /**
+   * @param beanStore MemoryBeanStore<T>
+   * @return Scope<T> the transaction's scope in the store, begun now if it hadn't been
+   */
+  @SuppressWarnings("unchecked")
+  <T extends StorableBean> Scope<T> getScope(final MemoryBeanStore<T> beanStore) {
+    Scope<T> ret = (Scope<T>) this.scopes.get(beanStore);
+    if(null == ret) {
+      ret = new Scope<>(beanStore, beanStore.pinSnapshot(this));
+      this.scopes.put(beanStore, ret);
+    }
+    return ret;
+  }
+
+  /**
+   * Forget every scope, once their pins have been released.
+   */
+  void clearScopes() {
+    this.scopes.clear();
+  }
+
   protected MemoryBeanStoreTransaction(String transactionName) {
     super(transactionName);
   }
 
   @Override
   public String toString() {
-    return new ToStringBuilder(this).appendSuper(super.toString()).toString();
+    return new ToStringBuilder(this).appendSuper(super.toString()).append("scopes", getScopes()).toString();
   }
 }
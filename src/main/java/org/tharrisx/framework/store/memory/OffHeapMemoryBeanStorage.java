@@ -0,0 +1,196 @@
+package org.tharrisx.framework.store.memory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+
+/**
+ * Keeps the beans serialized in direct memory, outside the Java heap, so a large store adds little to
+ * garbage collection work. A bean's stored form is just the handle of its block. Every read decodes a
+ * fresh copy of the bean, so callers may change what they get back without affecting the store.
+ *
+ * Beans are written with MemoryBeanCodec, and optionally deflated; small beans rarely shrink, so a bean is
+ * only kept compressed when that actually saved space.
+ *
+ * @param <T> T extends StorableBean
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class OffHeapMemoryBeanStorage<T extends StorableBean> implements MemoryBeanStorage<T> {
+
+  private static final byte FLAG_DEFLATED = 1;
+
+  private static final String METHOD_READ = "read";
+  private static final String METHOD_WRITE = "write";
+
+  private static final ThreadLocal<Deflater> DEFLATERS = new ThreadLocal<Deflater>() {
+    @Override protected Deflater initialValue() {
+      return new Deflater(Deflater.BEST_SPEED);
+    }
+  };
+
+  private static final ThreadLocal<Inflater> INFLATERS = new ThreadLocal<Inflater>() {
+    @Override protected Inflater initialValue() {
+      return new Inflater();
+    }
+  };
+
+  private final MemoryBeanCodec<T> codec;
+
+  private MemoryBeanCodec<T> getCodec() {
+    return this.codec;
+  }
+
+  private final OffHeapSlabs slabs;
+
+  OffHeapSlabs getSlabs() {
+    return this.slabs;
+  }
+
+  private final boolean compressed;
+
+  private boolean isCompressed() {
+    return this.compressed;
+  }
+
+  /**
+   * Superseded blocks waiting for the snapshots that can reach them to be unpinned, oldest first.
+   */
+  private final PriorityQueue<long[]> releasedBlocks = new PriorityQueue<>(64, new Comparator<long[]>() {
+    @Override public int compare(long[] o1, long[] o2) {
+      return Long.compare(o1[1], o2[1]);
+    }
+  });
+
+  private PriorityQueue<long[]> getReleasedBlocks() {
+    return this.releasedBlocks;
+  }
+
+  OffHeapMemoryBeanStorage(final MemoryBeanCodec<T> codec1, final int slabSize1, final boolean compressed1) {
+    this.codec = codec1;
+    this.slabs = new OffHeapSlabs(slabSize1);
+    this.compressed = compressed1;
+  }
+
+  @Override
+  public Object store(final T bean) {
+    byte[] block = null;
+    byte flags = 0;
+    try {
+      block = getCodec().encode(bean);
+    } catch(IOException e) {
+      throw new BeanStoreException(new BeanStoreStackInfo(getCodec().getBeanType(), null, METHOD_WRITE), e);
+    }
+    if(isCompressed()) {
+      byte[] deflated = deflate(block);
+      if(deflated.length < block.length) {
+        block = deflated;
+        flags = FLAG_DEFLATED;
+      }
+    }
+    return Long.valueOf(getSlabs().allocate(block, flags));
+  }
+
+  /**
+   * Decodes a new bean every time, so views are never shared.
+   */
+  @Override
+  public T view(final Object storedBean) {
+    long handle = ((Long) storedBean).longValue();
+    return decode(getSlabs().read(handle), getSlabs().readFlags(handle));
+  }
+
+  /**
+   * A copy, as views are never shared and detach() doesn't copy.
+   */
+  @Override
+  public T viewWrite(final T writtenBean) {
+    return getCodec().copy(writtenBean);
+  }
+
+  @Override
+  public T detach(final T view) {
+    return view;
+  }
+
+  @Override
+  public void release(final Collection<Object> storedBeans, final long supersededVersion) {
+    synchronized(getReleasedBlocks()) {
+      for(Object storedBean : storedBeans) {
+        getReleasedBlocks().add(new long[] { ((Long) storedBean).longValue(), supersededVersion });
+      }
+    }
+  }
+
+  @Override
+  public void reclaim(final long oldestPinnedVersion) {
+    synchronized(getReleasedBlocks()) {
+      while(!getReleasedBlocks().isEmpty() && getReleasedBlocks().peek()[1] <= oldestPinnedVersion) {
+        getSlabs().free(getReleasedBlocks().poll()[0]);
+      }
+    }
+  }
+
+  private T decode(final byte[] block, final byte flags) {
+    try {
+      return getCodec().decode((flags & FLAG_DEFLATED) == 0 ? block : inflate(block));
+    } catch(IOException | DataFormatException e) {
+      throw new BeanStoreException(new BeanStoreStackInfo(getCodec().getBeanType(), null, METHOD_READ), e);
+    }
+  }
+
+  private static byte[] deflate(final byte[] bytes) {
+    Deflater deflater = DEFLATERS.get();
+    deflater.reset();
+    deflater.setInput(bytes);
+    deflater.finish();
+    ByteArrayOutputStream ret = new ByteArrayOutputStream(bytes.length);
+    // the inflated length leads, so inflate() can size its buffer exactly
+    ret.write(bytes.length >>> 24);
+    ret.write(bytes.length >>> 16);
+    ret.write(bytes.length >>> 8);
+    ret.write(bytes.length);
+    byte[] buffer = new byte[Math.max(64, bytes.length)];
+    while(!deflater.finished()) {
+      ret.write(buffer, 0, deflater.deflate(buffer));
+    }
+    return ret.toByteArray();
+  }
+
+  private static byte[] inflate(final byte[] bytes) throws DataFormatException {
+    Inflater inflater = INFLATERS.get();
+    inflater.reset();
+    int length = ((bytes[0] & 0xff) << 24) | ((bytes[1] & 0xff) << 16) | ((bytes[2] & 0xff) << 8) | (bytes[3] & 0xff);
+    inflater.setInput(bytes, 4, bytes.length - 4);
+    byte[] ret = new byte[length];
+    int inflated = 0;
+    while(inflated < length && !inflater.finished()) {
+      int count = inflater.inflate(ret, inflated, length - inflated);
+      if(0 == count && (inflater.needsInput() || inflater.needsDictionary())) {
+        throw new DataFormatException("Truncated compressed bean.");
+      }
+      inflated += count;
+    }
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("compressed", isCompressed())
+        .append("slabs", getSlabs())
+        .toString();
+  }
+}
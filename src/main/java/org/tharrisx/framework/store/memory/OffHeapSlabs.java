@@ -0,0 +1,168 @@
+package org.tharrisx.framework.store.memory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * A block allocator over direct ByteBuffer slabs, outside the Java heap. Blocks come in power of two size
+ * classes; freed blocks go on a free list for their class and are reused before the slabs grow.
+ *
+ * <p>A handle names a block by slab index (high 32 bits) and offset (low 32 bits). Each block starts with a
+ * header of [int payload length][byte flags][byte size class][short unused].</p>
+ *
+ * <p>A block is reused as soon as it is freed, so callers must only free blocks no reader can still reach.</p>
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class OffHeapSlabs {
+
+  static final int DEFAULT_SLAB_SIZE = 64 * 1024 * 1024;
+
+  static final int HEADER_SIZE = 8;
+
+  private static final int MIN_BLOCK_SHIFT = 5; // 32 bytes
+
+  private final int slabSize;
+
+  int getSlabSize() {
+    return this.slabSize;
+  }
+
+  private final int sizeClassCount;
+
+  private int getSizeClassCount() {
+    return this.sizeClassCount;
+  }
+
+  /**
+   * Replaced, never modified, as slabs are added; readers index into whichever array they see.
+   */
+  private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+
+  private int currentSlabOffset = 0;
+
+  private final List<ArrayDeque<Long>> freeLists;
+
+  private long allocatedBytes = 0L;
+
+  OffHeapSlabs(final int slabSize1) {
+    int size = 1 << MIN_BLOCK_SHIFT;
+    int classes = 1;
+    while(size < slabSize1) {
+      size <<= 1;
+      classes++;
+    }
+    this.slabSize = size;
+    this.sizeClassCount = classes;
+    this.freeLists = new ArrayList<>(classes);
+    for(int idx = 0; idx < classes; idx++) {
+      this.freeLists.add(new ArrayDeque<Long>());
+    }
+  }
+
+  /**
+   * Allocate a block for the payload and copy it in.
+   *
+   * @param payload byte[]
+   * @param flags byte stored in the header for the caller's use
+   * @return long the block handle
+   */
+  synchronized long allocate(final byte[] payload, final byte flags) {
+    int sizeClass = getSizeClass(HEADER_SIZE + payload.length);
+    Long free = this.freeLists.get(sizeClass).poll();
+    long ret = 0L;
+    if(null != free) {
+      ret = free.longValue();
+    } else {
+      int blockSize = 1 << (sizeClass + MIN_BLOCK_SHIFT);
+      if(0 == this.slabs.length || this.currentSlabOffset + blockSize > getSlabSize()) {
+        ByteBuffer[] grown = Arrays.copyOf(this.slabs, this.slabs.length + 1);
+        grown[grown.length - 1] = ByteBuffer.allocateDirect(getSlabSize());
+        this.slabs = grown;
+        this.currentSlabOffset = 0;
+      }
+      ret = ((long) (this.slabs.length - 1) << 32) | this.currentSlabOffset;
+      this.currentSlabOffset += blockSize;
+    }
+    this.allocatedBytes += 1 << (sizeClass + MIN_BLOCK_SHIFT);
+    ByteBuffer block = getBlock(ret);
+    block.putInt(payload.length).put(flags).put((byte) sizeClass).putShort((short) 0).put(payload);
+    return ret;
+  }
+
+  /**
+   * Return a block for reuse.
+   *
+   * @param handle long
+   */
+  synchronized void free(final long handle) {
+    int sizeClass = this.slabs[(int) (handle >>> 32)].get((int) handle + 5);
+    this.freeLists.get(sizeClass).add(Long.valueOf(handle));
+    this.allocatedBytes -= 1 << (sizeClass + MIN_BLOCK_SHIFT);
+  }
+
+  /**
+   * Copy a block's payload out.
+   *
+   * @param handle long
+   * @return byte[]
+   */
+  byte[] read(final long handle) {
+    ByteBuffer block = getBlock(handle);
+    byte[] ret = new byte[block.getInt()];
+    block.position(block.position() + HEADER_SIZE - 4);
+    block.get(ret);
+    return ret;
+  }
+
+  /**
+   * @param handle long
+   * @return byte the flags the block was allocated with
+   */
+  byte readFlags(final long handle) {
+    ByteBuffer slab = this.slabs[(int) (handle >>> 32)];
+    return slab.get((int) handle + 4);
+  }
+
+  private ByteBuffer getBlock(final long handle) {
+    // duplicate, so concurrent readers don't share a position
+    ByteBuffer ret = this.slabs[(int) (handle >>> 32)].duplicate();
+    ret.position((int) handle);
+    return ret;
+  }
+
+  private int getSizeClass(final int blockSize) {
+    int ret = 0;
+    while((1 << (ret + MIN_BLOCK_SHIFT)) < blockSize) {
+      ret++;
+    }
+    if(ret >= getSizeClassCount()) {
+      throw new IllegalArgumentException("A block of " + blockSize + " bytes won't fit in a slab of " + getSlabSize() + " bytes.");
+    }
+    return ret;
+  }
+
+  synchronized long getAllocatedBytes() {
+    return this.allocatedBytes;
+  }
+
+  long getReservedBytes() {
+    return (long) this.slabs.length * getSlabSize();
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("slabSize", getSlabSize())
+        .append("slabCount", this.slabs.length)
+        .append("allocatedBytes", getAllocatedBytes())
+        .toString();
+  }
+}
@@ -0,0 +1,111 @@
+package org.tharrisx.framework.store.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * A fixed array of locks, with each key mapped onto one of them by hash. Writers of the same key always
+ * serialize on the same lock, while writers of different keys rarely contend with each other. Readers
+ * never take these locks.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class StripedLocks {
+
+  /**
+   * Enough stripes that 32 or so writer threads rarely collide, without wasting much memory per bean type.
+   */
+  static final int DEFAULT_STRIPE_COUNT = 256;
+
+  private final ReentrantLock[] locks;
+
+  private ReentrantLock[] getLocks() {
+    return this.locks;
+  }
+
+  private final int mask;
+
+  private int getMask() {
+    return this.mask;
+  }
+
+  StripedLocks() {
+    this(DEFAULT_STRIPE_COUNT);
+  }
+
+  /**
+   * @param stripeCount1 int, rounded up to the next power of two
+   */
+  StripedLocks(final int stripeCount1) {
+    int size = 1;
+    while(size < stripeCount1) {
+      size <<= 1;
+    }
+    this.locks = new ReentrantLock[size];
+    for(int idx = 0; idx < size; idx++) {
+      this.locks[idx] = new ReentrantLock();
+    }
+    this.mask = size - 1;
+  }
+
+  /**
+   * The lock guarding the given key. Callers lock() it and unlock() it in a finally block.
+   *
+   * @param key String
+   * @return ReentrantLock
+   */
+  ReentrantLock getLock(final String key) {
+    return getLocks()[getStripe(key)];
+  }
+
+  /**
+   * The distinct locks guarding the given keys, in stripe order. Callers lock them in that order and unlock
+   * them in reverse, so that writers of several keys at once can't deadlock one another.
+   *
+   * @param keys Collection<String>
+   * @return List<ReentrantLock>
+   */
+  List<ReentrantLock> getLocks(final Collection<String> keys) {
+    boolean[] stripes = new boolean[getLocks().length];
+    for(String key : keys) {
+      stripes[getStripe(key)] = true;
+    }
+    List<ReentrantLock> ret = new ArrayList<>(Math.min(keys.size(), stripes.length));
+    for(int idx = 0; idx < stripes.length; idx++) {
+      if(stripes[idx]) ret.add(getLocks()[idx]);
+    }
+    return ret;
+  }
+
+  /**
+   * @return List<ReentrantLock> every lock, in stripe order; holding them all excludes every writer
+   */
+  List<ReentrantLock> getAllLocks() {
+    return Collections.unmodifiableList(Arrays.asList(getLocks()));
+  }
+
+  private int getStripe(final String key) {
+    int hash = key.hashCode();
+    // spread the high bits down, as the String ids here share long common prefixes
+    hash ^= (hash >>> 20) ^ (hash >>> 12);
+    hash ^= (hash >>> 7) ^ (hash >>> 4);
+    return hash & getMask();
+  }
+
+  int getStripeCount() {
+    return getLocks().length;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this).append("stripeCount", getStripeCount()).toString();
+  }
+}
@@ -0,0 +1,101 @@
+package org.tharrisx.framework.store.sharded;
+
+import java.util.Comparator;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
+import org.tharrisx.framework.store.exception.NoSuchBeanPropertyException;
+import org.tharrisx.util.reflect.BeanAccessor;
+import org.tharrisx.util.reflect.BeanAccessorRegistry;
+
+/**
+ * Orders beans the way the shards sorted their pages, by a sortBy/sortDirection pair of comma separated
+ * lists, so the pages can be merged. Nulls sort first in ascending order, and bean id breaks any remaining
+ * ties, as they do in the shards. String properties are compared in the factory's string order, which must
+ * be the shards' collation: a merge in any other order interleaves the pages wrongly.
+ *
+ * @param <T> T extends StorableBean
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class ShardedBeanComparator<T extends StorableBean> implements Comparator<T> {
+
+  private final BeanAccessor[] accessors;
+
+  private BeanAccessor[] getAccessors() {
+    return this.accessors;
+  }
+
+  private final boolean[] ascending;
+
+  private boolean[] getAscending() {
+    return this.ascending;
+  }
+
+  private final Comparator<? super String> stringOrder;
+
+  private Comparator<? super String> getStringOrder() {
+    return this.stringOrder;
+  }
+
+  /**
+   * @param info BeanStoreStackInfo
+   * @param sortBy String
+   * @param sortDirection String
+   * @param stringOrder1 Comparator<? super String> the shards' collation, or null for String's own order
+   */
+  ShardedBeanComparator(final BeanStoreStackInfo info, final String sortBy, final String sortDirection, final Comparator<? super String> stringOrder1) {
+    this.stringOrder = stringOrder1;
+    if(null == sortBy || "".equals(sortBy)) {
+      this.accessors = new BeanAccessor[0];
+      this.ascending = new boolean[0];
+      return;
+    }
+    String[] sortFields = sortBy.split(",");
+    String[] sortOrders = (null == sortDirection ? "" : sortDirection).split(",");
+    if(sortFields.length != sortOrders.length) throw new IllegalArgumentException("sortBy and sortDirection must contain the same number of values");
+    this.accessors = new BeanAccessor[sortFields.length];
+    this.ascending = new boolean[sortFields.length];
+    for(int idx = 0; idx < sortFields.length; idx++) {
+      try {
+        this.accessors[idx] = BeanAccessorRegistry.get().getAccessor(info.getBeanType(), sortFields[idx]);
+      } catch(NoSuchFieldException e) {
+        throw new NoSuchBeanPropertyException(info, e);
+      }
+      if(!this.accessors[idx].isComparable()) throw new IllegalArgumentException("sortBy field named " + sortFields[idx] + " is not Comparable");
+      this.ascending[idx] = "ASCENDING".equalsIgnoreCase(sortOrders[idx]) || "ASC".equalsIgnoreCase(sortOrders[idx]);
+    }
+  }
+
+  @Override
+  public int compare(T o1, T o2) {
+    int ret = 0;
+    for(int idx = 0; idx < getAccessors().length && 0 == ret; idx++) {
+      BeanAccessor accessor = getAccessors()[idx];
+      if(null != getStringOrder() && String.class == accessor.getType()) {
+        String v1 = (String) accessor.get(o1);
+        String v2 = (String) accessor.get(o2);
+        ret = v1 == v2 ? 0 : null == v1 ? -1 : null == v2 ? 1 : getStringOrder().compare(v1, v2);
+      } else {
+        ret = accessor.getBeanComparator().compare(o1, o2);
+      }
+      if(!getAscending()[idx]) ret = -ret;
+    }
+    if(0 == ret) {
+      ret = o1.getId().compareTo(o2.getId());
+    }
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("accessors", getAccessors())
+        .append("ascending", getAscending())
+        .append("stringOrder", getStringOrder())
+        .toString();
+  }
+}
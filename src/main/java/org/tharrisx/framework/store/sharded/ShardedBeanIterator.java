@@ -0,0 +1,80 @@
+package org.tharrisx.framework.store.sharded;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.BeanIterator;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+
+/**
+ * Streams each shard's beans in turn, opening a shard's stream only once the one before it is used up and
+ * closed, so no more than one shard's transaction is held at a time. Subclasses say which stream to open.
+ *
+ * @param <T> T extends StorableBean
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+abstract class ShardedBeanIterator<T extends StorableBean> implements BeanIterator<T> {
+
+  private final List<BeanStore<T>> shardStores;
+  private BeanIterator<T> current;
+  private int nextShard;
+  private boolean closed;
+
+  ShardedBeanIterator(final List<BeanStore<T>> shardStores1) {
+    this.shardStores = shardStores1;
+  }
+
+  /**
+   * @param shardStore BeanStore<T>
+   * @return BeanIterator<T> the shard's stream
+   * @throws BeanStoreException
+   */
+  protected abstract BeanIterator<T> open(BeanStore<T> shardStore) throws BeanStoreException;
+
+  @Override
+  public boolean hasNext() {
+    while(!this.closed && (null == this.current || !this.current.hasNext())) {
+      if(null != this.current) {
+        BeanIterator<T> used = this.current;
+        this.current = null;
+        used.close();
+      }
+      if(this.shardStores.size() <= this.nextShard) return false;
+      this.current = open(this.shardStores.get(this.nextShard++));
+    }
+    return !this.closed;
+  }
+
+  @Override
+  public T next() {
+    if(!hasNext()) throw new NoSuchElementException();
+    return this.current.next();
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void close() throws BeanStoreException {
+    if(this.closed) return;
+    this.closed = true;
+    if(null != this.current) this.current.close();
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("shardCount", this.shardStores.size())
+        .append("nextShard", this.nextShard)
+        .append("closed", this.closed)
+        .toString();
+  }
+}
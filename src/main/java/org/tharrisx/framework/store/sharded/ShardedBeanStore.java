@@ -0,0 +1,620 @@
+package org.tharrisx.framework.store.sharded;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.tharrisx.framework.bean.BeanList;
+import org.tharrisx.framework.bean.PageableBeanList;
+import org.tharrisx.framework.store.BeanIterator;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreCountStrategy;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.core.AbstractBeanStore;
+import org.tharrisx.framework.store.core.AbstractBeanStoreFactory;
+import org.tharrisx.framework.store.core.BeanStoreCursor;
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.framework.store.exception.ConflictingBeansFoundException;
+import org.tharrisx.framework.store.exception.NoBeanFoundException;
+import org.tharrisx.util.log.Log;
+
+/**
+ * Implements BeanStore over the bean type's store in each of a ShardedBeanStoreFactory's shards.
+ *
+ * Calls on beans by id go to the shard the id names. Match, query and page calls are made on every shard
+ * at once: one on the calling thread, the rest on the factory's scatter executor. A page from start to
+ * end needs each shard's first end + 1 beans, merged in sort order, so deep offset pages cost more the more
+ * shards there are; keyset pages, from getPageOfMatchingBeansAfter(), need only a page from each shard.
+ * Named queries paged here must sort by the sortBy and sortDirection given, then by id.
+ *
+ * Writes run on the calling thread, in the shard transactions of the ShardedBeanStoreTransaction given.
+ *
+ * @param <T> T extends StorableBean
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class ShardedBeanStore<T extends StorableBean> extends AbstractBeanStore<T> {
+
+  private final List<BeanStore<T>> shardStores;
+
+  /**
+   * @return List<BeanStore<T>> the bean type's store in each shard, in shard order
+   */
+  public List<BeanStore<T>> getShardStores() {
+    return this.shardStores;
+  }
+
+  private final AtomicInteger nextCreateShard = new AtomicInteger();
+
+  /**
+   * A call to make on a shard's store.
+   *
+   * @param <V> V what the call returns
+   */
+  private abstract class ShardCall<V> {
+
+    /**
+     * @param shardIndex int
+     * @return boolean false if the shard has nothing to do with the call, so needn't be called
+     */
+    boolean isFor(final int shardIndex) {
+      return true;
+    }
+
+    abstract V call(int shardIndex, BeanStore<T> shardStore) throws BeanStoreException;
+  }
+
+  /**
+   * A shard's list of sorted beans, being merged, and the one it's up to.
+   *
+   * @param <T> T extends StorableBean
+   */
+  private static final class MergeHead<T extends StorableBean> {
+
+    private final Iterator<T> beans;
+
+    private T bean;
+
+    T getBean() {
+      return this.bean;
+    }
+
+    MergeHead(final Iterator<T> beans1) {
+      this.beans = beans1;
+      this.bean = beans1.next();
+    }
+
+    /**
+     * @return boolean false if the list is used up
+     */
+    boolean advance() {
+      this.bean = this.beans.hasNext() ? this.beans.next() : null;
+      return null != this.bean;
+    }
+  }
+
+  protected ShardedBeanStore(final ShardedBeanStoreFactory beanStoreFactory1, final Class<T> beanType1) {
+    super(beanStoreFactory1, beanType1);
+    if(Log.isEnteringEnabled(ShardedBeanStore.class)) Log.entering(ShardedBeanStore.class, Log.METHOD_NAME_CONSTRUCTOR, beanStoreFactory1, beanType1);
+    try {
+      List<BeanStore<T>> stores = new ArrayList<>(beanStoreFactory1.getShards().size());
+      for(AbstractBeanStoreFactory shard : beanStoreFactory1.getShards()) {
+        stores.add(shard.getBeanStore(beanType1));
+      }
+      this.shardStores = Collections.unmodifiableList(stores);
+    } finally {
+      if(Log.isExitingEnabled(ShardedBeanStore.class)) Log.exiting(ShardedBeanStore.class, Log.METHOD_NAME_CONSTRUCTOR);
+    }
+  }
+
+  private ShardedBeanStoreFactory getShardedBeanStoreFactory() {
+    return (ShardedBeanStoreFactory) getBeanStoreFactory();
+  }
+
+  @Override
+  public boolean hasBean(final String beanId) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_HAS_BEAN, beanId);
+    boolean ret = false;
+    try {
+      int shardIndex = getShardedBeanStoreFactory().getShardIndex(beanId);
+      ret = 0 <= shardIndex && getShardStores().get(shardIndex).hasBean(beanId);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_HAS_BEAN, ret);
+    }
+  }
+
+  @Override
+  public boolean hasBeanByUniqueKey(final Map<String, String> propertyValues) throws ConflictingBeansFoundException, BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_HAS_BEAN_BY_UNIQUE_KEY, propertyValues);
+    boolean ret = false;
+    try {
+      List<Boolean> found = scatter(METHOD_HAS_BEAN_BY_UNIQUE_KEY, new ShardCall<Boolean>() {
+        @Override Boolean call(final int shardIndex, final BeanStore<T> shardStore) {
+          return Boolean.valueOf(shardStore.hasBeanByUniqueKey(propertyValues));
+        }
+      });
+      int matches = Collections.frequency(found, Boolean.TRUE);
+      if(1 < matches) {
+        throw new ConflictingBeansFoundException(new BeanStoreStackInfo(getBeanType(), null, METHOD_HAS_BEAN_BY_UNIQUE_KEY), matches, propertyValues);
+      }
+      ret = 1 == matches;
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_HAS_BEAN_BY_UNIQUE_KEY, ret);
+    }
+  }
+
+  @Override
+  public T getBean(final String beanId) throws NoBeanFoundException, BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEAN, beanId);
+    T ret = null;
+    try {
+      ret = getShardStores().get(getStoredBeanShardIndex(beanId, null, METHOD_GET_BEAN)).getBean(beanId);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEAN, ret);
+    }
+  }
+
+  /**
+   * Asks only the shards holding any of the ids, each for its own.
+   */
+  @Override
+  public BeanList<T> getBeans(final Collection<String> beanIds) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEANS, beanIds);
+    BeanList<T> ret = null;
+    try {
+      Collection<String> distinctIds = new LinkedHashSet<>(beanIds);
+      final List<List<String>> shardIds = new ArrayList<>(getShardStores().size());
+      for(int idx = 0; idx < getShardStores().size(); idx++) {
+        shardIds.add(new ArrayList<String>());
+      }
+      for(String beanId : distinctIds) {
+        int shardIndex = getShardedBeanStoreFactory().getShardIndex(beanId);
+        if(0 <= shardIndex) shardIds.get(shardIndex).add(beanId);
+      }
+      List<BeanList<T>> found = scatter(METHOD_GET_BEANS, new ShardCall<BeanList<T>>() {
+        @Override boolean isFor(final int shardIndex) {
+          return !shardIds.get(shardIndex).isEmpty();
+        }
+
+        @Override BeanList<T> call(final int shardIndex, final BeanStore<T> shardStore) {
+          return shardStore.getBeans(shardIds.get(shardIndex));
+        }
+      });
+      Map<String, T> beansById = new HashMap<>();
+      for(BeanList<T> shardBeans : found) {
+        if(null == shardBeans) continue;
+        for(T bean : shardBeans.getItems()) {
+          beansById.put(bean.getId(), bean);
+        }
+      }
+      List<T> items = new ArrayList<>(beansById.size());
+      for(String beanId : distinctIds) {
+        T bean = beansById.get(beanId);
+        if(null != bean) items.add(bean);
+      }
+      ret = new BeanList<>(items);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEANS, ret);
+    }
+  }
+
+  @Override
+  public T getBeanByUniqueKey(final Map<String, String> propertyValues) throws NoBeanFoundException, ConflictingBeansFoundException, BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_BEAN_BY_UNIQUE_KEY, propertyValues);
+    T ret = null;
+    try {
+      List<T> items = concatenate(scatter(METHOD_GET_BEAN_BY_UNIQUE_KEY, new ShardCall<BeanList<T>>() {
+        @Override BeanList<T> call(final int shardIndex, final BeanStore<T> shardStore) {
+          return shardStore.getAllMatchingBeans(propertyValues);
+        }
+      }));
+      if(1 < items.size()) {
+        throw new ConflictingBeansFoundException(new BeanStoreStackInfo(getBeanType(), null, METHOD_GET_BEAN_BY_UNIQUE_KEY), items.size(), propertyValues);
+      } else if(items.isEmpty()) {
+        throw new NoBeanFoundException(new BeanStoreStackInfo(getBeanType(), null, METHOD_GET_BEAN_BY_UNIQUE_KEY), propertyValues);
+      }
+      ret = items.get(0);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_BEAN_BY_UNIQUE_KEY, ret);
+    }
+  }
+
+  @Override
+  public BeanList<T> getAllMatchingBeans(final Map<String, String> propertyValues) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_ALL_MATCHING_BEANS, propertyValues);
+    BeanList<T> ret = null;
+    try {
+      ret = new BeanList<>(concatenate(scatter(METHOD_GET_ALL_MATCHING_BEANS, new ShardCall<BeanList<T>>() {
+        @Override BeanList<T> call(final int shardIndex, final BeanStore<T> shardStore) {
+          return shardStore.getAllMatchingBeans(propertyValues);
+        }
+      })));
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_ALL_MATCHING_BEANS, ret);
+    }
+  }
+
+  @Override
+  public BeanList<T> getAllBeansViaQuery(final String queryName, final Object... queryParameters) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_ALL_BEANS_VIA_QUERY, queryName, queryParameters);
+    BeanList<T> ret = null;
+    try {
+      ret = new BeanList<>(concatenate(scatter(METHOD_GET_ALL_BEANS_VIA_QUERY, new ShardCall<BeanList<T>>() {
+        @Override BeanList<T> call(final int shardIndex, final BeanStore<T> shardStore) {
+          return shardStore.getAllBeansViaQuery(queryName, queryParameters);
+        }
+      })));
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_ALL_BEANS_VIA_QUERY, ret);
+    }
+  }
+
+  /**
+   * Streams each shard's matches in turn, unsorted across shards.
+   */
+  @Override
+  public BeanIterator<T> streamMatchingBeans(final Map<String, String> propertyValues) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_STREAM_MATCHING_BEANS, propertyValues);
+    BeanIterator<T> ret = null;
+    try {
+      ret = new ShardedBeanIterator<T>(getShardStores()) {
+        @Override protected BeanIterator<T> open(final BeanStore<T> shardStore) {
+          return shardStore.streamMatchingBeans(propertyValues);
+        }
+      };
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_STREAM_MATCHING_BEANS, ret);
+    }
+  }
+
+  /**
+   * Streams each shard's results in turn, unsorted across shards.
+   */
+  @Override
+  public BeanIterator<T> streamBeansViaQuery(final String queryName, final Object... queryParameters) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_STREAM_BEANS_VIA_QUERY, queryName, queryParameters);
+    BeanIterator<T> ret = null;
+    try {
+      ret = new ShardedBeanIterator<T>(getShardStores()) {
+        @Override protected BeanIterator<T> open(final BeanStore<T> shardStore) {
+          return shardStore.streamBeansViaQuery(queryName, queryParameters);
+        }
+      };
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_STREAM_BEANS_VIA_QUERY, ret);
+    }
+  }
+
+  @Override
+  public PageableBeanList<T> getPageOfMatchingBeans(final int start, final int end, final String sortBy, final String sortDirection, final Map<String, String> propertyValues, final BeanStoreCountStrategy countStrategy) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_PAGE_OF_MATCHING_BEANS, start, end, sortBy, sortDirection, propertyValues, countStrategy);
+    PageableBeanList<T> ret = null;
+    try {
+      List<PageableBeanList<T>> pages = scatter(METHOD_GET_PAGE_OF_MATCHING_BEANS, new ShardCall<PageableBeanList<T>>() {
+        @Override PageableBeanList<T> call(final int shardIndex, final BeanStore<T> shardStore) {
+          return shardStore.getPageOfMatchingBeans(0, end, sortBy, sortDirection, propertyValues, countStrategy);
+        }
+      });
+      ret = mergePages(METHOD_GET_PAGE_OF_MATCHING_BEANS, pages, start, end, sortBy, sortDirection, true);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_PAGE_OF_MATCHING_BEANS, ret);
+    }
+  }
+
+  /**
+   * Every shard pages on from the same cursor, since it records a position in the sort, not in a shard.
+   */
+  @Override
+  public PageableBeanList<T> getPageOfMatchingBeansAfter(final String cursor, final int pageSize, final String sortBy, final String sortDirection, final Map<String, String> propertyValues, final BeanStoreCountStrategy countStrategy) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, cursor, pageSize, sortBy, sortDirection, propertyValues, countStrategy);
+    PageableBeanList<T> ret = null;
+    try {
+      List<PageableBeanList<T>> pages = scatter(METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, new ShardCall<PageableBeanList<T>>() {
+        @Override PageableBeanList<T> call(final int shardIndex, final BeanStore<T> shardStore) {
+          return shardStore.getPageOfMatchingBeansAfter(cursor, pageSize, sortBy, sortDirection, propertyValues, countStrategy);
+        }
+      });
+      ret = mergePages(METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, pages, 0, pageSize - 1, sortBy, sortDirection, true);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_PAGE_OF_MATCHING_BEANS_AFTER, ret);
+    }
+  }
+
+  @Override
+  public PageableBeanList<T> getPageOfBeansViaQuery(final int start, final int end, final String sortBy, final String sortDirection, final BeanStoreCountStrategy countStrategy, final String queryName, final Object... queryParameters) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_GET_PAGE_OF_BEANS_VIA_QUERY, start, end, sortBy, sortDirection, countStrategy, queryName, queryParameters);
+    PageableBeanList<T> ret = null;
+    try {
+      List<PageableBeanList<T>> pages = scatter(METHOD_GET_PAGE_OF_BEANS_VIA_QUERY, new ShardCall<PageableBeanList<T>>() {
+        @Override PageableBeanList<T> call(final int shardIndex, final BeanStore<T> shardStore) {
+          return shardStore.getPageOfBeansViaQuery(0, end, sortBy, sortDirection, countStrategy, queryName, queryParameters);
+        }
+      });
+      ret = mergePages(METHOD_GET_PAGE_OF_BEANS_VIA_QUERY, pages, start, end, sortBy, sortDirection, false);
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_GET_PAGE_OF_BEANS_VIA_QUERY, ret);
+    }
+  }
+
+  @Override
+  public T createOrUpdateBean(final T bean, final BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_CREATE_OR_UPDATE_BEAN, bean, transaction);
+    T ret = null;
+    try {
+      int shardIndex = getWriteShardIndex(bean, transaction, METHOD_CREATE_OR_UPDATE_BEAN);
+      ret = getShardStores().get(shardIndex).createOrUpdateBean(bean, getShardTransaction(transaction, shardIndex));
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_CREATE_OR_UPDATE_BEAN, ret);
+    }
+  }
+
+  @Override
+  public boolean deleteBean(final String beanId, final BeanStoreTransaction transaction) throws NoBeanFoundException, BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_BEAN, beanId, transaction);
+    boolean ret = false;
+    try {
+      int shardIndex = getStoredBeanShardIndex(beanId, transaction, METHOD_DELETE_BEAN);
+      ret = getShardStores().get(shardIndex).deleteBean(beanId, getShardTransaction(transaction, shardIndex));
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_BEAN, ret);
+    }
+  }
+
+  /**
+   * Writes each shard's beans in one batch, shard after shard, and hands them back in the order given.
+   */
+  @Override
+  public List<T> createOrUpdateBeans(final Collection<T> beans, final BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_CREATE_OR_UPDATE_BEANS, beans, transaction);
+    List<T> ret = null;
+    try {
+      int[] beanShards = new int[beans.size()];
+      List<List<T>> shardBeans = new ArrayList<>(getShardStores().size());
+      for(int idx = 0; idx < getShardStores().size(); idx++) {
+        shardBeans.add(new ArrayList<T>());
+      }
+      int beanIdx = 0;
+      for(T bean : beans) {
+        beanShards[beanIdx] = getWriteShardIndex(bean, transaction, METHOD_CREATE_OR_UPDATE_BEANS);
+        shardBeans.get(beanShards[beanIdx]).add(bean);
+        beanIdx++;
+      }
+      List<List<T>> written = new ArrayList<>(getShardStores().size());
+      for(int idx = 0; idx < getShardStores().size(); idx++) {
+        written.add(shardBeans.get(idx).isEmpty() ? Collections.<T>emptyList() : getShardStores().get(idx).createOrUpdateBeans(shardBeans.get(idx), getShardTransaction(transaction, idx)));
+      }
+      int[] taken = new int[getShardStores().size()];
+      ret = new ArrayList<>(beans.size());
+      for(int shardIndex : beanShards) {
+        ret.add(written.get(shardIndex).get(taken[shardIndex]++));
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_CREATE_OR_UPDATE_BEANS, ret);
+    }
+  }
+
+  /**
+   * Ids that name no shard name no bean, so are skipped, as other missing ids are.
+   */
+  @Override
+  public int deleteBeans(final Collection<String> beanIds, final BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_BEANS, beanIds, transaction);
+    int ret = 0;
+    try {
+      List<List<String>> shardIds = new ArrayList<>(getShardStores().size());
+      for(int idx = 0; idx < getShardStores().size(); idx++) {
+        shardIds.add(new ArrayList<String>());
+      }
+      for(String beanId : beanIds) {
+        int shardIndex = getShardedBeanStoreFactory().getShardIndex(beanId);
+        if(0 <= shardIndex) shardIds.get(shardIndex).add(beanId);
+      }
+      for(int idx = 0; idx < getShardStores().size(); idx++) {
+        if(shardIds.get(idx).isEmpty()) continue;
+        ret += getShardStores().get(idx).deleteBeans(shardIds.get(idx), getShardTransaction(transaction, idx));
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_BEANS, ret);
+    }
+  }
+
+  /**
+   * Deletes in each shard in turn, in its own shard transaction.
+   */
+  @Override
+  public int deleteMatchingBeans(final Map<String, String> propertyValues, final BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_DELETE_MATCHING_BEANS, propertyValues, transaction);
+    int ret = 0;
+    try {
+      for(int idx = 0; idx < getShardStores().size(); idx++) {
+        ret += getShardStores().get(idx).deleteMatchingBeans(propertyValues, getShardTransaction(transaction, idx));
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_DELETE_MATCHING_BEANS, ret);
+    }
+  }
+
+  /**
+   * Updates in each shard in turn, in its own shard transaction.
+   */
+  @Override
+  public int updateMatchingBeans(final Map<String, String> propertyValues, final Map<String, String> newPropertyValues, final BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_UPDATE_MATCHING_BEANS, propertyValues, newPropertyValues, transaction);
+    int ret = 0;
+    try {
+      for(int idx = 0; idx < getShardStores().size(); idx++) {
+        ret += getShardStores().get(idx).updateMatchingBeans(propertyValues, newPropertyValues, getShardTransaction(transaction, idx));
+      }
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_UPDATE_MATCHING_BEANS, ret);
+    }
+  }
+
+  /**
+   * @param bean T
+   * @param transaction BeanStoreTransaction
+   * @param beanStoreMethod String
+   * @return int the shard the bean lives in, or, for a new bean, the next shard's turn to take one
+   * @throws NoBeanFoundException if the bean has an id that names no shard
+   */
+  private int getWriteShardIndex(final T bean, final BeanStoreTransaction transaction, final String beanStoreMethod) throws NoBeanFoundException {
+    if(wasBeanStoredPreviously(bean)) return getStoredBeanShardIndex(bean.getId(), transaction, beanStoreMethod);
+    return (this.nextCreateShard.getAndIncrement() & Integer.MAX_VALUE) % getShardStores().size();
+  }
+
+  private int getStoredBeanShardIndex(final String beanId, final BeanStoreTransaction transaction, final String beanStoreMethod) throws NoBeanFoundException {
+    int ret = getShardedBeanStoreFactory().getShardIndex(beanId);
+    if(0 > ret) {
+      throw new NoBeanFoundException(new BeanStoreStackInfo(getBeanType(), transaction, beanStoreMethod), "No bean for id: " + beanId);
+    }
+    return ret;
+  }
+
+  /**
+   * @return BeanStoreTransaction null if the write was given none, so each shard store writes as it does
+   *         when given none
+   */
+  private BeanStoreTransaction getShardTransaction(final BeanStoreTransaction transaction, final int shardIndex) throws BeanStoreException {
+    if(null == transaction) return null;
+    return ((ShardedBeanStoreTransaction) transaction).getShardTransaction(shardIndex, getShardedBeanStoreFactory().getShards().get(shardIndex));
+  }
+
+  /**
+   * Make the call on every shard it's for at once, the first of them on this thread, and wait for them all.
+   *
+   * @param <V> V
+   * @param beanStoreMethod String
+   * @param shardCall ShardCall<V>
+   * @return List<V> each shard's result, in shard order, null for shards the call wasn't for
+   * @throws BeanStoreException the first failure met, once the shards not yet waited for are cancelled
+   */
+  private <V> List<V> scatter(final String beanStoreMethod, final ShardCall<V> shardCall) throws BeanStoreException {
+    int shardCount = getShardStores().size();
+    List<ListenableFuture<V>> futures = new ArrayList<>(Collections.<ListenableFuture<V>>nCopies(shardCount, null));
+    List<V> ret = new ArrayList<>(Collections.<V>nCopies(shardCount, null));
+    try {
+      int callerShard = -1;
+      for(int idx = 0; idx < shardCount; idx++) {
+        if(!shardCall.isFor(idx)) continue;
+        if(0 > callerShard) {
+          callerShard = idx;
+          continue;
+        }
+        final int shardIndex = idx;
+        futures.set(idx, getShardedBeanStoreFactory().getScatterExecutor().submit(getBeanType(), beanStoreMethod, new Callable<V>() {
+          @Override public V call() {
+            return shardCall.call(shardIndex, getShardStores().get(shardIndex));
+          }
+        }));
+      }
+      if(0 <= callerShard) {
+        ret.set(callerShard, shardCall.call(callerShard, getShardStores().get(callerShard)));
+      }
+      for(int idx = 0; idx < shardCount; idx++) {
+        if(null != futures.get(idx)) ret.set(idx, futures.get(idx).get());
+      }
+      return ret;
+    } catch(InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), null, beanStoreMethod), "Interrupted waiting for the shards.", e);
+    } catch(ExecutionException e) {
+      if(e.getCause() instanceof BeanStoreException) throw (BeanStoreException) e.getCause();
+      throw new BeanStoreException(new BeanStoreStackInfo(getBeanType(), null, beanStoreMethod), e.getCause());
+    } finally {
+      // does nothing to those done; spares the shards the rest after a failure
+      for(ListenableFuture<V> future : futures) {
+        if(null != future) future.cancel(false);
+      }
+    }
+  }
+
+  private static <T extends StorableBean> List<T> concatenate(final List<BeanList<T>> shardBeans) {
+    List<T> ret = new ArrayList<>();
+    for(BeanList<T> beans : shardBeans) {
+      ret.addAll(beans.getItems());
+    }
+    return ret;
+  }
+
+  /**
+   * Merge the shards' pages, each sorted and each from the first bean on, into the page from start to end.
+   *
+   * @param beanStoreMethod String
+   * @param pages List<PageableBeanList<T>>
+   * @param start int
+   * @param end int
+   * @param sortBy String
+   * @param sortDirection String
+   * @param withNext boolean true to give the page a cursor to the next
+   * @return PageableBeanList<T> counting the sum of the shards' counts, or -1 if any shard didn't count
+   */
+  private PageableBeanList<T> mergePages(final String beanStoreMethod, final List<PageableBeanList<T>> pages, final int start, final int end, final String sortBy, final String sortDirection, final boolean withNext) {
+    final Comparator<T> comparator = new ShardedBeanComparator<>(new BeanStoreStackInfo(getBeanType(), null, beanStoreMethod), sortBy, sortDirection, getShardedBeanStoreFactory().getStringOrder());
+    PriorityQueue<MergeHead<T>> heads = new PriorityQueue<>(pages.size(), new Comparator<MergeHead<T>>() {
+      @Override public int compare(MergeHead<T> o1, MergeHead<T> o2) {
+        return comparator.compare(o1.getBean(), o2.getBean());
+      }
+    });
+    int totalCount = 0;
+    for(PageableBeanList<T> page : pages) {
+      if(!page.getItems().isEmpty()) heads.add(new MergeHead<>(page.getItems().iterator()));
+      totalCount = 0 > totalCount || 0 > page.getTotalCount() ? -1 : totalCount + page.getTotalCount();
+    }
+    List<T> items = new ArrayList<>();
+    for(int position = 0; !heads.isEmpty() && position <= end; position++) {
+      MergeHead<T> head = heads.poll();
+      if(start <= position) items.add(head.getBean());
+      if(head.advance()) heads.add(head);
+    }
+    if(!withNext) {
+      return new PageableBeanList<>(items, totalCount, start, end, sortBy, sortDirection);
+    }
+    String next = "";
+    if(!items.isEmpty() && items.size() == end - start + 1) {
+      next = BeanStoreCursor.afterBean(getBeanType(), sortBy, sortDirection, items.get(items.size() - 1)).encode();
+    }
+    return new PageableBeanList<>(items, totalCount, start, end, sortBy, sortDirection, next);
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .appendSuper(super.toString())
+        .append("shardCount", getShardStores().size())
+        .toString();
+  }
+}
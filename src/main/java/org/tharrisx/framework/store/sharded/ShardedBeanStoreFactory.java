@@ -0,0 +1,231 @@
+package org.tharrisx.framework.store.sharded;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.core.AbstractBeanStoreFactory;
+import org.tharrisx.framework.store.core.BeanStoreExecutor;
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.util.log.Log;
+
+/**
+ * Implements BeanStoreFactory by spreading each bean type's beans across several other factories, the
+ * shards, such as HibernateBeanStoreFactories on separate databases, each configured with the same bean
+ * types.
+ *
+ * A bean lives in the shard whose index its id starts with, as two hex digits; each shard's bean id prefix
+ * is set to its index here, so the ids its stores create do. New beans go to the shards in turn. Calls on
+ * one bean go to its shard alone; match, query and page calls go to every shard at once, on the scatter
+ * executor, and their results are merged. Shards may be added at the end of the list without moving any
+ * bean, but not removed or reordered; nor may beans stored under other ids be sharded without new ids.
+ *
+ * Its transactions hold one transaction per shard written; see ShardedBeanStoreTransaction. Reads are
+ * made in the shards' own transactions, so don't see a transaction's writes until it ends.
+ *
+ * Caching is turned off in the shards, so StoreCache and StoreIdFilter types are cached and filtered
+ * once, here.
+ *
+ * Merging sorted pages needs the shards' order of strings. By default it is String's own, by UTF-16 code
+ * unit, as memory shards and databases with a binary collation sort. Databases sorting strings any other
+ * way, such as MySQL with its default case insensitive collations, need setStringOrder() given a matching
+ * Comparator, such as String.CASE_INSENSITIVE_ORDER, or a java.text.Collator set up like the collation.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class ShardedBeanStoreFactory extends AbstractBeanStoreFactory {
+
+  /**
+   * As many as two hex digits of bean id can tell apart.
+   */
+  public static final int MAX_SHARD_COUNT = 256;
+
+  /**
+   * The scatter threads per shard, when not given.
+   */
+  public static final int DEFAULT_SCATTER_THREADS_PER_SHARD = 4;
+
+  /**
+   * The shard calls per shard that may wait for a scatter thread, when not given.
+   */
+  public static final int DEFAULT_SCATTER_QUEUE_DEPTH_PER_SHARD = 16;
+
+  private static final String SHARD_PREFIX_FORMAT = "%02X";
+
+  private final List<AbstractBeanStoreFactory> shards;
+
+  public List<AbstractBeanStoreFactory> getShards() {
+    return this.shards;
+  }
+
+  private final BeanStoreExecutor scatterExecutor;
+
+  /**
+   * @return BeanStoreExecutor the threads calls to all shards run on; kept apart from the AsyncBeanStore
+   * executor, whose calls may scatter in turn
+   */
+  public BeanStoreExecutor getScatterExecutor() {
+    return this.scatterExecutor;
+  }
+
+  private volatile Comparator<? super String> stringOrder = null;
+
+  /**
+   * @return Comparator<? super String> the order the shards sort strings in, or null for String's own
+   */
+  public Comparator<? super String> getStringOrder() {
+    return this.stringOrder;
+  }
+
+  /**
+   * Set the order the shards sort strings in, to merge their sorted pages in; it must agree with their
+   * collation.
+   * 
+   * @param stringOrder1 Comparator<? super String> or null for String's own order, a binary collation's
+   */
+  public void setStringOrder(Comparator<? super String> stringOrder1) {
+    this.stringOrder = stringOrder1;
+  }
+
+  public ShardedBeanStoreFactory(List<Class<? extends StorableBean>> beanTypes1, List<? extends AbstractBeanStoreFactory> shards1) {
+    this(beanTypes1, shards1, shards1.size() * DEFAULT_SCATTER_THREADS_PER_SHARD, shards1.size() * DEFAULT_SCATTER_QUEUE_DEPTH_PER_SHARD);
+  }
+
+  public ShardedBeanStoreFactory(List<Class<? extends StorableBean>> beanTypes1, List<? extends AbstractBeanStoreFactory> shards1, int scatterThreadCount1, int scatterQueueDepth1) {
+    super(beanTypes1);
+    if(Log.isEnteringEnabled(ShardedBeanStoreFactory.class)) Log.entering(ShardedBeanStoreFactory.class, Log.METHOD_NAME_CONSTRUCTOR, beanTypes1, shards1, Integer.valueOf(scatterThreadCount1), Integer.valueOf(scatterQueueDepth1));
+    try {
+      if(shards1.isEmpty() || MAX_SHARD_COUNT < shards1.size()) {
+        throw new IllegalArgumentException("There must be from 1 to " + MAX_SHARD_COUNT + " shards, not " + shards1.size() + ".");
+      }
+      List<AbstractBeanStoreFactory> shardList = new ArrayList<>(shards1);
+      for(int idx = 0; idx < shardList.size(); idx++) {
+        shardList.get(idx).setBeanIdPrefix(getShardPrefix(idx));
+        // beans are cached and filtered once, in front of the sharded stores
+        shardList.get(idx).setCaching(false);
+      }
+      this.shards = Collections.unmodifiableList(shardList);
+      this.scatterExecutor = new BeanStoreExecutor(getClass().getSimpleName() + "-scatter", scatterThreadCount1, scatterQueueDepth1);
+    } finally {
+      if(Log.isExitingEnabled(ShardedBeanStoreFactory.class)) Log.exiting(ShardedBeanStoreFactory.class, Log.METHOD_NAME_CONSTRUCTOR);
+    }
+  }
+
+  /**
+   * @param shardIndex int
+   * @return String the bean id prefix of the shard at the index
+   */
+  static String getShardPrefix(final int shardIndex) {
+    return String.format(SHARD_PREFIX_FORMAT, Integer.valueOf(shardIndex));
+  }
+
+  /**
+   * @param beanId String
+   * @return int the index of the shard the bean lives in, or -1 if the id names none
+   */
+  public int getShardIndex(final String beanId) {
+    if(null == beanId || 2 > beanId.length()) return -1;
+    int ret = Character.digit(beanId.charAt(0), 16) << 4 | Character.digit(beanId.charAt(1), 16);
+    return 0 > ret || getShards().size() <= ret ? -1 : ret;
+  }
+
+  @Override
+  protected <T extends StorableBean> BeanStore<T> constructBeanStore(Class<T> beanType) {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_CONSTRUCT_BEAN_STORE, beanType);
+    BeanStore<T> ret = null;
+    try {
+      ret = new ShardedBeanStore<>(this, beanType);
+      if(Log.isInfoEnabled(getClass())) Log.info(getClass(), METHOD_CONSTRUCT_BEAN_STORE, "ShardedBeanStore created for bean type " + beanType + " over " + getShards().size() + " shards.");
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_CONSTRUCT_BEAN_STORE, ret);
+    }
+  }
+
+  @Override
+  public <T extends StorableBean> BeanStoreTransaction beginTransaction(Class<T> mainBeanType, String transactionName) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_BEGIN_TRANSACTION, mainBeanType, transactionName);
+    BeanStoreTransaction ret = null;
+    try {
+      ret = new ShardedBeanStoreTransaction(transactionName, mainBeanType, false, getShards().size());
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_BEGIN_TRANSACTION, ret);
+    }
+  }
+
+  @Override
+  public <T extends StorableBean> BeanStoreTransaction beginReadOnlyTransaction(Class<T> mainBeanType, String transactionName) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_BEGIN_READ_ONLY_TRANSACTION, mainBeanType, transactionName);
+    BeanStoreTransaction ret = null;
+    try {
+      ret = new ShardedBeanStoreTransaction(transactionName, mainBeanType, true, getShards().size());
+      return ret;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_BEGIN_READ_ONLY_TRANSACTION, ret);
+    }
+  }
+
+  /**
+   * Ends every shard transaction begun, even after one fails to, and then throws the first failure. Marked
+   * rollback only, it rolls every one of them back.
+   */
+  @Override
+  public <T extends StorableBean> void endTransaction(Class<T> mainBeanType, BeanStoreTransaction transaction) throws BeanStoreException {
+    if(Log.isEnteringEnabled(getClass())) Log.entering(getClass(), METHOD_END_TRANSACTION, mainBeanType, transaction);
+    try {
+      if(null == transaction) {
+        throw new BeanStoreException(new BeanStoreStackInfo(mainBeanType, null, null), "Transaction was not started.");
+      }
+      ShardedBeanStoreTransaction transactionCast = (ShardedBeanStoreTransaction) transaction;
+      BeanStoreException failure = null;
+      boolean committed = false;
+      try {
+        for(int idx = 0; idx < transactionCast.getShardTransactions().length; idx++) {
+          BeanStoreTransaction shardTransaction = transactionCast.getShardTransactions()[idx];
+          if(null == shardTransaction) continue;
+          if(transaction.isRollbackOnly()) shardTransaction.setRollbackOnly();
+          try {
+            getShards().get(idx).endTransaction(transactionCast.getBeanType(), shardTransaction);
+          } catch(BeanStoreException e) {
+            Log.error(getClass(), METHOD_END_TRANSACTION, "Transaction on shard " + idx + " named '" + transaction.getTransactionName() + "' failed to end"
+                + (null == failure ? "." : ", after another shard's also failed."), e);
+            if(null == failure) failure = e;
+          }
+        }
+        committed = null == failure && !transaction.isRollbackOnly();
+      } finally {
+        transaction.runEndActions(committed);
+      }
+      if(null != failure) throw failure;
+    } finally {
+      if(Log.isExitingEnabled(getClass())) Log.exiting(getClass(), METHOD_END_TRANSACTION);
+    }
+  }
+
+  /**
+   * Stop the scatter and async executors. The shards are left to whoever made them. Call on shutdown.
+   */
+  public void close() {
+    getScatterExecutor().shutdown();
+    shutdownAsyncExecutor();
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .appendSuper(super.toString())
+        .append("shards", getShards())
+        .append("scatterExecutor", getScatterExecutor())
+        .append("stringOrder", getStringOrder())
+        .toString();
+  }
+}
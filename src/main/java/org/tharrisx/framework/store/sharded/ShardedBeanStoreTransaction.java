@@ -0,0 +1,79 @@
+package org.tharrisx.framework.store.sharded;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.store.BeanStoreFactory;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+
+/**
+ * A transaction in each shard a ShardedBeanStore writes to under it, each begun when the shard is first
+ * written. Ending it ends them one after another; there's no commit across shards, so if one fails to end,
+ * those ended before it have still committed.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class ShardedBeanStoreTransaction extends BeanStoreTransaction {
+
+  private static final long serialVersionUID = -3620716417729143541L;
+
+  private final Class<? extends StorableBean> beanType;
+
+  /**
+   * @return Class<? extends StorableBean> the bean type it was begun for, to begin and end its shards' for
+   */
+  Class<? extends StorableBean> getBeanType() {
+    return this.beanType;
+  }
+
+  private final boolean readOnly;
+
+  boolean isReadOnly() {
+    return this.readOnly;
+  }
+
+  private final transient BeanStoreTransaction[] shardTransactions;
+
+  /**
+   * @return BeanStoreTransaction[] one per shard, null where the shard hasn't been used
+   */
+  BeanStoreTransaction[] getShardTransactions() {
+    return this.shardTransactions;
+  }
+
+  protected ShardedBeanStoreTransaction(final String transactionName, final Class<? extends StorableBean> beanType1, final boolean readOnly1, final int shardCount) {
+    super(transactionName);
+    this.beanType = beanType1;
+    this.readOnly = readOnly1;
+    this.shardTransactions = new BeanStoreTransaction[shardCount];
+  }
+
+  /**
+   * @param shardIndex int
+   * @param shard BeanStoreFactory the shard at that index
+   * @return BeanStoreTransaction the shard's transaction, begun now if it hadn't been
+   * @throws BeanStoreException if it could not be begun
+   */
+  BeanStoreTransaction getShardTransaction(final int shardIndex, final BeanStoreFactory shard) throws BeanStoreException {
+    BeanStoreTransaction ret = getShardTransactions()[shardIndex];
+    if(null == ret) {
+      ret = isReadOnly() ? shard.beginReadOnlyTransaction(getBeanType(), getTransactionName()) : shard.beginTransaction(getBeanType(), getTransactionName());
+      getShardTransactions()[shardIndex] = ret;
+    }
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .appendSuper(super.toString())
+        .append("beanType", getBeanType())
+        .append("readOnly", isReadOnly())
+        .append("shardTransactions", null == getShardTransactions() ? null : Arrays.asList(getShardTransactions()))
+        .toString();
+  }
+}
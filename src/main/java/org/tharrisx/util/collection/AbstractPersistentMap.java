@@ -0,0 +1,103 @@
+package org.tharrisx.util.collection;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The views and conveniences common to the PersistentMap implementations, built on iterator(), size() and
+ * containsKey().
+ *
+ * @param <K> K
+ * @param <V> V
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+abstract class AbstractPersistentMap<K, V> implements PersistentMap<K, V> {
+
+  @Override
+  public boolean isEmpty() {
+    return 0 == size();
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return new AbstractSet<K>() {
+      @Override
+      public Iterator<K> iterator() {
+        return new EntryPartIterator<K>(AbstractPersistentMap.this.iterator(), true);
+      }
+
+      @Override
+      public boolean contains(Object key) {
+        return null != key && containsKey(key);
+      }
+
+      @Override
+      public int size() {
+        return AbstractPersistentMap.this.size();
+      }
+    };
+  }
+
+  @Override
+  public Collection<V> values() {
+    return new AbstractCollection<V>() {
+      @Override
+      public Iterator<V> iterator() {
+        return new EntryPartIterator<V>(AbstractPersistentMap.this.iterator(), false);
+      }
+
+      @Override
+      public int size() {
+        return AbstractPersistentMap.this.size();
+      }
+    };
+  }
+
+  /**
+   * Reads the keys or the values out of an entry iterator.
+   */
+  static final class EntryPartIterator<E> implements Iterator<E> {
+
+    private final Iterator<? extends Map.Entry<?, ?>> entries;
+    private final boolean keys;
+
+    EntryPartIterator(final Iterator<? extends Map.Entry<?, ?>> entries1, final boolean keys1) {
+      this.entries = entries1;
+      this.keys = keys1;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.entries.hasNext();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E next() {
+      Map.Entry<?, ?> entry = this.entries.next();
+      return (E) (this.keys ? entry.getKey() : entry.getValue());
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder ret = new StringBuilder("{");
+    for(Map.Entry<K, V> entry : this) {
+      if(ret.length() > 1) ret.append(", ");
+      ret.append(entry.getKey()).append('=').append(entry.getValue());
+    }
+    return ret.append('}').toString();
+  }
+}
@@ -6,6 +6,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.TreeMap;
 
 /**
  * Converts a list of strings, which when concatenated are of the form:
@@ -64,4 +65,29 @@ public class MapStringUtils {
       ret.add(completeString.substring(spot));
     return ret;
   }
+
+  /**
+   * Encodes the names and values as one string, the same for the same map in any order, and different for
+   * different maps: each name and value is prefixed with its length, so no name or value, whatever
+   * characters it holds, can run into the next, as they can in the map's toString().
+   * 
+   * @param nameValueMap Map<String, String>
+   * @return String
+   */
+  public static String constructKey(Map<String, String> nameValueMap) {
+    StringBuilder ret = new StringBuilder();
+    for(Map.Entry<String, String> entry : new TreeMap<>(nameValueMap).entrySet()) {
+      appendKeyPart(ret, entry.getKey());
+      appendKeyPart(ret, entry.getValue());
+    }
+    return ret.toString();
+  }
+
+  private static void appendKeyPart(StringBuilder key, String part) {
+    if(null == part) {
+      key.append("-1:");
+    } else {
+      key.append(part.length()).append(':').append(part);
+    }
+  }
 }
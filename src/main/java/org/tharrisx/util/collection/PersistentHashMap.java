@@ -0,0 +1,361 @@
+package org.tharrisx.util.collection;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A hash array mapped trie: a 32-way tree indexed by successive 5 bit slices of the key hash, where each
+ * node holds only the slots in use, flagged by a bitmap. Gets and updates touch at most seven nodes, and an
+ * update copies only those on its path, so every earlier version of the map stays intact and shares the rest.
+ *
+ * Keys whose whole hashes collide share a collision node at the bottom of the trie.
+ *
+ * @param <K> K
+ * @param <V> V
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public final class PersistentHashMap<K, V> extends AbstractPersistentMap<K, V> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private static final Object NOT_FOUND = new Object();
+
+  @SuppressWarnings("rawtypes")
+  private static final PersistentHashMap EMPTY = new PersistentHashMap(null, 0);
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentHashMap<K, V> empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Either kind of node keeps its contents in one array of pairs. In a bitmap node a pair is a key and its
+   * value, or a null and a child node; in a collision node every pair is a key and its value.
+   */
+  private abstract static class Node {
+
+    final Object[] array;
+
+    Node(final Object[] array1) {
+      this.array = array1;
+    }
+
+    abstract Object find(int shift, int hash, Object key);
+
+    abstract Node plus(int shift, int hash, Object key, Object value, boolean[] added);
+
+    /**
+     * @return Node this node if the key wasn't here, null if the node is now empty
+     */
+    abstract Node minus(int shift, int hash, Object key);
+  }
+
+  private static final class BitmapNode extends Node {
+
+    static final BitmapNode EMPTY_NODE = new BitmapNode(0, new Object[0]);
+
+    final int bitmap;
+
+    BitmapNode(final int bitmap1, final Object[] array1) {
+      super(array1);
+      this.bitmap = bitmap1;
+    }
+
+    private int index(final int bit) {
+      return Integer.bitCount(this.bitmap & (bit - 1));
+    }
+
+    @Override
+    Object find(final int shift, final int hash, final Object key) {
+      int bit = 1 << ((hash >>> shift) & MASK);
+      if(0 == (this.bitmap & bit)) return NOT_FOUND;
+      int idx = index(bit);
+      Object keyOrNull = this.array[2 * idx];
+      Object valueOrNode = this.array[2 * idx + 1];
+      if(null == keyOrNull) return ((Node) valueOrNode).find(shift + BITS, hash, key);
+      return key.equals(keyOrNull) ? valueOrNode : NOT_FOUND;
+    }
+
+    @Override
+    Node plus(final int shift, final int hash, final Object key, final Object value, final boolean[] added) {
+      int bit = 1 << ((hash >>> shift) & MASK);
+      int idx = index(bit);
+      if(0 == (this.bitmap & bit)) {
+        Object[] newArray = new Object[this.array.length + 2];
+        System.arraycopy(this.array, 0, newArray, 0, 2 * idx);
+        newArray[2 * idx] = key;
+        newArray[2 * idx + 1] = value;
+        System.arraycopy(this.array, 2 * idx, newArray, 2 * idx + 2, this.array.length - 2 * idx);
+        added[0] = true;
+        return new BitmapNode(this.bitmap | bit, newArray);
+      }
+      Object keyOrNull = this.array[2 * idx];
+      Object valueOrNode = this.array[2 * idx + 1];
+      if(null == keyOrNull) {
+        Node child = ((Node) valueOrNode).plus(shift + BITS, hash, key, value, added);
+        return child == valueOrNode ? this : new BitmapNode(this.bitmap, copyAndSet(this.array, 2 * idx + 1, child));
+      }
+      if(key.equals(keyOrNull)) {
+        return value == valueOrNode ? this : new BitmapNode(this.bitmap, copyAndSet(this.array, 2 * idx + 1, value));
+      }
+      added[0] = true;
+      Object[] newArray = copyAndSet(this.array, 2 * idx, null);
+      newArray[2 * idx + 1] = createNode(shift + BITS, keyOrNull, valueOrNode, hash, key, value);
+      return new BitmapNode(this.bitmap, newArray);
+    }
+
+    @Override
+    Node minus(final int shift, final int hash, final Object key) {
+      int bit = 1 << ((hash >>> shift) & MASK);
+      if(0 == (this.bitmap & bit)) return this;
+      int idx = index(bit);
+      Object keyOrNull = this.array[2 * idx];
+      Object valueOrNode = this.array[2 * idx + 1];
+      if(null == keyOrNull) {
+        Node child = ((Node) valueOrNode).minus(shift + BITS, hash, key);
+        if(child == valueOrNode) return this;
+        if(null != child) return new BitmapNode(this.bitmap, copyAndSet(this.array, 2 * idx + 1, child));
+      } else if(!key.equals(keyOrNull)) {
+        return this;
+      }
+      if(this.bitmap == bit) return null;
+      Object[] newArray = new Object[this.array.length - 2];
+      System.arraycopy(this.array, 0, newArray, 0, 2 * idx);
+      System.arraycopy(this.array, 2 * idx + 2, newArray, 2 * idx, newArray.length - 2 * idx);
+      return new BitmapNode(this.bitmap ^ bit, newArray);
+    }
+  }
+
+  private static final class CollisionNode extends Node {
+
+    final int hash;
+
+    CollisionNode(final int hash1, final Object[] array1) {
+      super(array1);
+      this.hash = hash1;
+    }
+
+    private int indexOf(final Object key) {
+      for(int idx = 0; idx < this.array.length; idx += 2) {
+        if(key.equals(this.array[idx])) return idx;
+      }
+      return -1;
+    }
+
+    @Override
+    Object find(final int shift, final int hash1, final Object key) {
+      int idx = indexOf(key);
+      return idx < 0 ? NOT_FOUND : this.array[idx + 1];
+    }
+
+    @Override
+    Node plus(final int shift, final int hash1, final Object key, final Object value, final boolean[] added) {
+      if(hash1 != this.hash) {
+        // a key with a different hash has reached here: push this node down a level beside it
+        Node nested = new BitmapNode(1 << ((this.hash >>> shift) & MASK), new Object[] { null, this });
+        return nested.plus(shift, hash1, key, value, added);
+      }
+      int idx = indexOf(key);
+      if(idx >= 0) {
+        return value == this.array[idx + 1] ? this : new CollisionNode(this.hash, copyAndSet(this.array, idx + 1, value));
+      }
+      Object[] newArray = new Object[this.array.length + 2];
+      System.arraycopy(this.array, 0, newArray, 0, this.array.length);
+      newArray[this.array.length] = key;
+      newArray[this.array.length + 1] = value;
+      added[0] = true;
+      return new CollisionNode(this.hash, newArray);
+    }
+
+    @Override
+    Node minus(final int shift, final int hash1, final Object key) {
+      int idx = indexOf(key);
+      if(idx < 0) return this;
+      if(2 == this.array.length) return null;
+      Object[] newArray = new Object[this.array.length - 2];
+      System.arraycopy(this.array, 0, newArray, 0, idx);
+      System.arraycopy(this.array, idx + 2, newArray, idx, newArray.length - idx);
+      return new CollisionNode(this.hash, newArray);
+    }
+  }
+
+  private final Node root;
+
+  private final int size;
+
+  private PersistentHashMap(final Node root1, final int size1) {
+    this.root = root1;
+    this.size = size1;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public V get(final Object key) {
+    Object ret = find(key);
+    return NOT_FOUND == ret ? null : (V) ret;
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return NOT_FOUND != find(key);
+  }
+
+  private Object find(final Object key) {
+    return null == this.root ? NOT_FOUND : this.root.find(0, hash(key), key);
+  }
+
+  @Override
+  public PersistentHashMap<K, V> plus(final K key, final V value) {
+    boolean[] added = new boolean[1];
+    Node newRoot = (null == this.root ? BitmapNode.EMPTY_NODE : this.root).plus(0, hash(key), key, value, added);
+    return newRoot == this.root ? this : new PersistentHashMap<K, V>(newRoot, added[0] ? this.size + 1 : this.size);
+  }
+
+  @Override
+  public PersistentHashMap<K, V> minus(final Object key) {
+    if(null == this.root) return this;
+    Node newRoot = this.root.minus(0, hash(key), key);
+    if(newRoot == this.root) return this;
+    return null == newRoot ? PersistentHashMap.<K, V> empty() : new PersistentHashMap<K, V>(newRoot, this.size - 1);
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Walks the trie depth first; never copies it.
+   */
+  @Override
+  public Iterator<Map.Entry<K, V>> iterator() {
+    return iterator(null == this.root ? new Object[0] : this.root.array);
+  }
+
+  /**
+   * @param rootArray Object[] the array of the node to walk down from
+   * @return Iterator<Map.Entry<K, V>>
+   */
+  private Iterator<Map.Entry<K, V>> iterator(final Object[] rootArray) {
+    return new Iterator<Map.Entry<K, V>>() {
+      private final Deque<Object[]> arrays = new ArrayDeque<>();
+      private final Deque<Integer> positions = new ArrayDeque<>();
+      private Object[] array = rootArray;
+      private int position = 0;
+      private Map.Entry<K, V> next = null;
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public boolean hasNext() {
+        while(null == this.next) {
+          if(this.position < this.array.length) {
+            Object keyOrNull = this.array[this.position];
+            Object valueOrNode = this.array[this.position + 1];
+            this.position += 2;
+            if(null == keyOrNull) {
+              this.arrays.push(this.array);
+              this.positions.push(Integer.valueOf(this.position));
+              this.array = ((Node) valueOrNode).array;
+              this.position = 0;
+            } else {
+              this.next = new AbstractMap.SimpleImmutableEntry<>((K) keyOrNull, (V) valueOrNode);
+            }
+          } else if(this.arrays.isEmpty()) {
+            return false;
+          } else {
+            this.array = this.arrays.pop();
+            this.position = this.positions.pop().intValue();
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public Map.Entry<K, V> next() {
+        if(!hasNext()) throw new NoSuchElementException();
+        Map.Entry<K, V> ret = this.next;
+        this.next = null;
+        return ret;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Split the values into disjoint parts, for walking in parallel. The parts are the root's subtrees, plus
+   * one for the entries held in the root itself, so there are at most 33 of them; for well spread hashes,
+   * the subtrees are of about equal size.
+   *
+   * @return List<Iterable<V>>
+   */
+  public List<Iterable<V>> splitValues() {
+    List<Iterable<V>> ret = new ArrayList<>();
+    if(null == this.root) return ret;
+    Object[] array = this.root.array;
+    int rootEntries = 0;
+    for(int idx = 0; idx < array.length; idx += 2) {
+      if(null == array[idx]) {
+        ret.add(valuesOf(((Node) array[idx + 1]).array));
+      } else {
+        rootEntries++;
+      }
+    }
+    if(0 < rootEntries) {
+      Object[] rootArray = new Object[2 * rootEntries];
+      int position = 0;
+      for(int idx = 0; idx < array.length; idx += 2) {
+        if(null != array[idx]) {
+          rootArray[position++] = array[idx];
+          rootArray[position++] = array[idx + 1];
+        }
+      }
+      ret.add(valuesOf(rootArray));
+    }
+    return ret;
+  }
+
+  private Iterable<V> valuesOf(final Object[] array) {
+    return new Iterable<V>() {
+      @Override
+      public Iterator<V> iterator() {
+        return new EntryPartIterator<V>(PersistentHashMap.this.iterator(array), false);
+      }
+    };
+  }
+
+  private static int hash(final Object key) {
+    int ret = key.hashCode();
+    // spread the high bits down, so keys differing only there don't all land in one branch
+    ret ^= (ret >>> 20) ^ (ret >>> 12);
+    return ret ^ (ret >>> 7) ^ (ret >>> 4);
+  }
+
+  private static Node createNode(final int shift, final Object key1, final Object value1, final int hash2, final Object key2, final Object value2) {
+    int hash1 = hash(key1);
+    if(hash1 == hash2) {
+      return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+    }
+    boolean[] added = new boolean[1];
+    return BitmapNode.EMPTY_NODE.plus(shift, hash1, key1, value1, added).plus(shift, hash2, key2, value2, added);
+  }
+
+  private static Object[] copyAndSet(final Object[] array, final int idx, final Object value) {
+    Object[] ret = array.clone();
+    ret[idx] = value;
+    return ret;
+  }
+}
@@ -0,0 +1,53 @@
+package org.tharrisx.util.collection;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable map whose updates return a new map, sharing most of its structure with the old one. Old
+ * versions stay valid and unchanged, so a reader holding one sees a consistent view however many updates
+ * follow, without locking and without copying.
+ *
+ * Keys may not be null. Values may be.
+ *
+ * @param <K> K
+ * @param <V> V
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public interface PersistentMap<K, V> extends Iterable<Map.Entry<K, V>> {
+
+  V get(Object key);
+
+  boolean containsKey(Object key);
+
+  /**
+   * @param key K
+   * @param value V
+   * @return PersistentMap<K, V> this map with the key mapped to the value; this map itself if it already was
+   */
+  PersistentMap<K, V> plus(K key, V value);
+
+  /**
+   * @param key Object
+   * @return PersistentMap<K, V> this map without the key; this map itself if it didn't have it
+   */
+  PersistentMap<K, V> minus(Object key);
+
+  int size();
+
+  boolean isEmpty();
+
+  /**
+   * @return Set<K> an unmodifiable view of the keys
+   */
+  Set<K> keySet();
+
+  /**
+   * @return Collection<V> an unmodifiable view of the values
+   */
+  Collection<V> values();
+}
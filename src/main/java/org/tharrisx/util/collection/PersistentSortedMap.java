@@ -0,0 +1,228 @@
+package org.tharrisx.util.collection;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A persistent AVL tree: keys in comparator order, with gets and updates in O(log n). An update copies only
+ * the nodes on its path, so every earlier version of the map stays intact and shares the rest.
+ *
+ * @param <K> K
+ * @param <V> V
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public final class PersistentSortedMap<K, V> extends AbstractPersistentMap<K, V> {
+
+  private static final class Node {
+
+    final Object key;
+    final Object value;
+    final Node left;
+    final Node right;
+    final int height;
+
+    Node(final Object key1, final Object value1, final Node left1, final Node right1) {
+      this.key = key1;
+      this.value = value1;
+      this.left = left1;
+      this.right = right1;
+      this.height = 1 + Math.max(height(left1), height(right1));
+    }
+  }
+
+  public static <K, V> PersistentSortedMap<K, V> empty(final Comparator<? super K> comparator) {
+    return new PersistentSortedMap<>(comparator, null, 0);
+  }
+
+  private final Comparator<Object> comparator;
+
+  private final Node root;
+
+  private final int size;
+
+  @SuppressWarnings("unchecked")
+  private PersistentSortedMap(final Comparator<? super K> comparator1, final Node root1, final int size1) {
+    this.comparator = (Comparator<Object>) comparator1;
+    this.root = root1;
+    this.size = size1;
+  }
+
+  public Comparator<? super K> comparator() {
+    return this.comparator;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public V get(final Object key) {
+    Node node = findNode(key);
+    return null == node ? null : (V) node.value;
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return null != findNode(key);
+  }
+
+  private Node findNode(final Object key) {
+    Node ret = this.root;
+    while(null != ret) {
+      int comparison = this.comparator.compare(key, ret.key);
+      if(0 == comparison) break;
+      ret = comparison < 0 ? ret.left : ret.right;
+    }
+    return ret;
+  }
+
+  @Override
+  public PersistentSortedMap<K, V> plus(final K key, final V value) {
+    if(null == key) throw new NullPointerException("PersistentSortedMap keys may not be null.");
+    boolean[] added = new boolean[1];
+    Node newRoot = plus(this.root, key, value, added);
+    return newRoot == this.root ? this : new PersistentSortedMap<K, V>(this.comparator, newRoot, added[0] ? this.size + 1 : this.size);
+  }
+
+  private Node plus(final Node node, final Object key, final Object value, final boolean[] added) {
+    if(null == node) {
+      added[0] = true;
+      return new Node(key, value, null, null);
+    }
+    int comparison = this.comparator.compare(key, node.key);
+    if(0 == comparison) {
+      return value == node.value ? node : new Node(node.key, value, node.left, node.right);
+    }
+    if(comparison < 0) {
+      Node left = plus(node.left, key, value, added);
+      return left == node.left ? node : balance(node.key, node.value, left, node.right);
+    }
+    Node right = plus(node.right, key, value, added);
+    return right == node.right ? node : balance(node.key, node.value, node.left, right);
+  }
+
+  @Override
+  public PersistentSortedMap<K, V> minus(final Object key) {
+    Node newRoot = minus(this.root, key);
+    return newRoot == this.root ? this : new PersistentSortedMap<K, V>(this.comparator, newRoot, this.size - 1);
+  }
+
+  private Node minus(final Node node, final Object key) {
+    if(null == node) return null;
+    int comparison = this.comparator.compare(key, node.key);
+    if(comparison < 0) {
+      Node left = minus(node.left, key);
+      return left == node.left ? node : balance(node.key, node.value, left, node.right);
+    }
+    if(comparison > 0) {
+      Node right = minus(node.right, key);
+      return right == node.right ? node : balance(node.key, node.value, node.left, right);
+    }
+    if(null == node.left) return node.right;
+    if(null == node.right) return node.left;
+    // replace with the smallest node of the right subtree
+    Node successor = node.right;
+    while(null != successor.left) {
+      successor = successor.left;
+    }
+    return balance(successor.key, successor.value, node.left, minus(node.right, successor.key));
+  }
+
+  /**
+   * A node over the two subtrees, rotated if their heights now differ by two.
+   */
+  private static Node balance(final Object key, final Object value, final Node left, final Node right) {
+    int leftHeight = height(left);
+    int rightHeight = height(right);
+    if(leftHeight > rightHeight + 1) {
+      if(height(left.left) >= height(left.right)) {
+        return new Node(left.key, left.value, left.left, new Node(key, value, left.right, right));
+      }
+      return new Node(left.right.key, left.right.value, new Node(left.key, left.value, left.left, left.right.left), new Node(key, value, left.right.right, right));
+    }
+    if(rightHeight > leftHeight + 1) {
+      if(height(right.right) >= height(right.left)) {
+        return new Node(right.key, right.value, new Node(key, value, left, right.left), right.right);
+      }
+      return new Node(right.left.key, right.left.value, new Node(key, value, left, right.left.left), new Node(right.key, right.value, right.left.right, right.right));
+    }
+    return new Node(key, value, left, right);
+  }
+
+  private static int height(final Node node) {
+    return null == node ? 0 : node.height;
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * In ascending key order.
+   */
+  @Override
+  public Iterator<Map.Entry<K, V>> iterator() {
+    return new EntryIterator(true);
+  }
+
+  /**
+   * @return Collection<V> an unmodifiable view of the values, in descending key order
+   */
+  public Collection<V> descendingValues() {
+    return new AbstractCollection<V>() {
+      @Override
+      public Iterator<V> iterator() {
+        return new EntryPartIterator<V>(new EntryIterator(false), false);
+      }
+
+      @Override
+      public int size() {
+        return PersistentSortedMap.this.size();
+      }
+    };
+  }
+
+  private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+    private final boolean ascending;
+    private final Deque<Node> path = new ArrayDeque<>();
+
+    EntryIterator(final boolean ascending1) {
+      this.ascending = ascending1;
+      descend(PersistentSortedMap.this.root);
+    }
+
+    private void descend(final Node from) {
+      for(Node node = from; null != node; node = this.ascending ? node.left : node.right) {
+        this.path.push(node);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !this.path.isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map.Entry<K, V> next() {
+      if(this.path.isEmpty()) throw new NoSuchElementException();
+      Node node = this.path.pop();
+      descend(this.ascending ? node.right : node.left);
+      return new AbstractMap.SimpleImmutableEntry<>((K) node.key, (V) node.value);
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package org.tharrisx.util.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Comparator;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * Reads, writes and compares one property of a bean type through method handles bound once, when the
+ * accessor is built, instead of looking up and checking a Field on every access. Get one from the
+ * BeanAccessorRegistry.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public final class BeanAccessor {
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final String name;
+
+  public String getName() {
+    return this.name;
+  }
+
+  private final Class<?> type;
+
+  /**
+   * @return Class<?> the declared type of the property, which may be primitive
+   */
+  public Class<?> getType() {
+    return this.type;
+  }
+
+  private final Class<?> declaringClass;
+
+  public Class<?> getDeclaringClass() {
+    return this.declaringClass;
+  }
+
+  private final MethodHandle getter;
+
+  private MethodHandle getGetter() {
+    return this.getter;
+  }
+
+  private final MethodHandle setter;
+
+  private MethodHandle getSetter() {
+    return this.setter;
+  }
+
+  private final Comparator<Object> beanComparator;
+
+  BeanAccessor(final Field field) {
+    this.name = field.getName();
+    this.type = field.getType();
+    this.declaringClass = field.getDeclaringClass();
+    try {
+      field.setAccessible(true);
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      // erase the handle types, so that every access is a single invokeExact with no per-call adaptation
+      this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+      this.setter = Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field).asType(SETTER_TYPE);
+    } catch(IllegalAccessException | SecurityException e) {
+      throw new ReflectionException("Unable to access " + field, e);
+    }
+    if(this.type.isPrimitive() || Comparable.class.isAssignableFrom(this.type)) {
+      this.beanComparator = new Comparator<Object>() {
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        @Override public int compare(Object bean1, Object bean2) {
+          Object v1 = get(bean1);
+          Object v2 = get(bean2);
+          if(v1 == v2) return 0;
+          if(null == v1) return -1;
+          if(null == v2) return 1;
+          return ((Comparable) v1).compareTo(v2);
+        }
+      };
+    } else {
+      this.beanComparator = null;
+    }
+  }
+
+  /**
+   * Read the property value from the bean. Primitive values come back boxed.
+   *
+   * @param bean Object
+   * @return Object
+   */
+  public Object get(final Object bean) {
+    try {
+      return getGetter().invokeExact(bean);
+    } catch(Throwable e) {
+      throw new ReflectionException("Unable to read " + getDeclaringClass().getName() + '.' + getName(), e);
+    }
+  }
+
+  /**
+   * Whether set() may be called. Final fields are read-only.
+   *
+   * @return boolean
+   */
+  public boolean isWritable() {
+    return null != getSetter();
+  }
+
+  /**
+   * Write the property value into the bean. Primitive properties take boxed values.
+   *
+   * @param bean Object
+   * @param value Object
+   */
+  public void set(final Object bean, final Object value) {
+    if(!isWritable()) {
+      throw new ReflectionException("Property " + getDeclaringClass().getName() + '.' + getName() + " is final.");
+    }
+    try {
+      getSetter().invokeExact(bean, value);
+    } catch(Throwable e) {
+      throw new ReflectionException("Unable to write " + getDeclaringClass().getName() + '.' + getName(), e);
+    }
+  }
+
+  /**
+   * Whether the property has a natural order, and so getBeanComparator() may be called.
+   *
+   * @return boolean
+   */
+  public boolean isComparable() {
+    return null != this.beanComparator;
+  }
+
+  /**
+   * Compares two beans by this property's natural order, nulls first.
+   *
+   * @return Comparator<Object>
+   */
+  public Comparator<Object> getBeanComparator() {
+    if(!isComparable()) {
+      throw new ReflectionException("Property " + getDeclaringClass().getName() + '.' + getName() + " of type " + getType().getName() + " is not Comparable.");
+    }
+    return this.beanComparator;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .append("name", getName())
+        .append("type", getType())
+        .append("declaringClass", getDeclaringClass())
+        .append("writable", isWritable())
+        .toString();
+  }
+}
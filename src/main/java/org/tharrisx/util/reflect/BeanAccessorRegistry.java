@@ -0,0 +1,118 @@
+package org.tharrisx.util.reflect;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.tharrisx.util.log.Log;
+
+/**
+ * A cache of BeanAccessors, one per instance field of each bean type, including the fields it inherits.
+ * Unlike the other registries here, this one is read on hot paths by many threads at once, so it's
+ * backed by a ConcurrentHashMap and built eagerly per type.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class BeanAccessorRegistry {
+
+  private static final BeanAccessorRegistry instance = new BeanAccessorRegistry();
+
+  /**
+   * Singleton factory method
+   *
+   * @return BeanAccessorRegistry
+   */
+  public static BeanAccessorRegistry get() {
+    return instance;
+  }
+
+  private final ConcurrentMap<Class<?>, Map<String, BeanAccessor>> registry;
+
+  private ConcurrentMap<Class<?>, Map<String, BeanAccessor>> getRegistry() {
+    return this.registry;
+  }
+
+  private BeanAccessorRegistry() {
+    this.registry = new ConcurrentHashMap<>();
+    if(Log.isTraceEnabled(BeanAccessorRegistry.class))
+      Log.trace(BeanAccessorRegistry.class, Log.METHOD_NAME_CONSTRUCTOR, "Created.");
+  }
+
+  /**
+   * All the instance field accessors of the target type, by name. Where a subclass field hides a
+   * superclass field of the same name, the subclass field wins.
+   *
+   * @param targetType Class<?>
+   * @return Map<String, BeanAccessor>
+   */
+  public Map<String, BeanAccessor> getAccessors(final Class<?> targetType) {
+    if(null == targetType) {
+      throw new IllegalArgumentException("null arguments given to method.");
+    }
+    Map<String, BeanAccessor> ret = getRegistry().get(targetType);
+    if(null == ret) {
+      ret = buildAccessors(targetType);
+      Map<String, BeanAccessor> existing = getRegistry().putIfAbsent(targetType, ret);
+      if(null != existing) {
+        ret = existing;
+      } else {
+        if(Log.isTraceEnabled(getClass()))
+          Log.trace(getClass(), "getAccessors", "Cache MISS on targetType=" + targetType + ". Added to cache.");
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * The accessor for one field of the target type, which may be declared by a superclass.
+   *
+   * @param targetType Class<?>
+   * @param fieldName String
+   * @return BeanAccessor
+   * @throws NoSuchFieldException
+   */
+  public BeanAccessor getAccessor(final Class<?> targetType, final String fieldName) throws NoSuchFieldException {
+    if(null == fieldName) {
+      throw new IllegalArgumentException("null arguments given to method.");
+    }
+    BeanAccessor ret = getAccessors(targetType).get(fieldName);
+    if(null == ret) {
+      throw new NoSuchFieldException("targetType=" + targetType + ", fieldName=" + fieldName);
+    }
+    return ret;
+  }
+
+  private static Map<String, BeanAccessor> buildAccessors(final Class<?> targetType) {
+    Map<String, BeanAccessor> ret = new LinkedHashMap<>();
+    Class<?> currentType = targetType;
+    while(null != currentType && !Object.class.equals(currentType)) {
+      for(Field field : currentType.getDeclaredFields()) {
+        if(Modifier.isStatic(field.getModifiers()) || field.isSynthetic() || ret.containsKey(field.getName())) continue;
+        ret.put(field.getName(), new BeanAccessor(field));
+      }
+      currentType = currentType.getSuperclass();
+    }
+    return Collections.unmodifiableMap(ret);
+  }
+
+  private static final String NL = System.getProperty("line.separator");
+
+  @Override
+  public String toString() {
+    StringBuilder retBuf = new StringBuilder("BeanAccessorRegistry Dump:" + NL);
+    for(Map.Entry<Class<?>, Map<String, BeanAccessor>> classEntry : getRegistry().entrySet()) {
+      retBuf.append("  ").append(classEntry.getKey().getName()).append(" ->").append(NL);
+      for(Map.Entry<String, BeanAccessor> accessorEntry : classEntry.getValue().entrySet()) {
+        retBuf.append("    ").append(accessorEntry.getKey()).append(" -> ");
+        retBuf.append(accessorEntry.getValue().getType().getName()).append(NL);
+      }
+    }
+    return retBuf.toString();
+  }
+}
@@ -0,0 +1,80 @@
+package org.tharrisx.framework.pipe;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.bean.BeanList;
+import org.tharrisx.framework.store.SampleBean;
+
+/**
+ * Beans written to a pipe one at a time come out as a BeanList of them does, in XML and in JSON.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class PipeWriteListTest {
+
+  private PipeManager pipeManager = null;
+
+  private PipeManager unannotatedPipeManager = null;
+
+  @Before
+  public void setUp() {
+    // as the services set it up
+    this.pipeManager = new PipeManager();
+    this.pipeManager.registerBean(BeanList.class);
+    this.pipeManager.registerBean(SampleBean.class);
+    this.pipeManager.definePipe("xml", PipeManager.PIPE_FORMAT_XML);
+    this.pipeManager.definePipe("json", PipeManager.PIPE_FORMAT_JSON);
+    this.pipeManager.initialize();
+    // without BeanList's annotations, so its items aren't implicit
+    this.unannotatedPipeManager = new PipeManager();
+    this.unannotatedPipeManager.registerBean(SampleBean.class);
+    this.unannotatedPipeManager.definePipe("xml", PipeManager.PIPE_FORMAT_XML);
+    this.unannotatedPipeManager.definePipe("json", PipeManager.PIPE_FORMAT_JSON);
+    this.unannotatedPipeManager.initialize();
+  }
+
+  private static List<SampleBean> beans(final int count) {
+    List<SampleBean> ret = new ArrayList<>();
+    for(int idx = 0; idx < count; idx++) {
+      SampleBean bean = new SampleBean(0 == idx % 2 ? null : "n" + idx, idx, Integer.valueOf(idx * 3));
+      bean.setId("id" + idx);
+      ret.add(bean);
+    }
+    return ret;
+  }
+
+  private static void assertWritesAsABeanList(final PipeManager pipeManager, final String pipeName, final List<SampleBean> beans) {
+    Pipe pipe = pipeManager.getPipe(pipeName);
+    String expected = pipe.writeToString(new BeanList<>(beans), PipeContext.AS_PUBLIC);
+    StringWriter sink = new StringWriter();
+    pipe.writeList(beans.iterator(), sink);
+    assertEquals(pipeName + " of " + beans.size(), expected, sink.toString().trim());
+  }
+
+  private static void assertWritesAsABeanList(final PipeManager pipeManager, final String pipeName) {
+    assertWritesAsABeanList(pipeManager, pipeName, beans(3));
+    assertWritesAsABeanList(pipeManager, pipeName, beans(1));
+    assertWritesAsABeanList(pipeManager, pipeName, Collections.<SampleBean> emptyList());
+  }
+
+  @Test
+  public void writesXmlAsABeanList() {
+    assertWritesAsABeanList(this.pipeManager, "xml");
+    assertWritesAsABeanList(this.unannotatedPipeManager, "xml");
+  }
+
+  @Test
+  public void writesJsonAsABeanList() {
+    assertWritesAsABeanList(this.pipeManager, "json");
+    assertWritesAsABeanList(this.unannotatedPipeManager, "json");
+  }
+}
@@ -0,0 +1,111 @@
+package org.tharrisx.framework.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.rest.core.ServicesRegistry;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.core.BeanStoreUnitOfWork;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+
+/**
+ * A behavior's delete or update by match that fails rolls its transaction back and ends it, or marks the
+ * unit of work it joined rollback only.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class BeanBehaviorMatchTest {
+
+  private static final Map<String, String> NONE = Collections.emptyMap();
+
+  private MemoryServices services = null;
+
+  private BeanBehavior<SampleBean> behavior = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.services = new MemoryServices(types);
+    ServicesRegistry.registerServices(this.services);
+    this.behavior = new BeanBehavior<>(SampleBean.class);
+  }
+
+  @After
+  public void tearDown() {
+    BeanStoreUnitOfWork.close();
+    this.services.close();
+  }
+
+  private static Map<String, String> values(final String name, final String value) {
+    Map<String, String> ret = new HashMap<>();
+    ret.put(name, value);
+    return ret;
+  }
+
+  private void deleteMatchingBeansFailing() {
+    try {
+      this.behavior.deleteMatchingBeans(values("nonesuch", "1"));
+      fail("There is no such property to match on.");
+    } catch(BeanStoreException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void endsTheTransactionWhenDeleteByMatchFails() {
+    this.behavior.postBean(new SampleBean("a", 1, null));
+    deleteMatchingBeansFailing();
+    assertEquals(0, this.services.getOpenTransactions());
+    assertEquals(1, this.behavior.getAllBeans().getItems().size());
+  }
+
+  @Test
+  public void rollsBackTheUnitOfWorkWhenDeleteByMatchFails() {
+    BeanStoreUnitOfWork.open(this.services.getBeanStoreFactory(), "request");
+    this.behavior.postBean(new SampleBean("a", 1, null));
+    deleteMatchingBeansFailing();
+    BeanStoreUnitOfWork.close();
+    assertEquals(0, this.services.getOpenTransactions());
+    assertEquals(0, this.behavior.getBeanStore().getAllMatchingBeans(NONE).getItems().size());
+  }
+
+  private void updateMatchingBeansFailing() {
+    try {
+      this.behavior.updateMatchingBeans(NONE, values("id", "other"));
+      fail("The id can't be set by match.");
+    } catch(BeanStoreException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void endsTheTransactionWhenUpdateByMatchFails() {
+    this.behavior.postBean(new SampleBean("a", 1, null));
+    updateMatchingBeansFailing();
+    assertEquals(0, this.services.getOpenTransactions());
+    assertEquals(1, this.behavior.getAllBeans().getItems().size());
+  }
+
+  @Test
+  public void rollsBackTheUnitOfWorkWhenUpdateByMatchFails() {
+    BeanStoreUnitOfWork.open(this.services.getBeanStoreFactory(), "request");
+    this.behavior.postBean(new SampleBean("a", 1, null));
+    updateMatchingBeansFailing();
+    BeanStoreUnitOfWork.close();
+    assertEquals(0, this.services.getOpenTransactions());
+    assertEquals(0, this.behavior.getBeanStore().getAllMatchingBeans(NONE).getItems().size());
+  }
+}
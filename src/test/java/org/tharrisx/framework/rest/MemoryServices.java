@@ -0,0 +1,60 @@
+package org.tharrisx.framework.rest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.tharrisx.framework.rest.core.BaseServices;
+import org.tharrisx.framework.store.BeanStoreFactory;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.framework.store.memory.MemoryBeanStoreFactory;
+
+/**
+ * Services for the rest tests, over a memory store whose factory counts the transactions left open.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public final class MemoryServices extends BaseServices {
+
+  private final AtomicInteger openTransactions = new AtomicInteger();
+
+  /**
+   * @return int how many transactions have been begun and not yet ended
+   */
+  public int getOpenTransactions() {
+    return this.openTransactions.get();
+  }
+
+  private final MemoryBeanStoreFactory beanStoreFactory;
+
+  @Override
+  public BeanStoreFactory getBeanStoreFactory() {
+    return this.beanStoreFactory;
+  }
+
+  public MemoryServices(final List<Class<? extends StorableBean>> storableBeanTypes1) {
+    super(storableBeanTypes1, false);
+    this.beanStoreFactory = new MemoryBeanStoreFactory(storableBeanTypes1) {
+
+      @Override
+      public <T extends StorableBean> BeanStoreTransaction beginTransaction(Class<T> mainBeanType, String transactionName) throws BeanStoreException {
+        BeanStoreTransaction ret = super.beginTransaction(mainBeanType, transactionName);
+        MemoryServices.this.openTransactions.incrementAndGet();
+        return ret;
+      }
+
+      @Override
+      public <T extends StorableBean> void endTransaction(Class<T> mainBeanType, BeanStoreTransaction transaction) throws BeanStoreException {
+        MemoryServices.this.openTransactions.decrementAndGet();
+        super.endTransaction(mainBeanType, transaction);
+      }
+    };
+  }
+
+  public void close() {
+    this.beanStoreFactory.close();
+  }
+}
@@ -0,0 +1,111 @@
+package org.tharrisx.framework.rest.resources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.callstats.TimingMemento;
+import org.tharrisx.framework.rest.MemoryServices;
+import org.tharrisx.framework.rest.core.ResourceCore;
+import org.tharrisx.framework.rest.core.ResourceRequestInfo;
+import org.tharrisx.framework.rest.core.ServicesRegistry;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * A DELETE or PATCH by match answers no content, with how many beans it deleted or updated in the
+ * X-Deleted-Count or X-Updated-Count header. A PATCH form field with more than one value is a bad request.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class BeanTypeMatchResourceTest {
+
+  private final Mockery context = new Mockery();
+
+  private final HttpHeaders httpHeaders = this.context.mock(HttpHeaders.class);
+
+  private MemoryServices services = null;
+
+  private BeanTypeMatchResource<SampleBean> resource = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.services = new MemoryServices(types);
+    ServicesRegistry.registerServices(this.services);
+    this.context.checking(new Expectations() {
+      {
+        allowing(BeanTypeMatchResourceTest.this.httpHeaders).getAcceptableMediaTypes(); will(returnValue(Collections.singletonList(MediaType.APPLICATION_XML_TYPE)));
+      }
+    });
+    ResourceCore<SampleBean> resourceCore = new ResourceCore<>(SampleBean.class);
+    this.resource = new BeanTypeMatchResource<SampleBean>(resourceCore, new ResourceRequestInfo(null, null, null, this.httpHeaders, null, new TimingMemento())) {
+      // the generic resource
+    };
+    for(int idx = 0; idx < 10; idx++) {
+      resourceCore.getBeanBehavior().postBean(new SampleBean("n" + idx, idx % 3, null));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    this.services.close();
+  }
+
+  @Test
+  public void deletesByMatchCountingTheDeletes() {
+    Response response = this.resource.deleteMatchingBeans("size=1");
+    assertEquals(Response.Status.NO_CONTENT.getStatusCode(), response.getStatus());
+    assertEquals(Integer.valueOf(3), response.getMetadata().getFirst(BeanTypeMatchResource.HEADER_DELETED_COUNT));
+    assertEquals(0, this.resource.getResourceCore().getBeanBehavior().getBeanStore().getAllMatchingBeans(Collections.singletonMap("size", "1")).getItems().size());
+    assertEquals(7, this.resource.getResourceCore().getBeanBehavior().getAllBeans().getItems().size());
+    assertEquals(Integer.valueOf(0), this.resource.deleteMatchingBeans("size=1").getMetadata().getFirst(BeanTypeMatchResource.HEADER_DELETED_COUNT));
+  }
+
+  @Test
+  public void updatesByMatchCountingTheUpdates() {
+    MultivaluedMap<String, String> form = new MultivaluedHashMap<>();
+    form.putSingle("size", "5");
+    form.putSingle("weight", "2");
+    Response response = this.resource.updateMatchingBeans("size=1", form);
+    assertEquals(Response.Status.NO_CONTENT.getStatusCode(), response.getStatus());
+    assertEquals(Integer.valueOf(3), response.getMetadata().getFirst(BeanTypeMatchResource.HEADER_UPDATED_COUNT));
+    assertEquals(0, this.resource.getResourceCore().getBeanBehavior().getBeanStore().getAllMatchingBeans(Collections.singletonMap("size", "1")).getItems().size());
+    for(SampleBean bean : this.resource.getResourceCore().getBeanBehavior().getBeanStore().getAllMatchingBeans(Collections.singletonMap("size", "5")).getItems()) {
+      assertEquals(Integer.valueOf(2), bean.getWeight());
+    }
+    assertEquals(Integer.valueOf(0), this.resource.updateMatchingBeans("size=1", form).getMetadata().getFirst(BeanTypeMatchResource.HEADER_UPDATED_COUNT));
+  }
+
+  @Test
+  public void rejectsAFormFieldWithMoreThanOneValue() {
+    MultivaluedMap<String, String> form = new MultivaluedHashMap<>();
+    form.add("size", "5");
+    form.add("size", "6");
+    try {
+      this.resource.updateMatchingBeans("size=1", form);
+      fail("A field can't set two values.");
+    } catch(WebApplicationException e) {
+      assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), e.getResponse().getStatus());
+    }
+    assertEquals(3, this.resource.getResourceCore().getBeanBehavior().getBeanStore().getAllMatchingBeans(Collections.singletonMap("size", "1")).getItems().size());
+  }
+}
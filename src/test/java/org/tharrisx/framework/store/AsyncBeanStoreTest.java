@@ -0,0 +1,110 @@
+package org.tharrisx.framework.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.tharrisx.framework.store.core.BeanStoreExecutor;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.framework.store.exception.NoBeanFoundException;
+import org.tharrisx.framework.store.memory.MemoryBeanStoreFactory;
+
+/**
+ * AsyncBeanStore calls run on the executor and complete with the store's result or failure, and an executor
+ * with a full queue fails calls at once.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class AsyncBeanStoreTest {
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private AsyncBeanStore<SampleBean> store = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getAsyncBeanStore(SampleBean.class);
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  @Test
+  public void completesWithTheStoresResults() throws Exception {
+    SampleBean bean = this.store.createOrUpdateBean(new SampleBean("a", 1, null)).get();
+    assertEquals("a", this.store.getBean(bean.getId()).get().getName());
+    assertTrue(this.store.hasBean(bean.getId()).get().booleanValue());
+    assertTrue(this.store.deleteBean(bean.getId()).get().booleanValue());
+    assertFalse(this.store.hasBean(bean.getId()).get().booleanValue());
+    assertEquals(5L, this.factory.getAsyncExecutor().getSubmittedCount());
+    assertEquals(5L, this.factory.getAsyncExecutor().getCompletedCount());
+  }
+
+  @Test
+  public void completesWithTheStoresFailures() throws Exception {
+    try {
+      this.store.getBean("missing").get();
+      fail("There is no such bean.");
+    } catch(ExecutionException e) {
+      // as the store itself throws it
+      assertTrue(e.getCause() instanceof BeanStoreException);
+      assertTrue(e.getCause().getCause() instanceof NoBeanFoundException);
+    }
+    assertEquals(1L, this.factory.getAsyncExecutor().getFailedCount());
+  }
+
+  @Test
+  public void rejectsCallsWithTheQueueFull() throws Exception {
+    BeanStoreExecutor executor = new BeanStoreExecutor("test", 1, 1);
+    final CountDownLatch running = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    Callable<Void> blocking = new Callable<Void>() {
+
+      @Override
+      public Void call() throws Exception {
+        running.countDown();
+        release.await();
+        return null;
+      }
+    };
+    try {
+      ListenableFuture<Void> first = executor.submit(SampleBean.class, "test", blocking);
+      running.await();
+      ListenableFuture<Void> queued = executor.submit(SampleBean.class, "test", blocking);
+      ListenableFuture<Void> rejected = executor.submit(SampleBean.class, "test", blocking);
+      assertTrue(rejected.isDone());
+      try {
+        rejected.get();
+        fail("The queue was full.");
+      } catch(ExecutionException e) {
+        assertTrue(e.getCause() instanceof BeanStoreException);
+      }
+      assertEquals(1L, executor.getRejectedCount());
+      release.countDown();
+      first.get();
+      queued.get();
+      assertEquals(2L, executor.getCompletedCount());
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+}
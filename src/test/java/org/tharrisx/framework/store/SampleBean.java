@@ -0,0 +1,67 @@
+package org.tharrisx.framework.store;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.tharrisx.framework.bean.StampedBean;
+import org.tharrisx.framework.store.annotations.StoreIndex;
+
+/**
+ * A bean type for the store tests, with a sorted index, a hash index, and a property with neither.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class SampleBean extends StampedBean {
+
+  @StoreIndex(sorted = true)
+  private String name = null;
+
+  public String getName() {
+    return this.name;
+  }
+
+  public void setName(String arg) {
+    this.name = arg;
+  }
+
+  @StoreIndex
+  private int size = 0;
+
+  public int getSize() {
+    return this.size;
+  }
+
+  public void setSize(int arg) {
+    this.size = arg;
+  }
+
+  private Integer weight = null;
+
+  public Integer getWeight() {
+    return this.weight;
+  }
+
+  public void setWeight(Integer arg) {
+    this.weight = arg;
+  }
+
+  public SampleBean() {
+    // for the stores
+  }
+
+  public SampleBean(final String name1, final int size1, final Integer weight1) {
+    this.name = name1;
+    this.size = size1;
+    this.weight = weight1;
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this)
+        .appendSuper(super.toString())
+        .append("name", getName())
+        .append("size", getSize())
+        .append("weight", getWeight())
+        .toString();
+  }
+}
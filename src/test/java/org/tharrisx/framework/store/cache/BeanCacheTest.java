@@ -0,0 +1,107 @@
+package org.tharrisx.framework.store.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * The W-TinyLFU bean cache: bounded by weight, keeping entries read often through scans of entries read
+ * once, and expiring entries.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class BeanCacheTest {
+
+  /**
+   * Read through the cache, as CachingBeanStore does: a miss is loaded and put.
+   */
+  private static String read(final BeanCache<String> cache, final String key) {
+    String ret = cache.get(key);
+    if(null == ret) {
+      ret = "value of " + key;
+      cache.put(key, ret, 1L);
+    }
+    return ret;
+  }
+
+  @Test
+  public void putsGetsAndRemoves() {
+    BeanCache<String> cache = new BeanCache<>(10L, 0L);
+    cache.put("a", "1", 1L);
+    cache.put("b", "2", 1L);
+    assertEquals("1", cache.get("a"));
+    cache.put("a", "3", 1L);
+    assertEquals("3", cache.get("a"));
+    assertEquals(2, cache.size());
+    cache.remove("a");
+    assertNull(cache.get("a"));
+    cache.clear();
+    assertNull(cache.get("b"));
+    assertEquals(0L, cache.weight());
+  }
+
+  @Test
+  public void staysWithinItsMaximumWeight() {
+    BeanCache<String> cache = new BeanCache<>(100L, 0L);
+    for(int idx = 0; idx < 1000; idx++) {
+      cache.put("k" + idx, "v", 1L + idx % 3);
+      assertTrue(100L >= cache.weight());
+    }
+    cache.put("heavy", "v", 101L);
+    assertNull("heavier than the whole cache", cache.get("heavy"));
+  }
+
+  @Test
+  public void keepsFrequentlyReadEntriesThroughScans() {
+    BeanCache<String> cache = new BeanCache<>(100L, 0L);
+    for(int round = 0; round < 10; round++) {
+      for(int idx = 0; idx < 20; idx++) {
+        read(cache, "hot" + idx);
+      }
+    }
+    // each scan reads twice as many one-off keys as the cache holds, which would flush an LRU cache
+    for(int scan = 0; scan < 5; scan++) {
+      for(int idx = 0; idx < 200; idx++) {
+        read(cache, "scan" + scan + "." + idx);
+      }
+      int kept = 0;
+      for(int idx = 0; idx < 20; idx++) {
+        if(null != cache.get("hot" + idx)) kept++;
+      }
+      assertEquals(20, kept);
+      assertTrue(100L >= cache.weight());
+    }
+  }
+
+  @Test
+  public void admitsNewEntriesReadMoreOftenThanTheOldest() {
+    BeanCache<String> cache = new BeanCache<>(100L, 0L);
+    for(int idx = 0; idx < 200; idx++) {
+      read(cache, "once" + idx);
+    }
+    // read often before it's first cached, so it beats the entries read once when it leaves the window
+    for(int idx = 0; idx < 10; idx++) {
+      cache.get("popular");
+    }
+    read(cache, "popular");
+    for(int idx = 200; idx < 300; idx++) {
+      read(cache, "once" + idx);
+    }
+    assertNotNull(cache.get("popular"));
+  }
+
+  @Test
+  public void expiresEntries() throws Exception {
+    BeanCache<String> cache = new BeanCache<>(10L, 20L);
+    cache.put("a", "1", 1L);
+    assertEquals("1", cache.get("a"));
+    Thread.sleep(60L);
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.size());
+  }
+}
@@ -0,0 +1,205 @@
+package org.tharrisx.framework.store.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.bean.StampedBean;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.annotations.StoreCache;
+import org.tharrisx.framework.store.annotations.StoreIndex;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.framework.store.exception.NoBeanFoundException;
+import org.tharrisx.framework.store.memory.MemoryBeanStoreFactory;
+
+/**
+ * A cached MemoryBeanStore: counting hits and misses, handing out copies, staying within its weight,
+ * keeping apart unique keys whose maps print the same, and dropping beans as they're written, once the
+ * writes are committed.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class CachingBeanStoreTest {
+
+  private static final int MAXIMUM_WEIGHT = 50;
+
+  /**
+   * A bean cached by its store, weighing 1 each.
+   */
+  @StoreCache(maximumWeight = MAXIMUM_WEIGHT)
+  public static class CachedBean extends StampedBean {
+
+    @StoreIndex
+    private String name = null;
+
+    public String getName() {
+      return this.name;
+    }
+
+    public void setName(final String name1) {
+      this.name = name1;
+    }
+
+    private int size = 0;
+
+    public int getSize() {
+      return this.size;
+    }
+
+    public void setSize(final int size1) {
+      this.size = size1;
+    }
+
+    public CachedBean() {
+      // for the store
+    }
+
+    public CachedBean(final String name1, final int size1) {
+      this.name = name1;
+      this.size = size1;
+    }
+  }
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<CachedBean> store = null;
+
+  private CachingBeanStore<CachedBean> cache = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(CachedBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(CachedBean.class);
+    this.cache = (CachingBeanStore<CachedBean>) this.store;
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  private String create(final String name, final int size) {
+    return this.store.createOrUpdateBean(new CachedBean(name, size), null).getId();
+  }
+
+  private static boolean isMissing(final BeanStore<CachedBean> store, final String beanId) {
+    try {
+      store.getBean(beanId);
+      return false;
+    } catch(NoBeanFoundException e) {
+      return true;
+    } catch(BeanStoreException e) {
+      if(e.getCause() instanceof NoBeanFoundException) return true;
+      throw e;
+    }
+  }
+
+  @Test
+  public void countsHitsAndMissesAndHandsOutCopies() {
+    String id = create("a", 1);
+    long misses = this.cache.getMissCount();
+    long hits = this.cache.getHitCount();
+    CachedBean first = this.store.getBean(id);
+    assertEquals(misses + 1, this.cache.getMissCount());
+    first.setSize(99);
+    CachedBean second = this.store.getBean(id);
+    assertEquals(hits + 1, this.cache.getHitCount());
+    assertEquals(1, second.getSize());
+    assertNotSame(second, this.store.getBean(id));
+    assertEquals(hits + 2, this.cache.getHitCount());
+    assertTrue(0.0 < this.cache.getHitRate());
+  }
+
+  @Test
+  public void staysWithinItsMaximumWeight() {
+    List<String> ids = new ArrayList<>();
+    for(int idx = 0; idx < 200; idx++) {
+      ids.add(create("b" + idx, idx));
+    }
+    for(int round = 0; round < 3; round++) {
+      for(String id : ids) {
+        this.store.getBean(id);
+        assertTrue(MAXIMUM_WEIGHT >= this.cache.getCachedBeanCount());
+      }
+    }
+    assertTrue(0 < this.cache.getCachedBeanCount());
+  }
+
+  @Test
+  public void showsAWriteToOthersOnlyOnceCommitted() {
+    String id = create("c", 1);
+    this.store.getBean(id);
+    BeanStoreTransaction transaction = this.factory.beginTransaction(CachedBean.class, "update");
+    CachedBean bean = this.store.getBean(id);
+    bean.setSize(2);
+    this.store.createOrUpdateBean(bean, transaction);
+    assertEquals(1, this.store.getBean(id).getSize());
+    assertEquals(1, this.store.getBean(id).getSize());
+    this.factory.endTransaction(CachedBean.class, transaction);
+    assertEquals(2, this.store.getBean(id).getSize());
+    assertEquals(2, this.store.getBean(id).getSize());
+  }
+
+  @Test
+  public void keepsNoBeanRolledBack() {
+    String id = create("d", 1);
+    this.store.getBean(id);
+    BeanStoreTransaction transaction = this.factory.beginTransaction(CachedBean.class, "update");
+    CachedBean bean = this.store.getBean(id);
+    bean.setSize(2);
+    this.store.createOrUpdateBean(bean, transaction);
+    transaction.setRollbackOnly();
+    this.factory.endTransaction(CachedBean.class, transaction);
+    assertEquals(1, this.store.getBean(id).getSize());
+  }
+
+  @Test
+  public void dropsDeletedAndUpdatedBeans() {
+    String a = create("e", 1);
+    String b = create("f", 1);
+    String c = create("g", 1);
+    this.store.getBean(a);
+    this.store.getBean(b);
+    this.store.getBean(c);
+    assertTrue(this.store.deleteBean(a, null));
+    assertTrue(isMissing(this.store, a));
+    assertFalse(this.store.hasBean(a));
+    assertEquals(1, this.store.deleteMatchingBeans(Collections.singletonMap("name", "f"), null));
+    assertTrue(isMissing(this.store, b));
+    assertEquals(1, this.store.updateMatchingBeans(Collections.singletonMap("name", "g"), Collections.singletonMap("size", "7"), null));
+    assertEquals(7, this.store.getBean(c).getSize());
+  }
+
+  @Test
+  public void keepsApartUniqueKeysThatPrintTheSame() {
+    String a = create("h, size=1", 0);
+    String b = create("h", 1);
+    Map<String, String> oneValue = Collections.singletonMap("name", "h, size=1");
+    Map<String, String> twoValues = new HashMap<>();
+    twoValues.put("name", "h");
+    twoValues.put("size", "1");
+    // both print {name=h, size=1}
+    assertEquals(new TreeMap<>(oneValue).toString(), new TreeMap<>(twoValues).toString());
+    assertEquals(a, this.store.getBeanByUniqueKey(oneValue).getId());
+    assertEquals(b, this.store.getBeanByUniqueKey(twoValues).getId());
+    assertEquals(a, this.store.getBeanByUniqueKey(oneValue).getId());
+    assertEquals(b, this.store.getBeanByUniqueKey(twoValues).getId());
+  }
+}
@@ -0,0 +1,97 @@
+package org.tharrisx.framework.store.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * The counting Bloom filter never wrongly says a key is missing, even once its counters saturate, and
+ * wrongly says one may be there about as often as it was sized for.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class CountingBloomFilterTest {
+
+  @Test
+  public void neverMissesAnAddedKey() {
+    CountingBloomFilter filter = new CountingBloomFilter(10000L, 0.01);
+    for(int idx = 0; idx < 10000; idx++) {
+      filter.add("k" + idx);
+    }
+    for(int idx = 0; idx < 10000; idx++) {
+      assertTrue(filter.mightContain("k" + idx));
+    }
+    assertEquals(10000L, filter.getCount());
+  }
+
+  @Test
+  public void wronglySaysYesAboutAsOftenAsSizedFor() {
+    CountingBloomFilter filter = new CountingBloomFilter(10000L, 0.01);
+    for(int idx = 0; idx < 10000; idx++) {
+      filter.add("k" + idx);
+    }
+    int falsePositives = 0;
+    for(int idx = 0; idx < 100000; idx++) {
+      if(filter.mightContain("other" + idx)) falsePositives++;
+    }
+    assertTrue("false positives: " + falsePositives, 2000 > falsePositives);
+    double expected = filter.getExpectedFalsePositiveRate();
+    assertTrue("expected rate: " + expected, 0.002 < expected && 0.02 > expected);
+  }
+
+  @Test
+  public void forgetsRemovedKeys() {
+    CountingBloomFilter filter = new CountingBloomFilter(1000L, 0.01);
+    filter.add("a");
+    filter.add("b");
+    filter.remove("a");
+    assertFalse(filter.mightContain("a"));
+    assertTrue(filter.mightContain("b"));
+    assertEquals(1L, filter.getCount());
+    filter.remove("b");
+    assertFalse(filter.mightContain("b"));
+    assertEquals(0.0, filter.getExpectedFalsePositiveRate(), 0.0);
+  }
+
+  @Test
+  public void neverMissesAKeyWhenCountersSaturate() {
+    // far more keys than it was sized for, so many counters reach 15 and stop counting
+    CountingBloomFilter filter = new CountingBloomFilter(10L, 0.1);
+    for(int idx = 0; idx < 2000; idx++) {
+      filter.add("k" + idx);
+    }
+    for(int idx = 0; idx < 2000; idx += 2) {
+      filter.remove("k" + idx);
+    }
+    for(int idx = 1; idx < 2000; idx += 2) {
+      assertTrue(filter.mightContain("k" + idx));
+    }
+  }
+
+  @Test
+  public void sizesItselfForTheCountAndRate() {
+    CountingBloomFilter filter = new CountingBloomFilter(1000L, 0.01);
+    // about 9.6 counters and 7 hashes a key, rounded up to whole longs
+    assertTrue(9585L <= filter.getCounterCount() && 9600L >= filter.getCounterCount());
+    assertEquals(7, filter.getHashCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void refusesNoExpectedKeys() {
+    new CountingBloomFilter(0L, 0.01);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void refusesARateOfZero() {
+    new CountingBloomFilter(1000L, 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void refusesARateOfOne() {
+    new CountingBloomFilter(1000L, 1.0);
+  }
+}
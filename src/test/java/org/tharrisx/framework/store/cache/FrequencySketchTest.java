@@ -0,0 +1,55 @@
+package org.tharrisx.framework.store.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * The frequency sketch counts up to 15, never below the true count until it ages its counters, and halves
+ * them as it ages them.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class FrequencySketchTest {
+
+  @Test
+  public void countsUpToFifteen() {
+    FrequencySketch sketch = new FrequencySketch(1000L);
+    assertEquals(0, sketch.frequency("a"));
+    for(int idx = 1; idx <= 20; idx++) {
+      sketch.increment("a");
+      assertEquals(Math.min(15, idx), sketch.frequency("a"));
+    }
+  }
+
+  @Test
+  public void neverUndercounts() {
+    FrequencySketch sketch = new FrequencySketch(1000L);
+    // few enough increments that the counters aren't aged
+    for(int idx = 0; idx < 500; idx++) {
+      for(int count = 0; count <= idx % 5; count++) {
+        sketch.increment("k" + idx);
+      }
+    }
+    for(int idx = 0; idx < 500; idx++) {
+      assertTrue(sketch.frequency("k" + idx) >= 1 + idx % 5);
+    }
+  }
+
+  @Test
+  public void agesItsCounters() {
+    FrequencySketch sketch = new FrequencySketch(16L);
+    for(int idx = 0; idx < 15; idx++) {
+      sketch.increment("hot");
+    }
+    assertEquals(15, sketch.frequency("hot"));
+    // enough other keys to pass the sample size, 10 per counter row, and age every counter
+    for(int idx = 0; idx < 1000; idx++) {
+      sketch.increment("other" + idx);
+    }
+    assertTrue(15 > sketch.frequency("hot"));
+  }
+}
@@ -0,0 +1,189 @@
+package org.tharrisx.framework.store.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.bean.StampedBean;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.annotations.StoreIdFilter;
+import org.tharrisx.framework.store.exception.NoBeanFoundException;
+import org.tharrisx.framework.store.memory.MemoryBeanStoreFactory;
+
+/**
+ * An id filtered MemoryBeanStore: reads of missing beans answered by the filter, never a stored bean
+ * reported missing, and created and deleted beans tracked once their writes commit, even a bean created
+ * with an id the filter falsely held already.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class IdFilteringBeanStoreTest {
+
+  /**
+   * A bean whose store is id filtered.
+   */
+  @StoreIdFilter(expectedBeanCount = 1000L, falsePositiveRate = 0.01)
+  public static class FilteredBean extends StampedBean {
+
+    private String name = null;
+
+    public String getName() {
+      return this.name;
+    }
+
+    public void setName(final String name1) {
+      this.name = name1;
+    }
+
+    public FilteredBean() {
+      // for the store
+    }
+
+    public FilteredBean(final String name1) {
+      this.name = name1;
+    }
+  }
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<FilteredBean> store = null;
+
+  private IdFilteringBeanStore<FilteredBean> filter = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(FilteredBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(FilteredBean.class);
+    this.filter = (IdFilteringBeanStore<FilteredBean>) this.store;
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  private List<String> create(final int count) {
+    List<String> ret = new ArrayList<>();
+    for(int idx = 0; idx < count; idx++) {
+      ret.add(this.store.createOrUpdateBean(new FilteredBean("b" + idx), null).getId());
+    }
+    return ret;
+  }
+
+  @Test
+  public void answersMostReadsOfMissingBeansItself() {
+    List<String> ids = create(1000);
+    for(String id : ids) {
+      assertTrue(this.store.hasBean(id));
+    }
+    for(int idx = 0; idx < 10000; idx++) {
+      assertFalse(this.store.hasBean("missing" + idx));
+    }
+    assertEquals(10000L, this.filter.getFilteredCount() + this.filter.getFalsePositiveCount());
+    assertTrue("observed rate: " + this.filter.getObservedFalsePositiveRate(), 0.03 > this.filter.getObservedFalsePositiveRate());
+    try {
+      this.store.getBean("missing");
+      fail("found a missing bean");
+    } catch(NoBeanFoundException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void getsOnlyStoredBeansByIds() {
+    List<String> ids = create(3);
+    assertEquals(2, this.store.getBeans(Arrays.asList(ids.get(2), "missing", ids.get(0))).getItems().size());
+  }
+
+  @Test
+  public void fillsItselfFromTheStore() {
+    List<String> ids = create(100);
+    IdFilteringBeanStore<FilteredBean> filled = new IdFilteringBeanStore<>(this.factory, FilteredBean.class, this.filter.getBeanStore(), 1000L, 0.01);
+    assertEquals(100L, filled.getFilteredBeanCount());
+    for(String id : ids) {
+      assertTrue(filled.hasBean(id));
+    }
+  }
+
+  @Test
+  public void tracksCommittedCreatesAndDeletes() {
+    List<String> ids = create(3);
+    BeanStoreTransaction transaction = this.factory.beginTransaction(FilteredBean.class, "write");
+    this.store.deleteBean(ids.get(0), transaction);
+    String created = this.store.createOrUpdateBean(new FilteredBean("new"), transaction).getId();
+    // the created id is held at once; the deleted one, which may still be read, until the delete commits
+    assertTrue(this.store.hasBean(ids.get(0)));
+    assertEquals(4L, this.filter.getFilteredBeanCount());
+    this.factory.endTransaction(FilteredBean.class, transaction);
+    assertFalse(this.store.hasBean(ids.get(0)));
+    assertTrue(this.store.hasBean(created));
+    assertEquals(3L, this.filter.getFilteredBeanCount());
+    assertEquals(2, this.store.deleteBeans(Arrays.asList(ids.get(1), ids.get(2)), null));
+    assertFalse(this.store.hasBean(ids.get(1)));
+    assertEquals(1L, this.filter.getFilteredBeanCount());
+  }
+
+  /**
+   * @param prefix String
+   * @return String an id of no stored bean that the filter lets through
+   */
+  private String findFalsePositive(final String prefix) {
+    for(int idx = 0;; idx++) {
+      long falsePositives = this.filter.getFalsePositiveCount();
+      assertFalse(this.store.hasBean(prefix + idx));
+      if(falsePositives < this.filter.getFalsePositiveCount()) return prefix + idx;
+    }
+  }
+
+  private void assertAllFound(final List<String> ids) {
+    for(String id : ids) {
+      assertTrue(id, this.store.hasBean(id));
+    }
+  }
+
+  @Test
+  public void addsACreatedFalsePositiveSoDeletingItHidesNoOtherBean() {
+    List<String> ids = create(1000);
+    FilteredBean bean = new FilteredBean("caller");
+    bean.setId(findFalsePositive("caller"));
+    this.store.createOrUpdateBean(bean, null);
+    assertEquals(1001L, this.filter.getFilteredBeanCount());
+    bean.setName("updated");
+    this.store.createOrUpdateBean(bean, null);
+    assertEquals(1001L, this.filter.getFilteredBeanCount());
+    assertTrue(this.store.deleteBean(bean.getId(), null));
+    assertEquals(1000L, this.filter.getFilteredBeanCount());
+    assertAllFound(ids);
+  }
+
+  @Test
+  public void addsFalsePositivesCreatedInABatch() {
+    List<String> ids = create(1000);
+    List<FilteredBean> beans = new ArrayList<>();
+    for(int idx = 0; idx < 3; idx++) {
+      FilteredBean bean = new FilteredBean("caller");
+      bean.setId(findFalsePositive("caller" + idx + "-"));
+      beans.add(bean);
+    }
+    beans.add(this.store.getBean(ids.get(0)));
+    this.store.createOrUpdateBeans(beans, null);
+    assertEquals(1003L, this.filter.getFilteredBeanCount());
+    assertEquals(3, this.store.deleteBeans(Arrays.asList(beans.get(0).getId(), beans.get(1).getId(), beans.get(2).getId()), null));
+    assertEquals(1000L, this.filter.getFilteredBeanCount());
+    assertAllFound(ids);
+  }
+}
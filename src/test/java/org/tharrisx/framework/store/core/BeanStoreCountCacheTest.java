@@ -0,0 +1,37 @@
+package org.tharrisx.framework.store.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Cached counts are kept by predicate until cleared or expired.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class BeanStoreCountCacheTest {
+
+  @Test
+  public void keepsCountsByPredicateUntilCleared() {
+    BeanStoreCountCache cache = new BeanStoreCountCache();
+    assertNull(cache.get("a"));
+    cache.put("a", 3);
+    cache.put("b", 4);
+    assertEquals(Integer.valueOf(3), cache.get("a"));
+    assertEquals(Integer.valueOf(4), cache.get("b"));
+    cache.clear();
+    assertNull(cache.get("a"));
+    assertNull(cache.get("b"));
+  }
+
+  @Test
+  public void expiresCounts() throws Exception {
+    BeanStoreCountCache cache = new BeanStoreCountCache(10L);
+    cache.put("a", 3);
+    Thread.sleep(50L);
+    assertNull(cache.get("a"));
+  }
+}
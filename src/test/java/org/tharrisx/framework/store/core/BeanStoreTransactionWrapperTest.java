@@ -0,0 +1,107 @@
+package org.tharrisx.framework.store.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.framework.store.memory.MemoryBeanStoreFactory;
+
+/**
+ * A wrapper whose perform() fails rolls back and ends the transaction it began, or marks the unit of work
+ * it joined rollback only.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class BeanStoreTransactionWrapperTest {
+
+  private static final Map<String, String> NONE = Collections.emptyMap();
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+  }
+
+  @After
+  public void tearDown() {
+    BeanStoreUnitOfWork.close();
+    this.factory.close();
+  }
+
+  /**
+   * Writes a bean in the transaction, notes when the transaction ends, then fails.
+   */
+  private final class FailingWrapper extends BeanStoreTransactionWrapper<Object> {
+
+    private final AtomicBoolean ended = new AtomicBoolean();
+
+    FailingWrapper() {
+      super(BeanStoreTransactionWrapperTest.this.factory, SampleBean.class, "failing");
+    }
+
+    @Override
+    protected Object perform(BeanStoreTransaction transaction) throws BeanStoreException {
+      transaction.addEndAction(new Runnable() {
+
+        @Override
+        public void run() {
+          FailingWrapper.this.ended.set(true);
+        }
+      });
+      BeanStoreTransactionWrapperTest.this.store.createOrUpdateBean(new SampleBean("a", 1, null), transaction);
+      throw new IllegalStateException("failed");
+    }
+  }
+
+  private static void assertFails(final BeanStoreTransactionWrapper<?> wrapper) {
+    try {
+      wrapper.handle();
+      fail("perform() failed, so handle() should have");
+    } catch(BeanStoreException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void rollsBackAndEndsItsOwnTransactionWhenPerformFails() {
+    FailingWrapper wrapper = new FailingWrapper();
+    assertFails(wrapper);
+    assertTrue(wrapper.ended.get());
+    assertEquals(0, this.store.getAllMatchingBeans(NONE).getItems().size());
+  }
+
+  @Test
+  public void marksTheUnitOfWorkRollbackOnlyWhenPerformFails() {
+    BeanStoreUnitOfWork.open(this.factory, "request");
+    FailingWrapper wrapper = new FailingWrapper();
+    assertFails(wrapper);
+    // the unit of work's transaction is left for it to end
+    assertFalse(wrapper.ended.get());
+    BeanStoreUnitOfWork.close();
+    assertTrue(wrapper.ended.get());
+    assertEquals(0, this.store.getAllMatchingBeans(NONE).getItems().size());
+  }
+}
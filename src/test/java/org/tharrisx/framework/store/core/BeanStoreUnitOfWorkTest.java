@@ -0,0 +1,136 @@
+package org.tharrisx.framework.store.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.memory.MemoryBeanStoreFactory;
+
+/**
+ * A unit of work shares one transaction among a thread's calls, begun when first joined, and commits or
+ * rolls it back on close.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class BeanStoreUnitOfWorkTest {
+
+  private static final Map<String, String> NONE = Collections.emptyMap();
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+  }
+
+  @After
+  public void tearDown() {
+    BeanStoreUnitOfWork.close();
+    this.factory.close();
+  }
+
+  @Test
+  public void sharesOneTransactionAndCommitsOnClose() {
+    assertNull(BeanStoreUnitOfWork.join(this.factory, SampleBean.class));
+    BeanStoreUnitOfWork.open(this.factory, "request");
+    assertTrue(BeanStoreUnitOfWork.isOpen());
+    BeanStoreTransaction transaction = BeanStoreUnitOfWork.join(this.factory, SampleBean.class);
+    assertSame(transaction, BeanStoreUnitOfWork.join(this.factory, SampleBean.class));
+    assertTrue(BeanStoreUnitOfWork.isJoined(transaction));
+    this.store.createOrUpdateBean(new SampleBean("a", 1, null), transaction);
+    this.store.createOrUpdateBean(new SampleBean("b", 1, null), BeanStoreUnitOfWork.join(this.factory, SampleBean.class));
+    BeanStoreUnitOfWork.close();
+    assertFalse(BeanStoreUnitOfWork.isOpen());
+    assertEquals(2, this.store.getAllMatchingBeans(NONE).getItems().size());
+  }
+
+  @Test
+  public void rollsBackWhenMarked() {
+    BeanStoreUnitOfWork.open(this.factory, "request");
+    this.store.createOrUpdateBean(new SampleBean("a", 1, null), BeanStoreUnitOfWork.join(this.factory, SampleBean.class));
+    BeanStoreUnitOfWork.setRollbackOnly();
+    BeanStoreUnitOfWork.close();
+    assertEquals(0, this.store.getAllMatchingBeans(NONE).getItems().size());
+  }
+
+  @Test
+  public void leavesACallersTransactionForTheCallerToEnd() {
+    BeanStoreTransaction transaction = this.factory.beginTransaction(SampleBean.class, "caller");
+    BeanStoreUnitOfWork.open(this.factory, transaction);
+    assertSame(transaction, BeanStoreUnitOfWork.join(this.factory, SampleBean.class));
+    this.store.createOrUpdateBean(new SampleBean("a", 1, null), transaction);
+    BeanStoreUnitOfWork.setRollbackOnly();
+    BeanStoreUnitOfWork.close();
+    assertTrue(transaction.isRollbackOnly());
+    this.factory.endTransaction(SampleBean.class, transaction);
+    assertEquals(0, this.store.getAllMatchingBeans(NONE).getItems().size());
+  }
+
+  @Test
+  public void readsInOneTransactionUntilTheFirstWrite() {
+    BeanStoreUnitOfWork.open(this.factory, "request");
+    BeanStoreTransaction reading = BeanStoreUnitOfWork.joinReadOnly(this.factory, SampleBean.class);
+    assertSame(reading, BeanStoreUnitOfWork.joinReadOnly(this.factory, SampleBean.class));
+    final AtomicBoolean readingEnded = new AtomicBoolean();
+    reading.addEndAction(new Runnable() {
+
+      @Override
+      public void run() {
+        readingEnded.set(true);
+      }
+    });
+    BeanStoreTransaction writing = BeanStoreUnitOfWork.join(this.factory, SampleBean.class);
+    assertNotSame(reading, writing);
+    assertTrue(readingEnded.get());
+    assertFalse(BeanStoreUnitOfWork.isJoined(reading));
+    assertTrue(BeanStoreUnitOfWork.isJoined(writing));
+    // reads from then on share the write's transaction, to see its writes
+    this.store.createOrUpdateBean(new SampleBean("a", 1, null), writing);
+    assertSame(writing, BeanStoreUnitOfWork.joinReadOnly(this.factory, SampleBean.class));
+    assertSame(writing, BeanStoreUnitOfWork.join(this.factory, SampleBean.class));
+    BeanStoreUnitOfWork.close();
+    assertEquals(1, this.store.getAllMatchingBeans(NONE).getItems().size());
+  }
+
+  @Test
+  public void joinsOnlyForItsOwnFactory() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    MemoryBeanStoreFactory other = new MemoryBeanStoreFactory(types);
+    try {
+      BeanStoreUnitOfWork.open(this.factory, "request");
+      assertNull(BeanStoreUnitOfWork.join(other, SampleBean.class));
+    } finally {
+      other.close();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void opensOnlyOncePerThread() {
+    BeanStoreUnitOfWork.open(this.factory, "request");
+    BeanStoreUnitOfWork.open(this.factory, "again");
+  }
+}
@@ -0,0 +1,120 @@
+package org.tharrisx.framework.store.hibernate;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hibernate.FlushMode;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.Sequence;
+import org.junit.After;
+import org.junit.Test;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Read-only transactions run in read-only sessions that never flush, closed when the transaction ends; a
+ * transaction marked rollback only is rolled back, and runs its end actions but not its commit actions.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class HibernateBeanStoreFactoryTest {
+
+  private final Mockery context = new Mockery();
+
+  private final SessionFactory sessionFactory = this.context.mock(SessionFactory.class);
+
+  private final Session session = this.context.mock(Session.class);
+
+  private final Transaction transaction = this.context.mock(Transaction.class);
+
+  private final HibernateBeanStoreFactory factory = new HibernateBeanStoreFactory(new ArrayList<Class<? extends StorableBean>>(), this.sessionFactory);
+
+  @After
+  public void tearDown() {
+    this.context.assertIsSatisfied();
+  }
+
+  @Test
+  public void readOnlyTransactionSessionNeverFlushes() {
+    final Sequence order = this.context.sequence("order");
+    this.context.checking(new Expectations() {
+      {
+        oneOf(HibernateBeanStoreFactoryTest.this.sessionFactory).openSession(); inSequence(order); will(returnValue(HibernateBeanStoreFactoryTest.this.session));
+        oneOf(HibernateBeanStoreFactoryTest.this.session).setDefaultReadOnly(true); inSequence(order);
+        oneOf(HibernateBeanStoreFactoryTest.this.session).setFlushMode(FlushMode.MANUAL); inSequence(order);
+        oneOf(HibernateBeanStoreFactoryTest.this.session).beginTransaction(); inSequence(order); will(returnValue(HibernateBeanStoreFactoryTest.this.transaction));
+        oneOf(HibernateBeanStoreFactoryTest.this.transaction).commit(); inSequence(order);
+        oneOf(HibernateBeanStoreFactoryTest.this.session).close(); inSequence(order);
+      }
+    });
+    BeanStoreTransaction readOnly = this.factory.beginReadOnlyTransaction(SampleBean.class, "read");
+    assertSame(this.session, ((HibernateBeanStoreTransaction) readOnly).getSession());
+    this.factory.endTransaction(SampleBean.class, readOnly);
+  }
+
+  @Test
+  public void failedReadOnlyBeginClosesTheSession() {
+    this.context.checking(new Expectations() {
+      {
+        oneOf(HibernateBeanStoreFactoryTest.this.sessionFactory).openSession(); will(returnValue(HibernateBeanStoreFactoryTest.this.session));
+        oneOf(HibernateBeanStoreFactoryTest.this.session).setDefaultReadOnly(true);
+        oneOf(HibernateBeanStoreFactoryTest.this.session).setFlushMode(FlushMode.MANUAL);
+        oneOf(HibernateBeanStoreFactoryTest.this.session).beginTransaction(); will(throwException(new HibernateException("down")));
+        oneOf(HibernateBeanStoreFactoryTest.this.session).close();
+      }
+    });
+    try {
+      this.factory.beginReadOnlyTransaction(SampleBean.class, "read");
+      fail("The transaction could not begin.");
+    } catch(HibernateException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void rollbackOnlyTransactionRollsBackAndRunsEndActions() {
+    this.context.checking(new Expectations() {
+      {
+        oneOf(HibernateBeanStoreFactoryTest.this.sessionFactory).openSession(); will(returnValue(HibernateBeanStoreFactoryTest.this.session));
+        oneOf(HibernateBeanStoreFactoryTest.this.session).beginTransaction(); will(returnValue(HibernateBeanStoreFactoryTest.this.transaction));
+        oneOf(HibernateBeanStoreFactoryTest.this.transaction).rollback();
+        never(HibernateBeanStoreFactoryTest.this.transaction).commit();
+        oneOf(HibernateBeanStoreFactoryTest.this.session).close();
+      }
+    });
+    final AtomicBoolean committed = new AtomicBoolean();
+    final AtomicBoolean ended = new AtomicBoolean();
+    BeanStoreTransaction write = this.factory.beginTransaction(SampleBean.class, "write");
+    write.addCommitAction(new Runnable() {
+
+      @Override
+      public void run() {
+        committed.set(true);
+      }
+    });
+    write.addEndAction(new Runnable() {
+
+      @Override
+      public void run() {
+        ended.set(true);
+      }
+    });
+    write.setRollbackOnly();
+    this.factory.endTransaction(SampleBean.class, write);
+    assertFalse(committed.get());
+    assertTrue(ended.get());
+  }
+}
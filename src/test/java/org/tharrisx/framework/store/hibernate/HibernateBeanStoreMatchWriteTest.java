@@ -0,0 +1,318 @@
+package org.tharrisx.framework.store.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Criteria;
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.cfg.Settings;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerGroup;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.type.IntegerType;
+import org.hibernate.type.StringType;
+import org.hibernate.type.TimestampType;
+import org.hibernate.type.Type;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.api.Invocation;
+import org.jmock.lib.action.CustomAction;
+import org.junit.After;
+import org.junit.Test;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.exception.OperationNotSupportedException;
+import org.tharrisx.util.reflect.BeanAccessorRegistry;
+
+/**
+ * Deletes by match are one HQL delete, and updates by match one HQL update, stamping lastChanged and bumping
+ * a versioned type's version, unless the type has listeners an HQL delete or update would skip; then the
+ * beans are loaded and deleted or updated through the session. Updates never set the id, an association or
+ * a collection.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class HibernateBeanStoreMatchWriteTest {
+
+  /**
+   * Hibernate's entity persisters are its class metadata as well.
+   */
+  public interface MappedPersister extends EntityPersister, ClassMetadata {
+    // both
+  }
+
+  private final Mockery context = new Mockery();
+
+  private final SessionFactoryImplementor sessionFactory = this.context.mock(SessionFactoryImplementor.class);
+
+  private final EventSource session = this.context.mock(EventSource.class);
+
+  private final MappedPersister persister = this.context.mock(MappedPersister.class);
+
+  private final ServiceRegistryImplementor serviceRegistry = this.context.mock(ServiceRegistryImplementor.class);
+
+  private final EventListenerRegistry listeners = this.context.mock(EventListenerRegistry.class);
+
+  private final EventListenerGroup<?> emptyGroup = this.context.mock(EventListenerGroup.class, "emptyGroup");
+
+  private final EventListenerGroup<?> listenedGroup = this.context.mock(EventListenerGroup.class, "listenedGroup");
+
+  private final Type associationType = this.context.mock(Type.class, "associationType");
+
+  private final Type collectionType = this.context.mock(Type.class, "collectionType");
+
+  private final PersistenceContext persistenceContext = this.context.mock(PersistenceContext.class);
+
+  private final Query query = this.context.mock(Query.class);
+
+  private final ScrollableResults results = this.context.mock(ScrollableResults.class);
+
+  private final Criteria criteria = this.context.mock(Criteria.class);
+
+  private final HibernateBeanStore<SampleBean> store = new HibernateBeanStore<>(new HibernateBeanStoreFactory(new ArrayList<Class<? extends StorableBean>>(), this.sessionFactory), SampleBean.class);
+
+  private final BeanStoreTransaction transaction = new HibernateBeanStoreTransaction("write", this.session, null);
+
+  private final List<String> queryStrings = new ArrayList<>();
+
+  private final Map<String, Object> parameters = new HashMap<>();
+
+  @After
+  public void tearDown() {
+    this.context.assertIsSatisfied();
+  }
+
+  private static Settings settings() throws Exception {
+    Constructor<Settings> constructor = Settings.class.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    return constructor.newInstance();
+  }
+
+  /**
+   * Map SampleBean, with weight standing in for an association and created for a collection.
+   *
+   * @param versioned boolean
+   * @param listenedEventType EventType<?> the one event type with a listener, or null for none
+   */
+  private void map(final boolean versioned, final EventType<?> listenedEventType) throws Exception {
+    final Settings settings = settings();
+    this.context.checking(new Expectations() {
+      {
+        HibernateBeanStoreMatchWriteTest test = HibernateBeanStoreMatchWriteTest.this;
+        allowing(test.session).getSessionFactory(); will(returnValue(test.sessionFactory));
+        allowing(test.session).getInterceptor(); will(returnValue(EmptyInterceptor.INSTANCE));
+        allowing(test.session).getPersistenceContext(); will(returnValue(test.persistenceContext));
+        allowing(test.persistenceContext).getEntitiesByKey(); will(returnValue(Collections.emptyMap()));
+        allowing(test.sessionFactory).getClassMetadata(SampleBean.class); will(returnValue(test.persister));
+        allowing(test.sessionFactory).getServiceRegistry(); will(returnValue(test.serviceRegistry));
+        allowing(test.sessionFactory).getSettings(); will(returnValue(settings));
+        allowing(test.serviceRegistry).getService(EventListenerRegistry.class); will(returnValue(test.listeners));
+        if(null != listenedEventType) {
+          allowing(test.listeners).getEventListenerGroup(listenedEventType); will(returnValue(test.listenedGroup));
+        }
+        allowing(test.listeners).getEventListenerGroup(with(any(EventType.class))); will(returnValue(test.emptyGroup));
+        allowing(test.emptyGroup).isEmpty(); will(returnValue(true));
+        allowing(test.emptyGroup).listeners(); will(returnValue(Collections.emptyList()));
+        allowing(test.listenedGroup).isEmpty(); will(returnValue(false));
+        allowing(test.persister).getEntityName(); will(returnValue("Sample"));
+        allowing(test.persister).getIdentifierPropertyName(); will(returnValue("id"));
+        allowing(test.persister).isVersioned(); will(returnValue(versioned));
+        allowing(test.persister).hasCascades(); will(returnValue(false));
+        allowing(test.persister).hasCollections(); will(returnValue(false));
+        allowing(test.persister).getPropertyType("id"); will(returnValue(StringType.INSTANCE));
+        allowing(test.persister).getPropertyType("name"); will(returnValue(StringType.INSTANCE));
+        allowing(test.persister).getPropertyType("size"); will(returnValue(IntegerType.INSTANCE));
+        allowing(test.persister).getPropertyType("lastChanged"); will(returnValue(TimestampType.INSTANCE));
+        allowing(test.persister).getPropertyType("weight"); will(returnValue(test.associationType));
+        allowing(test.persister).getPropertyType("created"); will(returnValue(test.collectionType));
+        allowing(test.associationType).isAssociationType(); will(returnValue(true));
+        allowing(test.associationType).isCollectionType(); will(returnValue(false));
+        allowing(test.collectionType).isAssociationType(); will(returnValue(false));
+        allowing(test.collectionType).isCollectionType(); will(returnValue(true));
+        allowing(test.session).createQuery(with(any(String.class))); will(new CustomAction("record the query string") {
+
+          @Override
+          public Object invoke(Invocation invocation) {
+            HibernateBeanStoreMatchWriteTest.this.queryStrings.add((String) invocation.getParameter(0));
+            return HibernateBeanStoreMatchWriteTest.this.query;
+          }
+        });
+        allowing(test.query).setParameter(with(any(String.class)), with(any(Object.class)), with(any(Type.class))); will(new CustomAction("record the parameter") {
+
+          @Override
+          public Object invoke(Invocation invocation) {
+            HibernateBeanStoreMatchWriteTest.this.parameters.put((String) invocation.getParameter(0), invocation.getParameter(1));
+            return HibernateBeanStoreMatchWriteTest.this.query;
+          }
+        });
+      }
+    });
+  }
+
+  private static Map<String, String> values(final String... namesAndValues) {
+    Map<String, String> ret = new HashMap<>();
+    for(int idx = 0; idx < namesAndValues.length; idx += 2) {
+      ret.put(namesAndValues[idx], namesAndValues[idx + 1]);
+    }
+    return ret;
+  }
+
+  @Test
+  public void updatesWithOneHqlUpdateStampingLastChanged() throws Exception {
+    map(false, null);
+    this.context.checking(new Expectations() {
+      {
+        oneOf(HibernateBeanStoreMatchWriteTest.this.query).executeUpdate(); will(returnValue(2));
+        never(HibernateBeanStoreMatchWriteTest.this.query).scroll(with(any(ScrollMode.class)));
+      }
+    });
+    Date before = new Date();
+    // a new lastChanged is ignored for now
+    assertEquals(2, this.store.updateMatchingBeans(values("size", "1"), values("name", "x", "lastChanged", "0"), this.transaction));
+    assertEquals(Collections.singletonList("update Sample bean set bean.name = :s0, bean.lastChanged = :s1 where bean.size = :p0"), this.queryStrings);
+    assertEquals(Integer.valueOf(1), this.parameters.get("p0"));
+    assertEquals("x", this.parameters.get("s0"));
+    assertTrue(!before.after((Date) this.parameters.get("s1")));
+  }
+
+  @Test
+  public void bumpsTheVersionOfAVersionedType() throws Exception {
+    map(true, null);
+    this.context.checking(new Expectations() {
+      {
+        oneOf(HibernateBeanStoreMatchWriteTest.this.query).executeUpdate(); will(returnValue(0));
+      }
+    });
+    this.store.updateMatchingBeans(values("size", "1"), values("name", "x"), this.transaction);
+    assertTrue(this.queryStrings.get(0).startsWith("update versioned Sample bean set "));
+  }
+
+  @Test
+  public void updatesThroughTheSessionWhenAnHqlUpdateWouldSkipListeners() throws Exception {
+    map(false, EventType.PRE_UPDATE);
+    final SampleBean bean1 = new SampleBean("a", 1, null);
+    final SampleBean bean2 = new SampleBean("b", 1, null);
+    this.context.checking(new Expectations() {
+      {
+        HibernateBeanStoreMatchWriteTest test = HibernateBeanStoreMatchWriteTest.this;
+        never(test.query).executeUpdate();
+        oneOf(test.query).scroll(ScrollMode.FORWARD_ONLY); will(returnValue(test.results));
+        exactly(3).of(test.results).next(); will(onConsecutiveCalls(returnValue(true), returnValue(true), returnValue(false)));
+        exactly(2).of(test.results).get(0); will(onConsecutiveCalls(returnValue(bean1), returnValue(bean2)));
+        oneOf(test.results).close();
+        allowing(test.persister).setPropertyValue(with(any(Object.class)), with(any(String.class)), with(any(Object.class))); will(new CustomAction("set the property") {
+
+          @Override
+          public Object invoke(Invocation invocation) throws Exception {
+            BeanAccessorRegistry.get().getAccessor(SampleBean.class, (String) invocation.getParameter(1)).set(invocation.getParameter(0), invocation.getParameter(2));
+            return null;
+          }
+        });
+      }
+    });
+    assertEquals(2, this.store.updateMatchingBeans(values("size", "1"), values("name", "x"), this.transaction));
+    assertEquals(Collections.singletonList("select bean from Sample bean where bean.size = :p0"), this.queryStrings);
+    assertEquals("x", bean1.getName());
+    assertEquals("x", bean2.getName());
+    assertNotNull(bean1.getLastChanged());
+    assertNotNull(bean2.getLastChanged());
+  }
+
+  private void assertCantSet(final String propertyName) {
+    try {
+      this.store.updateMatchingBeans(values("size", "1"), values(propertyName, "1"), this.transaction);
+      fail(propertyName + " can't be set by match.");
+    } catch(OperationNotSupportedException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void rejectsSettingTheIdAnAssociationOrACollection() throws Exception {
+    map(false, null);
+    this.context.checking(new Expectations() {
+      {
+        never(HibernateBeanStoreMatchWriteTest.this.query).executeUpdate();
+      }
+    });
+    assertCantSet("id");
+    assertCantSet("weight");
+    assertCantSet("created");
+  }
+
+  @Test
+  public void rejectsThemThroughTheSessionToo() throws Exception {
+    map(false, EventType.PRE_UPDATE);
+    this.context.checking(new Expectations() {
+      {
+        never(HibernateBeanStoreMatchWriteTest.this.query).scroll(with(any(ScrollMode.class)));
+      }
+    });
+    assertCantSet("id");
+    assertCantSet("weight");
+    assertCantSet("created");
+  }
+
+  @Test
+  public void deletesWithOneHqlDelete() throws Exception {
+    map(false, null);
+    this.context.checking(new Expectations() {
+      {
+        HibernateBeanStoreMatchWriteTest test = HibernateBeanStoreMatchWriteTest.this;
+        oneOf(test.query).executeUpdate(); will(returnValue(3));
+        never(test.query).list();
+        never(test.session).delete(with(any(Object.class)));
+      }
+    });
+    assertEquals(3, this.store.deleteMatchingBeans(values("size", "1"), this.transaction));
+    assertEquals(Collections.singletonList("delete from Sample bean where bean.size = :p0"), this.queryStrings);
+    assertEquals(Integer.valueOf(1), this.parameters.get("p0"));
+  }
+
+  @Test
+  public void deletesThroughTheSessionWhenAnHqlDeleteWouldSkipListeners() throws Exception {
+    map(false, EventType.PRE_DELETE);
+    final SampleBean bean1 = new SampleBean("a", 1, null);
+    final SampleBean bean2 = new SampleBean("b", 1, null);
+    this.context.checking(new Expectations() {
+      {
+        HibernateBeanStoreMatchWriteTest test = HibernateBeanStoreMatchWriteTest.this;
+        never(test.query).executeUpdate();
+        oneOf(test.query).list(); will(returnValue(Arrays.asList("1", "2")));
+        oneOf(test.session).createCriteria(SampleBean.class); will(returnValue(test.criteria));
+        oneOf(test.criteria).add(with(any(Criterion.class))); will(returnValue(test.criteria));
+        oneOf(test.criteria).list(); will(returnValue(Arrays.asList(bean1, bean2)));
+        oneOf(test.session).delete(bean1);
+        oneOf(test.session).delete(bean2);
+        oneOf(test.session).flush();
+        oneOf(test.session).clear();
+      }
+    });
+    assertEquals(2, this.store.deleteMatchingBeans(values("size", "1"), this.transaction));
+    assertEquals(Collections.singletonList("select bean.id from Sample bean where bean.size = :p0"), this.queryStrings);
+  }
+}
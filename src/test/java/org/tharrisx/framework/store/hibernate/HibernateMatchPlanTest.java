@@ -0,0 +1,82 @@
+package org.tharrisx.framework.store.hibernate;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * The HQL a match plan makes: nulls sorted first ascending and last descending, as MemoryBeanStore sorts
+ * them, properties that can't be null sorted on their column alone, and keyset predicates that agree with
+ * that order.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class HibernateMatchPlanTest {
+
+  private static HibernateMatchPlan plan(final String[] propertyNames, final String[] sortFields, final boolean[] sortAscending) {
+    boolean[] sortNullable = new boolean[sortFields.length];
+    Arrays.fill(sortNullable, true);
+    return plan(propertyNames, sortFields, sortAscending, sortNullable);
+  }
+
+  private static HibernateMatchPlan plan(final String[] propertyNames, final String[] sortFields, final boolean[] sortAscending, final boolean[] sortNullable) {
+    return new HibernateMatchPlan("Sample", propertyNames, new HibernatePropertyBinding[propertyNames.length], sortFields, sortAscending, sortNullable);
+  }
+
+  @Test
+  public void makesMatchQueries() {
+    HibernateMatchPlan plan = plan(new String[] { "name", "size" }, new String[0], new boolean[0]);
+    assertEquals("select bean from Sample bean where bean.name = :p0 and bean.size = :p1", plan.getQueryString());
+    assertEquals("select count(*) from Sample bean where bean.name = :p0 and bean.size = :p1", plan.getCountQueryString());
+    assertEquals("delete from Sample bean where bean.name = :p0 and bean.size = :p1", plan.getDeleteQueryString());
+    assertEquals("update versioned Sample bean set bean.weight = :s0 where bean.name = :p0 and bean.size = :p1", plan.makeUpdateQueryString(new String[] { "weight" }, true));
+  }
+
+  @Test
+  public void sortsNullsFirstAscendingAndLastDescending() {
+    HibernateMatchPlan plan = plan(new String[0], new String[] { "name", "weight" }, new boolean[] { true, false });
+    assertEquals("select bean from Sample bean order by case when bean.name is null then 0 else 1 end asc, bean.name asc, "
+        + "case when bean.weight is null then 0 else 1 end desc, bean.weight desc, bean.id asc", plan.getSortedQueryString());
+  }
+
+  @Test
+  public void seeksAfterNonNullCursorValues() {
+    HibernateMatchPlan plan = plan(new String[] { "size" }, new String[] { "name", "weight" }, new boolean[] { true, false });
+    assertEquals("select bean from Sample bean where bean.size = :p0 and ("
+        + "(bean.name > :c0)"
+        + " or (bean.name = :c0 and (bean.weight < :c1 or bean.weight is null))"
+        + " or (bean.name = :c0 and bean.weight = :c1 and bean.id > :c2))"
+        + plan.getSortedQueryString().substring(plan.getQueryString().length()), plan.makeSortedAfterQueryString(new Object[] { "n", Integer.valueOf(1) }));
+  }
+
+  @Test
+  public void seeksAfterNullCursorValues() {
+    HibernateMatchPlan plan = plan(new String[0], new String[] { "name", "weight" }, new boolean[] { true, false });
+    // after a null ascending, every non-null sorts later; after a null descending, nothing does
+    assertEquals("select bean from Sample bean where ("
+        + "(bean.name is not null)"
+        + " or (bean.name is null and bean.weight is null and bean.id > :c2))"
+        + plan.getSortedQueryString().substring(plan.getQueryString().length()), plan.makeSortedAfterQueryString(new Object[] { null, null }));
+  }
+
+  @Test
+  public void sortsPropertiesThatCantBeNullOnTheirColumnAlone() {
+    HibernateMatchPlan plan = plan(new String[0], new String[] { "size", "name" }, new boolean[] { false, true }, new boolean[] { false, true });
+    assertEquals("select bean from Sample bean order by bean.size desc, "
+        + "case when bean.name is null then 0 else 1 end asc, bean.name asc, bean.id asc", plan.getSortedQueryString());
+  }
+
+  @Test
+  public void seeksWithoutNullChecksOnPropertiesThatCantBeNull() {
+    HibernateMatchPlan plan = plan(new String[0], new String[] { "size", "lastChanged" }, new boolean[] { false, true }, new boolean[] { false, false });
+    assertEquals("select bean from Sample bean where ("
+        + "(bean.size < :c0)"
+        + " or (bean.size = :c0 and bean.lastChanged > :c1)"
+        + " or (bean.size = :c0 and bean.lastChanged = :c1 and bean.id > :c2))"
+        + " order by bean.size desc, bean.lastChanged asc, bean.id asc", plan.makeSortedAfterQueryString(new Object[] { Integer.valueOf(3), "2014-01-01" }));
+  }
+}
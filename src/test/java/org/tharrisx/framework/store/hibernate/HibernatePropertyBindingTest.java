@@ -0,0 +1,93 @@
+package org.tharrisx.framework.store.hibernate;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.Query;
+import org.hibernate.type.IntegerType;
+import org.hibernate.type.StringType;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.After;
+import org.junit.Test;
+import org.tharrisx.framework.store.DefaultBeanPropertyValueAdapter;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
+
+/**
+ * Property bindings adapt values by the type adapter they looked up, unless the value adapter adapts them
+ * its own way, and bind them as the Hibernate type when it is known.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class HibernatePropertyBindingTest {
+
+  private static final BeanStoreStackInfo INFO = new BeanStoreStackInfo(SampleBean.class, null, "test");
+
+  /**
+   * Adapts every value of every property to the same thing.
+   */
+  public static class ConstantValueAdapter extends DefaultBeanPropertyValueAdapter {
+
+    @Override
+    public Object getAdaptedValue(BeanStoreStackInfo info, String propertyName, String propertyValue) {
+      return "constant";
+    }
+  }
+
+  private final Mockery context = new Mockery();
+
+  private final Query query = this.context.mock(Query.class);
+
+  @After
+  public void tearDown() {
+    this.context.assertIsSatisfied();
+  }
+
+  @Test
+  public void adaptsByThePropertyType() {
+    DefaultBeanPropertyValueAdapter valueAdapter = new DefaultBeanPropertyValueAdapter();
+    assertEquals(Integer.valueOf(3), new HibernatePropertyBinding(INFO, "size", valueAdapter, null).adapt(INFO, "3"));
+    assertEquals(Integer.valueOf(-4), new HibernatePropertyBinding(INFO, "weight", valueAdapter, null).adapt(INFO, "-4"));
+    assertEquals("n", new HibernatePropertyBinding(INFO, "name", valueAdapter, null).adapt(INFO, "n"));
+  }
+
+  @Test
+  public void adaptsThroughAnOverridingValueAdapter() {
+    assertEquals("constant", new HibernatePropertyBinding(INFO, "size", new ConstantValueAdapter(), null).adapt(INFO, "3"));
+  }
+
+  @Test
+  public void bindsAsTheKnownType() {
+    this.context.checking(new Expectations() {
+      {
+        oneOf(HibernatePropertyBindingTest.this.query).setParameter("p0", Integer.valueOf(3), IntegerType.INSTANCE); will(returnValue(HibernatePropertyBindingTest.this.query));
+        oneOf(HibernatePropertyBindingTest.this.query).setParameter("p1", "n"); will(returnValue(HibernatePropertyBindingTest.this.query));
+      }
+    });
+    DefaultBeanPropertyValueAdapter valueAdapter = new DefaultBeanPropertyValueAdapter();
+    new HibernatePropertyBinding(INFO, "size", valueAdapter, IntegerType.INSTANCE).bind(this.query, "p0", Integer.valueOf(3));
+    new HibernatePropertyBinding(INFO, "name", valueAdapter, null).bind(this.query, "p1", "n");
+  }
+
+  @Test
+  public void planBindsEachPropertyValue() {
+    this.context.checking(new Expectations() {
+      {
+        oneOf(HibernatePropertyBindingTest.this.query).setParameter("p0", "n", StringType.INSTANCE); will(returnValue(HibernatePropertyBindingTest.this.query));
+        oneOf(HibernatePropertyBindingTest.this.query).setParameter("p1", Integer.valueOf(3), IntegerType.INSTANCE); will(returnValue(HibernatePropertyBindingTest.this.query));
+      }
+    });
+    DefaultBeanPropertyValueAdapter valueAdapter = new DefaultBeanPropertyValueAdapter();
+    HibernatePropertyBinding[] bindings = new HibernatePropertyBinding[] { new HibernatePropertyBinding(INFO, "name", valueAdapter, StringType.INSTANCE), new HibernatePropertyBinding(INFO, "size", valueAdapter, IntegerType.INSTANCE) };
+    HibernateMatchPlan plan = new HibernateMatchPlan("Sample", new String[] { "name", "size" }, bindings, new String[0], new boolean[0], new boolean[0]);
+    Map<String, String> propertyValues = new HashMap<>();
+    propertyValues.put("size", "3");
+    propertyValues.put("name", "n");
+    plan.bind(this.query, INFO, propertyValues);
+  }
+}
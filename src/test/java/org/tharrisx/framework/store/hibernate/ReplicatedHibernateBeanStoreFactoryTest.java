@@ -0,0 +1,132 @@
+package org.tharrisx.framework.store.hibernate;
+
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.hibernate.FlushMode;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.After;
+import org.junit.Test;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Read-only transactions take turns among the replicas, skip one that failed until its retry interval is
+ * up, and fall back to the primary; read/write transactions and consistent reads stay on the primary.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class ReplicatedHibernateBeanStoreFactoryTest {
+
+  private final Mockery context = new Mockery();
+
+  private final SessionFactory primary = this.context.mock(SessionFactory.class, "primary");
+
+  private final SessionFactory replica0 = this.context.mock(SessionFactory.class, "replica0");
+
+  private final SessionFactory replica1 = this.context.mock(SessionFactory.class, "replica1");
+
+  private final Session primarySession = this.context.mock(Session.class, "primarySession");
+
+  private final Session replica0Session = this.context.mock(Session.class, "replica0Session");
+
+  private final Session replica1Session = this.context.mock(Session.class, "replica1Session");
+
+  private final Transaction transaction = this.context.mock(Transaction.class);
+
+  private ReplicatedHibernateBeanStoreFactory makeFactory(final long retryInterval) {
+    return new ReplicatedHibernateBeanStoreFactory(new ArrayList<Class<? extends StorableBean>>(), this.primary, Arrays.asList(this.replica0, this.replica1), retryInterval);
+  }
+
+  @After
+  public void tearDown() {
+    ReplicatedHibernateBeanStoreFactory.setConsistentReads(false);
+    this.context.assertIsSatisfied();
+  }
+
+  /**
+   * Sessions of the factory open, configure, and begin transactions, as often as asked.
+   */
+  private void allowSessions(final SessionFactory sessionFactory, final Session session) {
+    this.context.checking(new Expectations() {
+      {
+        allowing(sessionFactory).openSession(); will(returnValue(session));
+        allowing(session).setDefaultReadOnly(true);
+        allowing(session).setFlushMode(FlushMode.MANUAL);
+        allowing(session).beginTransaction(); will(returnValue(ReplicatedHibernateBeanStoreFactoryTest.this.transaction));
+      }
+    });
+  }
+
+  private static Session sessionOf(final Object transaction) {
+    return ((HibernateBeanStoreTransaction) transaction).getSession();
+  }
+
+  @Test
+  public void readsTakeTurnsAmongReplicas() {
+    allowSessions(this.replica0, this.replica0Session);
+    allowSessions(this.replica1, this.replica1Session);
+    ReplicatedHibernateBeanStoreFactory factory = makeFactory(ReplicatedHibernateBeanStoreFactory.DEFAULT_RETRY_INTERVAL);
+    assertSame(this.replica0Session, sessionOf(factory.beginReadOnlyTransaction(SampleBean.class, "read")));
+    assertSame(this.replica1Session, sessionOf(factory.beginReadOnlyTransaction(SampleBean.class, "read")));
+    assertSame(this.replica0Session, sessionOf(factory.beginReadOnlyTransaction(SampleBean.class, "read")));
+  }
+
+  @Test
+  public void writesAndConsistentReadsStayOnThePrimary() {
+    allowSessions(this.primary, this.primarySession);
+    this.context.checking(new Expectations() {
+      {
+        never(ReplicatedHibernateBeanStoreFactoryTest.this.replica0);
+        never(ReplicatedHibernateBeanStoreFactoryTest.this.replica1);
+      }
+    });
+    ReplicatedHibernateBeanStoreFactory factory = makeFactory(ReplicatedHibernateBeanStoreFactory.DEFAULT_RETRY_INTERVAL);
+    assertSame(this.primarySession, sessionOf(factory.beginTransaction(SampleBean.class, "write")));
+    ReplicatedHibernateBeanStoreFactory.setConsistentReads(true);
+    assertSame(this.primarySession, sessionOf(factory.beginReadOnlyTransaction(SampleBean.class, "read")));
+  }
+
+  @Test
+  public void failedReplicaIsLeftOutUntilItsRetryInterval() throws Exception {
+    allowSessions(this.replica1, this.replica1Session);
+    this.context.checking(new Expectations() {
+      {
+        exactly(2).of(ReplicatedHibernateBeanStoreFactoryTest.this.replica0).openSession(); will(throwException(new HibernateException("down")));
+      }
+    });
+    ReplicatedHibernateBeanStoreFactory factory = makeFactory(200L);
+    // replica 0 fails, so replica 1 serves the read, and every read until replica 0 may be tried again
+    assertSame(this.replica1Session, sessionOf(factory.beginReadOnlyTransaction(SampleBean.class, "read")));
+    for(int idx = 0; idx < 4; idx++) {
+      assertSame(this.replica1Session, sessionOf(factory.beginReadOnlyTransaction(SampleBean.class, "read")));
+    }
+    Thread.sleep(300L);
+    // a read whose turn lands on replica 0 tries it again; it fails again, so replica 1 serves it
+    assertSame(this.replica1Session, sessionOf(factory.beginReadOnlyTransaction(SampleBean.class, "read")));
+    assertSame(this.replica1Session, sessionOf(factory.beginReadOnlyTransaction(SampleBean.class, "read")));
+  }
+
+  @Test
+  public void readsFallBackToThePrimaryWithNoReplicaUp() {
+    allowSessions(this.primary, this.primarySession);
+    this.context.checking(new Expectations() {
+      {
+        oneOf(ReplicatedHibernateBeanStoreFactoryTest.this.replica0).openSession(); will(throwException(new HibernateException("down")));
+        oneOf(ReplicatedHibernateBeanStoreFactoryTest.this.replica1).openSession(); will(throwException(new HibernateException("down")));
+      }
+    });
+    ReplicatedHibernateBeanStoreFactory factory = makeFactory(ReplicatedHibernateBeanStoreFactory.DEFAULT_RETRY_INTERVAL);
+    assertSame(this.primarySession, sessionOf(factory.beginReadOnlyTransaction(SampleBean.class, "read")));
+    assertSame("both are left out now, so are not tried", this.primarySession, sessionOf(factory.beginReadOnlyTransaction(SampleBean.class, "read")));
+  }
+}
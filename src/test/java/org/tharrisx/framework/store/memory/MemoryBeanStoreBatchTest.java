@@ -0,0 +1,105 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Batch creates, updates and deletes on MemoryBeanStore.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreBatchTest {
+
+  private static final Map<String, String> NONE = Collections.emptyMap();
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  private static List<SampleBean> makeBeans(final int count) {
+    List<SampleBean> ret = new ArrayList<>();
+    for(int idx = 0; idx < count; idx++) {
+      ret.add(new SampleBean("n" + idx, idx % 7, Integer.valueOf(idx)));
+    }
+    return ret;
+  }
+
+  @Test
+  public void createsAndUpdatesInOrder() {
+    List<SampleBean> stored = this.store.createOrUpdateBeans(makeBeans(1000), null);
+    assertEquals(1000, stored.size());
+    for(int idx = 0; idx < stored.size(); idx++) {
+      assertNotNull(stored.get(idx).getId());
+      assertNotNull(stored.get(idx).getCreated());
+      assertEquals("n" + idx, stored.get(idx).getName());
+    }
+    assertEquals(1000, this.store.getAllMatchingBeans(NONE).getItems().size());
+    List<SampleBean> changed = new ArrayList<>(stored.subList(0, 10));
+    for(SampleBean bean : changed) {
+      bean.setName("u" + bean.getName());
+    }
+    changed.addAll(makeBeans(5));
+    this.store.createOrUpdateBeans(changed, null);
+    assertEquals(1005, this.store.getAllMatchingBeans(NONE).getItems().size());
+    assertEquals("un3", this.store.getBean(stored.get(3).getId()).getName());
+    assertEquals(1, this.store.getAllMatchingBeans(Collections.singletonMap("name", "un3")).getItems().size());
+  }
+
+  @Test
+  public void deletesTheBeansThatExist() {
+    List<SampleBean> stored = this.store.createOrUpdateBeans(makeBeans(100), null);
+    List<String> ids = new ArrayList<>();
+    for(int idx = 0; idx < 50; idx++) {
+      ids.add(stored.get(idx).getId());
+    }
+    ids.add("missing");
+    assertEquals(50, this.store.deleteBeans(ids, null));
+    assertEquals(50, this.store.getAllMatchingBeans(NONE).getItems().size());
+    assertFalse(this.store.hasBean(stored.get(0).getId()));
+    assertEquals(0, this.store.deleteBeans(ids, null));
+  }
+
+  @Test
+  public void batchInATransactionCommitsAtOnce() {
+    List<SampleBean> stored = this.store.createOrUpdateBeans(makeBeans(10), null);
+    BeanStoreTransaction transaction = this.factory.beginTransaction(SampleBean.class, "batch");
+    List<SampleBean> created = this.store.createOrUpdateBeans(makeBeans(20), transaction);
+    assertEquals(2, this.store.deleteBeans(Arrays.asList(stored.get(0).getId(), stored.get(1).getId()), transaction));
+    assertEquals(10, this.store.getAllMatchingBeans(NONE).getItems().size());
+    assertFalse(this.store.hasBean(created.get(0).getId()));
+    this.factory.endTransaction(SampleBean.class, transaction);
+    assertEquals(28, this.store.getAllMatchingBeans(NONE).getItems().size());
+    assertTrue(this.store.hasBean(created.get(19).getId()));
+  }
+}
@@ -0,0 +1,250 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.bean.PageableBeanList;
+import org.tharrisx.framework.bean.StampedBean;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Whole-store matches and sorts a columnar MemoryBeanStore runs over its int, long, double and dictionary
+ * coded String columns find, count and order the same beans as a plain scan, nulls included, and again
+ * once writes have made new snapshots.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreColumnarTest {
+
+  /**
+   * A bean with a property for each kind of column, and no indexes, so every match is a whole-store scan.
+   */
+  public static class ColumnBean extends StampedBean {
+
+    private String colour = null;
+
+    public String getColour() {
+      return this.colour;
+    }
+
+    public void setColour(final String colour1) {
+      this.colour = colour1;
+    }
+
+    private int rank = 0;
+
+    public int getRank() {
+      return this.rank;
+    }
+
+    public void setRank(final int rank1) {
+      this.rank = rank1;
+    }
+
+    private Long total = null;
+
+    public Long getTotal() {
+      return this.total;
+    }
+
+    public void setTotal(final Long total1) {
+      this.total = total1;
+    }
+
+    private Double ratio = null;
+
+    public Double getRatio() {
+      return this.ratio;
+    }
+
+    public void setRatio(final Double ratio1) {
+      this.ratio = ratio1;
+    }
+
+    private boolean flag = false;
+
+    public boolean isFlag() {
+      return this.flag;
+    }
+
+    public void setFlag(final boolean flag1) {
+      this.flag = flag1;
+    }
+
+    public ColumnBean() {
+      // for the store
+    }
+  }
+
+  private static final String[] COLOURS = new String[] { "red", "Red", "green", "blue", "Blue", "", "yellow" };
+
+  private static final String[][] SORTS = new String[][] {
+      { "colour", "ascending" },
+      { "colour", "descending" },
+      { "total,rank", "ascending,descending" },
+      { "ratio", "descending" },
+      { "flag,colour,ratio", "ascending,descending,ascending" },
+      { "", "" } };
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<ColumnBean> store = null;
+
+  private List<ColumnBean> beans = null;
+
+  private Random random = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(ColumnBean.class);
+    MemoryBeanStoreConfiguration configuration = new MemoryBeanStoreConfiguration();
+    configuration.setColumnar(true);
+    this.factory = new MemoryBeanStoreFactory(types, configuration);
+    this.store = this.factory.getBeanStore(ColumnBean.class);
+    this.beans = new ArrayList<>();
+    this.random = new Random(8L);
+    for(int idx = 0; idx < 2000; idx++) {
+      this.beans.add(this.store.createOrUpdateBean(randomize(new ColumnBean()), null));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  private ColumnBean randomize(final ColumnBean bean) {
+    bean.setColour(0 == this.random.nextInt(8) ? null : COLOURS[this.random.nextInt(COLOURS.length)]);
+    bean.setRank(this.random.nextInt(21) - 10);
+    bean.setTotal(0 == this.random.nextInt(6) ? null : Long.valueOf(this.random.nextInt(40) * 1000000000L));
+    bean.setRatio(0 == this.random.nextInt(7) ? null : Double.valueOf((this.random.nextInt(30) - 15) / 4.0));
+    bean.setFlag(this.random.nextBoolean());
+    return bean;
+  }
+
+  private static Comparable<?> getValue(final ColumnBean bean, final String propertyName) {
+    switch(propertyName) {
+      case "colour":
+        return bean.getColour();
+      case "rank":
+        return Integer.valueOf(bean.getRank());
+      case "total":
+        return bean.getTotal();
+      case "ratio":
+        return bean.getRatio();
+      case "flag":
+        return Boolean.valueOf(bean.isFlag());
+      default:
+        throw new IllegalArgumentException(propertyName);
+    }
+  }
+
+  private List<ColumnBean> match(final Map<String, String> propertyValues) {
+    List<ColumnBean> ret = new ArrayList<>();
+    for(ColumnBean bean : this.beans) {
+      boolean matches = true;
+      for(Map.Entry<String, String> propertyValue : propertyValues.entrySet()) {
+        Object value = getValue(bean, propertyValue.getKey());
+        matches &= null != value && value.toString().equals(propertyValue.getValue());
+      }
+      if(matches) ret.add(bean);
+    }
+    return ret;
+  }
+
+  private static List<String> sort(final List<ColumnBean> beans1, final String sortBy, final String sortDirection) {
+    final String[] sortFields = "".equals(sortBy) ? new String[0] : sortBy.split(",");
+    final String[] sortOrders = sortDirection.split(",");
+    List<ColumnBean> sorted = new ArrayList<>(beans1);
+    Collections.sort(sorted, new Comparator<ColumnBean>() {
+
+      @Override
+      @SuppressWarnings({ "rawtypes", "unchecked" })
+      public int compare(final ColumnBean o1, final ColumnBean o2) {
+        int ret = 0;
+        for(int idx = 0; idx < sortFields.length && 0 == ret; idx++) {
+          Comparable v1 = getValue(o1, sortFields[idx]);
+          Comparable v2 = getValue(o2, sortFields[idx]);
+          ret = v1 == v2 ? 0 : null == v1 ? -1 : null == v2 ? 1 : v1.compareTo(v2);
+          if(sortOrders[idx].startsWith("desc")) ret = -ret;
+        }
+        return 0 == ret ? o1.getId().compareTo(o2.getId()) : ret;
+      }
+    });
+    return ids(sorted);
+  }
+
+  private static List<String> ids(final List<ColumnBean> beans1) {
+    List<String> ret = new ArrayList<>();
+    for(ColumnBean bean : beans1) {
+      ret.add(bean.getId());
+    }
+    return ret;
+  }
+
+  private static Map<String, String> match(final String... propertyValues) {
+    Map<String, String> ret = new HashMap<>();
+    for(int idx = 0; idx < propertyValues.length; idx += 2) {
+      ret.put(propertyValues[idx], propertyValues[idx + 1]);
+    }
+    return ret;
+  }
+
+  private void assertScansAgreeWithAPlainScan() {
+    List<Map<String, String>> matches = new ArrayList<>();
+    matches.add(match());
+    matches.add(match("colour", "Red"));
+    matches.add(match("colour", ""));
+    matches.add(match("colour", "purple"));
+    matches.add(match("rank", "-3", "flag", "true"));
+    matches.add(match("total", "7000000000"));
+    matches.add(match("ratio", "-1.25", "colour", "blue"));
+    for(Map<String, String> propertyValues : matches) {
+      List<ColumnBean> expected = match(propertyValues);
+      assertEquals(propertyValues.toString(), new HashSet<>(ids(expected)), new HashSet<>(ids(this.store.getAllMatchingBeans(propertyValues).getItems())));
+      for(String[] sort : SORTS) {
+        List<String> sorted = sort(expected, sort[0], sort[1]);
+        PageableBeanList<ColumnBean> page = this.store.getPageOfMatchingBeans(3, 42, sort[0], sort[1], propertyValues);
+        String message = propertyValues + " " + sort[0] + " " + sort[1];
+        assertEquals(message, sorted.subList(Math.min(3, sorted.size()), Math.min(43, sorted.size())), ids(page.getItems()));
+        assertEquals(message, expected.size(), page.getTotalCount());
+      }
+    }
+  }
+
+  @Test
+  public void scansAgreeWithAPlainScan() {
+    assertScansAgreeWithAPlainScan();
+  }
+
+  @Test
+  public void scansAgreeWithAPlainScanAfterWrites() {
+    assertScansAgreeWithAPlainScan();
+    for(int idx = 0; idx < 300; idx++) {
+      ColumnBean bean = this.beans.get(this.random.nextInt(this.beans.size()));
+      this.store.createOrUpdateBean(randomize(bean), null);
+    }
+    for(int idx = 0; idx < 200; idx++) {
+      this.store.deleteBean(this.beans.remove(this.random.nextInt(this.beans.size())).getId(), null);
+    }
+    ColumnBean added = new ColumnBean();
+    added.setColour("purple");
+    this.beans.add(this.store.createOrUpdateBean(added, null));
+    assertScansAgreeWithAPlainScan();
+  }
+}
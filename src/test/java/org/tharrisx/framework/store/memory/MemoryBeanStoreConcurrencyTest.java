@@ -0,0 +1,134 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Many threads writing and scanning one MemoryBeanStore at once: no write is lost, and no scan sees a bean
+ * half written.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreConcurrencyTest {
+
+  private static final int THREADS = 4;
+
+  private static final int BEANS_PER_THREAD = 1000;
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  private ExecutorService executor = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+    this.executor = Executors.newFixedThreadPool(THREADS * 2);
+  }
+
+  @After
+  public void tearDown() {
+    this.executor.shutdownNow();
+    this.factory.close();
+  }
+
+  @Test
+  public void concurrentWritersLoseNoWrites() throws Exception {
+    List<Future<Void>> futures = new ArrayList<>();
+    for(int thread = 0; thread < THREADS; thread++) {
+      final int thread1 = thread;
+      futures.add(this.executor.submit(new Callable<Void>() {
+
+        @Override
+        public Void call() {
+          for(int idx = 0; idx < BEANS_PER_THREAD; idx++) {
+            SampleBean bean = MemoryBeanStoreConcurrencyTest.this.store.createOrUpdateBean(new SampleBean("n" + thread1 + "_" + idx, thread1, Integer.valueOf(idx)), null);
+            if(0 == idx % 2) {
+              MemoryBeanStoreConcurrencyTest.this.store.deleteBean(bean.getId(), null);
+            } else {
+              bean.setName("u" + bean.getName());
+              MemoryBeanStoreConcurrencyTest.this.store.createOrUpdateBean(bean, null);
+            }
+          }
+          return null;
+        }
+      }));
+    }
+    for(Future<Void> future : futures) {
+      future.get();
+    }
+    Map<String, String> none = Collections.emptyMap();
+    List<SampleBean> beans = this.store.getAllMatchingBeans(none).getItems();
+    assertEquals(THREADS * BEANS_PER_THREAD / 2, beans.size());
+    for(SampleBean bean : beans) {
+      assertEquals('u', bean.getName().charAt(0));
+    }
+    Map<String, String> oneThread = new HashMap<>();
+    oneThread.put("size", "2");
+    assertEquals(BEANS_PER_THREAD / 2, this.store.getAllMatchingBeans(oneThread).getItems().size());
+  }
+
+  @Test
+  public void scansDuringWritesSeeWholeBeans() throws Exception {
+    List<Future<Void>> futures = new ArrayList<>();
+    for(int thread = 0; thread < THREADS; thread++) {
+      final int thread1 = thread;
+      futures.add(this.executor.submit(new Callable<Void>() {
+
+        @Override
+        public Void call() {
+          for(int idx = 0; idx < BEANS_PER_THREAD; idx++) {
+            SampleBean bean = MemoryBeanStoreConcurrencyTest.this.store.createOrUpdateBean(new SampleBean("n" + thread1 + "_" + idx, idx % 10, Integer.valueOf(idx)), null);
+            bean.setName("u" + bean.getName());
+            MemoryBeanStoreConcurrencyTest.this.store.createOrUpdateBean(bean, null);
+          }
+          return null;
+        }
+      }));
+      futures.add(this.executor.submit(new Callable<Void>() {
+
+        @Override
+        public Void call() {
+          Map<String, String> none = Collections.emptyMap();
+          for(int idx = 0; idx < 50; idx++) {
+            for(SampleBean bean : MemoryBeanStoreConcurrencyTest.this.store.getAllMatchingBeans(none).getItems()) {
+              assertNotNull(bean.getId());
+              assertNotNull(bean.getName());
+              assertNotNull(bean.getCreated());
+            }
+            MemoryBeanStoreConcurrencyTest.this.store.getPageOfMatchingBeans(0, 9, "name", "descending", none);
+          }
+          return null;
+        }
+      }));
+    }
+    for(Future<Void> future : futures) {
+      future.get();
+    }
+    Map<String, String> none = Collections.emptyMap();
+    assertEquals(THREADS * BEANS_PER_THREAD, this.store.getAllMatchingBeans(none).getItems().size());
+  }
+}
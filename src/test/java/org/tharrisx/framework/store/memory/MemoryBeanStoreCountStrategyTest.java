@@ -0,0 +1,84 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.bean.PageableBeanList;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreCountStrategy;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Each count strategy's total for MemoryBeanStore pages, of matches and of named queries.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreCountStrategyTest {
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+    for(int idx = 0; idx < 50; idx++) {
+      this.store.createOrUpdateBean(new SampleBean("n" + (100 - idx), idx % 5, Integer.valueOf(idx)), null);
+    }
+    this.factory.registerQuery(SampleBean.class, "bySizeNameAbove", new MemoryBeanQuery<SampleBean>("size") {
+
+      @Override
+      public boolean matches(SampleBean bean, Object... queryParameters) {
+        return 0 < bean.getName().compareTo((String) queryParameters[1]);
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  @Test
+  public void countsMatchingBeansByEachStrategy() {
+    Map<String, String> match = Collections.singletonMap("size", "2");
+    assertEquals(10, this.store.getPageOfMatchingBeans(0, 1, "name", "ascending", match).getTotalCount());
+    assertEquals(10, this.store.getPageOfMatchingBeans(0, 1, "name", "ascending", match, BeanStoreCountStrategy.EXACT).getTotalCount());
+    assertEquals(10, this.store.getPageOfMatchingBeans(0, 1, "name", "ascending", match, BeanStoreCountStrategy.ESTIMATED).getTotalCount());
+    assertEquals(10, this.store.getPageOfMatchingBeans(0, 1, "name", "ascending", match, BeanStoreCountStrategy.CACHED).getTotalCount());
+    PageableBeanList<SampleBean> uncounted = this.store.getPageOfMatchingBeans(0, 1, "name", "ascending", match, BeanStoreCountStrategy.NONE);
+    assertEquals(-1, uncounted.getTotalCount());
+    assertEquals(2, uncounted.getItems().size());
+  }
+
+  @Test
+  public void cachedCountsFollowWrites() {
+    Map<String, String> match = Collections.singletonMap("size", "2");
+    assertEquals(10, this.store.getPageOfMatchingBeans(0, 1, null, null, match, BeanStoreCountStrategy.CACHED).getTotalCount());
+    this.store.createOrUpdateBean(new SampleBean("new", 2, null), null);
+    assertEquals(11, this.store.getPageOfMatchingBeans(0, 1, null, null, match, BeanStoreCountStrategy.CACHED).getTotalCount());
+  }
+
+  @Test
+  public void countsNamedQueryBeansByEachStrategy() {
+    // size 2 is every fifth bean, n98 down to n53; above n80 leaves n98 down to n83
+    assertEquals(4, this.store.getPageOfBeansViaQuery(0, 1, "name", "descending", "bySizeNameAbove", "2", "n80").getTotalCount());
+    assertEquals(4, this.store.getPageOfBeansViaQuery(0, 1, "name", "descending", BeanStoreCountStrategy.EXACT, "bySizeNameAbove", "2", "n80").getTotalCount());
+    PageableBeanList<SampleBean> uncounted = this.store.getPageOfBeansViaQuery(0, 1, "name", "descending", BeanStoreCountStrategy.NONE, "bySizeNameAbove", "2", "n80");
+    assertEquals(-1, uncounted.getTotalCount());
+    assertEquals("n98", uncounted.getItems().get(0).getName());
+  }
+}
@@ -0,0 +1,148 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * A MemoryBeanStore with a persistence directory comes back after a restart with every committed write,
+ * whether it was recovered from the snapshot, the log, or both.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreDurabilityTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static MemoryBeanStoreFactory open(final File directory, final int snapshotLogRecords) {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    return new MemoryBeanStoreFactory(types, directory, snapshotLogRecords);
+  }
+
+  private static Map<String, String> contents(final BeanStore<SampleBean> store) {
+    Map<String, String> ret = new HashMap<>();
+    Map<String, String> none = Collections.emptyMap();
+    for(SampleBean bean : store.getAllMatchingBeans(none).getItems()) {
+      ret.put(bean.getId(), bean.getName() + '/' + bean.getSize() + '/' + bean.getWeight() + '/' + bean.getCreated().getTime());
+    }
+    return ret;
+  }
+
+  private static void write(final MemoryBeanStoreFactory factory, final int beanCount) {
+    BeanStore<SampleBean> store = factory.getBeanStore(SampleBean.class);
+    for(int idx = 0; idx < beanCount; idx++) {
+      SampleBean bean = store.createOrUpdateBean(new SampleBean("n" + idx, idx % 10, 0 == idx % 7 ? null : Integer.valueOf(idx)), null);
+      if(0 == idx % 5) {
+        store.deleteBean(bean.getId(), null);
+      } else if(0 == idx % 3) {
+        bean.setName("u" + bean.getName());
+        store.createOrUpdateBean(bean, null);
+      }
+    }
+    BeanStoreTransaction transaction = factory.beginTransaction(SampleBean.class, "write");
+    for(int idx = 0; idx < 10; idx++) {
+      store.createOrUpdateBean(new SampleBean("t" + idx, 11, Integer.valueOf(idx)), transaction);
+    }
+    factory.endTransaction(SampleBean.class, transaction);
+  }
+
+  @Test
+  public void recoversFromTheLog() throws Exception {
+    File directory = this.folder.newFolder();
+    MemoryBeanStoreFactory factory = open(directory, 1000000);
+    write(factory, 500);
+    Map<String, String> before = contents(factory.getBeanStore(SampleBean.class));
+    factory.close();
+    MemoryBeanStoreFactory reopened = open(directory, 1000000);
+    try {
+      BeanStore<SampleBean> store = reopened.getBeanStore(SampleBean.class);
+      assertEquals(before, contents(store));
+      Map<String, String> match = new HashMap<>();
+      match.put("size", "11");
+      assertEquals("the indexes are rebuilt too", 10, store.getAllMatchingBeans(match).getItems().size());
+    } finally {
+      reopened.close();
+    }
+  }
+
+  @Test
+  public void recoversFromSnapshotsAndTheLog() throws Exception {
+    File directory = this.folder.newFolder();
+    MemoryBeanStoreFactory factory = open(directory, 50);
+    write(factory, 2000);
+    Map<String, String> before = contents(factory.getBeanStore(SampleBean.class));
+    factory.close();
+    MemoryBeanStoreFactory reopened = open(directory, 50);
+    try {
+      assertEquals(before, contents(reopened.getBeanStore(SampleBean.class)));
+      // and again, after writing on top of what was recovered
+      write(reopened, 100);
+      before = contents(reopened.getBeanStore(SampleBean.class));
+    } finally {
+      reopened.close();
+    }
+    MemoryBeanStoreFactory again = open(directory, 50);
+    try {
+      assertEquals(before, contents(again.getBeanStore(SampleBean.class)));
+    } finally {
+      again.close();
+    }
+  }
+
+  @Test
+  public void ignoresATornRecordAtTheEndOfTheLog() throws Exception {
+    File directory = this.folder.newFolder();
+    MemoryBeanStoreFactory factory = open(directory, 1000000);
+    write(factory, 100);
+    Map<String, String> before = contents(factory.getBeanStore(SampleBean.class));
+    factory.close();
+    boolean torn = false;
+    for(File file : directory.listFiles()) {
+      if(file.getName().endsWith(".log")) {
+        tear(file);
+        torn = true;
+      }
+    }
+    assertTrue(torn);
+    MemoryBeanStoreFactory reopened = open(directory, 1000000);
+    try {
+      BeanStore<SampleBean> store = reopened.getBeanStore(SampleBean.class);
+      assertEquals(before, contents(store));
+      SampleBean bean = store.createOrUpdateBean(new SampleBean("after", 1, null), null);
+      assertFalse(before.containsKey(bean.getId()));
+    } finally {
+      reopened.close();
+    }
+  }
+
+  /**
+   * Append the start of a record that was never finished, as a crash mid-write leaves it.
+   */
+  private static void tear(final File file) throws IOException {
+    try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.seek(raf.length());
+      raf.write(new byte[] { 0, 0, 0, 50, 1, 2, 3 });
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+import org.tharrisx.framework.store.exception.ConflictingBeansFoundException;
+
+/**
+ * Matches and unique key lookups a MemoryBeanStore answers from its @StoreIndex hash indexes find the same
+ * beans a plain scan does, before and after the indexed properties are updated and beans deleted.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreIndexTest {
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  private Map<String, SampleBean> beans = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+    this.beans = new LinkedHashMap<>();
+    Random random = new Random(2L);
+    for(int idx = 0; idx < 2000; idx++) {
+      SampleBean bean = new SampleBean(0 == idx % 9 ? null : "n" + random.nextInt(200), idx % 7, 0 == idx % 5 ? null : Integer.valueOf(idx % 13));
+      bean = this.store.createOrUpdateBean(bean, null);
+      this.beans.put(bean.getId(), bean);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  private static Map<String, String> match(final String... propertyValues) {
+    Map<String, String> ret = new HashMap<>();
+    for(int idx = 0; idx < propertyValues.length; idx += 2) {
+      ret.put(propertyValues[idx], propertyValues[idx + 1]);
+    }
+    return ret;
+  }
+
+  private void assertMatchesAgreeWithAPlainScan() {
+    List<Map<String, String>> matches = new ArrayList<>();
+    matches.add(match("size", "3"));
+    matches.add(match("name", "n17"));
+    matches.add(match("name", "n17", "size", "2"));
+    matches.add(match("size", "4", "weight", "6"));
+    matches.add(match("weight", "6"));
+    matches.add(match("name", "none"));
+    matches.add(match());
+    List<SampleBean> all = new ArrayList<>(this.beans.values());
+    for(Map<String, String> propertyValues : matches) {
+      assertEquals(propertyValues.toString(), new HashSet<>(SampleBeanScan.ids(SampleBeanScan.match(all, propertyValues))), new HashSet<>(SampleBeanScan.ids(this.store.getAllMatchingBeans(propertyValues).getItems())));
+    }
+  }
+
+  private static boolean isCausedBy(final Throwable e, final Class<? extends Throwable> type) {
+    for(Throwable cause = e; null != cause; cause = cause.getCause()) {
+      if(type.isInstance(cause)) return true;
+    }
+    return false;
+  }
+
+  @Test
+  public void matchesAgreeWithAPlainScan() {
+    assertMatchesAgreeWithAPlainScan();
+  }
+
+  @Test
+  public void matchesAgreeWithAPlainScanAfterUpdatesAndDeletes() {
+    Random random = new Random(3L);
+    List<String> ids = new ArrayList<>(this.beans.keySet());
+    for(int idx = 0; idx < 500; idx++) {
+      SampleBean bean = this.store.getBean(ids.get(random.nextInt(ids.size())));
+      bean.setSize(random.nextInt(7));
+      bean.setName(0 == idx % 10 ? null : "n" + random.nextInt(200));
+      bean.setWeight(Integer.valueOf(random.nextInt(13)));
+      bean = this.store.createOrUpdateBean(bean, null);
+      this.beans.put(bean.getId(), bean);
+    }
+    for(int idx = 0; idx < 300; idx++) {
+      String id = ids.get(random.nextInt(ids.size()));
+      if(null != this.beans.remove(id)) this.store.deleteBean(id, null);
+    }
+    assertMatchesAgreeWithAPlainScan();
+  }
+
+  @Test
+  public void findsBeansByUniqueKey() {
+    SampleBean only = this.store.createOrUpdateBean(new SampleBean("only", 3, null), null);
+    assertEquals(only.getId(), this.store.getBeanByUniqueKey(match("name", "only")).getId());
+    assertEquals(only.getId(), this.store.getBeanByUniqueKey(match("name", "only", "size", "3")).getId());
+    assertTrue(this.store.hasBeanByUniqueKey(match("name", "only")));
+    assertFalse(this.store.hasBeanByUniqueKey(match("name", "only", "size", "4")));
+    only.setName("renamed");
+    this.store.createOrUpdateBean(only, null);
+    assertFalse(this.store.hasBeanByUniqueKey(match("name", "only")));
+    assertEquals(only.getId(), this.store.getBeanByUniqueKey(match("name", "renamed")).getId());
+    this.store.deleteBean(only.getId(), null);
+    assertFalse(this.store.hasBeanByUniqueKey(match("name", "renamed")));
+  }
+
+  @Test
+  public void refusesAUniqueKeyMatchingManyBeans() {
+    try {
+      this.store.getBeanByUniqueKey(match("size", "3"));
+      fail("found one of many beans");
+    } catch(BeanStoreException e) {
+      assertTrue(isCausedBy(e, ConflictingBeansFoundException.class));
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.bean.PageableBeanList;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+
+/**
+ * Keyset pages of a MemoryBeanStore, followed cursor to cursor, walk every matching bean once, in the same
+ * order as offset pages, even with null sort values and beans added between pages.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreKeysetPagingTest {
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+    Random random = new Random(1L);
+    for(int idx = 0; idx < 3000; idx++) {
+      SampleBean bean = new SampleBean(0 == idx % 11 ? null : "n" + random.nextInt(300), idx % 7, 0 == idx % 17 ? null : Integer.valueOf(idx % 13));
+      bean.setId(String.format("%08d", Integer.valueOf(idx)));
+      this.store.createOrUpdateBean(bean, null);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  private static List<String> ids(final List<SampleBean> beans) {
+    List<String> ret = new ArrayList<>();
+    for(SampleBean bean : beans) {
+      ret.add(bean.getId());
+    }
+    return ret;
+  }
+
+  private List<String> walk(final String sortBy, final String sortDirection, final Map<String, String> match, final int pageSize) {
+    List<String> ret = new ArrayList<>();
+    PageableBeanList<SampleBean> page = this.store.getPageOfMatchingBeansAfter("", pageSize, sortBy, sortDirection, match, null);
+    ret.addAll(ids(page.getItems()));
+    while(!"".equals(page.getNext())) {
+      assertEquals(pageSize, page.getItems().size());
+      page = this.store.getPageOfMatchingBeansAfter(page.getNext(), pageSize, sortBy, sortDirection, match, null);
+      ret.addAll(ids(page.getItems()));
+    }
+    return ret;
+  }
+
+  @Test
+  public void walksInOffsetPageOrder() {
+    Map<String, String> match = new HashMap<>();
+    match.put("size", "3");
+    String[][] sorts = new String[][] { { "name", "ascending" }, { "name", "descending" }, { "weight,name", "descending,ascending" }, { "weight", "ascending" }, { "", "" } };
+    for(String[] sort : sorts) {
+      List<String> expected = ids(this.store.getPageOfMatchingBeans(0, 100000, sort[0], sort[1], match).getItems());
+      assertEquals(sort[0], expected, walk(sort[0], sort[1], match, 37));
+    }
+  }
+
+  @Test
+  public void walksEveryBeanOnceWhileBeansAreAdded() {
+    Map<String, String> match = new HashMap<>();
+    Set<String> original = new HashSet<>(ids(this.store.getAllMatchingBeans(match).getItems()));
+    Set<String> seen = new HashSet<>();
+    PageableBeanList<SampleBean> page = this.store.getPageOfMatchingBeansAfter("", 50, "name", "ascending", match, null);
+    int added = 0;
+    while(true) {
+      for(SampleBean bean : page.getItems()) {
+        assertTrue("seen twice: " + bean, seen.add(bean.getId()));
+      }
+      if("".equals(page.getNext())) break;
+      // sorting before, among, and after the beans already seen
+      this.store.createOrUpdateBean(new SampleBean("a" + added, 3, null), null);
+      this.store.createOrUpdateBean(new SampleBean("n" + added, 3, null), null);
+      this.store.createOrUpdateBean(new SampleBean(null, 3, null), null);
+      added++;
+      page = this.store.getPageOfMatchingBeansAfter(page.getNext(), 50, "name", "ascending", match, null);
+    }
+    assertTrue(seen.containsAll(original));
+  }
+
+  @Test(expected = BeanStoreException.class)
+  public void refusesACursorForAnotherSort() {
+    Map<String, String> match = new HashMap<>();
+    String next = this.store.getPageOfMatchingBeansAfter("", 10, "name", "ascending", match, null).getNext();
+    this.store.getPageOfMatchingBeansAfter(next, 10, "name", "descending", match, null);
+  }
+
+  @Test(expected = BeanStoreException.class)
+  public void refusesAMalformedCursor() {
+    this.store.getPageOfMatchingBeansAfter("garbage", 10, "name", "ascending", new HashMap<String, String>(), null);
+  }
+}
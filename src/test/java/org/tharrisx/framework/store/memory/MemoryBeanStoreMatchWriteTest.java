@@ -0,0 +1,163 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Deletes and updates by match a MemoryBeanStore finds from its @StoreIndex hash indexes take in the
+ * transaction's own buffered writes, leave other readers their view until the transaction commits, move the
+ * indexes when it does, and are undone by a rollback.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreMatchWriteTest {
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  private Map<String, SampleBean> beans = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+    this.beans = new LinkedHashMap<>();
+    Random random = new Random(3L);
+    for(int idx = 0; idx < 1000; idx++) {
+      SampleBean bean = new SampleBean("n" + random.nextInt(100), idx % 7, 0 == idx % 5 ? null : Integer.valueOf(idx % 13));
+      bean = this.store.createOrUpdateBean(bean, null);
+      this.beans.put(bean.getId(), bean);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  private static Map<String, String> match(final String... propertyValues) {
+    Map<String, String> ret = new HashMap<>();
+    for(int idx = 0; idx < propertyValues.length; idx += 2) {
+      ret.put(propertyValues[idx], propertyValues[idx + 1]);
+    }
+    return ret;
+  }
+
+  private List<SampleBean> scan(final Map<String, String> propertyValues) {
+    return SampleBeanScan.match(new ArrayList<>(this.beans.values()), propertyValues);
+  }
+
+  private void assertMatches(final Map<String, String> propertyValues) {
+    assertEquals(propertyValues.toString(), new HashSet<>(SampleBeanScan.ids(scan(propertyValues))), new HashSet<>(SampleBeanScan.ids(this.store.getAllMatchingBeans(propertyValues).getItems())));
+  }
+
+  /**
+   * Buffers, in the transaction, a new bean of size 3, one bean moved out of size 3 and one moved into it.
+   *
+   * @param transaction BeanStoreTransaction
+   * @param written Map<String, SampleBean> gets the beans as written
+   */
+  private void write(final BeanStoreTransaction transaction, final Map<String, SampleBean> written) {
+    SampleBean created = this.store.createOrUpdateBean(new SampleBean("new", 3, null), transaction);
+    written.put(created.getId(), created);
+    SampleBean movedOut = this.store.getBean(SampleBeanScan.ids(scan(match("size", "3"))).get(0));
+    movedOut.setSize(4);
+    written.put(movedOut.getId(), this.store.createOrUpdateBean(movedOut, transaction));
+    SampleBean movedIn = this.store.getBean(SampleBeanScan.ids(scan(match("size", "5"))).get(0));
+    movedIn.setSize(3);
+    written.put(movedIn.getId(), this.store.createOrUpdateBean(movedIn, transaction));
+  }
+
+  @Test
+  public void deletesTheIndexedMatchesTakingInTheTransactionsOwnWrites() {
+    BeanStoreTransaction transaction = this.factory.beginTransaction(SampleBean.class, "delete");
+    Map<String, SampleBean> written = new HashMap<>();
+    write(transaction, written);
+    List<SampleBean> before = scan(match("size", "3"));
+    this.beans.putAll(written);
+    List<SampleBean> matches = scan(match("size", "3", "weight", "6"));
+    matches.addAll(scan(match("size", "3", "name", "new")));
+    int deleted = this.store.deleteMatchingBeans(match("size", "3", "weight", "6"), transaction);
+    deleted += this.store.deleteMatchingBeans(match("size", "3", "name", "new"), transaction);
+    assertEquals(matches.size(), deleted);
+    assertTrue(0 < deleted);
+    // other readers see none of it until the commit
+    assertEquals(new HashSet<>(SampleBeanScan.ids(before)), new HashSet<>(SampleBeanScan.ids(this.store.getAllMatchingBeans(match("size", "3")).getItems())));
+    this.factory.endTransaction(SampleBean.class, transaction);
+    for(SampleBean bean : matches) {
+      this.beans.remove(bean.getId());
+    }
+    assertEquals(0, this.store.getAllMatchingBeans(match("size", "3", "weight", "6")).getItems().size());
+    assertEquals(0, this.store.getAllMatchingBeans(match("name", "new")).getItems().size());
+    assertMatches(match("size", "3"));
+    assertMatches(match("size", "4"));
+    assertMatches(match("weight", "6"));
+    assertMatches(match());
+  }
+
+  @Test
+  public void rollingBackADeleteKeepsTheMatches() {
+    BeanStoreTransaction transaction = this.factory.beginTransaction(SampleBean.class, "delete");
+    assertEquals(scan(match("size", "3")).size(), this.store.deleteMatchingBeans(match("size", "3"), transaction));
+    transaction.setRollbackOnly();
+    this.factory.endTransaction(SampleBean.class, transaction);
+    assertMatches(match("size", "3"));
+    assertMatches(match());
+  }
+
+  @Test
+  public void updatesTheIndexedMatchesTakingInTheTransactionsOwnWrites() {
+    BeanStoreTransaction transaction = this.factory.beginTransaction(SampleBean.class, "update");
+    Map<String, SampleBean> written = new HashMap<>();
+    write(transaction, written);
+    List<SampleBean> before = scan(match("size", "3"));
+    this.beans.putAll(written);
+    List<SampleBean> matches = scan(match("size", "3"));
+    assertEquals(matches.size(), this.store.updateMatchingBeans(match("size", "3"), match("size", "6", "weight", "12"), transaction));
+    // other readers see none of it until the commit
+    assertEquals(new HashSet<>(SampleBeanScan.ids(before)), new HashSet<>(SampleBeanScan.ids(this.store.getAllMatchingBeans(match("size", "3")).getItems())));
+    this.factory.endTransaction(SampleBean.class, transaction);
+    for(SampleBean bean : matches) {
+      bean.setSize(6);
+      bean.setWeight(Integer.valueOf(12));
+    }
+    assertEquals(0, this.store.getAllMatchingBeans(match("size", "3")).getItems().size());
+    assertMatches(match("size", "6"));
+    assertMatches(match("size", "6", "weight", "12"));
+    assertMatches(match("size", "4"));
+    assertMatches(match("weight", "12"));
+    assertMatches(match("name", "new"));
+    assertMatches(match());
+  }
+
+  @Test
+  public void rollingBackAnUpdateKeepsTheMatches() {
+    BeanStoreTransaction transaction = this.factory.beginTransaction(SampleBean.class, "update");
+    assertEquals(scan(match("size", "3")).size(), this.store.updateMatchingBeans(match("size", "3"), match("size", "6"), transaction));
+    transaction.setRollbackOnly();
+    this.factory.endTransaction(SampleBean.class, transaction);
+    assertMatches(match("size", "3"));
+    assertMatches(match("size", "6"));
+  }
+}
@@ -0,0 +1,61 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Getting MemoryBeanStore beans by a list of ids.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreMultiGetTest {
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  private static List<String> names(final List<SampleBean> beans) {
+    List<String> ret = new ArrayList<>();
+    for(SampleBean bean : beans) {
+      ret.add(bean.getName());
+    }
+    return ret;
+  }
+
+  @Test
+  public void getsBeansInIdOrderLeavingOutMissingAndRepeatedIds() {
+    String a = this.store.createOrUpdateBean(new SampleBean("a", 1, null), null).getId();
+    String b = this.store.createOrUpdateBean(new SampleBean("b", 1, null), null).getId();
+    String c = this.store.createOrUpdateBean(new SampleBean("c", 1, null), null).getId();
+    assertEquals(Arrays.asList("c", "a", "b"), names(this.store.getBeans(Arrays.asList(c, "missing", a, c, b)).getItems()));
+    this.store.deleteBean(a, null);
+    assertEquals(Arrays.asList("c", "b"), names(this.store.getBeans(Arrays.asList(c, a, b)).getItems()));
+    assertEquals(0, this.store.getBeans(Collections.<String> emptyList()).getItems().size());
+  }
+}
@@ -0,0 +1,120 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * A MemoryBeanStore holding its beans off the heap, with and without compression, reads back what was
+ * written, through ids, indexes and sorted pages alike.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreOffHeapTest {
+
+  private static MemoryBeanStoreFactory open(final boolean compression) {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    MemoryBeanStoreConfiguration configuration = new MemoryBeanStoreConfiguration();
+    configuration.setOffHeap(true);
+    configuration.setOffHeapSlabSize(4096);
+    configuration.setOffHeapCompression(compression);
+    return new MemoryBeanStoreFactory(types, configuration);
+  }
+
+  @Test
+  public void roundTripsBeans() {
+    roundTripsBeans(false);
+  }
+
+  @Test
+  public void roundTripsCompressedBeans() {
+    roundTripsBeans(true);
+  }
+
+  private static void roundTripsBeans(final boolean compression) {
+    MemoryBeanStoreFactory factory = open(compression);
+    try {
+      BeanStore<SampleBean> store = factory.getBeanStore(SampleBean.class);
+      List<String> ids = new ArrayList<>();
+      for(int idx = 0; idx < 1000; idx++) {
+        ids.add(store.createOrUpdateBean(new SampleBean("n" + idx, idx % 10, 0 == idx % 4 ? null : Integer.valueOf(idx)), null).getId());
+      }
+      for(int idx = 0; idx < ids.size(); idx++) {
+        SampleBean bean = store.getBean(ids.get(idx));
+        assertEquals("n" + idx, bean.getName());
+        assertEquals(idx % 10, bean.getSize());
+        if(0 == idx % 4) {
+          assertNull(bean.getWeight());
+        } else {
+          assertEquals(Integer.valueOf(idx), bean.getWeight());
+        }
+      }
+      SampleBean first = store.getBean(ids.get(1));
+      first.setName("changed outside the store");
+      assertEquals("every read is a fresh copy", "n1", store.getBean(ids.get(1)).getName());
+      assertNotSame(store.getBean(ids.get(1)), store.getBean(ids.get(1)));
+      Map<String, String> match = new HashMap<>();
+      match.put("size", "3");
+      assertEquals(100, store.getAllMatchingBeans(match).getItems().size());
+      Map<String, String> none = Collections.emptyMap();
+      assertEquals("n0", store.getPageOfMatchingBeans(0, 0, "name", "ascending", none).getItems().get(0).getName());
+    } finally {
+      factory.close();
+    }
+  }
+
+  @Test
+  public void updatesAndDeletesReclaimTheirBlocks() {
+    MemoryBeanStoreFactory factory = open(false);
+    try {
+      BeanStore<SampleBean> store = factory.getBeanStore(SampleBean.class);
+      List<SampleBean> beans = new ArrayList<>();
+      for(int idx = 0; idx < 500; idx++) {
+        beans.add(store.createOrUpdateBean(new SampleBean("n" + idx, idx % 10, Integer.valueOf(idx)), null));
+      }
+      OffHeapSlabs slabs = ((OffHeapMemoryBeanStorage<SampleBean>) ((MemoryBeanStore<SampleBean>) store).getStorage()).getSlabs();
+      long allocated = slabs.getAllocatedBytes();
+      // many rounds of updates through a small slab size: the blocks the old versions held must be reused
+      for(int round = 0; round < 20; round++) {
+        for(SampleBean bean : beans) {
+          bean.setWeight(Integer.valueOf(round));
+          store.createOrUpdateBean(bean, null);
+        }
+      }
+      // the last write may still be waiting on its own superseded block, but no more than that
+      assertTrue(allocated + 4096 >= slabs.getAllocatedBytes());
+      assertTrue(2 * allocated + 4096 >= slabs.getReservedBytes());
+      for(int idx = 0; idx < beans.size(); idx += 2) {
+        store.deleteBean(beans.get(idx).getId(), null);
+      }
+      Map<String, String> none = Collections.emptyMap();
+      List<SampleBean> left = store.getAllMatchingBeans(none).getItems();
+      assertEquals(250, left.size());
+      for(SampleBean bean : left) {
+        assertEquals(Integer.valueOf(19), bean.getWeight());
+      }
+      for(int idx = 0; idx < beans.size(); idx += 2) {
+        assertFalse(store.hasBean(beans.get(idx).getId()));
+      }
+      assertTrue(allocated > slabs.getAllocatedBytes() + 4096);
+    } finally {
+      factory.close();
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.bean.PageableBeanList;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Whole-store scans of a MemoryBeanStore, run on the fork/join pool once the store holds the parallel scan
+ * threshold of beans, find, count and order the same beans as a plain scan, below, at and above the
+ * threshold.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreParallelScanTest {
+
+  private static final int THRESHOLD = 500;
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  private List<SampleBean> beans = null;
+
+  private Random random = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    MemoryBeanStoreConfiguration configuration = new MemoryBeanStoreConfiguration();
+    configuration.setParallelScanThreshold(THRESHOLD);
+    configuration.setScanParallelism(4);
+    this.factory = new MemoryBeanStoreFactory(types, configuration);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+    this.beans = new ArrayList<>();
+    this.random = new Random(7L);
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  private void fill(final int count) {
+    while(this.beans.size() < count) {
+      int idx = this.beans.size();
+      SampleBean bean = new SampleBean(0 == idx % 9 ? null : "n" + this.random.nextInt(200), idx % 7, 0 == idx % 5 ? null : Integer.valueOf(idx % 13));
+      this.beans.add(this.store.createOrUpdateBean(bean, null));
+    }
+  }
+
+  private void assertScansAgreeWithAPlainScan() {
+    List<Map<String, String>> matches = new ArrayList<>();
+    matches.add(new HashMap<String, String>());
+    Map<String, String> unindexed = new HashMap<>();
+    unindexed.put("weight", "4");
+    matches.add(unindexed);
+    for(Map<String, String> match : matches) {
+      List<SampleBean> expected = SampleBeanScan.match(this.beans, match);
+      assertEquals(new HashSet<>(SampleBeanScan.ids(expected)), new HashSet<>(SampleBeanScan.ids(this.store.getAllMatchingBeans(match).getItems())));
+      String[][] sorts = new String[][] { { "weight,name", "descending,ascending" }, { "", "" } };
+      for(String[] sort : sorts) {
+        List<String> sorted = SampleBeanScan.ids(SampleBeanScan.sort(expected, sort[0], sort[1]));
+        PageableBeanList<SampleBean> page = this.store.getPageOfMatchingBeans(5, 54, sort[0], sort[1], match);
+        assertEquals(sorted.subList(Math.min(5, sorted.size()), Math.min(55, sorted.size())), SampleBeanScan.ids(page.getItems()));
+        assertEquals(expected.size(), page.getTotalCount());
+      }
+    }
+  }
+
+  @Test
+  public void scansAloneBelowTheThreshold() {
+    fill(THRESHOLD - 1);
+    assertScansAgreeWithAPlainScan();
+    assertEquals(0, this.factory.getScanPool().getPoolSize());
+  }
+
+  @Test
+  public void scansInParallelFromTheThreshold() {
+    fill(THRESHOLD);
+    assertScansAgreeWithAPlainScan();
+    assertTrue(0 < this.factory.getScanPool().getPoolSize());
+    fill(THRESHOLD * 6 + 17);
+    assertScansAgreeWithAPlainScan();
+  }
+
+  @Test
+  public void scansInParallelAfterDeletes() {
+    fill(THRESHOLD * 4);
+    for(int idx = 0; idx < THRESHOLD; idx++) {
+      SampleBean bean = this.beans.remove(this.random.nextInt(this.beans.size()));
+      this.store.deleteBean(bean.getId(), null);
+    }
+    assertScansAgreeWithAPlainScan();
+  }
+}
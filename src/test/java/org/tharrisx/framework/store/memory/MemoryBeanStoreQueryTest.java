@@ -0,0 +1,140 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.exception.BeanStoreException;
+
+/**
+ * Named MemoryBeanQuery objects, planned over the store's indexes where their parameter properties are
+ * indexed, find and order the same beans a plain scan does.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreQueryTest {
+
+  private static final Comparator<SampleBean> BY_WEIGHT_DESCENDING = new Comparator<SampleBean>() {
+
+    @Override
+    public int compare(final SampleBean o1, final SampleBean o2) {
+      int ret = o2.getWeight().compareTo(o1.getWeight());
+      return 0 == ret ? o1.getId().compareTo(o2.getId()) : ret;
+    }
+  };
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  private List<SampleBean> beans = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+    this.beans = new ArrayList<>();
+    Random random = new Random(6L);
+    for(int idx = 0; idx < 2000; idx++) {
+      SampleBean bean = new SampleBean(0 == idx % 9 ? null : "n" + random.nextInt(200), idx % 7, 0 == idx % 5 ? null : Integer.valueOf(idx % 13));
+      this.beans.add(this.store.createOrUpdateBean(bean, null));
+    }
+    // an indexed parameter property, and a further test
+    this.factory.registerQuery(SampleBean.class, "sizeAndHeavierThan", new MemoryBeanQuery<SampleBean>("size") {
+
+      @Override
+      public boolean matches(final SampleBean bean, final Object... queryParameters) {
+        return null != bean.getWeight() && bean.getWeight().intValue() > ((Integer) queryParameters[1]).intValue();
+      }
+
+      @Override
+      public Comparator<SampleBean> getComparator() {
+        return BY_WEIGHT_DESCENDING;
+      }
+    });
+    // two indexed parameter properties
+    this.factory.registerQuery(SampleBean.class, "nameAndSize", new MemoryBeanQuery<SampleBean>("name", "size") {
+      // every bean equal to both
+    });
+    // an unindexed parameter property, so every bean is scanned
+    this.factory.registerQuery(SampleBean.class, "weight", new MemoryBeanQuery<SampleBean>("weight") {
+      // every bean equal to it
+    });
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  private static Map<String, String> match(final String... propertyValues) {
+    Map<String, String> ret = new HashMap<>();
+    for(int idx = 0; idx < propertyValues.length; idx += 2) {
+      ret.put(propertyValues[idx], propertyValues[idx + 1]);
+    }
+    return ret;
+  }
+
+  private static List<SampleBean> heavierThan(final List<SampleBean> beans1, final int weight) {
+    List<SampleBean> ret = new ArrayList<>();
+    for(SampleBean bean : beans1) {
+      if(null != bean.getWeight() && bean.getWeight().intValue() > weight) ret.add(bean);
+    }
+    return ret;
+  }
+
+  @Test
+  public void findsTheBeansAPlainScanDoes() {
+    List<SampleBean> expected = heavierThan(SampleBeanScan.match(this.beans, match("size", "3")), 6);
+    assertEquals(new HashSet<>(SampleBeanScan.ids(expected)), new HashSet<>(SampleBeanScan.ids(this.store.getAllBeansViaQuery("sizeAndHeavierThan", "3", Integer.valueOf(6)).getItems())));
+    expected = SampleBeanScan.match(this.beans, match("name", "n17", "size", "2"));
+    assertEquals(new HashSet<>(SampleBeanScan.ids(expected)), new HashSet<>(SampleBeanScan.ids(this.store.getAllBeansViaQuery("nameAndSize", "n17", "2").getItems())));
+    expected = SampleBeanScan.match(this.beans, match("weight", "4"));
+    assertEquals(new HashSet<>(SampleBeanScan.ids(expected)), new HashSet<>(SampleBeanScan.ids(this.store.getAllBeansViaQuery("weight", "4").getItems())));
+    assertEquals(0, this.store.getAllBeansViaQuery("nameAndSize", "none", "2").getItems().size());
+  }
+
+  @Test
+  public void ordersByTheQueryUnlessGivenASort() {
+    List<SampleBean> expected = heavierThan(SampleBeanScan.match(this.beans, match("size", "3")), 6);
+    Collections.sort(expected, BY_WEIGHT_DESCENDING);
+    assertEquals(SampleBeanScan.ids(expected).subList(0, 20), SampleBeanScan.ids(this.store.getPageOfBeansViaQuery(0, 19, "", "", "sizeAndHeavierThan", "3", Integer.valueOf(6)).getItems()));
+    expected = SampleBeanScan.sort(expected, "name", "ascending");
+    assertEquals(SampleBeanScan.ids(expected).subList(10, 30), SampleBeanScan.ids(this.store.getPageOfBeansViaQuery(10, 29, "name", "ascending", "sizeAndHeavierThan", "3", Integer.valueOf(6)).getItems()));
+    // without either, by bean id
+    expected = SampleBeanScan.sort(SampleBeanScan.match(this.beans, match("weight", "4")), "", "");
+    assertEquals(SampleBeanScan.ids(expected).subList(0, 25), SampleBeanScan.ids(this.store.getPageOfBeansViaQuery(0, 24, "", "", "weight", "4").getItems()));
+  }
+
+  @Test
+  public void findsBeansWrittenSinceItWasRegistered() {
+    SampleBean bean = this.store.createOrUpdateBean(new SampleBean("added", 2, Integer.valueOf(4)), null);
+    assertEquals(1, this.store.getAllBeansViaQuery("nameAndSize", "added", "2").getItems().size());
+    bean.setSize(3);
+    this.store.createOrUpdateBean(bean, null);
+    assertEquals(0, this.store.getAllBeansViaQuery("nameAndSize", "added", "2").getItems().size());
+    assertEquals(1, this.store.getAllBeansViaQuery("nameAndSize", "added", "3").getItems().size());
+  }
+
+  @Test(expected = BeanStoreException.class)
+  public void refusesAnUnregisteredQuery() {
+    this.store.getAllBeansViaQuery("unregistered");
+  }
+}
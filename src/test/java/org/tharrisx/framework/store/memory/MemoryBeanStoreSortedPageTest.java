@@ -0,0 +1,110 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.bean.PageableBeanList;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Pages a MemoryBeanStore reads off a sorted index, or cuts from its matches with a top-K heap, hold the
+ * same beans, in the same order, as pages of a full sort, for one or several sort fields in either
+ * direction.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreSortedPageTest {
+
+  private static final String[][] SORTS = new String[][] {
+      { "name", "ascending" },
+      { "name", "descending" },
+      { "size", "ascending" },
+      { "weight", "descending" },
+      { "weight,name", "ascending,descending" },
+      { "size,weight,name", "descending,ascending,ascending" },
+      { "", "" } };
+
+  private static final int[][] WINDOWS = new int[][] { { 0, 0 }, { 0, 9 }, { 25, 49 }, { 300, 1000 }, { 1990, 2100 }, { 5000, 5009 } };
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  private List<SampleBean> beans = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+    this.beans = new ArrayList<>();
+    Random random = new Random(4L);
+    for(int idx = 0; idx < 2000; idx++) {
+      SampleBean bean = new SampleBean(0 == idx % 9 ? null : "n" + random.nextInt(200), idx % 7, 0 == idx % 5 ? null : Integer.valueOf(idx % 13));
+      this.beans.add(this.store.createOrUpdateBean(bean, null));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  private void assertPagesAgreeWithAFullSort(final Map<String, String> match) {
+    List<SampleBean> matches = SampleBeanScan.match(this.beans, match);
+    for(String[] sort : SORTS) {
+      List<String> sorted = SampleBeanScan.ids(SampleBeanScan.sort(matches, sort[0], sort[1]));
+      for(int[] window : WINDOWS) {
+        PageableBeanList<SampleBean> page = this.store.getPageOfMatchingBeans(window[0], window[1], sort[0], sort[1], match);
+        List<String> expected = sorted.subList(Math.min(window[0], sorted.size()), Math.min(window[1] + 1, sorted.size()));
+        String message = match + " " + sort[0] + " " + sort[1] + " " + window[0] + "-" + window[1];
+        assertEquals(message, expected, SampleBeanScan.ids(page.getItems()));
+        assertEquals(message, matches.size(), page.getTotalCount());
+      }
+    }
+  }
+
+  @Test
+  public void pagesOfAllBeansAgreeWithAFullSort() {
+    assertPagesAgreeWithAFullSort(new HashMap<String, String>());
+  }
+
+  @Test
+  public void pagesOfIndexedMatchesAgreeWithAFullSort() {
+    Map<String, String> match = new HashMap<>();
+    match.put("size", "3");
+    assertPagesAgreeWithAFullSort(match);
+  }
+
+  @Test
+  public void pagesOfUnindexedMatchesAgreeWithAFullSort() {
+    Map<String, String> match = new HashMap<>();
+    match.put("weight", "4");
+    assertPagesAgreeWithAFullSort(match);
+  }
+
+  @Test
+  public void pagesAgreeWithAFullSortAfterUpdates() {
+    Random random = new Random(5L);
+    for(int idx = 0; idx < 400; idx++) {
+      SampleBean bean = this.beans.get(random.nextInt(this.beans.size()));
+      bean.setName(0 == idx % 10 ? null : "m" + random.nextInt(50));
+      bean.setWeight(Integer.valueOf(random.nextInt(13)));
+      this.store.createOrUpdateBean(bean, null);
+    }
+    assertPagesAgreeWithAFullSort(new HashMap<String, String>());
+  }
+}
@@ -0,0 +1,105 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.store.BeanIterator;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+
+/**
+ * Streams of MemoryBeanStore matches and named queries hand out the same beans a list would.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreStreamTest {
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+    List<SampleBean> beans = new ArrayList<>();
+    for(int idx = 0; idx < 1000; idx++) {
+      beans.add(new SampleBean("n" + idx, idx % 7, Integer.valueOf(idx)));
+    }
+    this.store.createOrUpdateBeans(beans, null);
+    this.factory.registerQuery(SampleBean.class, "heavierThan", new MemoryBeanQuery<SampleBean>() {
+
+      @Override
+      public boolean matches(SampleBean bean, Object... queryParameters) {
+        return bean.getWeight().intValue() > ((Integer) queryParameters[0]).intValue();
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  private static Set<String> ids(final List<SampleBean> beans) {
+    Set<String> ret = new HashSet<>();
+    for(SampleBean bean : beans) {
+      ret.add(bean.getId());
+    }
+    return ret;
+  }
+
+  private static Set<String> drain(final BeanIterator<SampleBean> beans) {
+    Set<String> ret = new HashSet<>();
+    try {
+      while(beans.hasNext()) {
+        ret.add(beans.next().getId());
+      }
+      assertFalse(beans.hasNext());
+    } finally {
+      beans.close();
+    }
+    return ret;
+  }
+
+  @Test
+  public void streamsMatchingBeans() {
+    Map<String, String> match = Collections.singletonMap("size", "3");
+    Set<String> expected = ids(this.store.getAllMatchingBeans(match).getItems());
+    assertEquals(143, expected.size());
+    assertEquals(expected, drain(this.store.streamMatchingBeans(match)));
+    Map<String, String> none = Collections.emptyMap();
+    assertEquals(1000, drain(this.store.streamMatchingBeans(none)).size());
+  }
+
+  @Test
+  public void streamsNamedQueryBeans() {
+    Set<String> expected = ids(this.store.getAllBeansViaQuery("heavierThan", Integer.valueOf(899)).getItems());
+    assertEquals(100, expected.size());
+    assertEquals(expected, drain(this.store.streamBeansViaQuery("heavierThan", Integer.valueOf(899))));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void refusesRemove() {
+    Map<String, String> none = Collections.emptyMap();
+    try(BeanIterator<SampleBean> beans = this.store.streamMatchingBeans(none)) {
+      beans.next();
+      beans.remove();
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.store.BeanIterator;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.core.BeanStoreUnitOfWork;
+import org.tharrisx.framework.store.exception.ConcurrentBeanChangeException;
+
+/**
+ * Snapshot isolation in MemoryBeanStore transactions: writes are seen by others only once committed, all
+ * at once; the second of two transactions changing the same bean fails; and readers keep the snapshot they
+ * started with.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class MemoryBeanStoreTransactionTest {
+
+  private static final Map<String, String> NONE = Collections.emptyMap();
+
+  private MemoryBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  @Before
+  public void setUp() {
+    List<Class<? extends StorableBean>> types = new ArrayList<>();
+    types.add(SampleBean.class);
+    this.factory = new MemoryBeanStoreFactory(types);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+  }
+
+  @Test
+  public void writesAreSeenOnlyOnceCommitted() {
+    SampleBean existing = this.store.createOrUpdateBean(new SampleBean("a", 1, null), null);
+    BeanStoreTransaction transaction = this.factory.beginTransaction(SampleBean.class, "write");
+    SampleBean created = this.store.createOrUpdateBean(new SampleBean("b", 1, null), transaction);
+    assertTrue(this.store.deleteBean(existing.getId(), transaction));
+    assertFalse("already deleted in this transaction", this.store.deleteBean(existing.getId(), transaction));
+    assertFalse(this.store.hasBean(created.getId()));
+    assertTrue(this.store.hasBean(existing.getId()));
+    this.factory.endTransaction(SampleBean.class, transaction);
+    assertTrue(this.store.hasBean(created.getId()));
+    assertFalse(this.store.hasBean(existing.getId()));
+  }
+
+  @Test
+  public void secondConflictingCommitFails() {
+    SampleBean bean = this.store.createOrUpdateBean(new SampleBean("a", 1, null), null);
+    BeanStoreTransaction first = this.factory.beginTransaction(SampleBean.class, "first");
+    BeanStoreTransaction second = this.factory.beginTransaction(SampleBean.class, "second");
+    SampleBean firstCopy = this.store.getBean(bean.getId());
+    firstCopy.setName("first");
+    this.store.createOrUpdateBean(firstCopy, first);
+    SampleBean secondCopy = this.store.getBean(bean.getId());
+    secondCopy.setName("second");
+    this.store.createOrUpdateBean(secondCopy, second);
+    SampleBean other = this.store.createOrUpdateBean(new SampleBean("other", 2, null), second);
+    this.factory.endTransaction(SampleBean.class, first);
+    try {
+      this.factory.endTransaction(SampleBean.class, second);
+      fail("Both transactions changed the bean.");
+    } catch(ConcurrentBeanChangeException e) {
+      // expected
+    }
+    assertEquals("first", this.store.getBean(bean.getId()).getName());
+    assertFalse("none of the failed transaction's writes are committed", this.store.hasBean(other.getId()));
+  }
+
+  @Test
+  public void disjointTransactionsBothCommit() {
+    SampleBean a = this.store.createOrUpdateBean(new SampleBean("a", 1, null), null);
+    SampleBean b = this.store.createOrUpdateBean(new SampleBean("b", 1, null), null);
+    BeanStoreTransaction first = this.factory.beginTransaction(SampleBean.class, "first");
+    BeanStoreTransaction second = this.factory.beginTransaction(SampleBean.class, "second");
+    a.setName("aa");
+    this.store.createOrUpdateBean(a, first);
+    b.setName("bb");
+    this.store.createOrUpdateBean(b, second);
+    this.factory.endTransaction(SampleBean.class, second);
+    this.factory.endTransaction(SampleBean.class, first);
+    assertEquals("aa", this.store.getBean(a.getId()).getName());
+    assertEquals("bb", this.store.getBean(b.getId()).getName());
+  }
+
+  @Test
+  public void rollbackOnlyTransactionCommitsNothing() {
+    BeanStoreTransaction transaction = this.factory.beginTransaction(SampleBean.class, "rollback");
+    this.store.createOrUpdateBean(new SampleBean("a", 1, null), transaction);
+    transaction.setRollbackOnly();
+    this.factory.endTransaction(SampleBean.class, transaction);
+    assertEquals(0, this.store.getAllMatchingBeans(NONE).getItems().size());
+  }
+
+  @Test
+  public void unitOfWorkReadsItsOwnWrites() {
+    SampleBean a = this.store.createOrUpdateBean(new SampleBean("a", 1, null), null);
+    BeanStoreUnitOfWork.open(this.factory, "request");
+    try {
+      BeanStoreTransaction transaction = BeanStoreUnitOfWork.join(this.factory, SampleBean.class);
+      SampleBean b = this.store.createOrUpdateBean(new SampleBean("b", 1, null), transaction);
+      this.store.deleteBean(a.getId(), transaction);
+      assertTrue(this.store.hasBean(b.getId()));
+      assertFalse(this.store.hasBean(a.getId()));
+      assertEquals("b", this.store.getBean(b.getId()).getName());
+      assertEquals(1, this.store.getAllMatchingBeans(Collections.singletonMap("size", "1")).getItems().size());
+    } finally {
+      BeanStoreUnitOfWork.close();
+    }
+    assertEquals(1, this.store.getAllMatchingBeans(NONE).getItems().size());
+    assertFalse(this.store.hasBean(a.getId()));
+  }
+
+  @Test
+  public void openStreamKeepsItsSnapshot() {
+    for(int idx = 0; idx < 100; idx++) {
+      this.store.createOrUpdateBean(new SampleBean("n" + idx, 1, null), null);
+    }
+    int seen = 0;
+    try(BeanIterator<SampleBean> beans = this.store.streamMatchingBeans(NONE)) {
+      for(SampleBean bean : this.store.getAllMatchingBeans(NONE).getItems()) {
+        this.store.deleteBean(bean.getId(), null);
+      }
+      while(beans.hasNext()) {
+        beans.next();
+        seen++;
+      }
+    }
+    assertEquals(100, seen);
+    assertEquals(0, this.store.getAllMatchingBeans(NONE).getItems().size());
+  }
+}
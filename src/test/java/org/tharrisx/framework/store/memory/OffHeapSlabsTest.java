@@ -0,0 +1,68 @@
+package org.tharrisx.framework.store.memory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Blocks round trip through the slabs, and freed blocks are reused before the slabs grow.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class OffHeapSlabsTest {
+
+  private static byte[] payload(final int length, final int seed) {
+    byte[] ret = new byte[length];
+    for(int idx = 0; idx < length; idx++) {
+      ret[idx] = (byte) (seed + idx);
+    }
+    return ret;
+  }
+
+  @Test
+  public void roundTripsPayloadsAndFlags() {
+    OffHeapSlabs slabs = new OffHeapSlabs(4096);
+    long[] handles = new long[200];
+    for(int idx = 0; idx < handles.length; idx++) {
+      handles[idx] = slabs.allocate(payload(idx * 7, idx), (byte) (idx % 3));
+    }
+    for(int idx = 0; idx < handles.length; idx++) {
+      assertArrayEquals(payload(idx * 7, idx), slabs.read(handles[idx]));
+      assertEquals((byte) (idx % 3), slabs.readFlags(handles[idx]));
+    }
+  }
+
+  @Test
+  public void reusesFreedBlocks() {
+    OffHeapSlabs slabs = new OffHeapSlabs(4096);
+    long[] handles = new long[500];
+    for(int idx = 0; idx < handles.length; idx++) {
+      handles[idx] = slabs.allocate(payload(100, idx), (byte) 0);
+    }
+    long allocated = slabs.getAllocatedBytes();
+    long reserved = slabs.getReservedBytes();
+    for(long handle : handles) {
+      slabs.free(handle);
+    }
+    assertEquals(0L, slabs.getAllocatedBytes());
+    long[] again = new long[handles.length];
+    for(int idx = 0; idx < again.length; idx++) {
+      again[idx] = slabs.allocate(payload(90, -idx), (byte) 1);
+    }
+    assertEquals(allocated, slabs.getAllocatedBytes());
+    assertEquals("no slab added while freed blocks of the size were left", reserved, slabs.getReservedBytes());
+    Arrays.sort(handles);
+    Arrays.sort(again);
+    assertArrayEquals(handles, again);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void refusesABlockBiggerThanASlab() {
+    new OffHeapSlabs(4096).allocate(new byte[4096], (byte) 0);
+  }
+}
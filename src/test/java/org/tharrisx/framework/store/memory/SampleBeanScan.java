@@ -0,0 +1,95 @@
+package org.tharrisx.framework.store.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.tharrisx.framework.store.SampleBean;
+
+/**
+ * The plain scan the MemoryBeanStore tests check its indexes, plans and scans against: every bean tested in
+ * turn, and the matches fully sorted, the way MemoryBeanComparator orders them.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+final class SampleBeanScan {
+
+  private SampleBeanScan() {
+    // statics only
+  }
+
+  static Comparable<?> getValue(final SampleBean bean, final String propertyName) {
+    switch(propertyName) {
+      case "name":
+        return bean.getName();
+      case "size":
+        return Integer.valueOf(bean.getSize());
+      case "weight":
+        return bean.getWeight();
+      default:
+        throw new IllegalArgumentException(propertyName);
+    }
+  }
+
+  /**
+   * @param beans List<SampleBean>
+   * @param propertyValues Map<String, String>
+   * @return List<SampleBean> the beans whose properties all equal the values, in the same order
+   */
+  static List<SampleBean> match(final List<SampleBean> beans, final Map<String, String> propertyValues) {
+    List<SampleBean> ret = new ArrayList<>();
+    for(SampleBean bean : beans) {
+      boolean matches = true;
+      for(Map.Entry<String, String> propertyValue : propertyValues.entrySet()) {
+        Object value = getValue(bean, propertyValue.getKey());
+        matches &= null != value && value.toString().equals(propertyValue.getValue());
+      }
+      if(matches) ret.add(bean);
+    }
+    return ret;
+  }
+
+  /**
+   * @param beans List<SampleBean>
+   * @param sortBy String comma separated
+   * @param sortDirection String comma separated
+   * @return List<SampleBean> sorted: nulls first ascending, and bean id breaking ties
+   */
+  static List<SampleBean> sort(final List<SampleBean> beans, final String sortBy, final String sortDirection) {
+    final String[] sortFields = "".equals(sortBy) ? new String[0] : sortBy.split(",");
+    final String[] sortOrders = sortDirection.split(",");
+    List<SampleBean> ret = new ArrayList<>(beans);
+    Collections.sort(ret, new Comparator<SampleBean>() {
+
+      @Override
+      @SuppressWarnings({ "rawtypes", "unchecked" })
+      public int compare(final SampleBean o1, final SampleBean o2) {
+        int ret1 = 0;
+        for(int idx = 0; idx < sortFields.length && 0 == ret1; idx++) {
+          Comparable v1 = getValue(o1, sortFields[idx]);
+          Comparable v2 = getValue(o2, sortFields[idx]);
+          ret1 = v1 == v2 ? 0 : null == v1 ? -1 : null == v2 ? 1 : v1.compareTo(v2);
+          if(sortOrders[idx].startsWith("desc")) ret1 = -ret1;
+        }
+        return 0 == ret1 ? o1.getId().compareTo(o2.getId()) : ret1;
+      }
+    });
+    return ret;
+  }
+
+  /**
+   * @param beans List<SampleBean>
+   * @return List<String> their ids, in the same order
+   */
+  static List<String> ids(final List<SampleBean> beans) {
+    List<String> ret = new ArrayList<>();
+    for(SampleBean bean : beans) {
+      ret.add(bean.getId());
+    }
+    return ret;
+  }
+}
@@ -0,0 +1,53 @@
+package org.tharrisx.framework.store.sharded;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Test;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.core.BeanStoreStackInfo;
+
+/**
+ * Pages are merged in the order the shards sort strings in: String's own by default, or the one the factory
+ * is given, such as a case insensitive collation's.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class ShardedBeanComparatorTest {
+
+  private static List<String> sortedNames(final String sortDirection, final Comparator<? super String> stringOrder) {
+    List<SampleBean> beans = new ArrayList<>();
+    String[] names = new String[] { "b", "A", null, "a", "B", "c" };
+    for(int idx = 0; idx < names.length; idx++) {
+      SampleBean bean = new SampleBean(names[idx], idx, null);
+      bean.setId("0" + idx);
+      beans.add(bean);
+    }
+    Collections.sort(beans, new ShardedBeanComparator<SampleBean>(new BeanStoreStackInfo(SampleBean.class, null, "sort"), "name", sortDirection, stringOrder));
+    List<String> ret = new ArrayList<>();
+    for(SampleBean bean : beans) {
+      ret.add(bean.getName());
+    }
+    return ret;
+  }
+
+  @Test
+  public void mergesInStringsOwnOrderByDefault() {
+    assertEquals(Arrays.asList(null, "A", "B", "a", "b", "c"), sortedNames("ascending", null));
+    assertEquals(Arrays.asList("c", "b", "a", "B", "A", null), sortedNames("descending", null));
+  }
+
+  @Test
+  public void mergesInTheShardsStringOrder() {
+    // equal names are ordered by bean id, ascending either way, as they are in the shards
+    assertEquals(Arrays.asList(null, "A", "a", "b", "B", "c"), sortedNames("ascending", String.CASE_INSENSITIVE_ORDER));
+    assertEquals(Arrays.asList("c", "b", "B", "A", "a", null), sortedNames("descending", String.CASE_INSENSITIVE_ORDER));
+  }
+}
@@ -0,0 +1,171 @@
+package org.tharrisx.framework.store.sharded;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tharrisx.framework.bean.PageableBeanList;
+import org.tharrisx.framework.store.BeanStore;
+import org.tharrisx.framework.store.BeanStoreTransaction;
+import org.tharrisx.framework.store.SampleBean;
+import org.tharrisx.framework.store.StorableBean;
+import org.tharrisx.framework.store.memory.MemoryBeanStoreFactory;
+
+/**
+ * A ShardedBeanStore over memory shards: beans are spread among the shards and found by their ids, and
+ * scatter-gather reads merge to what one unsharded store holding the same beans returns.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class ShardedBeanStoreTest {
+
+  private static final int SHARD_COUNT = 3;
+
+  private static final Map<String, String> NONE = Collections.emptyMap();
+
+  private final List<MemoryBeanStoreFactory> shards = new ArrayList<>();
+
+  private ShardedBeanStoreFactory factory = null;
+
+  private BeanStore<SampleBean> store = null;
+
+  private MemoryBeanStoreFactory referenceFactory = null;
+
+  private BeanStore<SampleBean> reference = null;
+
+  private static List<Class<? extends StorableBean>> types() {
+    List<Class<? extends StorableBean>> ret = new ArrayList<>();
+    ret.add(SampleBean.class);
+    return ret;
+  }
+
+  @Before
+  public void setUp() {
+    for(int idx = 0; idx < SHARD_COUNT; idx++) {
+      this.shards.add(new MemoryBeanStoreFactory(types()));
+    }
+    this.factory = new ShardedBeanStoreFactory(types(), this.shards);
+    this.store = this.factory.getBeanStore(SampleBean.class);
+    this.referenceFactory = new MemoryBeanStoreFactory(types());
+    this.reference = this.referenceFactory.getBeanStore(SampleBean.class);
+  }
+
+  @After
+  public void tearDown() {
+    this.factory.close();
+    for(MemoryBeanStoreFactory shard : this.shards) {
+      shard.close();
+    }
+    this.referenceFactory.close();
+  }
+
+  private static List<String> ids(final List<SampleBean> beans) {
+    List<String> ret = new ArrayList<>();
+    for(SampleBean bean : beans) {
+      ret.add(bean.getId());
+    }
+    return ret;
+  }
+
+  /**
+   * Store beans in the sharded store, and copies under the same ids in the reference store.
+   */
+  private List<SampleBean> storeBeans(final int count) {
+    List<SampleBean> beans = new ArrayList<>();
+    for(int idx = 0; idx < count; idx++) {
+      beans.add(new SampleBean(0 == idx % 9 ? null : "n" + idx % 7, idx, 0 == idx % 5 ? null : Integer.valueOf(idx % 4)));
+    }
+    List<SampleBean> ret = this.store.createOrUpdateBeans(beans, null);
+    for(SampleBean bean : ret) {
+      SampleBean copy = new SampleBean(bean.getName(), bean.getSize(), bean.getWeight());
+      copy.setId(bean.getId());
+      this.reference.createOrUpdateBean(copy, null);
+    }
+    return ret;
+  }
+
+  @Test
+  public void spreadsNewBeansAmongTheShards() {
+    List<SampleBean> beans = storeBeans(30);
+    for(SampleBean bean : beans) {
+      int shardIndex = this.factory.getShardIndex(bean.getId());
+      assertTrue(0 <= shardIndex && SHARD_COUNT > shardIndex);
+      assertTrue(this.shards.get(shardIndex).getBeanStore(SampleBean.class).hasBean(bean.getId()));
+    }
+    for(MemoryBeanStoreFactory shard : this.shards) {
+      assertEquals(30 / SHARD_COUNT, shard.getBeanStore(SampleBean.class).getAllMatchingBeans(NONE).getItems().size());
+    }
+    assertEquals(-1, this.factory.getShardIndex("ff0001"));
+    assertEquals(-1, this.factory.getShardIndex(null));
+  }
+
+  @Test
+  public void routesCallsOnOneBeanToItsShard() {
+    List<SampleBean> beans = storeBeans(10);
+    SampleBean bean = beans.get(4);
+    assertEquals(bean.getName(), this.store.getBean(bean.getId()).getName());
+    bean.setName("changed");
+    this.store.createOrUpdateBean(bean, null);
+    assertEquals("changed", this.shards.get(this.factory.getShardIndex(bean.getId())).getBeanStore(SampleBean.class).getBean(bean.getId()).getName());
+    assertTrue(this.store.deleteBean(bean.getId(), null));
+    assertFalse(this.store.hasBean(bean.getId()));
+    assertFalse(this.store.hasBean("ff0001"));
+    assertEquals(2, this.store.getBeans(Arrays.asList(beans.get(1).getId(), "ff0001", bean.getId(), beans.get(2).getId())).getItems().size());
+    assertEquals(8, this.store.deleteBeans(ids(beans.subList(0, 9)), null));
+  }
+
+  @Test
+  public void mergesPagesInTheOrderOfOneStore() {
+    storeBeans(200);
+    Map<String, String> match = Collections.singletonMap("weight", "2");
+    String[][] sorts = new String[][] { { "name,size", "ascending,descending" }, { "weight", "descending" }, { "name", "descending" }, { "", "" } };
+    for(String[] sort : sorts) {
+      for(int start = 0; start < 200; start += 37) {
+        PageableBeanList<SampleBean> expected = this.reference.getPageOfMatchingBeans(start, start + 24, sort[0], sort[1], NONE);
+        PageableBeanList<SampleBean> page = this.store.getPageOfMatchingBeans(start, start + 24, sort[0], sort[1], NONE);
+        assertEquals(sort[0] + " from " + start, ids(expected.getItems()), ids(page.getItems()));
+        assertEquals(200, page.getTotalCount());
+      }
+      assertEquals(ids(this.reference.getPageOfMatchingBeans(0, 199, sort[0], sort[1], match).getItems()), ids(this.store.getPageOfMatchingBeans(0, 199, sort[0], sort[1], match).getItems()));
+    }
+  }
+
+  @Test
+  public void walksKeysetPagesInTheOrderOfOneStore() {
+    storeBeans(200);
+    List<String> expected = ids(this.reference.getPageOfMatchingBeans(0, 199, "name,size", "ascending,descending", NONE).getItems());
+    List<String> walked = new ArrayList<>();
+    String cursor = "";
+    do {
+      PageableBeanList<SampleBean> page = this.store.getPageOfMatchingBeansAfter(cursor, 17, "name,size", "ascending,descending", NONE, null);
+      walked.addAll(ids(page.getItems()));
+      cursor = page.getNext();
+    } while(!"".equals(cursor));
+    assertEquals(expected, walked);
+  }
+
+  @Test
+  public void rollsBackEveryShardWritten() {
+    storeBeans(6);
+    BeanStoreTransaction transaction = this.factory.beginTransaction(SampleBean.class, "write");
+    this.store.createOrUpdateBeans(Arrays.asList(new SampleBean("a", 1, null), new SampleBean("b", 2, null), new SampleBean("c", 3, null)), transaction);
+    transaction.setRollbackOnly();
+    this.factory.endTransaction(SampleBean.class, transaction);
+    assertEquals(6, this.store.getAllMatchingBeans(NONE).getItems().size());
+    transaction = this.factory.beginTransaction(SampleBean.class, "write");
+    this.store.createOrUpdateBeans(Arrays.asList(new SampleBean("a", 1, null), new SampleBean("b", 2, null), new SampleBean("c", 3, null)), transaction);
+    this.factory.endTransaction(SampleBean.class, transaction);
+    assertEquals(9, this.store.getAllMatchingBeans(NONE).getItems().size());
+  }
+}
@@ -0,0 +1,98 @@
+package org.tharrisx.util.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * The compiled field accessors: reads and writes, inherited and hidden fields, final fields, and ordering.
+ *
+ * @author tharrisx
+ * @since 1.0.0
+ * @version 1.0.0
+ */
+public class BeanAccessorRegistryTest {
+
+  public static class Base {
+    private String label = "base";
+    private long count = 0L;
+    private static int shared = 0;
+  }
+
+  public static class Derived extends Base {
+    private String label = "derived";
+    private final int fixed = 7;
+    private int[] values = null;
+  }
+
+  @Test
+  public void readsAndWritesInheritedAndPrimitiveFields() throws Exception {
+    Derived bean = new Derived();
+    BeanAccessor count = BeanAccessorRegistry.get().getAccessor(Derived.class, "count");
+    assertEquals(Base.class, count.getDeclaringClass());
+    assertEquals(long.class, count.getType());
+    count.set(bean, Long.valueOf(42L));
+    assertEquals(Long.valueOf(42L), count.get(bean));
+    BeanAccessor values = BeanAccessorRegistry.get().getAccessor(Derived.class, "values");
+    int[] array = new int[] { 1, 2 };
+    values.set(bean, array);
+    assertSame(array, values.get(bean));
+    values.set(bean, null);
+    assertNull(values.get(bean));
+  }
+
+  @Test
+  public void subclassFieldHidesSuperclassField() throws Exception {
+    BeanAccessor label = BeanAccessorRegistry.get().getAccessor(Derived.class, "label");
+    assertEquals(Derived.class, label.getDeclaringClass());
+    assertEquals("derived", label.get(new Derived()));
+    assertEquals("base", BeanAccessorRegistry.get().getAccessor(Base.class, "label").get(new Derived()));
+  }
+
+  @Test
+  public void skipsStaticFieldsAndCachesByType() {
+    Map<String, BeanAccessor> accessors = BeanAccessorRegistry.get().getAccessors(Derived.class);
+    assertFalse(accessors.containsKey("shared"));
+    assertTrue(accessors.containsKey("count"));
+    assertSame(accessors, BeanAccessorRegistry.get().getAccessors(Derived.class));
+  }
+
+  @Test(expected = NoSuchFieldException.class)
+  public void unknownFieldIsNotFound() throws Exception {
+    BeanAccessorRegistry.get().getAccessor(Derived.class, "missing");
+  }
+
+  @Test(expected = ReflectionException.class)
+  public void finalFieldIsReadOnly() throws Exception {
+    BeanAccessor fixed = BeanAccessorRegistry.get().getAccessor(Derived.class, "fixed");
+    assertFalse(fixed.isWritable());
+    assertEquals(Integer.valueOf(7), fixed.get(new Derived()));
+    fixed.set(new Derived(), Integer.valueOf(8));
+  }
+
+  @Test(expected = ReflectionException.class)
+  public void wrongValueTypeIsRefused() throws Exception {
+    BeanAccessorRegistry.get().getAccessor(Derived.class, "count").set(new Derived(), "not a long");
+  }
+
+  @Test
+  public void comparesBeansNullsFirst() throws Exception {
+    BeanAccessor label = BeanAccessorRegistry.get().getAccessor(Derived.class, "label");
+    Derived none = new Derived();
+    label.set(none, null);
+    Derived a = new Derived();
+    label.set(a, "a");
+    Derived b = new Derived();
+    label.set(b, "b");
+    assertTrue(0 > label.getBeanComparator().compare(none, a));
+    assertTrue(0 > label.getBeanComparator().compare(a, b));
+    assertEquals(0, label.getBeanComparator().compare(b, b));
+    assertFalse(BeanAccessorRegistry.get().getAccessor(Derived.class, "values").isComparable());
+  }
+}